@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * The apply family ({@code Lapply}, {@code VApply}) with small closures.
+ */
+public class ApplyBenchmark extends RBenchmarkBase {
+
+    @Param({"1000", "100000"}) public int size;
+
+    private Value lapplyInt;
+    private Value vapplyDouble;
+    private Value sapplyInt;
+    private Value mapplyInt;
+    private Value lapplyList;
+
+    @Override
+    protected String setupCode() {
+        return "n <- " + size + "L; x <- seq_len(n); l <- lapply(x, function(i) c(i, i + 1))\n" +
+                        "lapplyInt <- function() lapply(x, function(e) e + 1L)\n" +
+                        "vapplyDouble <- function() vapply(x, function(e) e * 2, numeric(1))\n" +
+                        "sapplyInt <- function() sapply(x, function(e) e %% 7L)\n" +
+                        "mapplyInt <- function() mapply(function(a, b) a + b, x, x)\n" +
+                        "lapplyList <- function() lapply(l, sum)\n";
+    }
+
+    @Override
+    protected void initialize() {
+        lapplyInt = eval("lapplyInt");
+        vapplyDouble = eval("vapplyDouble");
+        sapplyInt = eval("sapplyInt");
+        mapplyInt = eval("mapplyInt");
+        lapplyList = eval("lapplyList");
+    }
+
+    @Benchmark
+    public Value lapplyInt() {
+        return lapplyInt.execute();
+    }
+
+    @Benchmark
+    public Value vapplyDouble() {
+        return vapplyDouble.execute();
+    }
+
+    @Benchmark
+    public Value sapplyInt() {
+        return sapplyInt.execute();
+    }
+
+    @Benchmark
+    public Value mapplyInt() {
+        return mapplyInt.execute();
+    }
+
+    @Benchmark
+    public Value lapplyList() {
+        return lapplyList.execute();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Function calls: S3 dispatch ({@code UseMethod}, {@code NextMethod}) and calls that create many
+ * promises (default arguments, lazily evaluated and unused arguments, {@code ...}).
+ */
+public class CallBenchmark extends RBenchmarkBase {
+
+    private Value s3Dispatch;
+    private Value s3NextMethod;
+    private Value s3Operator;
+    private Value promises;
+    private Value varargs;
+    private Value recursion;
+
+    @Override
+    protected String setupCode() {
+        return "shapes <- lapply(1:1000, function(i) structure(list(size = i), class = if (i %% 2L) c('square', 'shape') else c('circle', 'shape')))\n" +
+                        "area <- function(s, ...) UseMethod('area')\n" +
+                        "area.square <- function(s, ...) s$size^2\n" +
+                        "area.circle <- function(s, ...) pi * s$size^2\n" +
+                        "describe <- function(s) UseMethod('describe')\n" +
+                        "describe.shape <- function(s) s$size\n" +
+                        "describe.square <- function(s) NextMethod() + 1\n" +
+                        "describe.circle <- function(s) NextMethod() - 1\n" +
+                        "money <- structure(1, class = 'money')\n" +
+                        "Ops.money <- function(e1, e2) structure(unclass(e1) + unclass(e2), class = 'money')\n" +
+                        "s3Dispatch <- function() { s <- 0; for (x in shapes) s <- s + area(x); s }\n" +
+                        "s3NextMethod <- function() { s <- 0; for (x in shapes) s <- s + describe(x); s }\n" +
+                        "s3Operator <- function() { m <- money; for (i in 1:1000) m <- m + money; m }\n" +
+                        "pick <- function(cond, a, b = stop('unused'), scale = 2 * a) if (cond) a * scale else b\n" +
+                        "promises <- function() { s <- 0; for (i in 1:10000) s <- s + pick(i > 0, i + 1, i - 1); s }\n" +
+                        "inner <- function(a, b, ...) a + b + length(list(...))\n" +
+                        "passDots <- function(...) inner(...)\n" +
+                        "varargs <- function() { s <- 0; for (i in 1:10000) s <- s + passDots(i, b = 2, 3, 4); s }\n" +
+                        "fib <- function(n) if (n < 2L) n else fib(n - 1L) + fib(n - 2L)\n" +
+                        "recursion <- function() fib(20L)\n";
+    }
+
+    @Override
+    protected void initialize() {
+        s3Dispatch = eval("s3Dispatch");
+        s3NextMethod = eval("s3NextMethod");
+        s3Operator = eval("s3Operator");
+        promises = eval("promises");
+        varargs = eval("varargs");
+        recursion = eval("recursion");
+    }
+
+    @Benchmark
+    public Value s3Dispatch() {
+        return s3Dispatch.execute();
+    }
+
+    @Benchmark
+    public Value s3NextMethod() {
+        return s3NextMethod.execute();
+    }
+
+    @Benchmark
+    public Value s3Operator() {
+        return s3Operator.execute();
+    }
+
+    @Benchmark
+    public Value promises() {
+        return promises.execute();
+    }
+
+    @Benchmark
+    public Value varargs() {
+        return varargs.execute();
+    }
+
+    @Benchmark
+    public Value recursion() {
+        return recursion.execute();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Round trips of vectors through a channel to a child context that sends them back. Attribute-free
+ * atomic vectors are passed by reference, lists and vectors with attributes are serialized.
+ */
+public class ChannelBenchmark extends RBenchmarkBase {
+
+    @Param({"1000", "1000000"}) public int size;
+
+    private Value roundTripVector;
+    private Value roundTripList;
+    private Value roundTripAttributes;
+
+    @Override
+    protected String setupCode() {
+        return "n <- " + size + "L; v <- runif(n); l <- list(a = v[1:10], b = 'x'); m <- matrix(v, 10)\n" +
+                        "ch <- .fastr.channel.create(1L)\n" +
+                        "cx <- .fastr.context.spawn('ch <- .fastr.channel.get(1L); repeat { x <- .fastr.channel.receive(ch); .fastr.channel.send(ch, x); if (is.null(x)) break }')\n" +
+                        "roundTrip <- function(x) { .fastr.channel.send(ch, x); .fastr.channel.receive(ch) }\n" +
+                        "roundTripVector <- function() roundTrip(v)\n" +
+                        "roundTripList <- function() roundTrip(l)\n" +
+                        "roundTripAttributes <- function() roundTrip(m)\n";
+    }
+
+    @Override
+    protected void initialize() {
+        roundTripVector = eval("roundTripVector");
+        roundTripList = eval("roundTripList");
+        roundTripAttributes = eval("roundTripAttributes");
+    }
+
+    @Override
+    protected void dispose() {
+        eval("roundTrip(NULL); .fastr.context.join(cx); .fastr.channel.close(ch)");
+    }
+
+    @Benchmark
+    public Value roundTripVector() {
+        return roundTripVector.execute();
+    }
+
+    @Benchmark
+    public Value roundTripList() {
+        return roundTripList.execute();
+    }
+
+    @Benchmark
+    public Value roundTripAttributes() {
+        return roundTripAttributes.execute();
+    }
+}
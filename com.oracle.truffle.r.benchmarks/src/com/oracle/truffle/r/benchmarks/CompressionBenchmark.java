@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@code save} and {@code load} with the supported compression formats. Each
+ * invocation writes about 12MB of serialized data.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CompressionBenchmark extends RBenchmarkBase {
+
+    @Param({"gzip", "bzip2", "xz"}) public String compress;
+
+    private Value save;
+    private Value load;
+
+    @Override
+    protected String setupCode() {
+        return "set.seed(42); data <- list(d = round(runif(1e6), 3), i = sample.int(100L, 1e6, replace = TRUE), s = sample(state.name, 1e5, replace = TRUE))\n" +
+                        "saved <- tempfile(fileext = '.RData'); save(data, file = saved, compress = '" + compress + "')\n" +
+                        "out <- tempfile(fileext = '.RData')\n" +
+                        "saveData <- function() save(data, file = out, compress = '" + compress + "')\n" +
+                        "loadData <- function() { e <- new.env(); load(saved, envir = e); e$data }\n";
+    }
+
+    @Override
+    protected void initialize() {
+        save = eval("saveData");
+        load = eval("loadData");
+    }
+
+    @Override
+    protected void dispose() {
+        eval("unlink(c(saved, out))");
+    }
+
+    @Benchmark
+    public Value save() {
+        return save.execute();
+    }
+
+    @Benchmark
+    public Value load() {
+        return load.execute();
+    }
+}
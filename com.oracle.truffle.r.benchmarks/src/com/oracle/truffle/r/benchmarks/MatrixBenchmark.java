@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Matrix products ({@code MatMult}) of square matrices. The {@code threads} parameter sets the
+ * {@code MatMultThreads} option, {@code 1} measures the sequential kernel and {@code 0} uses all
+ * available processors.
+ */
+public class MatrixBenchmark extends RBenchmarkBase {
+
+    @Param({"16", "256", "1024", "2048"}) public int size;
+    @Param({"1", "0"}) public String threads;
+
+    private Value multiply;
+    private Value multiplyVector;
+    private Value crossprodMatrix;
+
+    @Override
+    protected void configure(Context.Builder builder) {
+        builder.option("R.MatMultThreads", threads);
+    }
+
+    @Override
+    protected String setupCode() {
+        return "set.seed(42); n <- " + size + "L\n" +
+                        "a <- matrix(runif(n * n), n); b <- matrix(runif(n * n), n); v <- runif(n)\n" +
+                        "multiply <- function() a %*% b\n" +
+                        "multiplyVector <- function() a %*% v\n" +
+                        "crossprodMatrix <- function() crossprod(a, b)\n";
+    }
+
+    @Override
+    protected void initialize() {
+        multiply = eval("multiply");
+        multiplyVector = eval("multiplyVector");
+        crossprodMatrix = eval("crossprodMatrix");
+    }
+
+    @Benchmark
+    public Value multiply() {
+        return multiply.execute();
+    }
+
+    @Benchmark
+    public Value multiplyVector() {
+        return multiplyVector.execute();
+    }
+
+    @Benchmark
+    public Value crossprodMatrix() {
+        return crossprodMatrix.execute();
+    }
+}
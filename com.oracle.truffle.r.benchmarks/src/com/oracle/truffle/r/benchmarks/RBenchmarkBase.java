@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Common setup of the FastR benchmarks, which are driven through the polyglot API. Every trial
+ * creates a new context, evaluates the R code given by {@link #setupCode()} and then repeatedly
+ * calls R functions defined by it. The R functions should not take arguments, so that only the
+ * measured operation is executed and not the conversion of arguments.
+ *
+ * The warmup is long enough for the benchmarked functions to be compiled, which can be verified
+ * with {@code -Dgraal.TraceTruffleCompilation=true}. Use {@code mx r-jmh} to run the benchmarks
+ * and to compare the results with a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class RBenchmarkBase {
+
+    private Context context;
+
+    @Setup(Level.Trial)
+    public final void setupContext() {
+        Context.Builder builder = Context.newBuilder("R").allowAllAccess(true);
+        configure(builder);
+        context = builder.build();
+        context.eval(Source.create("R", setupCode()));
+        initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public final void tearDownContext() {
+        dispose();
+        context.close();
+    }
+
+    /**
+     * Called before the context is created, e.g., to set options that depend on the
+     * {@code @Param} fields.
+     */
+    protected void configure(@SuppressWarnings("unused") Context.Builder builder) {
+        // nothing by default
+    }
+
+    /**
+     * The R code evaluated before the benchmark, it may depend on the {@code @Param} fields.
+     */
+    protected abstract String setupCode();
+
+    /**
+     * Called after {@link #setupCode()} was evaluated, typically looks up the benchmarked
+     * functions.
+     */
+    protected abstract void initialize();
+
+    /**
+     * Called before the context is closed.
+     */
+    protected void dispose() {
+        // nothing by default
+    }
+
+    protected final Value eval(String code) {
+        return context.eval("R", code);
+    }
+}
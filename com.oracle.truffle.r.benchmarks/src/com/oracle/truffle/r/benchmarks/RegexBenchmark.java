@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Regular expression functions called repeatedly with the same patterns, which exercises the
+ * per-context cache of compiled patterns.
+ */
+public class RegexBenchmark extends RBenchmarkBase {
+
+    private Value greplLoop;
+    private Value greplVector;
+    private Value gsubVector;
+    private Value gsubPerl;
+    private Value gsubFixed;
+
+    @Override
+    protected String setupCode() {
+        return "set.seed(42); words <- paste0(sample(letters, 10000, replace = TRUE), sample(c('foo', 'bar', 'baz'), 10000, replace = TRUE), 1:10000)\n" +
+                        "greplLoop <- function() { s <- 0L; for (w in words[1:1000]) s <- s + grepl('^[a-m]ba[rz]', w); s }\n" +
+                        "greplVector <- function() sum(grepl('o{2}[0-9]+$', words))\n" +
+                        "gsubVector <- function() gsub('([a-z])(ba)', '\\\\2\\\\1', words)\n" +
+                        "gsubPerl <- function() gsub('(?<=foo)\\\\d+', '#', words, perl = TRUE)\n" +
+                        "gsubFixed <- function() gsub('baz', 'qux', words, fixed = TRUE)\n";
+    }
+
+    @Override
+    protected void initialize() {
+        greplLoop = eval("greplLoop");
+        greplVector = eval("greplVector");
+        gsubVector = eval("gsubVector");
+        gsubPerl = eval("gsubPerl");
+        gsubFixed = eval("gsubFixed");
+    }
+
+    @Benchmark
+    public Value greplLoop() {
+        return greplLoop.execute();
+    }
+
+    @Benchmark
+    public Value greplVector() {
+        return greplVector.execute();
+    }
+
+    @Benchmark
+    public Value gsubVector() {
+        return gsubVector.execute();
+    }
+
+    @Benchmark
+    public Value gsubPerl() {
+        return gsubPerl.execute();
+    }
+
+    @Benchmark
+    public Value gsubFixed() {
+        return gsubFixed.execute();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Sorting ({@code Order}, {@code sort}) and hashing ({@code unique}, {@code match},
+ * {@code %in%}).
+ */
+public class SortBenchmark extends RBenchmarkBase {
+
+    @Param({"1000", "1000000"}) public int size;
+
+    private Value orderDouble;
+    private Value orderInt;
+    private Value orderString;
+    private Value orderMultiKey;
+    private Value sortDouble;
+    private Value uniqueInt;
+    private Value uniqueString;
+    private Value matchInt;
+    private Value matchString;
+    private Value inSet;
+
+    @Override
+    protected String setupCode() {
+        return "set.seed(42); n <- " + size + "L\n" +
+                        "d <- runif(n); i <- sample.int(n %/% 10L + 1L, n, replace = TRUE)\n" +
+                        "s <- paste0('k', i); table <- unique(i); stable <- unique(s)\n" +
+                        "orderDouble <- function() order(d)\n" +
+                        "orderInt <- function() order(i)\n" +
+                        "orderString <- function() order(s)\n" +
+                        "orderMultiKey <- function() order(i, d)\n" +
+                        "sortDouble <- function() sort(d)\n" +
+                        "uniqueInt <- function() unique(i)\n" +
+                        "uniqueString <- function() unique(s)\n" +
+                        "matchInt <- function() match(i, table)\n" +
+                        "matchString <- function() match(s, stable)\n" +
+                        "inSet <- function() sum(i %in% table[1:10])\n";
+    }
+
+    @Override
+    protected void initialize() {
+        orderDouble = eval("orderDouble");
+        orderInt = eval("orderInt");
+        orderString = eval("orderString");
+        orderMultiKey = eval("orderMultiKey");
+        sortDouble = eval("sortDouble");
+        uniqueInt = eval("uniqueInt");
+        uniqueString = eval("uniqueString");
+        matchInt = eval("matchInt");
+        matchString = eval("matchString");
+        inSet = eval("inSet");
+    }
+
+    @Benchmark
+    public Value orderDouble() {
+        return orderDouble.execute();
+    }
+
+    @Benchmark
+    public Value orderInt() {
+        return orderInt.execute();
+    }
+
+    @Benchmark
+    public Value orderString() {
+        return orderString.execute();
+    }
+
+    @Benchmark
+    public Value orderMultiKey() {
+        return orderMultiKey.execute();
+    }
+
+    @Benchmark
+    public Value sortDouble() {
+        return sortDouble.execute();
+    }
+
+    @Benchmark
+    public Value uniqueInt() {
+        return uniqueInt.execute();
+    }
+
+    @Benchmark
+    public Value uniqueString() {
+        return uniqueString.execute();
+    }
+
+    @Benchmark
+    public Value matchInt() {
+        return matchInt.execute();
+    }
+
+    @Benchmark
+    public Value matchString() {
+        return matchString.execute();
+    }
+
+    @Benchmark
+    public Value inSet() {
+        return inSet.execute();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Element-wise arithmetic ({@code BinaryMapNode}) and vector subsetting and updates
+ * ({@code ExtractVectorNode}, {@code ReplaceVectorNode}).
+ */
+public class VectorBenchmark extends RBenchmarkBase {
+
+    @Param({"1000", "1000000"}) public int size;
+
+    private Value add;
+    private Value scalarMultiply;
+    private Value intArithmetic;
+    private Value subsetIndex;
+    private Value subsetLogical;
+    private Value replaceIndex;
+    private Value elementLoop;
+
+    @Override
+    protected String setupCode() {
+        return "set.seed(42); n <- " + size + "L\n" +
+                        "x <- runif(n); y <- runif(n); ix <- sample.int(n); iy <- sample.int(n)\n" +
+                        "idx <- sample.int(n, n %/% 2L); sel <- x > 0.5\n" +
+                        "add <- function() x + y\n" +
+                        "scalarMultiply <- function() x * 2\n" +
+                        "intArithmetic <- function() (ix + iy) %/% 3L\n" +
+                        "subsetIndex <- function() x[idx]\n" +
+                        "subsetLogical <- function() x[sel]\n" +
+                        "replaceIndex <- function() { z <- x; z[idx] <- 0; z }\n" +
+                        "elementLoop <- function() { s <- 0; for (i in seq_len(1000L)) s <- s + x[[idx[[i %% length(idx) + 1L]]]]; s }\n";
+    }
+
+    @Override
+    protected void initialize() {
+        add = eval("add");
+        scalarMultiply = eval("scalarMultiply");
+        intArithmetic = eval("intArithmetic");
+        subsetIndex = eval("subsetIndex");
+        subsetLogical = eval("subsetLogical");
+        replaceIndex = eval("replaceIndex");
+        elementLoop = eval("elementLoop");
+    }
+
+    @Benchmark
+    public Value add() {
+        return add.execute();
+    }
+
+    @Benchmark
+    public Value scalarMultiply() {
+        return scalarMultiply.execute();
+    }
+
+    @Benchmark
+    public Value intArithmetic() {
+        return intArithmetic.execute();
+    }
+
+    @Benchmark
+    public Value subsetIndex() {
+        return subsetIndex.execute();
+    }
+
+    @Benchmark
+    public Value subsetLogical() {
+        return subsetLogical.execute();
+    }
+
+    @Benchmark
+    public Value replaceIndex() {
+        return replaceIndex.execute();
+    }
+
+    @Benchmark
+    public Value elementLoop() {
+        return elementLoop.execute();
+    }
+}
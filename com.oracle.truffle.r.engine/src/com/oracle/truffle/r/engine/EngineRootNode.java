@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,12 +22,17 @@
  */
 package com.oracle.truffle.r.engine;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleException;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.InstrumentableNode;
@@ -35,6 +40,7 @@ import com.oracle.truffle.api.instrumentation.ProbeNode;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.SourceSection;
@@ -58,8 +64,17 @@ class EngineRootNode extends RootNode {
     private final MaterializedFrame executionFrame;
     private final ContextReference<RContext> contextReference;
 
+    /**
+     * The descriptor of the global frame that the statements run in if there is no execution
+     * frame. The call target of a parsed source is shared by the contexts of the engine, but the
+     * nodes cache the slots and lookups of that global frame, so the other contexts run a copy of
+     * the statements, see {@link #executeCopy}.
+     */
+    @CompilationFinal private FrameDescriptor globalFrameDescriptor;
+
     @Child private EngineBodyNode bodyNode;
     @Child private R2Foreign r2Foreign = R2Foreign.create();
+    @Child private IndirectCallNode copyCall;
 
     EngineRootNode(EngineBodyNode bodyNode, RContext context, SourceSection sourceSection, MaterializedFrame executionFrame) {
         super(context.getLanguage());
@@ -81,7 +96,20 @@ class EngineRootNode extends RootNode {
      */
     @Override
     public Object execute(VirtualFrame frame) {
-        Object actualFrame = executionFrame != null ? executionFrame : contextReference.get().stateREnvironment.getGlobalFrame();
+        Object actualFrame;
+        if (executionFrame != null) {
+            actualFrame = executionFrame;
+        } else {
+            MaterializedFrame globalFrame = contextReference.get().stateREnvironment.getGlobalFrame();
+            if (globalFrameDescriptor == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                initializeGlobalFrameDescriptor(globalFrame.getFrameDescriptor());
+            }
+            if (globalFrame.getFrameDescriptor() != globalFrameDescriptor) {
+                return executeCopy();
+            }
+            actualFrame = globalFrame;
+        }
         try {
             return r2Foreign.convert(this.bodyNode.execute(actualFrame));
         } catch (ReturnException ex) {
@@ -100,6 +128,28 @@ class EngineRootNode extends RootNode {
         }
     }
 
+    private synchronized void initializeGlobalFrameDescriptor(FrameDescriptor descriptor) {
+        if (globalFrameDescriptor == null) {
+            globalFrameDescriptor = descriptor;
+        }
+    }
+
+    private Object executeCopy() {
+        if (copyCall == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            copyCall = insert(Truffle.getRuntime().createIndirectCallNode());
+        }
+        return copyCall.call(getCopy(contextReference.get()), new Object[0]);
+    }
+
+    @TruffleBoundary
+    private RootCallTarget getCopy(RContext context) {
+        return context.getCodeCopy(this, () -> {
+            EngineBodyNode body = bodyNode.copy((REngine) context.getThisEngine());
+            return Truffle.getRuntime().createCallTarget(new EngineRootNode(body, context, sourceSection, null));
+        });
+    }
+
     @Override
     public SourceSection getSourceSection() {
         return sourceSection;
@@ -129,6 +179,18 @@ class EngineRootNode extends RootNode {
             createNodes();
         }
 
+        /**
+         * Creates fresh nodes for the statements, which run in the global frame of the context of
+         * {@code newEngine}.
+         */
+        EngineBodyNode copy(REngine newEngine) {
+            List<RSyntaxNode> copies = new ArrayList<>(statements.size());
+            for (RSyntaxNode statement : statements) {
+                copies.add(RContext.getASTBuilder().process(statement));
+            }
+            return new EngineBodyNode(newEngine, copies, printResult);
+        }
+
         @ExplodeLoop
         Object execute(Object actualFrame) {
             Object lastValue = RNull.instance;
@@ -40,6 +40,7 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.FrameDescriptor;
@@ -48,6 +49,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.ExecutableNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.profiles.ValueProfile;
@@ -340,12 +342,16 @@ final class REngine implements Engine, Engine.Timings {
 
     @Override
     public CallTarget parseToCallTargetWithArguments(Source source, List<String> argumentNames) throws ParseException {
+        List<RSyntaxNode> statements = parseSource(source);
+        return Truffle.getRuntime().createCallTarget(createRootNodeWithArgs(statements, argumentNames));
+    }
+
+    private RootNodeWithArgs createRootNodeWithArgs(List<RSyntaxNode> statements, List<String> argumentNames) {
         // We create an artificial RFunction, whose body will be the the statement or statements
         // wrapped in a block node. The function will take the given arguments and will be executed
         // from an artificial RootNode via the RExplicitCallNode
 
         // Body
-        List<RSyntaxNode> statements = parseSource(source);
         RNode[] statementsAsNode = new RNode[statements.size()];
         for (int i = 0; i < statementsAsNode.length; i++) {
             statementsAsNode[i] = statements.get(i).asRNode();
@@ -377,30 +383,36 @@ final class REngine implements Engine, Engine.Timings {
         // Create RFunction
         FrameDescriptor descriptor = new FrameDescriptor();
         FrameSlotChangeMonitor.initializeFunctionFrameDescriptor("<as.function.default>", descriptor);
-        FrameSlotChangeMonitor.initializeEnclosingFrame(descriptor, REnvironment.globalEnv().getFrame());
-        TruffleRLanguage rLanguage = RContext.getInstance().getLanguage();
+        FrameSlotChangeMonitor.initializeEnclosingFrame(descriptor, getGlobalFrame());
+        TruffleRLanguage rLanguage = context.getLanguage();
         FunctionDefinitionNode rootNode = FunctionDefinitionNode.create(rLanguage, RSyntaxNode.INTERNAL, descriptor, null, saveArguments, (RSyntaxNode) body, formals, "from AsFunction",
                         null);
         RootCallTarget callTarget = Truffle.getRuntime().createCallTarget(rootNode);
         RFunction fun = RDataFactory.createFunction(RFunction.NO_NAME, RFunction.NO_NAME, callTarget, null, getGlobalFrame());
 
         // Create RootNode that uses RExplicitCallNode to invoke that function
-        RootNode root = new RootNodeWithArgs(rLanguage, fun, getGlobalFrame(), argumentNames.size());
-        return Truffle.getRuntime().createCallTarget(root);
+        return new RootNodeWithArgs(rLanguage, fun, getGlobalFrame(), statements, argumentNames);
     }
 
     private static final class RootNodeWithArgs extends RootNode {
         private final RFunction fun;
         private final MaterializedFrame globalEnv;
+        private final List<RSyntaxNode> statements;
+        private final List<String> argumentNames;
+        private final ContextReference<RContext> contextReference;
         @Child private RExplicitCallNode callNode = RExplicitCallNode.create();
         @Child private R2Foreign r2Foreign = R2Foreign.create();
+        @Child private IndirectCallNode copyCall;
         @Children private Foreign2R[] foreign2R;
 
-        RootNodeWithArgs(TruffleLanguage<?> language, RFunction fun, MaterializedFrame globalEnv, int argsCount) {
+        RootNodeWithArgs(TruffleLanguage<?> language, RFunction fun, MaterializedFrame globalEnv, List<RSyntaxNode> statements, List<String> argumentNames) {
             super(language);
             this.fun = fun;
             this.globalEnv = globalEnv;
-            foreign2R = new Foreign2R[argsCount];
+            this.statements = statements;
+            this.argumentNames = argumentNames;
+            this.contextReference = lookupContextReference(TruffleRLanguage.class);
+            foreign2R = new Foreign2R[argumentNames.size()];
             for (int i = 0; i < foreign2R.length; i++) {
                 foreign2R[i] = Foreign2R.create();
             }
@@ -409,6 +421,16 @@ final class REngine implements Engine, Engine.Timings {
         @ExplodeLoop
         @Override
         public Object execute(VirtualFrame frame) {
+            RContext currentContext = contextReference.get();
+            if (currentContext.stateREnvironment.getGlobalFrame() != globalEnv) {
+                // the call target is shared by the contexts of the engine, but the function is
+                // enclosed by the global environment of the context that parsed the source
+                if (copyCall == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    copyCall = insert(Truffle.getRuntime().createIndirectCallNode());
+                }
+                return copyCall.call(getCopy(currentContext), frame.getArguments());
+            }
             ArgumentsSignature signature = ArgumentsSignature.empty(frame.getArguments().length);
             Object[] convertedArgs = new Object[foreign2R.length];
             for (int i = 0; i < foreign2R.length; i++) {
@@ -417,6 +439,18 @@ final class REngine implements Engine, Engine.Timings {
             RArgsValuesAndNames callArgs = new RArgsValuesAndNames(convertedArgs, signature);
             return r2Foreign.execute(callNode.execute(globalEnv, fun, callArgs, RCaller.topLevel, globalEnv), true);
         }
+
+        @TruffleBoundary
+        private RootCallTarget getCopy(RContext currentContext) {
+            return currentContext.getCodeCopy(this, () -> {
+                List<RSyntaxNode> copies = new ArrayList<>(statements.size());
+                for (RSyntaxNode statement : statements) {
+                    copies.add(RContext.getASTBuilder().process(statement));
+                }
+                REngine engine = (REngine) currentContext.getThisEngine();
+                return Truffle.getRuntime().createCallTarget(engine.createRootNodeWithArgs(copies, argumentNames));
+            });
+        }
     }
 
     @Override
@@ -64,6 +64,7 @@ import com.oracle.truffle.r.runtime.context.Engine.IncompleteSourceException;
 import com.oracle.truffle.r.runtime.context.Engine.ParseException;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.CharSXPWrapper;
+import com.oracle.truffle.r.runtime.data.RAltrepData;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout;
@@ -1407,7 +1408,7 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
     public REnvironment R_NewHashedEnv(Object parent, Object initialSize) {
         // We know this is an RIntVector from use site in gramRd.c
         REnvironment env = RDataFactory.createNewEnv(REnvironment.UNNAMED, true, ((RIntVector) initialSize).getDataAt(0));
-        RArguments.initializeEnclosingFrame(env.getFrame(), guaranteeInstanceOf(parent, REnvironment.class).getFrame());
+        RArguments.initializeEnclosingFrame(env.getArgumentsFrame(), guaranteeInstanceOf(parent, REnvironment.class).getFrame());
         return env;
     }
 
@@ -2602,4 +2603,57 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
         throw implementedAsNode();
     }
 
+    @Override
+    public int ALTREP(Object x) {
+        return RAltrepData.get(x) != null ? 1 : 0;
+    }
+
+    @Override
+    public Object ALTREP_CLASS(Object x) {
+        return guaranteeAltrep(x).getAltrepClass();
+    }
+
+    @Override
+    public Object R_altrep_data1(Object x) {
+        return guaranteeAltrep(x).getData1();
+    }
+
+    @Override
+    public Object R_altrep_data2(Object x) {
+        return guaranteeAltrep(x).getData2();
+    }
+
+    @Override
+    public void R_set_altrep_data1(Object x, Object v) {
+        guaranteeAltrep(x).setData1(v);
+    }
+
+    @Override
+    public void R_set_altrep_data2(Object x, Object v) {
+        guaranteeAltrep(x).setData2(v);
+    }
+
+    @Override
+    @TruffleBoundary
+    public Object FASTR_new_altrep(int type, Object altrepClass, Object data1, Object data2) {
+        RExternalPtr clazz = guaranteeInstanceOf(altrepClass, RExternalPtr.class);
+        switch (SEXPTYPE.mapInt(type)) {
+            case INTSXP:
+                return RIntVector.createAltrep(clazz, data1, data2);
+            case REALSXP:
+                return RDoubleVector.createAltrep(clazz, data1, data2);
+            default:
+                throw unimplemented("ALTREP classes of type " + SEXPTYPE.mapInt(type).name());
+        }
+    }
+
+    private static RAltrepData guaranteeAltrep(Object x) {
+        RAltrepData data = RAltrepData.get(x);
+        if (data == null) {
+            CompilerDirectives.transferToInterpreter();
+            throw RError.error(RError.NO_CALLER, Message.GENERIC, "not an ALTREP object: " + Utils.getTypeName(x));
+        }
+        return data;
+    }
+
 }
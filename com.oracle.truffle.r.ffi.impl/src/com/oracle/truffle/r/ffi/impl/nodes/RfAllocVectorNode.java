@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,8 +28,11 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ReportPolymorphism;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.runtime.FastRConfig;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
@@ -71,13 +74,36 @@ public abstract class RfAllocVectorNode extends FFIUpCallNode.Arg2 {
         }
     }
 
+    /**
+     * Vectors allocated by native code are usually filled in by native code, so it pays off to
+     * allocate large ones directly in native memory rather than allocating a Java array that is
+     * copied to native memory by the first {@code DATAPTR}, see
+     * {@link FastROptions#NativeAllocVectorThreshold}.
+     */
+    private static boolean allocateNative(int length) {
+        if (FastRConfig.ManagedMode) {
+            return false;
+        }
+        int threshold = RContext.getInstance().getOption(FastROptions.NativeAllocVectorThreshold);
+        return threshold >= 0 && length >= threshold;
+    }
+
     private static Object allocate(@Cached(value = "getType(mode)", allowUncached = true) SEXPTYPE type, int ni) {
         switch (type) {
             case INTSXP:
+                if (allocateNative(ni)) {
+                    return RDataFactory.createNativeIntVector(ni);
+                }
                 return RDataFactory.createIntVector(new int[ni], RDataFactory.COMPLETE_VECTOR);
             case REALSXP:
+                if (allocateNative(ni)) {
+                    return RDataFactory.createNativeDoubleVector(ni);
+                }
                 return RDataFactory.createDoubleVector(new double[ni], RDataFactory.COMPLETE_VECTOR);
             case LGLSXP:
+                if (allocateNative(ni)) {
+                    return RDataFactory.createNativeLogicalVector(ni);
+                }
                 return RDataFactory.createLogicalVector(new byte[ni], RDataFactory.COMPLETE_VECTOR);
             case STRSXP:
                 // fill list with empty strings
@@ -85,8 +111,14 @@ public abstract class RfAllocVectorNode extends FFIUpCallNode.Arg2 {
                 Arrays.fill(data, "");
                 return RDataFactory.createStringVector(data, RDataFactory.COMPLETE_VECTOR);
             case CPLXSXP:
+                if (allocateNative(ni)) {
+                    return RDataFactory.createNativeComplexVector(ni);
+                }
                 return RDataFactory.createComplexVector(new double[2 * ni], RDataFactory.COMPLETE_VECTOR);
             case RAWSXP:
+                if (allocateNative(ni)) {
+                    return RDataFactory.createNativeRawVector(ni);
+                }
                 return RDataFactory.createRawVector(new byte[ni]);
             case VECSXP:
                 return RDataFactory.createList(ni);
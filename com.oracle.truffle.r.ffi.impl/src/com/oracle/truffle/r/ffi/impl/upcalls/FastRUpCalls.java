@@ -50,4 +50,10 @@ public interface FastRUpCalls {
      */
     @RFFICpointer
     Object FASTR_DATAPTR(Object x);
+
+    /**
+     * Creates a new ALTREP instance of given {@code SEXPTYPE}, the {@code altrepClass} is the
+     * external pointer created by one of the {@code R_make_alt*_class} functions.
+     */
+    Object FASTR_new_altrep(int type, Object altrepClass, Object data1, Object data2);
 }
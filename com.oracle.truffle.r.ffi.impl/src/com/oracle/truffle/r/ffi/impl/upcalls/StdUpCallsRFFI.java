@@ -985,4 +985,16 @@ public interface StdUpCallsRFFI {
      */
     @RFFIUpCallNode(DispatchPrimFunNode.class)
     Object DispatchPRIMFUN(Object call, Object op, Object args, Object rho);
+
+    int ALTREP(Object x);
+
+    Object ALTREP_CLASS(Object x);
+
+    Object R_altrep_data1(@RFFIResultOwner Object x);
+
+    Object R_altrep_data2(@RFFIResultOwner Object x);
+
+    void R_set_altrep_data1(Object x, Object v);
+
+    void R_set_altrep_data2(Object x, Object v);
 }
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.launcher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+
+/**
+ * A pool of initialized R contexts for servers that evaluate many short requests, each of which
+ * would otherwise pay for the initialization of a new context.
+ *
+ * A context is created by the given builder supplier, initialized and the given packages are
+ * attached to it. After that, the state that a request may change is recorded: the search path,
+ * the options, the environment variables and the working directory. When a context is returned to
+ * the pool, it is reset to that state: the global environment is emptied, the packages attached by
+ * the request are detached and all connections are closed. Namespaces loaded by a request stay
+ * loaded, so that they are ready for the next request. A context whose reset fails or that has
+ * been used {@code maxUses} times is evicted, i.e., closed and replaced by a new one on demand.
+ *
+ * The builders should use a shared {@link org.graalvm.polyglot.Engine}. The contexts of the pool
+ * then share one R language instance: the builtins and their compiled code, and the code of the
+ * sources evaluated through the polyglot API, like the reset function of the pool. The R code of
+ * the base and the attached packages is still loaded by every context on its own.
+ */
+public final class RContextPool implements AutoCloseable {
+
+    private static final Source RESET_FUNCTION = Source.create("R", "local({\n" +
+                    "    search0 <- search()\n" +
+                    "    options0 <- options()\n" +
+                    "    env0 <- Sys.getenv()\n" +
+                    "    wd0 <- getwd()\n" +
+                    "    function() {\n" +
+                    "        closeAllConnections()\n" +
+                    "        if ('grDevices' %in% loadedNamespaces()) grDevices::graphics.off()\n" +
+                    "        for (name in setdiff(search(), search0)) detach(name, character.only = TRUE)\n" +
+                    "        rm(list = ls(globalenv(), all.names = TRUE), envir = globalenv())\n" +
+                    "        added <- setdiff(names(options()), names(options0))\n" +
+                    "        options(c(options0, setNames(vector('list', length(added)), added)))\n" +
+                    "        Sys.unsetenv(setdiff(names(Sys.getenv()), names(env0)))\n" +
+                    "        if (length(env0) > 0) do.call(Sys.setenv, as.list(env0))\n" +
+                    "        setwd(wd0)\n" +
+                    "        RNGkind('default', 'default', 'default')\n" +
+                    "        assign('last.warning', NULL, envir = baseenv())\n" +
+                    "        invisible(NULL)\n" +
+                    "    }\n" +
+                    "})");
+
+    private final Supplier<Context.Builder> builders;
+    private final String[] packages;
+    private final int size;
+    private final int maxUses;
+
+    /**
+     * Guards {@link #idle}, {@link #created} and {@link #closed}. {@link #available} is signalled
+     * whenever a context is returned to the idle queue or a slot for a new one is freed.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<Entry> idle = new ArrayDeque<>();
+    private int created;
+    private boolean closed;
+
+    private final ConcurrentHashMap<Context, Entry> checkedOut = new ConcurrentHashMap<>();
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutNanos = new LongAdder();
+    private final AtomicLong maxCheckoutNanos = new AtomicLong();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder resetNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder creations = new LongAdder();
+    private final LongAdder creationNanos = new LongAdder();
+
+    private static final class Entry {
+        private final Context context;
+        private final Value reset;
+        private int uses;
+
+        Entry(Context context, Value reset) {
+            this.context = context;
+            this.reset = reset;
+        }
+    }
+
+    /**
+     * The metrics of a pool at some point in time, all times are in nanoseconds.
+     */
+    public static final class Metrics {
+        public final long checkouts;
+        public final long checkoutNanos;
+        public final long maxCheckoutNanos;
+        public final long resets;
+        public final long resetNanos;
+        public final long evictions;
+        public final long creations;
+        public final long creationNanos;
+        public final int idle;
+        public final int checkedOut;
+
+        Metrics(RContextPool pool) {
+            this.checkouts = pool.checkouts.sum();
+            this.checkoutNanos = pool.checkoutNanos.sum();
+            this.maxCheckoutNanos = pool.maxCheckoutNanos.get();
+            this.resets = pool.resets.sum();
+            this.resetNanos = pool.resetNanos.sum();
+            this.evictions = pool.evictions.sum();
+            this.creations = pool.creations.sum();
+            this.creationNanos = pool.creationNanos.sum();
+            this.idle = pool.idleCount();
+            this.checkedOut = pool.checkedOut.size();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("checkouts=%d (avg %d ns, max %d ns), resets=%d (avg %d ns), evictions=%d, creations=%d (avg %d ns), idle=%d, checked out=%d", checkouts,
+                            average(checkoutNanos, checkouts), maxCheckoutNanos, resets, average(resetNanos, resets), evictions, creations, average(creationNanos, creations), idle,
+                            checkedOut);
+        }
+
+        private static long average(long total, long count) {
+            return count == 0 ? 0 : total / count;
+        }
+    }
+
+    /**
+     * Creates a pool of at most {@code size} contexts, {@code prestart} of which are created
+     * immediately.
+     *
+     * @param builders supplies the builders of new contexts
+     * @param maxUses the number of requests after which a context is replaced, or {@code 0} if
+     *            contexts are only replaced when their reset fails
+     * @param packages the packages attached to every context
+     */
+    public RContextPool(Supplier<Context.Builder> builders, int size, int prestart, int maxUses, String... packages) {
+        if (size <= 0 || prestart < 0 || prestart > size || maxUses < 0) {
+            throw new IllegalArgumentException("invalid pool size");
+        }
+        this.builders = builders;
+        this.size = size;
+        this.maxUses = maxUses;
+        this.packages = packages.clone();
+        try {
+            for (int i = 0; i < prestart; i++) {
+                idle.addLast(createEntry());
+                created++;
+            }
+        } catch (RuntimeException | Error e) {
+            for (Entry entry : idle) {
+                entry.context.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns an initialized context, waits for one to be returned if all of them are in use. The
+     * context must be returned by {@link #checkin} once the request is done.
+     */
+    public Context checkout() throws InterruptedException {
+        return checkout(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Like {@link #checkout()}, but returns {@code null} if no context becomes available within
+     * the given time.
+     */
+    public Context checkout(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        long remaining = unit.toNanos(timeout);
+        Entry entry;
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("the pool is closed");
+                }
+                entry = idle.pollFirst();
+                if (entry != null) {
+                    break;
+                }
+                if (created < size) {
+                    created++;
+                    break;
+                }
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            // the slot has been reserved above, the context is created outside of the lock
+            try {
+                entry = createEntry();
+            } catch (RuntimeException | Error e) {
+                release();
+                throw e;
+            }
+        }
+        checkedOut.put(entry.context, entry);
+        long nanos = System.nanoTime() - start;
+        checkouts.increment();
+        checkoutNanos.add(nanos);
+        maxCheckoutNanos.accumulateAndGet(nanos, Math::max);
+        return entry.context;
+    }
+
+    /**
+     * Resets the context and returns it to the pool, the context must not be used afterwards.
+     */
+    public void checkin(Context context) {
+        Entry entry = checkedOut.remove(context);
+        if (entry == null) {
+            throw new IllegalArgumentException("context does not belong to the pool or is not checked out");
+        }
+        entry.uses++;
+        boolean keep = !isClosed() && (maxUses == 0 || entry.uses < maxUses);
+        if (keep) {
+            long start = System.nanoTime();
+            try {
+                entry.reset.executeVoid();
+                resets.increment();
+                resetNanos.add(System.nanoTime() - start);
+            } catch (PolyglotException e) {
+                keep = false;
+            }
+        }
+        if (!keep || !returnToIdle(entry)) {
+            evict(entry);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(this);
+    }
+
+    /**
+     * Closes the idle contexts, the contexts that are checked out are closed when they are
+     * returned.
+     */
+    @Override
+    public void close() {
+        List<Entry> entries;
+        lock.lock();
+        try {
+            closed = true;
+            entries = new ArrayList<>(idle);
+            idle.clear();
+            // the waiters fail now
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Entry entry : entries) {
+            entry.context.close();
+        }
+    }
+
+    private boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int idleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns {@code false} if the pool has been closed since the check-in started, the idle
+     * contexts have been closed already in that case.
+     */
+    private boolean returnToIdle(Entry entry) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            // the most recently used context is the warmest one
+            idle.addFirst(entry);
+            available.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a context that has been evicted or could not be created, so that a waiter
+     * can create a new one.
+     */
+    private void release() {
+        lock.lock();
+        try {
+            created--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(Entry entry) {
+        release();
+        evictions.increment();
+        entry.context.close();
+    }
+
+    private Entry createEntry() {
+        long start = System.nanoTime();
+        Context context = builders.get().build();
+        try {
+            context.initialize("R");
+            for (String pkg : packages) {
+                context.getBindings("R").getMember("library").execute(pkg);
+            }
+            Value reset = context.eval(RESET_FUNCTION);
+            creations.increment();
+            creationNanos.add(System.nanoTime() - start);
+            return new Entry(context, reset);
+        } catch (RuntimeException | Error e) {
+            context.close();
+            throw e;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,10 +22,17 @@
  */
 package com.oracle.truffle.r.library.parallel;
 
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LEcuyerCMRG;
 
 /**
  * The .Call support for the parallel package.
@@ -37,4 +44,41 @@ public class ParallelFunctions {
             return RRuntime.asLogical(RContext.getInstance().getParent() != null);
         }
     }
+
+    /**
+     * The seeds are unsigned 32-bit values, some of them may look like {@code NA}, so the results
+     * of the stream functions are never marked complete.
+     */
+    private static int[] getLEcuyerSeed(RIntVector seed) {
+        if (seed.getLength() != 7) {
+            throw RError.error(RError.NO_CALLER, RError.Message.GENERIC, "invalid value of 'seed'");
+        }
+        return seed.getDataCopy();
+    }
+
+    public abstract static class NextStream extends RExternalBuiltinNode.Arg1 {
+        static {
+            Casts casts = new Casts(NextStream.class);
+            casts.arg(0).mustBe(integerValue()).asIntegerVector();
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextStream(RIntVector seed) {
+            return RDataFactory.createIntVector(LEcuyerCMRG.nextStream(getLEcuyerSeed(seed)), RDataFactory.INCOMPLETE_VECTOR);
+        }
+    }
+
+    public abstract static class NextSubStream extends RExternalBuiltinNode.Arg1 {
+        static {
+            Casts casts = new Casts(NextSubStream.class);
+            casts.arg(0).mustBe(integerValue()).asIntegerVector();
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextSubStream(RIntVector seed) {
+            return RDataFactory.createIntVector(LEcuyerCMRG.nextSubStream(getLEcuyerSeed(seed)), RDataFactory.INCOMPLETE_VECTOR);
+        }
+    }
 }
@@ -58,6 +58,7 @@ import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.SequentialIterator;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunction1_Double;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunction2_Double;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunction3_DoubleBase;
+import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunctionBulk;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.nodes.RBaseNodeWithWarnings;
@@ -257,8 +258,19 @@ public final class RandFunctionsNodes {
                     return RDataFactory.createDoubleVector(nansResult, false);
                 }
 
-                boolean nans = false;
                 double[] result = new double[length];
+                if (function instanceof RandFunctionBulk && aAccess.getLength(aIter) == 1 && bAccess.getLength(bIter) == 1 && cAccess.getLength(cIter) == 1) {
+                    // scalar parameters: let the generator produce the whole vector at once
+                    aAccess.nextWithWrap(aIter);
+                    bAccess.nextWithWrap(bIter);
+                    cAccess.nextWithWrap(cIter);
+                    if (((RandFunctionBulk) function).generateBulk(result, aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider)) {
+                        putRNGState();
+                        return RDataFactory.createDoubleVector(result, RDataFactory.COMPLETE_VECTOR);
+                    }
+                }
+
+                boolean nans = false;
                 loopConditionProfile.profileCounted(length);
                 for (int i = 0; loopConditionProfile.inject(i < length); i++) {
                     aAccess.nextWithWrap(aIter);
@@ -45,9 +45,7 @@ import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
-import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
-import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
@@ -83,62 +81,111 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
         return false;
     }
 
-    /*
-     * In the next three methods, firstPos is the index of the first element in the vector that is
-     * not isNA(elem, naStrings). However, there may be isNA values after that.
+    /**
+     * Converts {@code x} to a logical, integer or double vector in a single pass, or returns
+     * {@code null} if some element cannot be converted. The type is inferred on the fly: it starts
+     * with the type of the first non-NA element at {@code firstPos} and an integer vector is widened
+     * to double when an element is only a valid double. Any other mismatch makes the result a
+     * character vector (or factor).
      */
+    private static RAbstractVector convertVector(RStringVector x, int firstPos, RStringVector naStrings) {
+        int length = x.getLength();
+        byte[] logicals = null;
+        int[] ints = null;
+        double[] doubles = null;
 
-    private static RIntVector readIntVector(RStringVector x, int firstPos, int firstVal, RStringVector naStrings) {
-        int[] data = new int[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.INT_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
-            String s = x.getDataAt(i);
-            if (isNA(s, naStrings)) {
-                data[i] = RRuntime.INT_NA;
-                complete = false;
-            } else {
-                int result = RRuntime.parseInt(s);
-                if (result == RRuntime.INT_NA) {
-                    throw new NumberFormatException();
+        String s = x.getDataAt(firstPos);
+        if (RRuntime.hasHexPrefix(s)) {
+            // this is a mess
+            // double takes precedence even if s is a hexadecimal integer
+            doubles = new double[length];
+            if (!parseDouble(s, doubles, firstPos)) {
+                return null;
+            }
+        } else {
+            try {
+                ints = new int[length];
+                ints[firstPos] = RRuntime.string2intNoCheck(s, true);
+            } catch (NumberFormatException ix) {
+                ints = null;
+                doubles = new double[length];
+                if (!parseDouble(s, doubles, firstPos)) {
+                    doubles = null;
+                    try {
+                        logicals = new byte[length];
+                        logicals[firstPos] = RRuntime.string2logicalNoCheck(s, true);
+                    } catch (NumberFormatException lx) {
+                        return null;
+                    }
                 }
-                data[i] = result;
             }
         }
-        return RDataFactory.createIntVector(data, complete);
-    }
 
-    private static RDoubleVector readDoubleVector(RStringVector x, int firstPos, double firstVal, RStringVector naStrings) {
-        double[] data = new double[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.DOUBLE_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
-            String s = x.getDataAt(i);
+        boolean complete = firstPos == 0;
+        for (int i = firstPos + 1; i < length; i++) {
+            s = x.getDataAt(i);
             boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.DOUBLE_NA : RRuntime.string2doubleNoCheck(s, true, true);
+            if (ints != null) {
+                int value = isNA ? RRuntime.INT_NA : parseInt(s);
+                if (isNA || value != RRuntime.INT_NA) {
+                    ints[i] = value;
+                } else {
+                    // widen to double, the integers read so far are exact
+                    doubles = new double[length];
+                    for (int j = firstPos; j < i; j++) {
+                        doubles[j] = RRuntime.isNA(ints[j]) ? RRuntime.DOUBLE_NA : ints[j];
+                    }
+                    ints = null;
+                }
+            }
+            if (doubles != null) {
+                if (isNA) {
+                    doubles[i] = RRuntime.DOUBLE_NA;
+                } else if (!parseDouble(s, doubles, i)) {
+                    return null;
+                } else if (RRuntime.isNA(doubles[i])) {
+                    complete = false;
+                }
+            } else if (logicals != null) {
+                try {
+                    logicals[i] = isNA ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(s, true);
+                } catch (NumberFormatException lx) {
+                    return null;
+                }
+            }
             complete = complete && !isNA;
         }
-        return RDataFactory.createDoubleVector(data, complete);
+
+        if (ints != null) {
+            Arrays.fill(ints, 0, firstPos, RRuntime.INT_NA);
+            return RDataFactory.createIntVector(ints, complete);
+        } else if (doubles != null) {
+            Arrays.fill(doubles, 0, firstPos, RRuntime.DOUBLE_NA);
+            return RDataFactory.createDoubleVector(doubles, complete);
+        } else {
+            Arrays.fill(logicals, 0, firstPos, RRuntime.LOGICAL_NA);
+            return RDataFactory.createLogicalVector(logicals, complete);
+        }
     }
 
-    private static RLogicalVector readLogicalVector(RStringVector x, int firstPos, byte firstVal, RStringVector naStrings) {
-        byte[] data = new byte[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.LOGICAL_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
-            String s = x.getDataAt(i);
-            boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(s, true);
-            complete = complete && !isNA;
+    /**
+     * Returns {@link RRuntime#INT_NA} if {@code s} is not a valid integer.
+     */
+    private static int parseInt(String s) {
+        try {
+            return RRuntime.parseInt(s);
+        } catch (NumberFormatException e) {
+            return RRuntime.INT_NA;
         }
-        return RDataFactory.createLogicalVector(data, complete);
     }
 
-    private static boolean canBeComplete(int firstNonNAPos) {
-        return firstNonNAPos == 0 ? RDataFactory.COMPLETE_VECTOR : RDataFactory.INCOMPLETE_VECTOR;
+    private static boolean parseDouble(String s, double[] data, int index) {
+        try {
+            data[index] = RRuntime.string2doubleNoCheck(s, true, true);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
 
     @Specialization
@@ -160,43 +207,12 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
             return RDataFactory.createLogicalVector(data, RDataFactory.INCOMPLETE_VECTOR);
         }
 
-        String s = x.getDataAt(i);
-        if (RRuntime.hasHexPrefix(s)) {
-            // this is a mess
-            // double takes precedence even if s is a hexadecimal integer
-            try {
-                double doubleVal = RRuntime.string2doubleNoCheck(s, true, true);
-                return readDoubleVector(x, i, doubleVal, naStrings);
-            } catch (NumberFormatException ix) {
-                // fall through
-            }
-        } else {
-            try {
-                int intVal = RRuntime.string2intNoCheck(s, true);
-                return readIntVector(x, i, intVal, naStrings);
-            } catch (NumberFormatException ix) {
-                try {
-                    double doubleVal = RRuntime.string2doubleNoCheck(s, true, true);
-                    try {
-                        return readDoubleVector(x, i, doubleVal, naStrings);
-                    } catch (NumberFormatException lx) {
-                        // fall through
-                    }
-                } catch (NumberFormatException dx) {
-                    try {
-                        byte logicalVal = RRuntime.string2logicalNoCheck(s, true);
-                        try {
-                            return readLogicalVector(x, i, logicalVal, naStrings);
-                        } catch (NumberFormatException lx) {
-                            // fall through
-                        }
-                    } catch (NumberFormatException lx) {
-                        // fall through
-                    }
-                }
-            }
+        RAbstractVector converted = convertVector(x, i, naStrings);
+        if (converted != null) {
+            return converted;
         }
-        // fall through target - conversion to int, double or logical failed
+        // conversion to int, double or logical failed
+        String s;
 
         if (asIs) {
             return x;
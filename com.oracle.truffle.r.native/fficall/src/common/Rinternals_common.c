@@ -125,6 +125,9 @@ void *DATAPTR(SEXP x) {
 }
 
 const void *DATAPTR_OR_NULL(SEXP x) {
+	if (ALTREP(x)) {
+		return ALTVEC_DATAPTR_OR_NULL(x);
+	}
 	return DATAPTR(x);
 }
 
@@ -490,5 +490,12 @@ typedef double (*call_getStrWidth)(int gdId, const char*);
 typedef void (*call_gdText)(int gdId, double, double, const char*, double, double);
 typedef double* (*call_gdMetricInfo)(int gdId, int);
 typedef SEXP (*call_DispatchPRIMFUN)(SEXP call, SEXP op, SEXP args, SEXP env);
+typedef int (*call_ALTREP)(SEXP x);
+typedef SEXP (*call_ALTREP_CLASS)(SEXP x);
+typedef SEXP (*call_R_altrep_data1)(SEXP x);
+typedef SEXP (*call_R_altrep_data2)(SEXP x);
+typedef void (*call_R_set_altrep_data1)(SEXP x, SEXP v);
+typedef void (*call_R_set_altrep_data2)(SEXP x, SEXP v);
+typedef SEXP (*call_FASTR_new_altrep)(int type, SEXP altrepClass, SEXP data1, SEXP data2);
 
 #endif
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * Implementation of the ALTREP class API (R_ext/Altrep.h).
+ *
+ * An ALTREP class is represented by an external pointer to a fastr_altrep_class struct holding the
+ * method table. The external pointer is preserved for the lifetime of the process, like the class
+ * objects in GNU R. ALTREP instances are created on the Java side, which keeps the class and the
+ * data1/data2 slots and calls back into the __Altrep* functions below when it needs the length,
+ * the data pointer or individual elements.
+ */
+
+#include <Defn.h>
+#include <R_ext/Rdynload.h>
+#include <R_ext/Altrep.h>
+
+#include "rffi_upcalls.h"
+#include "rffiutils.h"
+#include <Rinternals.h>
+
+typedef struct {
+    int type;
+    R_altrep_UnserializeEX_method_t UnserializeEX;
+    R_altrep_Unserialize_method_t Unserialize;
+    R_altrep_Serialized_state_method_t Serialized_state;
+    R_altrep_DuplicateEX_method_t DuplicateEX;
+    R_altrep_Duplicate_method_t Duplicate;
+    R_altrep_Coerce_method_t Coerce;
+    R_altrep_Inspect_method_t Inspect;
+    R_altrep_Length_method_t Length;
+    R_altvec_Dataptr_method_t Dataptr;
+    R_altvec_Dataptr_or_null_method_t Dataptr_or_null;
+    R_altvec_Extract_subset_method_t Extract_subset;
+    // the element type specific methods, their signatures depend on the class type
+    void *Elt;
+    void *Set_elt;
+    void *Get_region;
+    void *Is_sorted;
+    void *No_NA;
+    void *Sum;
+    void *Min;
+    void *Max;
+} fastr_altrep_class;
+
+extern SEXP FASTR_new_altrep(int type, SEXP altrepClass, SEXP data1, SEXP data2);
+
+static R_altrep_class_t make_altrep_class(int type, const char *cname, const char *pname) {
+    fastr_altrep_class *cls = (fastr_altrep_class *) calloc(1, sizeof(fastr_altrep_class));
+    if (cls == NULL) {
+        error(_("cannot allocate ALTREP class %s"), cname);
+    }
+    cls->type = type;
+    SEXP ptr = R_MakeExternalPtr(cls, install(cname), install(pname));
+    R_PreserveObject(ptr);
+    R_altrep_class_t result = R_SUBTYPE_INIT(ptr);
+    return result;
+}
+
+static fastr_altrep_class *get_class(R_altrep_class_t cls) {
+    return (fastr_altrep_class *) R_ExternalPtrAddr(R_SEXP(cls));
+}
+
+static fastr_altrep_class *get_instance_class(SEXP x) {
+    return (fastr_altrep_class *) R_ExternalPtrAddr(ALTREP_CLASS(x));
+}
+
+R_altrep_class_t R_make_altinteger_class(const char *cname, const char *pname, DllInfo *info) {
+    return make_altrep_class(INTSXP, cname, pname);
+}
+
+R_altrep_class_t R_make_altreal_class(const char *cname, const char *pname, DllInfo *info) {
+    return make_altrep_class(REALSXP, cname, pname);
+}
+
+/*
+ * Only integer and real ALTREP instances can be created on the Java side (see FASTR_new_altrep),
+ * so the classes of the other types are rejected when they are made rather than when the first
+ * instance is created.
+ */
+static R_altrep_class_t unsupported_altrep_class(const char *type, const char *cname) {
+    error(_("ALTREP classes of type %s are not supported, cannot make class %s"), type, cname);
+}
+
+R_altrep_class_t R_make_altlogical_class(const char *cname, const char *pname, DllInfo *info) {
+    return unsupported_altrep_class("logical", cname);
+}
+
+R_altrep_class_t R_make_altstring_class(const char *cname, const char *pname, DllInfo *info) {
+    return unsupported_altrep_class("character", cname);
+}
+
+R_altrep_class_t R_make_altraw_class(const char *cname, const char *pname, DllInfo *info) {
+    return unsupported_altrep_class("raw", cname);
+}
+
+R_altrep_class_t R_make_altcomplex_class(const char *cname, const char *pname, DllInfo *info) {
+    return unsupported_altrep_class("complex", cname);
+}
+
+/*
+ * Set once the first ALTREP instance is created. Until then ALTREP(x) answers without an upcall,
+ * which keeps DATAPTR_OR_NULL and friends cheap for code that never sees an ALTREP instance.
+ */
+int fastr_altrep_instances_created = 0;
+
+SEXP R_new_altrep(R_altrep_class_t aclass, SEXP data1, SEXP data2) {
+    fastr_altrep_instances_created = 1;
+    return FASTR_new_altrep(get_class(aclass)->type, R_SEXP(aclass), data1, data2);
+}
+
+Rboolean R_altrep_inherits(SEXP x, R_altrep_class_t cls) {
+    return ALTREP(x) && ALTREP_CLASS(x) == R_SEXP(cls);
+}
+
+#define DEFINE_METHOD_SETTER(CNAME, MNAME)                                                    \
+    void R_set_##CNAME##_##MNAME##_method(R_altrep_class_t cls, R_##CNAME##_##MNAME##_method_t fun) { \
+        get_class(cls)->MNAME = (void *) fun;                                                 \
+    }
+
+DEFINE_METHOD_SETTER(altrep, UnserializeEX)
+DEFINE_METHOD_SETTER(altrep, Unserialize)
+DEFINE_METHOD_SETTER(altrep, Serialized_state)
+DEFINE_METHOD_SETTER(altrep, DuplicateEX)
+DEFINE_METHOD_SETTER(altrep, Duplicate)
+DEFINE_METHOD_SETTER(altrep, Coerce)
+DEFINE_METHOD_SETTER(altrep, Inspect)
+DEFINE_METHOD_SETTER(altrep, Length)
+
+DEFINE_METHOD_SETTER(altvec, Dataptr)
+DEFINE_METHOD_SETTER(altvec, Dataptr_or_null)
+DEFINE_METHOD_SETTER(altvec, Extract_subset)
+
+DEFINE_METHOD_SETTER(altinteger, Elt)
+DEFINE_METHOD_SETTER(altinteger, Get_region)
+DEFINE_METHOD_SETTER(altinteger, Is_sorted)
+DEFINE_METHOD_SETTER(altinteger, No_NA)
+DEFINE_METHOD_SETTER(altinteger, Sum)
+DEFINE_METHOD_SETTER(altinteger, Min)
+DEFINE_METHOD_SETTER(altinteger, Max)
+
+DEFINE_METHOD_SETTER(altreal, Elt)
+DEFINE_METHOD_SETTER(altreal, Get_region)
+DEFINE_METHOD_SETTER(altreal, Is_sorted)
+DEFINE_METHOD_SETTER(altreal, No_NA)
+DEFINE_METHOD_SETTER(altreal, Sum)
+DEFINE_METHOD_SETTER(altreal, Min)
+DEFINE_METHOD_SETTER(altreal, Max)
+
+DEFINE_METHOD_SETTER(altlogical, Elt)
+DEFINE_METHOD_SETTER(altlogical, Get_region)
+DEFINE_METHOD_SETTER(altlogical, Is_sorted)
+DEFINE_METHOD_SETTER(altlogical, No_NA)
+DEFINE_METHOD_SETTER(altlogical, Sum)
+
+DEFINE_METHOD_SETTER(altraw, Elt)
+DEFINE_METHOD_SETTER(altraw, Get_region)
+
+DEFINE_METHOD_SETTER(altcomplex, Elt)
+DEFINE_METHOD_SETTER(altcomplex, Get_region)
+
+DEFINE_METHOD_SETTER(altstring, Elt)
+DEFINE_METHOD_SETTER(altstring, Set_elt)
+DEFINE_METHOD_SETTER(altstring, Is_sorted)
+DEFINE_METHOD_SETTER(altstring, No_NA)
+
+/* ------------------- method dispatch, the defaults follow GNU R --------------------- */
+
+R_xlen_t ALTREP_LENGTH(SEXP x) {
+    fastr_altrep_class *cls = get_instance_class(x);
+    if (cls->Length == NULL) {
+        error(_("no Length method defined"));
+    }
+    return cls->Length(x);
+}
+
+void *ALTVEC_DATAPTR(SEXP x) {
+    fastr_altrep_class *cls = get_instance_class(x);
+    if (cls->Dataptr == NULL) {
+        error(_("cannot access data pointer for this ALTVEC object"));
+    }
+    return cls->Dataptr(x, TRUE);
+}
+
+const void *ALTVEC_DATAPTR_RO(SEXP x) {
+    fastr_altrep_class *cls = get_instance_class(x);
+    if (cls->Dataptr == NULL) {
+        error(_("cannot access data pointer for this ALTVEC object"));
+    }
+    return cls->Dataptr(x, FALSE);
+}
+
+const void *ALTVEC_DATAPTR_OR_NULL(SEXP x) {
+    fastr_altrep_class *cls = get_instance_class(x);
+    return cls->Dataptr_or_null == NULL ? NULL : cls->Dataptr_or_null(x);
+}
+
+int ALTINTEGER_ELT(SEXP x, R_xlen_t i) {
+    fastr_altrep_class *cls = get_instance_class(x);
+    if (cls->Elt == NULL) {
+        return ((int *) ALTVEC_DATAPTR_RO(x))[i];
+    }
+    return ((R_altinteger_Elt_method_t) cls->Elt)(x, i);
+}
+
+double ALTREAL_ELT(SEXP x, R_xlen_t i) {
+    fastr_altrep_class *cls = get_instance_class(x);
+    if (cls->Elt == NULL) {
+        return ((double *) ALTVEC_DATAPTR_RO(x))[i];
+    }
+    return ((R_altreal_Elt_method_t) cls->Elt)(x, i);
+}
+
+R_xlen_t INTEGER_GET_REGION(SEXP sx, R_xlen_t i, R_xlen_t n, int *buf) {
+    R_xlen_t size = XLENGTH(sx);
+    R_xlen_t ncopy = size - i > n ? n : size - i;
+    if (ALTREP(sx)) {
+        fastr_altrep_class *cls = get_instance_class(sx);
+        if (cls->Get_region != NULL) {
+            return ((R_altinteger_Get_region_method_t) cls->Get_region)(sx, i, n, buf);
+        }
+        for (R_xlen_t k = 0; k < ncopy; k++) {
+            buf[k] = ALTINTEGER_ELT(sx, k + i);
+        }
+        return ncopy;
+    }
+    const int *x = INTEGER(sx);
+    for (R_xlen_t k = 0; k < ncopy; k++) {
+        buf[k] = x[k + i];
+    }
+    return ncopy;
+}
+
+R_xlen_t REAL_GET_REGION(SEXP sx, R_xlen_t i, R_xlen_t n, double *buf) {
+    R_xlen_t size = XLENGTH(sx);
+    R_xlen_t ncopy = size - i > n ? n : size - i;
+    if (ALTREP(sx)) {
+        fastr_altrep_class *cls = get_instance_class(sx);
+        if (cls->Get_region != NULL) {
+            return ((R_altreal_Get_region_method_t) cls->Get_region)(sx, i, n, buf);
+        }
+        for (R_xlen_t k = 0; k < ncopy; k++) {
+            buf[k] = ALTREAL_ELT(sx, k + i);
+        }
+        return ncopy;
+    }
+    const double *x = REAL(sx);
+    for (R_xlen_t k = 0; k < ncopy; k++) {
+        buf[k] = x[k + i];
+    }
+    return ncopy;
+}
+
+#define DEFINE_INT_METHOD_DISPATCH(NAME, MNAME, DEFAULT)                  \
+    int NAME(SEXP x) {                                                    \
+        if (ALTREP(x)) {                                                  \
+            fastr_altrep_class *cls = get_instance_class(x);              \
+            if (cls->MNAME != NULL) {                                     \
+                return ((int (*)(SEXP)) cls->MNAME)(x);                   \
+            }                                                             \
+        }                                                                 \
+        return DEFAULT;                                                   \
+    }
+
+DEFINE_INT_METHOD_DISPATCH(INTEGER_IS_SORTED, Is_sorted, UNKNOWN_SORTEDNESS)
+DEFINE_INT_METHOD_DISPATCH(INTEGER_NO_NA, No_NA, 0)
+DEFINE_INT_METHOD_DISPATCH(REAL_IS_SORTED, Is_sorted, UNKNOWN_SORTEDNESS)
+DEFINE_INT_METHOD_DISPATCH(REAL_NO_NA, No_NA, 0)
+
+#define DEFINE_SUMMARY_METHOD_DISPATCH(NAME, MNAME)                       \
+    SEXP NAME(SEXP x, Rboolean narm) {                                    \
+        fastr_altrep_class *cls = get_instance_class(x);                  \
+        if (cls->MNAME == NULL) {                                         \
+            return NULL;                                                  \
+        }                                                                 \
+        return ((SEXP (*)(SEXP, Rboolean)) cls->MNAME)(x, narm);          \
+    }
+
+DEFINE_SUMMARY_METHOD_DISPATCH(ALTINTEGER_SUM, Sum)
+DEFINE_SUMMARY_METHOD_DISPATCH(ALTINTEGER_MIN, Min)
+DEFINE_SUMMARY_METHOD_DISPATCH(ALTINTEGER_MAX, Max)
+DEFINE_SUMMARY_METHOD_DISPATCH(ALTREAL_SUM, Sum)
+DEFINE_SUMMARY_METHOD_DISPATCH(ALTREAL_MIN, Min)
+DEFINE_SUMMARY_METHOD_DISPATCH(ALTREAL_MAX, Max)
+
+/* ------------------- downcalls from the Java side --------------------- */
+
+static SEXP wrapPointer(const void *ptr) {
+    return ptr == NULL ? R_NilValue : R_MakeExternalPtr((void *) ptr, R_NilValue, R_NilValue);
+}
+
+SEXP __AltrepLength(SEXP x) {
+    return ScalarReal((double) ALTREP_LENGTH(x));
+}
+
+SEXP __AltrepDataptr(SEXP x) {
+    return wrapPointer(ALTVEC_DATAPTR(x));
+}
+
+SEXP __AltrepDataptrOrNull(SEXP x) {
+    return wrapPointer(ALTVEC_DATAPTR_OR_NULL(x));
+}
+
+SEXP __AltIntegerElt(SEXP x, SEXP iVec) {
+    return ScalarInteger(ALTINTEGER_ELT(x, asInteger(iVec)));
+}
+
+SEXP __AltRealElt(SEXP x, SEXP iVec) {
+    return ScalarReal(ALTREAL_ELT(x, asInteger(iVec)));
+}
+
+SEXP __AltIntegerGetRegion(SEXP x, SEXP iVec, SEXP nVec, SEXP bufAddrObj) {
+    return ScalarInteger((int) INTEGER_GET_REGION(x, asInteger(iVec), asInteger(nVec), (int *) R_ExternalPtrAddr(bufAddrObj)));
+}
+
+SEXP __AltRealGetRegion(SEXP x, SEXP iVec, SEXP nVec, SEXP bufAddrObj) {
+    return ScalarInteger((int) REAL_GET_REGION(x, asInteger(iVec), asInteger(nVec), (double *) R_ExternalPtrAddr(bufAddrObj)));
+}
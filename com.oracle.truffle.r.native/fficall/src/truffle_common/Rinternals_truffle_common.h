@@ -1968,20 +1968,63 @@ const SEXP *(STRING_PTR_RO)(SEXP x) {
     return ((const SEXP *) DATAPTR_RO(x));
 }
 
-// The ALTREP framework is not implemented on FastR yet
+// The ALTREP class registration and method dispatch is implemented in Altrep.c,
+// only integer and real ALTREP instances can be created at the moment
 
 #define ALTREP_UNIMPLEMENTED { UNIMPLEMENTED; }
 
+extern int fastr_altrep_instances_created;
+
 int (ALTREP)(SEXP x) {
-    // there can be no ALTREP objects on FastR
-    return 0;
+    if (!fastr_altrep_instances_created) {
+        // no ALTREP instance exists yet, no need to ask the Java side
+        return 0;
+    }
+    TRACE(TARGp, x);
+    int result = ((call_ALTREP) callbacks[ALTREP_x])(x);
+    checkExitCall();
+    return result;
 }
 
-SEXP R_altrep_data1(SEXP x) ALTREP_UNIMPLEMENTED
-SEXP R_altrep_data2(SEXP x) ALTREP_UNIMPLEMENTED
-void R_set_altrep_data1(SEXP x, SEXP v) ALTREP_UNIMPLEMENTED
-void R_set_altrep_data2(SEXP x, SEXP v) ALTREP_UNIMPLEMENTED
-SEXP ALTREP_CLASS(SEXP x) ALTREP_UNIMPLEMENTED
+SEXP R_altrep_data1(SEXP x) {
+    TRACE(TARGp, x);
+    SEXP result = ((call_R_altrep_data1) callbacks[R_altrep_data1_x])(x);
+    checkExitCall();
+    return result;
+}
+
+SEXP R_altrep_data2(SEXP x) {
+    TRACE(TARGp, x);
+    SEXP result = ((call_R_altrep_data2) callbacks[R_altrep_data2_x])(x);
+    checkExitCall();
+    return result;
+}
+
+void R_set_altrep_data1(SEXP x, SEXP v) {
+    TRACE0();
+    ((call_R_set_altrep_data1) callbacks[R_set_altrep_data1_x])(x, v);
+    checkExitCall();
+}
+
+void R_set_altrep_data2(SEXP x, SEXP v) {
+    TRACE0();
+    ((call_R_set_altrep_data2) callbacks[R_set_altrep_data2_x])(x, v);
+    checkExitCall();
+}
+
+SEXP ALTREP_CLASS(SEXP x) {
+    TRACE(TARGp, x);
+    SEXP result = ((call_ALTREP_CLASS) callbacks[ALTREP_CLASS_x])(x);
+    checkExitCall();
+    return result;
+}
+
+SEXP FASTR_new_altrep(int type, SEXP altrepClass, SEXP data1, SEXP data2) {
+    TRACE0();
+    SEXP result = ((call_FASTR_new_altrep) callbacks[FASTR_new_altrep_x])(type, altrepClass, data1, data2);
+    checkExitCall();
+    return result;
+}
 
 void *(STDVEC_DATAPTR)(SEXP x) ALTREP_UNIMPLEMENTED
 int (IS_SCALAR)(SEXP x, int type) ALTREP_UNIMPLEMENTED
@@ -1991,17 +2034,11 @@ Rboolean ALTREP_INSPECT(SEXP x, int a, int b, int c, void (*inspect_subtree)(SEX
 SEXP ALTREP_SERIALIZED_CLASS(SEXP x) ALTREP_UNIMPLEMENTED
 SEXP ALTREP_SERIALIZED_STATE(SEXP x) ALTREP_UNIMPLEMENTED
 SEXP ALTREP_UNSERIALIZE_EX(SEXP a, SEXP b, SEXP c, int d, int e) ALTREP_UNIMPLEMENTED
-R_xlen_t ALTREP_LENGTH(SEXP x) ALTREP_UNIMPLEMENTED
 R_xlen_t ALTREP_TRUELENGTH(SEXP x) ALTREP_UNIMPLEMENTED
-void *ALTVEC_DATAPTR(SEXP x) ALTREP_UNIMPLEMENTED
-const void *ALTVEC_DATAPTR_RO(SEXP x) ALTREP_UNIMPLEMENTED
-const void *ALTVEC_DATAPTR_OR_NULL(SEXP x) ALTREP_UNIMPLEMENTED
 SEXP ALTVEC_EXTRACT_SUBSET(SEXP x, SEXP indx, SEXP call) ALTREP_UNIMPLEMENTED
-int ALTINTEGER_ELT(SEXP x, R_xlen_t i) ALTREP_UNIMPLEMENTED
 void ALTINTEGER_SET_ELT(SEXP x, R_xlen_t i, int v) ALTREP_UNIMPLEMENTED
 int ALTLOGICAL_ELT(SEXP x, R_xlen_t i) ALTREP_UNIMPLEMENTED
 void ALTLOGICAL_SET_ELT(SEXP x, R_xlen_t i, int v) ALTREP_UNIMPLEMENTED
-double ALTREAL_ELT(SEXP x, R_xlen_t i) ALTREP_UNIMPLEMENTED
 void ALTREAL_SET_ELT(SEXP x, R_xlen_t i, double v) ALTREP_UNIMPLEMENTED
 SEXP ALTSTRING_ELT(SEXP x, R_xlen_t len) ALTREP_UNIMPLEMENTED
 void ALTSTRING_SET_ELT(SEXP x, R_xlen_t len, SEXP elt) ALTREP_UNIMPLEMENTED
@@ -2009,21 +2046,9 @@ Rcomplex ALTCOMPLEX_ELT(SEXP x, R_xlen_t i) ALTREP_UNIMPLEMENTED
 void ALTCOMPLEX_SET_ELT(SEXP x, R_xlen_t i, Rcomplex v) ALTREP_UNIMPLEMENTED
 Rbyte ALTRAW_ELT(SEXP x, R_xlen_t i) ALTREP_UNIMPLEMENTED
 void ALTRAW_SET_ELT(SEXP x, R_xlen_t i, Rbyte v) ALTREP_UNIMPLEMENTED
-R_xlen_t INTEGER_GET_REGION(SEXP sx, R_xlen_t i, R_xlen_t n, int *buf) ALTREP_UNIMPLEMENTED
-int INTEGER_IS_SORTED(SEXP x) ALTREP_UNIMPLEMENTED
-int INTEGER_NO_NA(SEXP x) ALTREP_UNIMPLEMENTED
-SEXP ALTINTEGER_SUM(SEXP x, Rboolean narm) ALTREP_UNIMPLEMENTED
-SEXP ALTREAL_SUM(SEXP x, Rboolean narm) ALTREP_UNIMPLEMENTED
-SEXP ALTINTEGER_MIN(SEXP x, Rboolean narm) ALTREP_UNIMPLEMENTED
-SEXP ALTINTEGER_MAX(SEXP x, Rboolean narm) ALTREP_UNIMPLEMENTED
-SEXP ALTREAL_MIN(SEXP x, Rboolean narm) ALTREP_UNIMPLEMENTED
-SEXP ALTREAL_MAX(SEXP x, Rboolean narm) ALTREP_UNIMPLEMENTED
 SEXP INTEGER_MATCH(SEXP a, SEXP b, int c, SEXP d, SEXP e, Rboolean f) ALTREP_UNIMPLEMENTED
 SEXP INTEGER_IS_NA(SEXP x) ALTREP_UNIMPLEMENTED
 SEXP REAL_MATCH(SEXP a, SEXP b, int c, SEXP d, SEXP e, Rboolean f) ALTREP_UNIMPLEMENTED
-R_xlen_t REAL_GET_REGION(SEXP sx, R_xlen_t i, R_xlen_t n, double *buf) ALTREP_UNIMPLEMENTED
-int REAL_IS_SORTED(SEXP x) ALTREP_UNIMPLEMENTED
-int REAL_NO_NA(SEXP x) ALTREP_UNIMPLEMENTED
 SEXP REAL_IS_NA(SEXP x) ALTREP_UNIMPLEMENTED
 int STRING_IS_SORTED(SEXP x) ALTREP_UNIMPLEMENTED
 int STRING_NO_NA(SEXP x) ALTREP_UNIMPLEMENTED
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,6 +24,7 @@ package com.oracle.truffle.r.nodes.builtin;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
@@ -101,7 +102,11 @@ public abstract class RBuiltinPackage {
         return name;
     }
 
-    private static final ConcurrentHashMap<String, Map<String, String>> rFilesCache = new ConcurrentHashMap<>();
+    /**
+     * The override sources are read and created once per VM, the sources do not depend on the
+     * context.
+     */
+    private static final ConcurrentHashMap<String, List<Source>> rFilesCache = new ConcurrentHashMap<>();
 
     /**
      * Get a list of R override files for package {@code pkgName}, from the {@code pkgName/R}
@@ -109,17 +114,16 @@ public abstract class RBuiltinPackage {
      */
     @SuppressFBWarnings(value = "AT_OPERATION_SEQUENCE_ON_CONCURRENT_ABSTRACTION", justification = "one-time initialization")
     public static ArrayList<Source> getRFiles(RContext context, String pkgName) {
-        ArrayList<Source> componentList = new ArrayList<>();
-        Map<String, String> rFileContents = rFilesCache.get(pkgName);
-        if (rFileContents == null) {
-            rFileContents = ResourceHandlerFactory.getHandler().getRFiles(context, RBuiltinPackage.class, pkgName);
-            rFilesCache.put(pkgName, rFileContents);
-        }
-        for (String rFileContent : rFileContents.values()) {
-            Source content = RSource.fromTextInternal(rFileContent, RSource.Internal.R_IMPL);
-            componentList.add(content);
+        List<Source> sources = rFilesCache.get(pkgName);
+        if (sources == null) {
+            Map<String, String> rFileContents = ResourceHandlerFactory.getHandler().getRFiles(context, RBuiltinPackage.class, pkgName);
+            sources = new ArrayList<>(rFileContents.size());
+            for (String rFileContent : rFileContents.values()) {
+                sources.add(RSource.fromTextInternal(rFileContent, RSource.Internal.R_IMPL));
+            }
+            rFilesCache.put(pkgName, sources);
         }
-        return componentList;
+        return new ArrayList<>(sources);
     }
 
     public RBuiltinFactory lookupByName(String methodName) {
@@ -132,6 +136,10 @@ public abstract class RBuiltinPackage {
 
     /**
      * Runtime component of the package initialization process.
+     *
+     * The overrides are parsed again by every context, also by the contexts that share the
+     * language: the parsed code refers to the frame slots of the base frame of its context and
+     * the functions it defines are closures of that frame. Only the sources are shared.
      */
     public void loadOverrides(MaterializedFrame baseFrame) {
         ArrayList<Source> sources = rSources.get(getName());
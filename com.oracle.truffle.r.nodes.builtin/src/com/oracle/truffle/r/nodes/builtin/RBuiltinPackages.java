@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,8 +24,8 @@ package com.oracle.truffle.r.nodes.builtin;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.RootCallTarget;
@@ -171,15 +171,16 @@ public final class RBuiltinPackages implements RBuiltinLookup {
 
     private static RFunction createFunction(TruffleRLanguage language, RBuiltinFactory builtinFactory, String methodName) {
         try {
-            HashMap<String, RFunction> cache = language.getBuiltinFunctionCache();
+            ConcurrentHashMap<String, RFunction> cache = language.getBuiltinFunctionCache();
             RFunction function = cache.get(methodName);
             if (function != null) {
                 return function;
             }
             RootCallTarget callTarget = createArgumentsCallTarget(language, builtinFactory);
             function = RDataFactory.createFunction(builtinFactory.getName(), "base", callTarget, builtinFactory, null);
-            cache.put(methodName, function);
-            return function;
+            // another context of the language may have created the function in the meantime
+            RFunction existing = cache.putIfAbsent(methodName, function);
+            return existing != null ? existing : function;
         } catch (Throwable t) {
             throw new RuntimeException("error while creating builtin " + methodName + " / " + builtinFactory, t);
         }
@@ -133,6 +133,10 @@ public abstract class AnyNA extends RBuiltinNode.Arg2 {
             case Raw:
                 return RRuntime.LOGICAL_FALSE;
             case Double:
+                // the completeness does not cover NaNs, but sorted data contain neither NA nor NaN
+                if (xDataLib.isSorted(xData, false, false) || xDataLib.isSorted(xData, true, false)) {
+                    return RRuntime.LOGICAL_FALSE;
+                }
                 SeqIterator iterDouble = xDataLib.iterator(xData);
                 while (xDataLib.nextLoopCondition(xData, iterDouble)) {
                     if (nanCheck.checkNAorNaN(xDataLib.getNextDouble(xData, iterDouble))) {
@@ -130,6 +130,8 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInterop
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRJavaGDResize;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPaths;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPathsNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRLookupStats;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRLookupStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastROptionBuiltin;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPatchPackage;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPatchPackageNodeGen;
@@ -477,6 +479,7 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRContext.ChannelReceive.class, FastRContextFactory.ChannelReceiveNodeGen::create);
         add(FastRContext.ChannelSelect.class, FastRContextFactory.ChannelSelectNodeGen::create);
         add(FastRContext.ChannelSend.class, FastRContextFactory.ChannelSendNodeGen::create);
+        add(FastRContext.ChannelStats.class, FastRContextFactory.ChannelStatsNodeGen::create);
         add(FastRContext.Spawn.class, FastRContextFactory.SpawnNodeGen::create);
         add(FastRContext.Interrupt.class, FastRContextFactory.InterruptNodeGen::create);
         add(FastRContext.Join.class, FastRContextFactory.JoinNodeGen::create);
@@ -538,6 +541,7 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRprofmemSource.class, FastRprofmemSourceNodeGen::create);
         add(FastRprofmemSnapshot.class, FastRprofmemSnapshotNodeGen::create);
         add(FastRLibPaths.class, FastRLibPathsNodeGen::create);
+        add(FastRLookupStats.class, FastRLookupStatsNodeGen::create);
         add(FileFunctions.BaseName.class, FileFunctionsFactory.BaseNameNodeGen::create);
         add(FileFunctions.DirCreate.class, FileFunctionsFactory.DirCreateNodeGen::create);
         add(FileFunctions.DirExists.class, FileFunctionsFactory.DirExistsNodeGen::create);
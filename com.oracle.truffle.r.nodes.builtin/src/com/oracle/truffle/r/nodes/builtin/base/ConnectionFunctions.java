@@ -53,7 +53,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.DoubleBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 import java.nio.channels.ByteChannel;
@@ -61,6 +60,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -880,161 +880,277 @@ public abstract class ConnectionFunctions {
             CastsHelper.swap(casts);
         }
 
-        @SuppressWarnings("unused")
+        /**
+         * Size of the chunks in which {@code readBin} reads from a connection. Larger reads are
+         * staged in a direct buffer, which file channels fill without an intermediate copy and from
+         * which the typed bulk transfers into the result arrays are plain memory copies.
+         */
+        private static final int READ_CHUNK_SIZE = 1024 * 1024;
+        private static final int MIN_DIRECT_READ_SIZE = 64 * 1024;
+
         @Specialization
         @TruffleBoundary
         protected Object readBin(RRawVector vec, String what, int n, int sizeInput, boolean signed, boolean swap) {
-            Object result;
             switch (what) {
                 case "character":
-                    result = readString(vec, n);
-                    break;
+                    return readString(vec, n);
                 case "raw":
-                    result = readRaw(vec, n);
-                    break;
-                case "logical":
-                    result = RDataFactory.createEmptyLogicalVector();
-                    break;
-                case "int":
-                case "integer":
-                    result = RDataFactory.createEmptyIntVector();
-                    break;
-                case "double":
-                case "numeric":
-                    result = RDataFactory.createEmptyDoubleVector();
-                    break;
-                case "complex":
-                    result = RDataFactory.createEmptyComplexVector();
-                    break;
+                    return readRaw(vec, n);
                 default:
-                    throw RInternalError.unimplemented();
+                    try {
+                        return readElements(new BinaryInput(vec), what, n, sizeInput, signed, swap);
+                    } catch (IOException x) {
+                        throw RInternalError.shouldNotReachHere(x);
+                    }
             }
-            return result;
         }
 
         @Specialization
         @TruffleBoundary
         protected Object readBin(int con, String what, int n, int sizeInput, boolean signed, boolean swap) {
-            RAbstractVector result;
             BaseRConnection connection = RConnection.fromIndex(con);
             try (RConnection openConn = connection.forceOpen("rb")) {
                 if (getBaseConnection(openConn).isTextMode()) {
                     throw error(RError.Message.ONLY_READ_BINARY_CONNECTION);
                 }
                 switch (what) {
-                    case "int":
-                    case "integer":
-                        int size = sizeInput;
-                        if (size == RRuntime.INT_NA) {
-                            size = 4;
-                        }
-                        if (size == 1 || size == 4 || size == 2) {
-                            result = readInteger(connection, n, size, swap, signed);
-                        } else {
-                            throw RError.nyi(RError.SHOW_CALLER, "readBin \"int\" size not implemented");
-                        }
-                        break;
-                    case "double":
-                    case "numeric":
-                        result = readDouble(connection, n, swap);
-                        break;
-                    case "complex":
-                        result = readComplex(connection, n, swap);
-                        break;
                     case "character":
-                        result = readString(connection, n);
-                        break;
-                    case "logical":
-                        result = readLogical(connection, n, swap);
-                        break;
+                        return readString(connection, n);
                     case "raw":
-                        result = readRaw(connection, n);
-                        break;
+                        return readRaw(new BinaryInput(connection, n), n);
                     default:
-                        throw RInternalError.shouldNotReachHere();
+                        return readElements(new BinaryInput(connection, (long) n * elementSize(what, sizeInput)), what, n, sizeInput, signed, swap);
                 }
             } catch (IOException x) {
                 throw error(RError.Message.ERROR_READING_CONNECTION, x.getMessage());
             }
-            return result;
         }
 
-        private static ByteBuffer fillBuffer(RConnection con, boolean swap, int bytes) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(bytes);
-            // read at least one element
-            do {
-                int bytesRead = con.readBin(buffer);
-                if (bytesRead == 0) {
-                    break;
+        private static int elementSize(String what, int sizeInput) {
+            switch (what) {
+                case "int":
+                case "integer":
+                    return sizeInput == RRuntime.INT_NA ? 4 : sizeInput;
+                case "double":
+                case "numeric":
+                    return 8;
+                case "complex":
+                    return 16;
+                case "logical":
+                    return 4;
+                default:
+                    // reported by readElements
+                    return 1;
+            }
+        }
+
+        private static RAbstractVector readElements(BinaryInput input, String what, int n, int sizeInput, boolean signed, boolean swap) throws IOException {
+            switch (what) {
+                case "int":
+                case "integer":
+                    int size = elementSize(what, sizeInput);
+                    if (size == 1 || size == 4 || size == 2) {
+                        return readInteger(input, n, size, swap, signed);
+                    } else {
+                        throw RError.nyi(RError.SHOW_CALLER, "readBin \"int\" size not implemented");
+                    }
+                case "double":
+                case "numeric":
+                    return readDouble(input, n, swap);
+                case "complex":
+                    return readComplex(input, n, swap);
+                case "logical":
+                    return readLogical(input, n, swap);
+                default:
+                    throw RInternalError.unimplemented();
+            }
+        }
+
+        /**
+         * The source of the data read by {@code readBin}, delivered in chunks that hold a whole
+         * number of elements unless the end of the data was reached. A raw vector is wrapped without
+         * copying, a connection is read through a buffer that is reused for all chunks.
+         */
+        private static final class BinaryInput {
+            private final RConnection con;
+            private final ByteBuffer buffer;
+
+            BinaryInput(RConnection con, long bytes) {
+                this.con = con;
+                int capacity = (int) Math.min(bytes, READ_CHUNK_SIZE);
+                this.buffer = capacity >= MIN_DIRECT_READ_SIZE ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+            }
+
+            BinaryInput(RRawVector vec) {
+                this.con = null;
+                this.buffer = ByteBuffer.wrap(vec.getReadonlyData(), 0, vec.getLength()).slice();
+            }
+
+            /**
+             * Returns the number of elements the result has to be able to hold. Like GNU R, this is
+             * {@code n} for connections, whose remaining size is unknown.
+             */
+            int capacity(int n, int size) {
+                return con == null ? Math.min(n, buffer.remaining() / size) : n;
+            }
+
+            /**
+             * Returns the next chunk of at most {@code maxBytes} bytes; an empty chunk denotes the
+             * end of the data.
+             */
+            ByteBuffer next(long maxBytes, boolean swap) throws IOException {
+                ByteBuffer chunk;
+                if (con == null) {
+                    chunk = buffer.slice();
+                    int length = (int) Math.min(chunk.remaining(), maxBytes);
+                    chunk.limit(length);
+                    buffer.position(buffer.position() + length);
+                } else {
+                    chunk = buffer;
+                    chunk.clear();
+                    if (maxBytes < chunk.capacity()) {
+                        chunk.limit((int) maxBytes);
+                    }
+                    while (chunk.hasRemaining() && con.readBin(chunk) > 0) {
+                        // read at least one element
+                    }
+                    chunk.flip();
                 }
-            } while (buffer.hasRemaining());
-            buffer.flip();
-            checkOrder(buffer, swap);
-            return buffer;
+                return checkOrder(chunk, swap);
+            }
         }
 
-        private static RIntVector readInteger(RConnection con, int n, int size, boolean swap, boolean signed) throws IOException {
-            ByteBuffer buffer = fillBuffer(con, swap, n * size);
-            int nInts = buffer.limit() / size;
-            int[] data = new int[nInts];
+        private static RIntVector readInteger(BinaryInput input, int n, int size, boolean swap, boolean signed) throws IOException {
+            int[] data = new int[input.capacity(n, size)];
+            int count = 0;
+            while (count < data.length) {
+                ByteBuffer chunk = input.next((long) (data.length - count) * size, swap);
+                int nInts = chunk.remaining() / size;
+                if (nInts == 0) {
+                    break;
+                }
+                if (size == 4) {
+                    chunk.asIntBuffer().get(data, count, nInts);
+                } else if (size == 1) {
+                    for (int i = 0; i < nInts; i++) {
+                        byte b = chunk.get();
+                        data[count + i] = signed ? b : b & 0xFF;
+                    }
+                } else if (size == 2) {
+                    ShortBuffer shortBuffer = chunk.asShortBuffer();
+                    for (int i = 0; i < nInts; i++) {
+                        short s = shortBuffer.get();
+                        data[count + i] = signed ? s : s & 0xFFFF;
+                    }
+                }
+                count += nInts;
+            }
             boolean complete = RDataFactory.COMPLETE_VECTOR;
             if (size == 4) {
-                IntBuffer intBuffer = buffer.asIntBuffer();
-                for (int i = 0; i < nInts; i++) {
-                    int d = intBuffer.get();
-                    if (RRuntime.isNA(d)) {
+                for (int i = 0; i < count; i++) {
+                    if (RRuntime.isNA(data[i])) {
                         complete = RDataFactory.INCOMPLETE_VECTOR;
+                        break;
                     }
-                    data[i] = d;
-                }
-            } else if (size == 1) {
-                for (int i = 0; i < nInts; i++) {
-                    byte b = buffer.get();
-                    int d = signed ? b : b & 0xFF;
-                    data[i] = d;
-                }
-            } else if (size == 2) {
-                ShortBuffer shortBuffer = buffer.asShortBuffer();
-                for (int i = 0; i < nInts; i++) {
-                    short s = shortBuffer.get();
-                    data[i] = signed ? s : s & 0xFFFF;
                 }
             }
-            return RDataFactory.createIntVector(data, complete);
+            return RDataFactory.createIntVector(trim(data, count), complete);
         }
 
-        private static RDoubleVector readDouble(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = fillBuffer(con, swap, n * 8);
-            DoubleBuffer doubleBuffer = buffer.asDoubleBuffer();
-            int nDoubles = buffer.limit() / 8;
+        private static RDoubleVector readDouble(BinaryInput input, int n, boolean swap) throws IOException {
+            double[] data = new double[input.capacity(n, 8)];
+            int count = readDoubles(input, data, 8, swap);
             boolean complete = RDataFactory.COMPLETE_VECTOR;
-            double[] data = new double[nDoubles];
-            for (int i = 0; i < nDoubles; i++) {
-                double d = doubleBuffer.get();
-                if (RRuntime.isNA(d)) {
+            for (int i = 0; i < count; i++) {
+                if (RRuntime.isNA(data[i])) {
                     complete = RDataFactory.INCOMPLETE_VECTOR;
+                    break;
                 }
-                data[i] = d;
             }
-            return RDataFactory.createDoubleVector(data, complete);
+            return RDataFactory.createDoubleVector(trim(data, count), complete);
         }
 
-        private static RComplexVector readComplex(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = fillBuffer(con, swap, n * 16);
-            DoubleBuffer doubleBuffer = buffer.asDoubleBuffer();
-            int nComplex = buffer.limit() / 16;
+        private static RComplexVector readComplex(BinaryInput input, int n, boolean swap) throws IOException {
+            double[] data = new double[input.capacity(n, 16) * 2];
+            int count = readDoubles(input, data, 16, swap);
             boolean complete = RDataFactory.COMPLETE_VECTOR;
-            double[] data = new double[nComplex * 2];
-            for (int i = 0; i < nComplex; i++) {
-                double re = doubleBuffer.get();
-                double im = doubleBuffer.get();
-                if (RRuntime.isNA(re) || RRuntime.isNA(im)) {
+            for (int i = 0; i < count; i++) {
+                if (RRuntime.isNA(data[i])) {
                     complete = RDataFactory.INCOMPLETE_VECTOR;
+                    break;
+                }
+            }
+            return RDataFactory.createComplexVector(trim(data, count), complete);
+        }
+
+        /**
+         * Fills {@code data} with whole elements of {@code size} bytes, i.e., pairs of doubles for
+         * complex numbers, and returns the number of doubles read.
+         */
+        private static int readDoubles(BinaryInput input, double[] data, int size, boolean swap) throws IOException {
+            int count = 0;
+            while (count < data.length) {
+                ByteBuffer chunk = input.next((long) (data.length - count) * 8, swap);
+                int nDoubles = chunk.remaining() / size * (size / 8);
+                if (nDoubles == 0) {
+                    break;
+                }
+                chunk.asDoubleBuffer().get(data, count, nDoubles);
+                count += nDoubles;
+            }
+            return count;
+        }
+
+        private static RLogicalVector readLogical(BinaryInput input, int n, boolean swap) throws IOException {
+            byte[] data = new byte[input.capacity(n, 4)];
+            int count = 0;
+            boolean complete = RDataFactory.COMPLETE_VECTOR;
+            while (count < data.length) {
+                ByteBuffer chunk = input.next((long) (data.length - count) * 4, swap);
+                int nInts = chunk.remaining() / 4;
+                if (nInts == 0) {
+                    break;
+                }
+                IntBuffer intBuffer = chunk.asIntBuffer();
+                for (int i = 0; i < nInts; i++) {
+                    int value = intBuffer.get();
+                    if (RRuntime.isNA(value)) {
+                        data[count + i] = RRuntime.LOGICAL_NA;
+                        complete = RDataFactory.INCOMPLETE_VECTOR;
+                    } else {
+                        data[count + i] = value == 1 ? RRuntime.LOGICAL_TRUE : RRuntime.LOGICAL_FALSE;
+                    }
+                }
+                count += nInts;
+            }
+            return RDataFactory.createLogicalVector(trim(data, count), complete);
+        }
+
+        private static RRawVector readRaw(BinaryInput input, int n) throws IOException {
+            byte[] data = new byte[input.capacity(n, 1)];
+            int count = 0;
+            while (count < data.length) {
+                ByteBuffer chunk = input.next(data.length - count, false);
+                int nBytes = chunk.remaining();
+                if (nBytes == 0) {
+                    break;
                 }
-                data[2 * i] = re;
-                data[2 * i + 1] = im;
+                chunk.get(data, count, nBytes);
+                count += nBytes;
             }
-            return RDataFactory.createComplexVector(data, complete);
+            return RDataFactory.createRawVector(trim(data, count));
+        }
+
+        private static int[] trim(int[] data, int length) {
+            return length == data.length ? data : Arrays.copyOf(data, length);
+        }
+
+        private static double[] trim(double[] data, int length) {
+            return length == data.length ? data : Arrays.copyOf(data, length);
+        }
+
+        private static byte[] trim(byte[] data, int length) {
+            return length == data.length ? data : Arrays.copyOf(data, length);
         }
 
         private static RStringVector readString(RConnection con, int n) throws IOException {
@@ -1077,38 +1193,6 @@ public abstract class ConnectionFunctions {
             System.arraycopy(vec.getReadonlyData(), 0, b, 0, length);
             return RDataFactory.createRawVector(b);
         }
-
-        private static RRawVector readRaw(RConnection con, int n) throws IOException {
-            ByteBuffer buffer = fillBuffer(con, false, n);
-            byte[] data = new byte[buffer.limit()];
-            buffer.get(data);
-            return RDataFactory.createRawVector(data);
-        }
-
-        /*
-         * private static RRawVector readRaw(RRawVector raw, int n) { ByteBuffer buffer =
-         * ByteBuffer.allocate(n); int bytesRead = con.readBin(buffer); if (bytesRead == 0) { return
-         * RDataFactory.createEmptyRawVector(); } buffer.flip(); byte[] data = new byte[bytesRead];
-         * buffer.get(data); return RDataFactory.createRawVector(data); }
-         */
-
-        private static RLogicalVector readLogical(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = fillBuffer(con, swap, n * 4);
-            IntBuffer intBuffer = buffer.asIntBuffer();
-            int nInts = buffer.limit() / 4;
-            byte[] data = new byte[nInts];
-            boolean complete = RDataFactory.COMPLETE_VECTOR;
-            for (int i = 0; i < nInts; i++) {
-                int value = intBuffer.get();
-                if (RRuntime.isNA(value)) {
-                    data[i] = RRuntime.LOGICAL_NA;
-                    complete = RDataFactory.INCOMPLETE_VECTOR;
-                } else {
-                    data[i] = value == 1 ? RRuntime.LOGICAL_TRUE : RRuntime.LOGICAL_FALSE;
-                }
-            }
-            return RDataFactory.createLogicalVector(data, complete);
-        }
     }
 
     @ImportStatic(DSLConfig.class)
@@ -1200,6 +1284,8 @@ public abstract class ConnectionFunctions {
     @RBuiltin(name = "writeBin", visibility = OFF, kind = INTERNAL, parameterNames = {"object", "con", "size", "swap", "useBytes"}, behavior = IO)
     public abstract static class WriteBin extends RBuiltinNode.Arg5 {
 
+        private static final int WRITE_CHUNK_SIZE = 1024 * 1024;
+
         static {
             Casts casts = new Casts(WriteBin.class);
             casts.arg("object").asVector().mustBe(RAbstractAtomicVector.class);
@@ -1222,9 +1308,11 @@ public abstract class ConnectionFunctions {
                     if (getBaseConnection(openConn).isTextMode()) {
                         throw error(RError.Message.ONLY_WRITE_BINARY_CONNECTION);
                     }
-                    ByteBuffer buffer = writeData.execute(object, size, swap, useBytes);
-                    buffer.flip();
-                    connection.writeBin(buffer);
+                    if (!writeBulk(connection, object, swap)) {
+                        ByteBuffer buffer = writeData.execute(object, size, swap, useBytes);
+                        buffer.flip();
+                        connection.writeBin(buffer);
+                    }
                 } catch (IOException x) {
                     throw error(RError.Message.ERROR_WRITING_CONNECTION, x.getMessage());
                 }
@@ -1232,6 +1320,52 @@ public abstract class ConnectionFunctions {
             return RNull.instance;
         }
 
+        /**
+         * Writes raw vectors directly from their array and numeric vectors in chunks filled by bulk
+         * copies from their arrays, instead of encoding the whole vector into a single buffer.
+         * Returns {@code false} for the types that are not handled here.
+         */
+        private static boolean writeBulk(RConnection connection, RAbstractVector object, boolean swap) throws IOException {
+            int length = object.getLength();
+            if (object instanceof RRawVector) {
+                connection.writeBin(ByteBuffer.wrap(((RRawVector) object).getReadonlyData(), 0, length));
+            } else if (object instanceof RDoubleVector) {
+                writeDoubles(connection, ((RDoubleVector) object).getReadonlyData(), length, swap);
+            } else if (object instanceof RComplexVector) {
+                writeDoubles(connection, ((RComplexVector) object).getReadonlyData(), length * 2, swap);
+            } else if (object instanceof RIntVector) {
+                int[] data = ((RIntVector) object).getReadonlyData();
+                ByteBuffer buffer = allocateChunk(length * 4L, swap);
+                int perChunk = buffer.capacity() / 4;
+                for (int i = 0; i < length; i += perChunk) {
+                    int count = Math.min(perChunk, length - i);
+                    buffer.clear();
+                    buffer.asIntBuffer().put(data, i, count);
+                    buffer.limit(count * 4);
+                    connection.writeBin(buffer);
+                }
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private static void writeDoubles(RConnection connection, double[] data, int length, boolean swap) throws IOException {
+            ByteBuffer buffer = allocateChunk(length * 8L, swap);
+            int perChunk = buffer.capacity() / 8;
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                buffer.clear();
+                buffer.asDoubleBuffer().put(data, i, count);
+                buffer.limit(count * 8);
+                connection.writeBin(buffer);
+            }
+        }
+
+        private static ByteBuffer allocateChunk(long bytes, boolean swap) {
+            return checkOrder(ByteBuffer.allocate((int) Math.min(bytes, WRITE_CHUNK_SIZE)), swap);
+        }
+
         @Specialization
         protected RRawVector writeBin(RAbstractVector object, @SuppressWarnings("unused") RRawVector con, int size, boolean swap, boolean useBytes,
                         @Cached("create()") WriteDataNode writeData) {
@@ -32,6 +32,9 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.binary.CastTypeNode;
 import com.oracle.truffle.r.nodes.binary.CastTypeNodeGen;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode.NonRecursiveHashMapCharacter;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode.NonRecursiveHashMapInt;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.unary.TypeofNode;
 import com.oracle.truffle.r.runtime.RError;
@@ -40,12 +43,44 @@ import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary.SeqIterator;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.DuplicationHelper;
 
 public class DuplicatedFunctions {
 
+    /**
+     * Returns the position of the first occurrence of each element of {@code x} if {@code x} is a
+     * shared integer or character vector whose hash index is used (see
+     * {@link MatchInternalNode#useIndex}), otherwise {@code null}.
+     */
+    @TruffleBoundary
+    private static int[] firstOccurrences(RAbstractVector x) {
+        if (!(x instanceof RIntVector || x instanceof RStringVector) || !MatchInternalNode.useIndex(x)) {
+            return null;
+        }
+        VectorDataLibrary dataLib = VectorDataLibrary.getFactory().getUncached();
+        Object data = x.getData();
+        int[] result = new int[dataLib.getLength(data)];
+        SeqIterator it = dataLib.iterator(data);
+        if (x instanceof RIntVector) {
+            NonRecursiveHashMapInt index = MatchInternalNode.getIntIndex(x, dataLib);
+            while (dataLib.nextLoopCondition(data, it)) {
+                result[it.getIndex()] = index.get(dataLib.getNextInt(data, it));
+            }
+        } else {
+            NonRecursiveHashMapCharacter index = MatchInternalNode.getCharacterIndex(x, dataLib);
+            while (dataLib.nextLoopCondition(data, it)) {
+                result[it.getIndex()] = index.get(dataLib.getNextString(data, it));
+            }
+        }
+        return result;
+    }
+
     @RBuiltin(name = "duplicated", kind = INTERNAL, parameterNames = {"x", "incomparables", "fromLast", "nmax"}, behavior = PURE)
     public abstract static class Duplicated extends RBuiltinNode.Arg4 {
 
@@ -78,6 +113,16 @@ public class DuplicatedFunctions {
 
         @TruffleBoundary
         protected static RLogicalVector analyzeAndCreateResult(RAbstractVector x, RAbstractVector incomparables, byte fromLast) {
+            if (incomparables == null && fromLast == RRuntime.LOGICAL_FALSE) {
+                int[] firstOccurrence = firstOccurrences(x);
+                if (firstOccurrence != null) {
+                    byte[] dupVec = new byte[firstOccurrence.length];
+                    for (int i = 0; i < dupVec.length; i++) {
+                        dupVec[i] = RRuntime.asLogical(firstOccurrence[i] != i);
+                    }
+                    return RDataFactory.createLogicalVector(dupVec, RDataFactory.COMPLETE_VECTOR);
+                }
+            }
             DuplicationHelper ds = DuplicationHelper.analyze(x, incomparables, false, RRuntime.fromLogical(fromLast));
             return RDataFactory.createLogicalVector(ds.getDupVec(), RDataFactory.COMPLETE_VECTOR);
         }
@@ -139,7 +184,19 @@ public class DuplicatedFunctions {
 
         @SuppressWarnings("unused")
         @Specialization(guards = {"!isIncomparable(incomparables)", "x.getLength() != 0"})
+        @TruffleBoundary
         protected int anyDuplicatedFalseIncomparables(RAbstractVector x, RAbstractVector incomparables, byte fromLast) {
+            if (fromLast == RRuntime.LOGICAL_FALSE) {
+                int[] firstOccurrence = firstOccurrences(x);
+                if (firstOccurrence != null) {
+                    for (int i = 0; i < firstOccurrence.length; i++) {
+                        if (firstOccurrence[i] != i) {
+                            return i + 1;
+                        }
+                    }
+                    return 0;
+                }
+            }
             return DuplicationHelper.analyze(x, null, true, RRuntime.fromLogical(fromLast)).getIndex();
         }
 
@@ -56,6 +56,7 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RList;
@@ -223,12 +224,22 @@ public class GrepFunctions {
 
         protected PCRERFFI.Result compilePerlPattern(String pattern, boolean ignoreCase) {
             int cflags = ignoreCase ? PCRERFFI.CASELESS : 0;
-            long tables = maketablesNode.execute();
-            PCRERFFI.Result pcre = compileNode.execute(pattern, cflags, tables);
+            RegExp.ContextStateImpl regExpState = RContext.getInstance().stateRegExp;
+            PCRERFFI.Result pcre = regExpState.getPCRE(pattern, cflags);
+            if (pcre != null) {
+                return pcre;
+            }
+            long tables = regExpState.getPCRETables();
+            if (tables == 0) {
+                tables = maketablesNode.execute();
+                regExpState.setPCRETables(tables);
+            }
+            pcre = compileNode.execute(pattern, cflags, tables);
             if (pcre.result == 0) {
                 // TODO output warning if pcre.errorMessage not NULL
                 throw error(RError.Message.INVALID_REGEXP, pattern);
             }
+            regExpState.putPCRE(pattern, cflags, pcre);
             return pcre;
         }
     }
@@ -503,7 +514,7 @@ public class GrepFunctions {
                                 preparedReplacement = replacement.replace("$", "\\$");
                                 preparedReplacement = convertGroups(preparedReplacement, 0);
                             }
-                            value = Pattern.compile(pattern, Pattern.LITERAL).matcher(input).replaceAll(preparedReplacement);
+                            value = RegExp.compile(pattern, Pattern.LITERAL).matcher(input).replaceAll(preparedReplacement);
                         } else {
                             int ix = input.indexOf(pattern);
                             if (preparedReplacement == null) {
@@ -571,7 +582,7 @@ public class GrepFunctions {
                             value = sb.toString();
                         }
                     } else {
-                        Matcher matcher = Pattern.compile(pattern, Pattern.DOTALL).matcher(input);
+                        Matcher matcher = RegExp.compile(pattern, Pattern.DOTALL).matcher(input);
                         if (preparedReplacement == null) {
                             preparedReplacement = replacement.replace("$", "\\$");
                             // matcher.groupCount() only depends on the pattern (not on the input)
@@ -1051,7 +1062,7 @@ public class GrepFunctions {
             if (pattern.length() > 0 && pattern.charAt(0) == '*') {
                 actualPattern = pattern.substring(1);
             }
-            return Pattern.compile(actualPattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
+            return RegExp.compile(actualPattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
         }
     }
 
@@ -1178,7 +1189,7 @@ public class GrepFunctions {
 
         @TruffleBoundary
         private static Matcher getPatternMatcher(String pattern, String text, boolean ignoreCase) {
-            return Pattern.compile(pattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
+            return RegExp.compile(pattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
         }
     }
 
@@ -1518,7 +1529,6 @@ public class GrepFunctions {
             // treat split = NULL as split = ""
             RStringVector split = splitArg.getLength() == 0 ? RDataFactory.createStringVectorFromScalar("") : splitArg;
             String[] splits = new String[split.getLength()];
-            long pcreTables = perl ? common.maketablesNode.execute() : 0;
             PCRERFFI.Result[] pcreSplits = perl ? new PCRERFFI.Result[splits.length] : null;
 
             na.enable(x);
@@ -1527,11 +1537,7 @@ public class GrepFunctions {
                 splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
                 if (perl) {
                     if (!currentSplit.isEmpty()) {
-                        pcreSplits[i] = common.compileNode.execute(currentSplit, 0, pcreTables);
-                        if (pcreSplits[i].result == 0) {
-                            // TODO output warning if pcre.errorMessage not NULL
-                            throw error(RError.Message.INVALID_REGEXP, currentSplit);
-                        }
+                        pcreSplits[i] = common.compilePerlPattern(currentSplit, false);
                         // TODO pcre_study for vectors > 10 ? (cf GnuR)
                     }
                 }
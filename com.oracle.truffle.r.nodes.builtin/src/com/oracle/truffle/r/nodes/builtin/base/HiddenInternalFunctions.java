@@ -54,6 +54,7 @@ import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNode;
 import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNodeGen;
 import com.oracle.truffle.r.runtime.data.nodes.ShareObjectNode;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
@@ -247,46 +248,27 @@ public class HiddenInternalFunctions {
             }
             String dbPath = datafile.getDataAt(0);
             String packageName = context.getSafeTruffleFile(dbPath).getName();
-            byte[] dbData = RContext.getInstance().stateLazyDBCache.getData(context, dbPath);
             int dotIndex;
             if ((dotIndex = packageName.lastIndexOf('.')) > 0) {
                 packageName = packageName.substring(0, dotIndex);
             }
             int offset = key.getDataAt(0);
             int length = key.getDataAt(1);
-            int outlen = getOutlen(dbData, offset); // length of uncompressed data
-            byte[] udata = null;
-            boolean rc = true;
+            LazyDBCache.ContextStateImpl dbCache = context.stateLazyDBCache;
             /*
-             * compression may have value 0, 1, 2 or 3. Value 1 is gzip and the data starts at
-             * "offset + 4". Values 2 and 3 have a "type" field at "offset + 4
-             * " and the data starts at "offset + 5". The type field is 'Z' for lzma, '2' for bzip,
-             * '1' for zip and '0' for no compression. From GnuR code, the only difference between
-             * compression=2 and compression=3 is that type='Z' is only possible for the latter.
+             * Uncompressed entries, e.g. those of the base package, are copied straight from the
+             * (possibly memory-mapped) file, which is not slower than a lookup in the cache, so
+             * they do not take up space in it.
              */
-            if (compression == 0) {
-                udata = new byte[length];
-                System.arraycopy(dbData, offset, udata, 0, length);
-            } else {
-                udata = new byte[outlen];
-                if (compression == 2 || compression == 3) {
-                    RCompression.Type type = RCompression.Type.fromTypeChar(dbData[4]);
-                    if (type == null) {
-                        warning(RError.Message.GENERIC, "unknown compression type");
-                        return RNull.instance;
-                    }
-                    byte[] data = new byte[length - 5];
-                    System.arraycopy(dbData, offset + 5, data, 0, data.length);
-                    rc = RCompression.uncompress(type, udata, data);
-                } else {
-                    // GnuR treats any other value as 1
-                    byte[] data = new byte[length - 4];
-                    System.arraycopy(dbData, offset + 4, data, 0, data.length);
-                    rc = RCompression.uncompress(RCompression.Type.GZIP, udata, data);
+            byte[] udata = compression == 0 ? null : dbCache.getEntry(context, dbPath, offset);
+            if (udata == null) {
+                udata = readEntry(dbCache.getData(context, dbPath), dbPath, offset, length, compression);
+                if (udata == null) {
+                    return RNull.instance;
+                }
+                if (compression != 0) {
+                    dbCache.putEntry(context, dbPath, offset, udata);
                 }
-            }
-            if (!rc) {
-                throw error(RError.Message.LAZY_LOAD_DB_CORRUPT, dbPath);
             }
             try {
                 RSerialize.CallHook callHook = new RSerialize.CallHook() {
@@ -314,11 +296,47 @@ public class HiddenInternalFunctions {
             }
         }
 
-        private static int getOutlen(byte[] dbData, int offset) {
-            ByteBuffer dataLengthBuf = ByteBuffer.allocate(4);
-            dataLengthBuf.put(dbData, offset, 4);
-            dataLengthBuf.position(0);
-            return dataLengthBuf.getInt();
+        /**
+         * Decompresses the entry at {@code offset}, the compressed data is read directly from the
+         * (possibly memory-mapped) {@code dbData}.
+         *
+         * @return the uncompressed data or {@code null} if the compression type is unknown
+         */
+        private byte[] readEntry(ByteBuffer dbData, String dbPath, int offset, int length, int compression) {
+            ByteBuffer entry = dbData.duplicate();
+            entry.limit(offset + length);
+            entry.position(offset);
+            byte[] udata;
+            boolean rc = true;
+            /*
+             * compression may have value 0, 1, 2 or 3. Value 1 is gzip and the data starts at
+             * "offset + 4". Values 2 and 3 have a "type" field at "offset + 4
+             * " and the data starts at "offset + 5". The type field is 'Z' for lzma, '2' for bzip,
+             * '1' for zip and '0' for no compression. From GnuR code, the only difference between
+             * compression=2 and compression=3 is that type='Z' is only possible for the latter.
+             */
+            if (compression == 0) {
+                udata = new byte[length];
+                entry.get(udata);
+            } else {
+                int outlen = entry.getInt(); // length of uncompressed data
+                udata = new byte[outlen];
+                if (compression == 2 || compression == 3) {
+                    RCompression.Type type = RCompression.Type.fromTypeChar(entry.get());
+                    if (type == null) {
+                        warning(RError.Message.GENERIC, "unknown compression type");
+                        return null;
+                    }
+                    rc = RCompression.uncompress(type, udata, entry);
+                } else {
+                    // GnuR treats any other value as 1
+                    rc = RCompression.uncompress(RCompression.Type.GZIP, udata, entry);
+                }
+            }
+            if (!rc) {
+                throw error(RError.Message.LAZY_LOAD_DB_CORRUPT, dbPath);
+            }
+            return udata;
         }
 
         private static final class EvaluateAndSharePromiseNode extends Node {
@@ -443,7 +461,7 @@ public class HiddenInternalFunctions {
 
         @TruffleBoundary
         private RIntVector lazyLoadDBinsertValueInternal(RContext context, MaterializedFrame frame, Object value, RStringVector file, int type, int compression, RFunction hook) {
-            if (!(compression == 1 || compression == 3)) {
+            if (!(compression == 1 || compression == 2 || compression == 3)) {
                 throw error(Message.GENERIC, "unsupported compression");
             }
 
@@ -476,18 +494,21 @@ public class HiddenInternalFunctions {
                         throw error(Message.GENERIC, "zlib compress error");
                     }
                 } else {
-                    assert compression == 3;
-                    ctype = RCompression.Type.XZ;
+                    ctype = compression == 2 ? RCompression.Type.BZIP2 : RCompression.Type.XZ;
                     offset = 5;
-                    outLen = data.length;
-                    cdata = new byte[outLen];
-                    boolean rc = RCompression.compress(ctype, data, cdata);
-                    if (!rc) {
-                        throw error(Message.GENERIC, "lzma compress error");
+                    cdata = RCompression.compress(ctype, data);
+                    if (cdata == null) {
+                        throw error(Message.GENERIC, compression == 2 ? "bzip2 compress error" : "lzma compress error");
+                    }
+                    if (cdata.length > data.length) {
+                        // like GnuR, store the data uncompressed if that is smaller
+                        ctype = RCompression.Type.NONE;
+                        cdata = data;
                     }
+                    outLen = cdata.length;
                 }
                 int[] intData = new int[2];
-                intData[1] = outLen + offset; // include length + type (compression == 3)
+                intData[1] = outLen + offset; // include length + type (compression == 2 or 3)
                 intData[0] = appendFile(context, file.getDataAt(0), cdata, data.length, ctype);
                 return RDataFactory.createIntVector(intData, RDataFactory.COMPLETE_VECTOR);
             } catch (Throwable ex) {
@@ -522,8 +543,8 @@ public class HiddenInternalFunctions {
                 byte[] ulenData = new byte[4];
                 dataLengthBuf.get(ulenData);
                 out.write(ulenData);
-                if (type == RCompression.Type.XZ) {
-                    out.write(RCompression.Type.XZ.typeByte);
+                if (type != RCompression.Type.GZIP) {
+                    out.write(type.typeByte);
                 }
                 out.write(cdata);
                 return result;
@@ -29,6 +29,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.binary.BinaryMapBooleanFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
@@ -41,6 +42,7 @@ import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
 import com.oracle.truffle.r.runtime.ops.BinaryCompare;
 
 // TODO support strictly
@@ -52,14 +54,19 @@ public abstract class IsUnsorted extends RBuiltinNode.Arg2 {
     @Child private BinaryMapBooleanFunctionNode gt = new BinaryMapBooleanFunctionNode(BinaryCompare.GREATER_THAN.createOperation());
 
     private final ConditionProfile strictlyProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile sortedProfile = ConditionProfile.createBinaryProfile();
 
     static {
         Casts casts = new Casts(IsUnsorted.class);
         casts.arg("strictly").asLogicalVector().findFirst().mustNotBeNA().map(toBoolean());
     }
 
-    @Specialization
-    protected byte isUnsorted(RDoubleVector x, boolean strictly) {
+    @Specialization(limit = "getTypedVectorDataLibraryCacheSize()")
+    protected byte isUnsorted(RDoubleVector x, boolean strictly,
+                    @CachedLibrary("x.getData()") VectorDataLibrary dataLib) {
+        if (!strictly && sortedProfile.profile(dataLib.isSorted(x.getData(), false, false))) {
+            return RRuntime.LOGICAL_FALSE;
+        }
         double last = x.getDataAt(0);
         for (int k = 1; k < x.getLength(); k++) {
             double current = x.getDataAt(k);
@@ -77,8 +84,12 @@ public abstract class IsUnsorted extends RBuiltinNode.Arg2 {
         return RRuntime.LOGICAL_FALSE;
     }
 
-    @Specialization
-    protected byte isUnsorted(RIntVector x, boolean strictly) {
+    @Specialization(limit = "getTypedVectorDataLibraryCacheSize()")
+    protected byte isUnsorted(RIntVector x, boolean strictly,
+                    @CachedLibrary("x.getData()") VectorDataLibrary dataLib) {
+        if (!strictly && sortedProfile.profile(dataLib.isSorted(x.getData(), false, false))) {
+            return RRuntime.LOGICAL_FALSE;
+        }
         int last = x.getDataAt(0);
         for (int k = 1; k < x.getLength(); k++) {
             int current = x.getDataAt(k);
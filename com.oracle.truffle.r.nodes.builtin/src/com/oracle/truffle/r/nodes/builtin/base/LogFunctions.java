@@ -29,7 +29,9 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.ControlFlowException;
@@ -41,6 +43,7 @@ import com.oracle.truffle.r.runtime.data.nodes.attributes.SpecialAttributesFunct
 import com.oracle.truffle.r.nodes.binary.BinaryMapArithmeticFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.primitive.ParallelMap;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -207,25 +210,75 @@ public class LogFunctions {
             } else {
                 xNACheck.enable(vector);
                 ShowWarningException showWarning = null;
-                for (int i = 0; i < vector.getLength(); i++) {
-                    double value = vector.getDataAt(i);
-                    if (xNACheck.check(value)) {
+                if (ParallelMap.isParallel(resultVector.length)) {
+                    showWarning = logInParallel(vector.getReadonlyData(), base, resultVector, xNACheck);
+                } else {
+                    for (int i = 0; i < vector.getLength(); i++) {
+                        double value = vector.getDataAt(i);
+                        if (xNACheck.check(value)) {
+                            resultVector[i] = RRuntime.DOUBLE_NA;
+                        } else {
+                            try {
+                                resultVector[i] = logb(value, base);
+                            } catch (ShowWarningException ex) {
+                                showWarning = ex;
+                                resultVector[i] = ex.result;
+                            }
+                        }
+                    }
+                }
+                if (showWarning != null) {
+                    RError.warning(showWarning.context, showWarning.message);
+                }
+            }
+            boolean complete = xNACheck.neverSeenNA() && baseNACheck.neverSeenNA();
+            return createResult(vector, resultVector, complete, copyAttrsNode, initDimsNamesDimNames);
+        }
+
+        /**
+         * Returns the warning of the element with the highest index, like the sequential loop. Each
+         * range uses its own NA check, {@code xNACheck} is only updated once all ranges are done.
+         */
+        @TruffleBoundary
+        private ShowWarningException logInParallel(double[] values, double base, double[] resultVector, NACheck xNACheck) {
+            ShowWarningException[] lastWarning = new ShowWarningException[1];
+            int[] lastWarningIndex = {-1};
+            AtomicBoolean xSeenNA = new AtomicBoolean();
+            ParallelMap.forEachRange(values.length, (from, to) -> {
+                NACheck xCheck = NACheck.create();
+                xCheck.enable(true);
+                ShowWarningException showWarning = null;
+                int showWarningIndex = -1;
+                for (int i = from; i < to; i++) {
+                    double value = values[i];
+                    if (xCheck.check(value)) {
                         resultVector[i] = RRuntime.DOUBLE_NA;
                     } else {
                         try {
                             resultVector[i] = logb(value, base);
                         } catch (ShowWarningException ex) {
                             showWarning = ex;
+                            showWarningIndex = i;
                             resultVector[i] = ex.result;
                         }
                     }
                 }
+                if (!xCheck.neverSeenNA()) {
+                    xSeenNA.set(true);
+                }
                 if (showWarning != null) {
-                    RError.warning(showWarning.context, showWarning.message);
+                    synchronized (lastWarning) {
+                        if (showWarningIndex > lastWarningIndex[0]) {
+                            lastWarning[0] = showWarning;
+                            lastWarningIndex[0] = showWarningIndex;
+                        }
+                    }
                 }
+            });
+            if (xSeenNA.get()) {
+                xNACheck.seenNA();
             }
-            boolean complete = xNACheck.neverSeenNA() && baseNACheck.neverSeenNA();
-            return createResult(vector, resultVector, complete, copyAttrsNode, initDimsNamesDimNames);
+            return lastWarning[0];
         }
 
         private double logb(double x, double base, NAProfile naBase) {
@@ -47,6 +47,8 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -628,12 +630,10 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
 
         private final boolean promoteDimNames;
 
-        private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
         private final BranchProfile incompleteProfile = BranchProfile.create();
         @CompilationFinal private boolean seenLargeMatrix;
 
-        private final LoopConditionProfile mainLoopProfile = LoopConditionProfile.createCountingProfile();
-        private final LoopConditionProfile remainingLoopProfile = LoopConditionProfile.createCountingProfile();
+        private final LoopConditionProfile loopProfile = LoopConditionProfile.createCountingProfile();
         private final ConditionProfile noDimAttributes = ConditionProfile.createBinaryProfile();
 
         @Child private SetDimNamesAttributeNode setDimNamesNode = SetDimNamesAttributeNode.create();
@@ -799,25 +799,9 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
                 seenLargeMatrix = true;
             }
             if (seenLargeMatrix) {
-                for (int row = 0; row < aRows; row += BLOCK_SIZE) {
-                    for (int col = mirrored ? row : 0; col < bCols; col += BLOCK_SIZE) {
-                        for (int k = 0; k < aCols; k += BLOCK_SIZE) {
-                            int remainingCols = Math.min(BLOCK_SIZE, bCols - col);
-                            int remainingRows = Math.min(BLOCK_SIZE, aRows - row);
-                            int remainingK = BLOCK_SIZE;
-                            if (k + BLOCK_SIZE > aCols) {
-                                remainingK = aCols - k;
-                            }
-                            if (bigProfile.profile(remainingCols == BLOCK_SIZE && remainingRows == BLOCK_SIZE && remainingK == BLOCK_SIZE)) {
-                                multiplyBlock(dataA, dataB, aRows, result, row, col, k, aRowStride, aColStride, bRowStride, bColStride, BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE, mainLoopProfile);
-                            } else {
-                                multiplyBlock(dataA, dataB, aRows, result, row, col, k, aRowStride, aColStride, bRowStride, bColStride, remainingCols, remainingRows, remainingK, remainingLoopProfile);
-                            }
-                        }
-                    }
-                }
+                multiplyLarge(dataA, dataB, result, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, mirrored);
             } else {
-                multiplyBlock(dataA, dataB, aRows, result, 0, 0, 0, aRowStride, aColStride, bRowStride, bColStride, bCols, aRows, aCols, remainingLoopProfile);
+                multiplyBlock(dataA, dataB, aRows, result, 0, 0, 0, aRowStride, aColStride, bRowStride, bColStride, bCols, aRows, aCols, loopProfile);
             }
             // NAs are checked in bulk here, because doing so during multiplication is too costly
             boolean complete = true;
@@ -861,6 +845,20 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
             return resultVec;
         }
 
+        @TruffleBoundary
+        private static void multiplyLarge(double[] dataA, double[] dataB, double[] result, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride,
+                        boolean mirrored) {
+            RContext context = RContext.getInstance();
+            int threads = 1;
+            if ((long) aRows * aCols * bCols >= context.getNonNegativeIntOption(FastROptions.MatMultParallelThreshold)) {
+                threads = context.getNonNegativeIntOption(FastROptions.MatMultThreads);
+                if (threads == 0) {
+                    threads = Runtime.getRuntime().availableProcessors();
+                }
+            }
+            new MatMultKernel(dataA, dataB, result, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, mirrored).multiply(threads);
+        }
+
         private static void fixNARows(double[] dataA, int aRows, int aCols, int bCols, int aRowStride, int aColStride, double[] result) {
             // NA's in a cause the whole row to be NA in the result
             outer: for (int row = 0; row < aRows; row++) {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cache-blocked product of double matrices used by {@link MatMult} and {@link CrossprodCommon} for
+ * large matrices.
+ *
+ * The result is computed in panels of {@link #PANEL_COLUMNS} columns, which are independent of
+ * each other and can therefore be distributed among several threads. Within a panel, blocks of
+ * {@code a} are copied into a contiguous buffer unless its columns are already contiguous, and the
+ * innermost loop adds a multiple of a column of such a block to a column of the result. Both are
+ * contiguous, so the loop can be vectorized by the compiler.
+ *
+ * Every element of the result is accumulated in the order of the inner dimension, like in the
+ * reference BLAS, so the result depends neither on the blocking nor on the number of threads.
+ */
+final class MatMultKernel {
+
+    private static final int ROW_BLOCK = 256;
+    private static final int INNER_BLOCK = 128;
+    private static final int PANEL_COLUMNS = 32;
+
+    private static ForkJoinPool pool;
+
+    private final double[] a;
+    private final double[] b;
+    private final double[] result;
+    private final int aRows;
+    private final int aCols;
+    private final int bCols;
+    private final int aRowStride;
+    private final int aColStride;
+    private final int bRowStride;
+    private final int bColStride;
+    private final boolean mirrored;
+
+    /**
+     * @see MatMult.MatMultAsDouble#doubleMatrixMultiply for the meaning of the parameters; the
+     *      result is a zero-initialized array of {@code aRows * bCols} elements.
+     */
+    MatMultKernel(double[] a, double[] b, double[] result, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, boolean mirrored) {
+        this.a = a;
+        this.b = b;
+        this.result = result;
+        this.aRows = aRows;
+        this.aCols = aCols;
+        this.bCols = bCols;
+        this.aRowStride = aRowStride;
+        this.aColStride = aColStride;
+        this.bRowStride = bRowStride;
+        this.bColStride = bColStride;
+        this.mirrored = mirrored;
+    }
+
+    void multiply(int threads) {
+        int panels = (bCols + PANEL_COLUMNS - 1) / PANEL_COLUMNS;
+        if (threads <= 1 || panels <= 1) {
+            computePanels(0, panels, new double[ROW_BLOCK * INNER_BLOCK]);
+        } else {
+            // several panels per thread so that the work can be balanced by stealing
+            int panelsPerTask = Math.max(1, panels / (threads * 4));
+            getPool(threads).invoke(new PanelTask(0, panels, panelsPerTask));
+        }
+    }
+
+    private static synchronized ForkJoinPool getPool(int parallelism) {
+        if (pool == null || pool.getParallelism() != parallelism) {
+            // the workers of a replaced pool terminate once they are idle
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    private final class PanelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int panelsPerTask;
+
+        PanelTask(int from, int to, int panelsPerTask) {
+            this.from = from;
+            this.to = to;
+            this.panelsPerTask = panelsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= panelsPerTask) {
+                computePanels(from, to, new double[ROW_BLOCK * INNER_BLOCK]);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PanelTask(from, middle, panelsPerTask), new PanelTask(middle, to, panelsPerTask));
+            }
+        }
+    }
+
+    private void computePanels(int fromPanel, int toPanel, double[] packed) {
+        for (int panel = fromPanel; panel < toPanel; panel++) {
+            int firstCol = panel * PANEL_COLUMNS;
+            computePanel(firstCol, Math.min(firstCol + PANEL_COLUMNS, bCols), packed);
+        }
+    }
+
+    /**
+     * Computes the columns {@code [firstCol, lastCol)} of the result, or only their upper triangle
+     * if the result is {@link #mirrored}.
+     */
+    private void computePanel(int firstCol, int lastCol, double[] packed) {
+        int rows = mirrored ? Math.min(aRows, lastCol) : aRows;
+        for (int k0 = 0; k0 < aCols; k0 += INNER_BLOCK) {
+            int k1 = Math.min(k0 + INNER_BLOCK, aCols);
+            for (int i0 = 0; i0 < rows; i0 += ROW_BLOCK) {
+                int i1 = Math.min(i0 + ROW_BLOCK, rows);
+                double[] block;
+                int blockColStride;
+                int blockStart;
+                if (aRowStride == 1) {
+                    // the columns of a are contiguous already
+                    block = a;
+                    blockColStride = aColStride;
+                    blockStart = k0 * aColStride;
+                } else {
+                    pack(packed, i0, i1, k0, k1);
+                    block = packed;
+                    blockColStride = i1 - i0;
+                    blockStart = -i0;
+                }
+                for (int col = firstCol; col < lastCol; col++) {
+                    int rowEnd = mirrored ? Math.min(i1, col + 1) : i1;
+                    if (rowEnd > i0) {
+                        multiplyColumn(block, blockStart, blockColStride, col, i0, rowEnd, k0, k1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the product of the rows {@code [i0, i1)} and columns {@code [k0, k1)} of {@code a} and
+     * column {@code col} of {@code b} to the result. Element {@code (i, k)} of {@code a} is
+     * {@code block[blockStart + (k - k0) * blockColStride + i]}. Four columns of {@code a} are
+     * processed at once to save loads and stores of the result, the additions are still done in
+     * the order of {@code k}.
+     */
+    private void multiplyColumn(double[] block, int blockStart, int blockColStride, int col, int i0, int i1, int k0, int k1) {
+        int resultStart = col * aRows;
+        int bIndex = col * bColStride + k0 * bRowStride;
+        int block0 = blockStart;
+        int k = k0;
+        for (; k + 3 < k1; k += 4) {
+            double f0 = b[bIndex];
+            double f1 = b[bIndex + bRowStride];
+            double f2 = b[bIndex + 2 * bRowStride];
+            double f3 = b[bIndex + 3 * bRowStride];
+            int block1 = block0 + blockColStride;
+            int block2 = block1 + blockColStride;
+            int block3 = block2 + blockColStride;
+            for (int i = i0; i < i1; i++) {
+                double x = result[resultStart + i];
+                x += block[block0 + i] * f0;
+                x += block[block1 + i] * f1;
+                x += block[block2 + i] * f2;
+                x += block[block3 + i] * f3;
+                result[resultStart + i] = x;
+            }
+            bIndex += 4 * bRowStride;
+            block0 += 4 * blockColStride;
+        }
+        for (; k < k1; k++) {
+            double factor = b[bIndex];
+            for (int i = i0; i < i1; i++) {
+                result[resultStart + i] += block[block0 + i] * factor;
+            }
+            bIndex += bRowStride;
+            block0 += blockColStride;
+        }
+    }
+
+    /**
+     * Copies the rows {@code [i0, i1)} and columns {@code [k0, k1)} of {@code a} into
+     * {@code packed} in column-major order.
+     */
+    private void pack(double[] packed, int i0, int i1, int k0, int k1) {
+        int rows = i1 - i0;
+        for (int i = i0; i < i1; i++) {
+            int index = i * aRowStride + k0 * aColStride;
+            int packedIndex = i - i0;
+            for (int k = k0; k < k1; k++) {
+                packed[packedIndex] = a[index];
+                index += aColStride;
+                packedIndex += rows;
+            }
+        }
+    }
+}
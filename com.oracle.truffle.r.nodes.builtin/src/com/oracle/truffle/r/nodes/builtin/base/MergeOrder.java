@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort of the positions of an integer or double vector, used by {@link Order} for
+ * large vectors.
+ *
+ * The positions are sorted together with their values, which are encoded as {@code long}s whose
+ * signed order is the requested order. Ties are broken by the position, so the result is the same
+ * as the one of the shell sort in {@link Order}, no matter how the work is split. The halves of a
+ * range are sorted by different threads, and large merges are split further by looking up the
+ * middle element of the longer run in the other one.
+ */
+final class MergeOrder {
+
+    private static final int INSERTION_SORT_LENGTH = 16;
+
+    /**
+     * Ranges shorter than this are sorted or merged by a single thread.
+     */
+    private static final int SEQUENTIAL_LENGTH = 8 * 1024;
+
+    private final long[] keys;
+    private final int[] positions;
+    private final long[] keysTmp;
+    private final int[] positionsTmp;
+
+    private MergeOrder(long[] keys, int[] positions) {
+        this.keys = keys;
+        this.positions = positions;
+        this.keysTmp = keys.clone();
+        this.positionsTmp = positions.clone();
+    }
+
+    /**
+     * Sorts {@code indx[lo..hi]} by the values of {@code data} at these positions.
+     */
+    static void sort(int[] indx, int lo, int hi, int[] data, boolean decreasing) {
+        int length = hi - lo + 1;
+        long[] keys = new long[length];
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            int position = indx[lo + i];
+            long value = data[position];
+            keys[i] = decreasing ? ~value : value;
+            positions[i] = position;
+        }
+        new MergeOrder(keys, positions).sort(indx, lo);
+    }
+
+    /**
+     * Sorts {@code indx[lo..hi]} by the values of {@code data} at these positions. Returns
+     * {@code false} without sorting if any of the values is {@code NaN}, because then the order of
+     * the shell sort depends on the initial order.
+     */
+    static boolean sort(int[] indx, int lo, int hi, double[] data, boolean decreasing) {
+        int length = hi - lo + 1;
+        long[] keys = new long[length];
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            int position = indx[lo + i];
+            double value = data[position];
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            // adding 0 turns -0 into 0
+            long bits = Double.doubleToRawLongBits(value + 0.0);
+            long key = bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+            keys[i] = decreasing ? ~key : key;
+            positions[i] = position;
+        }
+        new MergeOrder(keys, positions).sort(indx, lo);
+        return true;
+    }
+
+    private void sort(int[] indx, int lo) {
+        int length = keys.length;
+        int threads = SortWorkers.threadCount(length);
+        // the sorted elements end up in the arrays passed as destination
+        if (threads == 1) {
+            sortRange(keysTmp, positionsTmp, keys, positions, 0, length);
+        } else {
+            SortWorkers.getPool(threads).invoke(new SortTask(keysTmp, positionsTmp, keys, positions, 0, length));
+        }
+        System.arraycopy(positions, 0, indx, lo, length);
+    }
+
+    private static boolean less(long key1, int position1, long key2, int position2) {
+        return key1 < key2 || (key1 == key2 && position1 < position2);
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} into {@code dstKeys} and {@code dstPositions}, both the
+     * source and the destination hold the unsorted elements on entry.
+     */
+    private static void sortRange(long[] srcKeys, int[] srcPositions, long[] dstKeys, int[] dstPositions, int from, int to) {
+        if (to - from <= INSERTION_SORT_LENGTH) {
+            insertionSort(dstKeys, dstPositions, from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sortRange(dstKeys, dstPositions, srcKeys, srcPositions, from, middle);
+        sortRange(dstKeys, dstPositions, srcKeys, srcPositions, middle, to);
+        merge(srcKeys, srcPositions, dstKeys, dstPositions, from, middle, middle, to, from);
+    }
+
+    private static void insertionSort(long[] keys, int[] positions, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int position = positions[i];
+            int j = i - 1;
+            while (j >= from && less(key, position, keys[j], positions[j])) {
+                keys[j + 1] = keys[j];
+                positions[j + 1] = positions[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            positions[j + 1] = position;
+        }
+    }
+
+    /**
+     * Merges the sorted runs {@code [from1, to1)} and {@code [from2, to2)} of the source into the
+     * destination starting at {@code dst}.
+     */
+    private static void merge(long[] srcKeys, int[] srcPositions, long[] dstKeys, int[] dstPositions, int from1, int to1, int from2, int to2, int dst) {
+        int i = from1;
+        int j = from2;
+        int k = dst;
+        while (i < to1 && j < to2) {
+            if (less(srcKeys[j], srcPositions[j], srcKeys[i], srcPositions[i])) {
+                dstKeys[k] = srcKeys[j];
+                dstPositions[k++] = srcPositions[j++];
+            } else {
+                dstKeys[k] = srcKeys[i];
+                dstPositions[k++] = srcPositions[i++];
+            }
+        }
+        System.arraycopy(srcKeys, i, dstKeys, k, to1 - i);
+        System.arraycopy(srcPositions, i, dstPositions, k, to1 - i);
+        k += to1 - i;
+        System.arraycopy(srcKeys, j, dstKeys, k, to2 - j);
+        System.arraycopy(srcPositions, j, dstPositions, k, to2 - j);
+    }
+
+    /**
+     * Returns the first index in {@code [from, to)} whose element is not less than the given one.
+     */
+    private static int lowerBound(long[] keys, int[] positions, int from, int to, long key, int position) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (less(keys[middle], positions[middle], key, position)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] srcKeys;
+        private final int[] srcPositions;
+        private final long[] dstKeys;
+        private final int[] dstPositions;
+        private final int from;
+        private final int to;
+
+        SortTask(long[] srcKeys, int[] srcPositions, long[] dstKeys, int[] dstPositions, int from, int to) {
+            this.srcKeys = srcKeys;
+            this.srcPositions = srcPositions;
+            this.dstKeys = dstKeys;
+            this.dstPositions = dstPositions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_LENGTH) {
+                sortRange(srcKeys, srcPositions, dstKeys, dstPositions, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SortTask(dstKeys, dstPositions, srcKeys, srcPositions, from, middle), new SortTask(dstKeys, dstPositions, srcKeys, srcPositions, middle, to));
+            new MergeTask(srcKeys, srcPositions, dstKeys, dstPositions, from, middle, middle, to, from).compute();
+        }
+    }
+
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] srcKeys;
+        private final int[] srcPositions;
+        private final long[] dstKeys;
+        private final int[] dstPositions;
+        private final int from1;
+        private final int to1;
+        private final int from2;
+        private final int to2;
+        private final int dst;
+
+        MergeTask(long[] srcKeys, int[] srcPositions, long[] dstKeys, int[] dstPositions, int from1, int to1, int from2, int to2, int dst) {
+            this.srcKeys = srcKeys;
+            this.srcPositions = srcPositions;
+            this.dstKeys = dstKeys;
+            this.dstPositions = dstPositions;
+            this.from1 = from1;
+            this.to1 = to1;
+            this.from2 = from2;
+            this.to2 = to2;
+            this.dst = dst;
+        }
+
+        @Override
+        protected void compute() {
+            int length1 = to1 - from1;
+            int length2 = to2 - from2;
+            if (length1 + length2 <= SEQUENTIAL_LENGTH) {
+                merge(srcKeys, srcPositions, dstKeys, dstPositions, from1, to1, from2, to2, dst);
+                return;
+            }
+            // all the elements are distinct, so the split does not need to care about ties
+            int split1;
+            int split2;
+            if (length1 >= length2) {
+                split1 = (from1 + to1) >>> 1;
+                split2 = lowerBound(srcKeys, srcPositions, from2, to2, srcKeys[split1], srcPositions[split1]);
+            } else {
+                split2 = (from2 + to2) >>> 1;
+                split1 = lowerBound(srcKeys, srcPositions, from1, to1, srcKeys[split2], srcPositions[split2]);
+            }
+            int dstSplit = dst + (split1 - from1) + (split2 - from2);
+            invokeAll(new MergeTask(srcKeys, srcPositions, dstKeys, dstPositions, from1, split1, from2, split2, dst),
+                            new MergeTask(srcKeys, srcPositions, dstKeys, dstPositions, split1, to1, split2, to2, dstSplit));
+        }
+    }
+}
@@ -42,7 +42,6 @@ import com.oracle.truffle.r.nodes.builtin.RPrecedenceBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.OrderNodeGen.CmpNodeGen;
 import com.oracle.truffle.r.nodes.builtin.base.OrderNodeGen.IsAtomicNANodeGen;
 import com.oracle.truffle.r.nodes.builtin.base.OrderNodeGen.OrderVector1NodeGen;
-import com.oracle.truffle.r.nodes.builtin.base.SortFunctions.RadixSort;
 import com.oracle.truffle.r.runtime.nodes.unary.CastToVectorNode;
 import com.oracle.truffle.r.runtime.nodes.unary.CastToVectorNodeGen;
 import com.oracle.truffle.r.runtime.RError;
@@ -77,11 +76,6 @@ public abstract class Order extends RPrecedenceBuiltinNode {
     private final ConditionProfile notRemoveNAs = ConditionProfile.createBinaryProfile();
     private final ValueProfile vectorProfile = ValueProfile.createClassProfile();
 
-    /**
-     * For use by {@link RadixSort}.
-     */
-    public abstract Object execute(byte naLast, boolean decreasing, RArgsValuesAndNames args);
-
     private static final int[] SINCS = {1073790977, 268460033, 67121153, 16783361, 4197377, 1050113, 262913, 65921, 16577, 4193, 1073, 281, 77, 23, 8, 1, 0};
 
     private RIntVector executeOrderVector1(RAbstractVector vIn, byte naLast, boolean dec) {
@@ -320,7 +314,13 @@ public abstract class Order extends RPrecedenceBuiltinNode {
      */
 
     abstract static class OrderVector1Node extends RBaseNode {
+        /**
+         * Minimal number of elements sorted by {@link MergeOrder} instead of the shell sort.
+         */
+        private static final int MERGE_SORT_LENGTH = 4 * 1024;
+
         private final ConditionProfile decProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile mergeSortProfile = ConditionProfile.createBinaryProfile();
 
         public abstract Object execute(int[] v, Object dv, byte naLast, boolean dec, boolean sortNA);
 
@@ -482,6 +482,9 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         }
 
         private void sort(int[] indx, RDoubleVector dv, int lo, int hi, boolean dec) {
+            if (mergeSortProfile.profile(hi - lo >= MERGE_SORT_LENGTH) && mergeSort(indx, dv, lo, hi, dec)) {
+                return;
+            }
             int t = 0;
             for (; SINCS[t] > hi - lo + 1; t++) {
             }
@@ -510,6 +513,10 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         }
 
         private void sort(int[] indx, RIntVector dv, int lo, int hi, boolean dec) {
+            if (mergeSortProfile.profile(hi - lo >= MERGE_SORT_LENGTH)) {
+                mergeSort(indx, dv, lo, hi, dec);
+                return;
+            }
             int t = 0;
             for (; SINCS[t] > hi - lo + 1; t++) {
             }
@@ -537,6 +544,16 @@ public abstract class Order extends RPrecedenceBuiltinNode {
             }
         }
 
+        @TruffleBoundary
+        private static boolean mergeSort(int[] indx, RDoubleVector dv, int lo, int hi, boolean dec) {
+            return MergeOrder.sort(indx, lo, hi, dv.getReadonlyData(), dec);
+        }
+
+        @TruffleBoundary
+        private static void mergeSort(int[] indx, RIntVector dv, int lo, int hi, boolean dec) {
+            MergeOrder.sort(indx, lo, hi, dv.getReadonlyData(), dec);
+        }
+
         @TruffleBoundary
         private void sort(int[] indx, RStringVector dv, int lo, int hi, boolean dec) {
             int t = 0;
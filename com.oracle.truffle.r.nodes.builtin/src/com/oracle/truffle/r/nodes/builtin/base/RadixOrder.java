@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * Stable LSD radix sort computing the order of several keys, used by
+ * {@link SortFunctions.RadixSort}.
+ *
+ * The keys are added from the least significant to the most significant one. Each key is first
+ * encoded as an unsigned {@code long} whose order is the requested order of the key, including the
+ * direction and the position of {@code NA}s. Only the bits in which the encoded values of the key
+ * differ are sorted, {@link #DIGIT_BITS} bits per pass, so keys with a small range (logicals,
+ * factors, strings) need a single pass. For large inputs the histogram and scatter steps of a pass
+ * are split into chunks that are processed by several threads; the offsets of the chunks are
+ * computed such that the sort stays stable.
+ *
+ * Like in GNU R, strings are compared by code points, i.e., as in the C locale, and {@code NA} and
+ * {@code NaN} are not distinguished.
+ */
+final class RadixOrder {
+
+    static final int NA_FIRST = -1;
+    static final int NA_REMOVE = 0;
+    static final int NA_LAST = 1;
+
+    private static final int DIGIT_BITS = 11;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    private final int length;
+    private final int naLast;
+    private final int threads;
+    private final boolean retGrp;
+
+    /**
+     * The current order, positions are zero-based.
+     */
+    private int[] order;
+    private int[] orderTmp;
+    private long[] values;
+    private long[] valuesTmp;
+    private int[][] counts;
+
+    /**
+     * Encoded keys retained to compute the groups, only if {@link #retGrp} is set.
+     */
+    private final ArrayList<long[]> groupKeys;
+    private boolean[] isNA;
+
+    RadixOrder(int length, int naLast, boolean retGrp, int threads) {
+        this.length = length;
+        this.naLast = naLast;
+        this.retGrp = retGrp;
+        this.threads = length < RADIX ? 1 : threads;
+        this.groupKeys = retGrp ? new ArrayList<>() : null;
+        this.order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Returns the key of {@code NA}s, given that the keys of all the other values are in
+     * {@code [1, lastKey)}. Keeping the keys close together avoids sorting bits that are only set
+     * in the keys of {@code NA}s.
+     */
+    private long naKey(long lastKey) {
+        return naLast == NA_LAST ? lastKey : 0L;
+    }
+
+    void addKey(int[] data, boolean decreasing) {
+        long[] keys = new long[length];
+        long na = naKey((1L << 32) + 1);
+        for (int i = 0; i < length; i++) {
+            int v = data[i];
+            if (RRuntime.isNA(v)) {
+                keys[i] = na;
+                markNA(i);
+            } else {
+                long key = (long) v - Integer.MIN_VALUE;
+                keys[i] = decreasing ? (1L << 32) - key + 1 : key;
+            }
+        }
+        sortBy(keys);
+    }
+
+    void addKey(byte[] data, boolean decreasing) {
+        long[] keys = new long[length];
+        long na = naKey(3);
+        for (int i = 0; i < length; i++) {
+            byte v = data[i];
+            if (RRuntime.isNA(v)) {
+                keys[i] = na;
+                markNA(i);
+            } else {
+                keys[i] = decreasing ? 2 - v : v + 1;
+            }
+        }
+        sortBy(keys);
+    }
+
+    void addKey(double[] data, boolean decreasing) {
+        long[] keys = new long[length];
+        long na = naKey(-1L);
+        for (int i = 0; i < length; i++) {
+            double v = data[i];
+            if (Double.isNaN(v)) {
+                keys[i] = na;
+                markNA(i);
+            } else {
+                // adding 0 turns -0 into 0
+                long bits = Double.doubleToRawLongBits(v + 0.0);
+                // never 0 or -1, which would be NaNs
+                long key = bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+                keys[i] = decreasing ? ~key : key;
+            }
+        }
+        sortBy(keys);
+    }
+
+    /**
+     * Strings are replaced by their rank among the distinct values. If {@code sortStr} is not set,
+     * the distinct values are ranked in the order of their first appearance, which is enough to
+     * compute the groups.
+     */
+    void addKey(String[] data, boolean decreasing, boolean sortStr) {
+        HashMap<String, Integer> ids = new HashMap<>();
+        ArrayList<String> distinct = new ArrayList<>();
+        int[] idData = new int[length];
+        for (int i = 0; i < length; i++) {
+            String v = data[i];
+            if (RRuntime.isNA(v)) {
+                idData[i] = -1;
+            } else {
+                Integer id = ids.get(v);
+                if (id == null) {
+                    id = distinct.size();
+                    ids.put(v, id);
+                    distinct.add(v);
+                }
+                idData[i] = id;
+            }
+        }
+        int[] rank = new int[distinct.size()];
+        if (sortStr) {
+            String[] sorted = distinct.toArray(new String[distinct.size()]);
+            Arrays.sort(sorted, RadixOrder::compareCodePoints);
+            for (int i = 0; i < sorted.length; i++) {
+                rank[ids.get(sorted[i])] = i;
+            }
+        } else {
+            for (int i = 0; i < rank.length; i++) {
+                rank[i] = i;
+            }
+        }
+        long[] keys = new long[length];
+        long na = naKey(rank.length + 1);
+        for (int i = 0; i < length; i++) {
+            int id = idData[i];
+            if (id == -1) {
+                keys[i] = na;
+                markNA(i);
+            } else {
+                keys[i] = decreasing ? rank.length - rank[id] : rank[id] + 1;
+            }
+        }
+        sortBy(keys);
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                if (Character.isSurrogate(ca) || Character.isSurrogate(cb)) {
+                    return Integer.compare(a.codePointAt(i), b.codePointAt(i));
+                }
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private void markNA(int index) {
+        if (naLast == NA_REMOVE) {
+            if (isNA == null) {
+                isNA = new boolean[length];
+            }
+            isNA[index] = true;
+        }
+    }
+
+    private void sortBy(long[] keys) {
+        if (retGrp) {
+            groupKeys.add(keys);
+        }
+        if (length == 0) {
+            return;
+        }
+        long min = keys[0];
+        long max = keys[0];
+        for (int i = 1; i < length; i++) {
+            long key = keys[i];
+            if (Long.compareUnsigned(key, min) < 0) {
+                min = key;
+            } else if (Long.compareUnsigned(key, max) > 0) {
+                max = key;
+            }
+        }
+        long range = max - min;
+        if (range == 0) {
+            return;
+        }
+        if (values == null) {
+            values = new long[length];
+            valuesTmp = new long[length];
+            orderTmp = new int[length];
+            counts = new int[threads][RADIX];
+        }
+        for (int i = 0; i < length; i++) {
+            values[i] = keys[order[i]] - min;
+        }
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(range);
+        for (int shift = 0; shift < bits; shift += DIGIT_BITS) {
+            pass(shift);
+        }
+    }
+
+    /**
+     * Stable counting sort of {@link #values} and {@link #order} by the digit at {@code shift}.
+     */
+    private void pass(int shift) {
+        int chunkSize = (length + threads - 1) / threads;
+        forEachChunk(chunk -> {
+            int[] count = counts[chunk];
+            Arrays.fill(count, 0);
+            int end = Math.min(length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                count[(int) (values[i] >>> shift) & DIGIT_MASK]++;
+            }
+        });
+        // turn the counts into the start offsets of each digit in each chunk
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int total = 0;
+            for (int chunk = 0; chunk < threads; chunk++) {
+                total += counts[chunk][digit];
+            }
+            if (total == length) {
+                // all the values have the same digit
+                return;
+            }
+            for (int chunk = 0; chunk < threads; chunk++) {
+                int count = counts[chunk][digit];
+                counts[chunk][digit] = offset;
+                offset += count;
+            }
+        }
+        forEachChunk(chunk -> {
+            int[] next = counts[chunk];
+            int end = Math.min(length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                long value = values[i];
+                int target = next[(int) (value >>> shift) & DIGIT_MASK]++;
+                valuesTmp[target] = value;
+                orderTmp[target] = order[i];
+            }
+        });
+        long[] swapValues = values;
+        values = valuesTmp;
+        valuesTmp = swapValues;
+        int[] swapOrder = order;
+        order = orderTmp;
+        orderTmp = swapOrder;
+    }
+
+    private void forEachChunk(IntConsumer action) {
+        if (threads == 1) {
+            action.accept(0);
+            return;
+        }
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            int chunk = i;
+            tasks[i] = ForkJoinTask.adapt(() -> action.accept(chunk));
+        }
+        SortWorkers.getPool(threads).invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Returns the one-based order, without the positions of {@code NA}s if they are to be removed.
+     */
+    int[] getOrder() {
+        int[] result;
+        if (isNA == null) {
+            result = new int[length];
+            for (int i = 0; i < length; i++) {
+                result[i] = order[i] + 1;
+            }
+        } else {
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if (!isNA[i]) {
+                    count++;
+                }
+            }
+            result = new int[count];
+            int pos = 0;
+            for (int i = 0; i < length; i++) {
+                if (!isNA[order[i]]) {
+                    result[pos++] = order[i] + 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the one-based end positions in {@code order} of the groups of equal keys.
+     */
+    int[] getGroupEnds(int[] resultOrder) {
+        assert retGrp;
+        int n = resultOrder.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        boolean[] isEnd = new boolean[n];
+        isEnd[n - 1] = true;
+        int groups = 1;
+        for (long[] keys : groupKeys) {
+            long previous = keys[resultOrder[0] - 1];
+            for (int i = 1; i < n; i++) {
+                long current = keys[resultOrder[i] - 1];
+                if (current != previous && !isEnd[i - 1]) {
+                    isEnd[i - 1] = true;
+                    groups++;
+                }
+                previous = current;
+            }
+        }
+        int[] ends = new int[groups];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            if (isEnd[i]) {
+                ends[pos++] = i + 1;
+            }
+        }
+        return ends;
+    }
+}
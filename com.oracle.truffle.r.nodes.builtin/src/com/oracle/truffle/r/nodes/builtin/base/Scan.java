@@ -36,9 +36,8 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -49,30 +48,27 @@ import com.oracle.truffle.r.runtime.nodes.unary.CastToVectorNode;
 import com.oracle.truffle.r.runtime.nodes.unary.CastToVectorNodeGen;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
-import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.conn.RConnection;
 import com.oracle.truffle.r.runtime.conn.RConnection.ReadLineWarning;
 import com.oracle.truffle.r.runtime.conn.StdConnections;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
-import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 @RBuiltin(name = "scan", kind = INTERNAL, parameterNames = {"file", "what", "nmax", "sep", "dec", "quote", "skip", "nlines", "na.strings", "flush", "fill", "strip.white", "quiet", "blank.lines.skip",
                 "multi.line", "comment.char", "allowEscapes", "encoding", "skipNull"}, behavior = IO)
 public abstract class Scan extends RBuiltinNode.Arg19 {
 
-    private static final int SCAN_BLOCKSIZE = 1000;
     private static final int NO_COMCHAR = 100000; /* won't occur even in Unicode */
 
-    private final NACheck naCheck = NACheck.create();
     @Child private ExtractNamesAttributeNode extractNames = ExtractNamesAttributeNode.create();
 
     @Child private CastToVectorNode castVector;
@@ -86,8 +82,8 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
     }
 
     @SuppressWarnings("unused")
-    private static class LocalData {
-        final HashMap<String, String> stringTable = new HashMap<>();
+    static class LocalData {
+        final ConcurrentHashMap<String, String> stringTable = new ConcurrentHashMap<>();
         RStringVector naStrings = null;
         boolean quiet = false;
         char sepchar = 0; // 0 means any whitespace
@@ -108,16 +104,6 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         boolean skipNull = false;
     }
 
-    private static class GetQuotedItemsResult {
-        final String[] items;
-        final int pos;
-
-        GetQuotedItemsResult(String[] items, int pos) {
-            this.items = items;
-            this.pos = pos;
-        }
-    }
-
     static {
         Casts casts = new Casts(Scan.class);
         casts.arg("file").defaultError(Message.INVALID_CONNECTION).mustNotBeNull().asIntegerVector().findFirst();
@@ -220,108 +206,6 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         }
     }
 
-    private static int skipWhitespace(String s, int start) {
-        int pos = start;
-        while (pos < s.length() && (s.charAt(pos) == ' ' || s.charAt(pos) == '\t')) {
-            pos++;
-        }
-        return pos;
-    }
-
-    private static boolean isInSet(char ch, char[] quoteset) {
-        for (int i = 0; i < quoteset.length; i++) {
-            if (ch == quoteset[i]) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static GetQuotedItemsResult getQuotedItems(LocalData data, int maxItems, String s) {
-        ArrayList<String> items = new ArrayList<>();
-
-        char sepchar = data.sepchar;
-        char[] quoteset = data.quoteset;
-        int length = s.length();
-        int pos = 0;
-        if (sepchar == 0) {
-            pos = skipWhitespace(s, pos);
-        }
-        if (pos == length) {
-            return new GetQuotedItemsResult(new String[0], pos);
-        }
-        StringBuilder str = new StringBuilder();
-        do {
-            char ch = s.charAt(pos);
-            if (sepchar == 0 && (ch == ' ' || ch == '\t')) {
-                pos = skipWhitespace(s, pos);
-                if (pos == length) {
-                    break;
-                }
-                items.add(str.toString());
-                str.setLength(0);
-            } else if (sepchar != 0 && ch == sepchar) {
-                pos++;
-                items.add(str.toString());
-                str.setLength(0);
-            } else if (str.length() == 0 && isInSet(ch, quoteset)) {
-                char quoteStart = ch;
-                pos++;
-                while (true) {
-                    if (pos == length) {
-                        throw RError.error(RError.SHOW_CALLER, Message.INCOMPLETE_FINAL_LINE, s);
-                    }
-                    ch = s.charAt(pos++);
-                    if (ch == quoteStart) {
-                        if (pos < length && s.charAt(pos) == quoteStart) {
-                            str.append(quoteStart);
-                            pos++;
-                        } else {
-                            break;
-                        }
-                    } else {
-                        str.append(ch);
-                    }
-                }
-            } else {
-                str.append(ch);
-                pos++;
-            }
-        } while (pos < s.length() && (maxItems <= 0 || items.size() < maxItems));
-        if (str.length() > 0) {
-            items.add(str.toString());
-        }
-        return new GetQuotedItemsResult(items.toArray(new String[items.size()]), pos);
-    }
-
-    private static String[] getItems(LocalData data, int maxItems, boolean blSkip) throws IOException {
-        while (true) {
-            String[] str = data.con.readLines(1, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), false);
-            if (str == null || str.length == 0) {
-                return null;
-            } else {
-                GetQuotedItemsResult res = getQuotedItems(data, maxItems, str[0]);
-                String[] items = res.items;
-                if (blSkip && items.length == 0) {
-                    continue;
-                } else {
-                    if (res.pos < str[0].length()) {
-                        RStringVector remainder = RDataFactory.createStringVectorFromScalar(str[0].substring(res.pos));
-                        data.con.pushBack(remainder, true);
-                    }
-                    return items.length == 0 ? new String[]{""} : items;
-                }
-            }
-        }
-    }
-
-    private void fillEmpty(int from, int to, int records, RList list, LocalData data) {
-        for (int i = from; i < to; i++) {
-            RAbstractVector vec = (RAbstractVector) list.getDataAt(i);
-            vec.updateDataAtAsObject(records, extractItem(vec, "", data), naCheck);
-        }
-    }
-
     private RAbstractVector scanFrame(RList what, int maxRecords, int maxLines, boolean flush, boolean fill, @SuppressWarnings("unused") boolean stripWhite, boolean blSkip, boolean multiLine,
                     LocalData data) throws IOException {
 
@@ -329,231 +213,61 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         if (nc == 0) {
             throw error(RError.Message.EMPTY_WHAT);
         }
-        int blockSize = maxRecords > 0 ? maxRecords : (maxLines > 0 ? maxLines : SCAN_BLOCKSIZE);
 
-        RList list = RDataFactory.createList(nc);
+        ScanColumn[] columns = new ScanColumn[nc];
         for (int i = 0; i < nc; i++) {
             if (what.getDataAt(i) == RNull.instance) {
                 throw error(RError.Message.INVALID_ARGUMENT, "what");
             } else {
-                RAbstractVector vec = castVector(what.getDataAt(i));
-                list.updateDataAt(i, vec.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR), null);
+                columns[i] = ScanColumn.create(castVector(what.getDataAt(i)).getRType(), data);
             }
         }
+        RList list = scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, columns);
         list.setNames(extractNames.execute(what));
-
-        naCheck.enable(true);
-
-        return scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, nc, blockSize, list);
+        return list;
     }
 
     @TruffleBoundary
-    private RAbstractVector scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, int nc, int initialBlockSize, RList list)
-                    throws IOException {
-        int blockSize = initialBlockSize;
-        int n = 0;
-        int lines = 0;
-        int records = 0;
-        while (true) {
-            // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, maxRecords, blSkip);
-            if (strItems == null) {
-                break;
-            }
-
-            boolean done = false;
-            for (int i = 0; i < Math.max(nc, strItems.length); i++) {
-
-                if (n == strItems.length) {
-                    if (fill) {
-                        fillEmpty(n, nc, records, list, data);
-                        records++;
-                        n = 0;
-                        break;
-                    } else if (!multiLine) {
-                        throw error(RError.Message.LINE_ELEMENTS, lines + 1, nc);
-                    } else {
-                        strItems = getItems(data, maxRecords, blSkip);
-                        // Checkstyle: stop modified control variable check
-                        i = 0;
-                        // Checkstyle: resume modified control variable check
-                        if (strItems == null) {
-                            done = true;
-                            break;
-                        }
-                    }
-                }
-                Object item = extractItem((RAbstractVector) list.getDataAt(n), strItems[i], data);
-
-                if (records == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    for (int j = 0; j < nc; j++) {
-                        RAbstractVector vec = (RAbstractVector) list.getDataAt(j);
-                        vec = vec.copyResized(blockSize, false);
-                        list.updateDataAt(j, vec, null);
-                    }
-                }
-
-                RAbstractVector vec = (RAbstractVector) list.getDataAt(n);
-                vec.updateDataAtAsObject(records, item, naCheck);
-                n++;
-                if (n == nc) {
-                    records++;
-                    n = 0;
-                    if (records == maxRecords) {
-                        done = true;
-                        break;
-                    }
-                    if (flush) {
-                        break;
-                    }
+    private RList scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, ScanColumn[] columns) throws IOException {
+        int records;
+        try (ScanTokenizer tokenizer = new ScanTokenizer(this, data, columns, maxRecords, maxLines, flush, fill, blSkip, multiLine, getThreads())) {
+            records = tokenizer.read();
+            if (tokenizer.getPendingFields() > 0) {
+                if (!fill) {
+                    warning(RError.Message.ITEMS_NOT_MULTIPLE);
                 }
+                records = tokenizer.fillPendingRecord();
             }
-            if (done) {
-                break;
-            }
-            lines++;
-            if (lines == maxLines) {
-                break;
-            }
-        }
-
-        if (n > 0 && n < nc) {
-            if (!fill) {
-                warning(RError.Message.ITEMS_NOT_MULTIPLE);
-            }
-            fillEmpty(n, nc, records, list, data);
-            records++;
         }
 
         if (!data.quiet) {
             String s = String.format("Read %d record%s", records, (records == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vectors if necessary
-        for (int i = 0; i < nc; i++) {
-            RAbstractVector vec = (RAbstractVector) list.getDataAt(i);
-            if (vec.getLength() > records) {
-                list.updateDataAt(i, vec.copyResized(records, false), null);
-            }
+        Object[] vectors = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            vectors[i] = columns[i].toVector(records);
         }
-
-        return list;
+        return RDataFactory.createList(vectors);
     }
 
     @TruffleBoundary
     private RAbstractVector scanVector(RAbstractVector what, int maxItems, int maxLines, @SuppressWarnings("unused") boolean flush, @SuppressWarnings("unused") boolean stripWhite, boolean blSkip,
                     LocalData data) throws IOException {
-        int blockSize = maxItems > 0 ? maxItems : SCAN_BLOCKSIZE;
-        RAbstractVector vec = what.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR);
-        naCheck.enable(true);
-
-        int n = 0;
-        int lines = 0;
-        while (true) {
-            // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, maxItems, blSkip);
-            if (strItems == null) {
-                break;
-            }
-
-            boolean done = false;
-            for (int i = 0; i < strItems.length; i++) {
-
-                Object item = extractItem(what, strItems[i], data);
-
-                if (n == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    vec = vec.copyResized(blockSize, false);
-                }
-
-                vec.updateDataAtAsObject(n, item, naCheck);
-                n++;
-                if (n == maxItems) {
-                    done = true;
-                    break;
-                }
-            }
-            if (done) {
-                break;
-            }
-            lines++;
-            if (lines == maxLines) {
-                break;
-            }
+        ScanColumn[] columns = new ScanColumn[]{ScanColumn.create(what.getRType(), data)};
+        int n;
+        try (ScanTokenizer tokenizer = new ScanTokenizer(this, data, columns, maxItems, maxLines, false, false, blSkip, true, getThreads())) {
+            n = tokenizer.read();
         }
         if (!data.quiet) {
             String s = String.format("Read %d item%s", n, (n == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vector if necessary
-        return vec.getLength() > n ? vec.copyResized(n, false) : vec;
+        return columns[0].toVector(n);
     }
 
-    // If mode = 0 use for numeric fields where "" is NA
-    // If mode = 1 use for character fields where "" is verbatim unless
-    // na.strings includes ""
-    private static boolean isNaString(String buffer, int mode, LocalData data) {
-        int i;
-
-        if (mode == 0 && buffer.length() == 0) {
-            return true;
-        }
-        for (i = 0; i < data.naStrings.getLength(); i++) {
-            if (data.naStrings.getDataAt(i).equals(buffer)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static Object extractItem(RAbstractVector what, String buffer, LocalData data) {
-        try {
-            switch (what.getRType()) {
-                case Logical:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.LOGICAL_NA;
-                    } else {
-                        return RRuntime.string2logicalNoCheck(buffer);
-                    }
-                case Integer:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.INT_NA;
-                    } else {
-                        return RRuntime.parseInt(buffer);
-                    }
-                case Double:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.DOUBLE_NA;
-                    } else {
-                        return RRuntime.string2doubleNoCheck(buffer);
-                    }
-                case Complex:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.COMPLEX_NA;
-                    } else {
-                        return RRuntime.string2complexNoCheck(buffer);
-                    }
-                case Character:
-                    if (isNaString(buffer, 1, data)) {
-                        return RRuntime.STRING_NA;
-                    } else {
-                        String oldEntry = data.stringTable.putIfAbsent(buffer, buffer);
-                        return oldEntry == null ? buffer : oldEntry;
-                    }
-                case Raw:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRaw.valueOf((byte) 0);
-                    } else {
-                        return RRuntime.string2raw(buffer);
-                    }
-                default:
-                    throw RInternalError.shouldNotReachHere();
-            }
-        } catch (NumberFormatException e) {
-            throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, what.getRType().getName(), buffer);
-        }
+    private static int getThreads() {
+        int threads = RContext.getInstance().getNonNegativeIntOption(FastROptions.ScanThreads);
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
     }
 }
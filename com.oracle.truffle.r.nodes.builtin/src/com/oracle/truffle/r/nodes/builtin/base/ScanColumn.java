@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.ArrayList;
+
+import com.oracle.truffle.r.nodes.builtin.base.Scan.LocalData;
+import com.oracle.truffle.r.nodes.builtin.base.ScanTokenizer.LineFields;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Typed column buffer used by {@link Scan}. The fields of the input lines are converted directly
+ * into primitive arrays that grow in chunks of {@link #CHUNK_SIZE} elements, so that growing a
+ * column never copies the values read so far. The result vector is allocated once with its exact
+ * length.
+ *
+ * Different elements of a column can be set concurrently, but growing the column must not overlap
+ * with setting elements.
+ */
+abstract class ScanColumn {
+
+    private static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    protected final LocalData data;
+    private final RType type;
+    private int capacity;
+
+    /**
+     * Cleared once an NA value is stored. Only ever written with {@code false}, which makes
+     * concurrent updates benign.
+     */
+    protected boolean complete = true;
+
+    protected ScanColumn(LocalData data, RType type) {
+        this.data = data;
+        this.type = type;
+    }
+
+    static ScanColumn create(RType type, LocalData data) {
+        switch (type) {
+            case Logical:
+                return new LogicalColumn(data);
+            case Integer:
+                return new IntColumn(data);
+            case Double:
+                return new DoubleColumn(data);
+            case Complex:
+                return new ComplexColumn(data);
+            case Character:
+                return new StringColumn(data);
+            case Raw:
+                return new RawColumn(data);
+            default:
+                throw RError.error(RError.SHOW_CALLER, Message.INVALID_ARGUMENT, "what");
+        }
+    }
+
+    final RType getType() {
+        return type;
+    }
+
+    final void ensureCapacity(int length) {
+        while (capacity < length) {
+            addChunk();
+            capacity += CHUNK_SIZE;
+        }
+    }
+
+    protected static int chunk(int index) {
+        return index >>> CHUNK_BITS;
+    }
+
+    protected static int offset(int index) {
+        return index & CHUNK_MASK;
+    }
+
+    /**
+     * Copies the first {@code length} elements of the chunks into {@code result}.
+     */
+    protected static void copyChunks(ArrayList<?> chunks, Object result, int length, int width) {
+        for (int i = 0; i * CHUNK_SIZE < length; i++) {
+            System.arraycopy(chunks.get(i), 0, result, i * CHUNK_SIZE * width, Math.min(CHUNK_SIZE, length - i * CHUNK_SIZE) * width);
+        }
+    }
+
+    protected abstract void addChunk();
+
+    /**
+     * Converts the given field and stores it at {@code index}.
+     *
+     * @throws NumberFormatException if the field cannot be converted to the type of the column
+     */
+    abstract void set(int index, LineFields fields, int field);
+
+    abstract RAbstractVector toVector(int length);
+
+    /**
+     * If {@code numeric} is {@code true}, an empty field is NA, otherwise it is only NA if it is
+     * one of the {@code na.strings}.
+     */
+    protected final boolean isNaString(LineFields fields, int field, boolean numeric) {
+        int length = fields.length(field);
+        if (numeric && length == 0) {
+            return true;
+        }
+        for (int i = 0; i < data.naStrings.getLength(); i++) {
+            if (fields.textEquals(field, data.naStrings.getDataAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same as {@link RRuntime#parseInt(String)}, but without creating a string for the field.
+     */
+    static int parseInt(String s, int start, int end) {
+        if (start == end) {
+            throw new NumberFormatException();
+        }
+        long value = 0;
+        boolean negative = s.charAt(start) == '-';
+        int pos = negative ? start + 1 : start;
+        if (pos == end) {
+            throw new NumberFormatException();
+        }
+        long max = negative ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE;
+        while (pos < end) {
+            char ch = s.charAt(pos++);
+            if (ch < '0' || ch > '9') {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + (ch - '0');
+            if (value > max) {
+                return RRuntime.INT_NA;
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Parses simple decimal numbers ({@code [+-]digits[.digits][e[+-]digits]}) whose value can be
+     * computed exactly rounded from a mantissa below 2^53 and a power of ten up to 10^22. Returns
+     * {@link Double#NaN} for all other input, which has to be handled by the general (string based)
+     * conversion.
+     */
+    static double parseSimpleDouble(String s, int start, int end, char dec) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+            negative = s.charAt(pos) == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        boolean digits = false;
+        char ch;
+        while (pos < end && (ch = s.charAt(pos)) >= '0' && ch <= '9') {
+            mantissa = mantissa * 10 + (ch - '0');
+            if (mantissa >= MAX_EXACT_MANTISSA) {
+                return Double.NaN;
+            }
+            digits = true;
+            pos++;
+        }
+        if (pos < end && s.charAt(pos) == dec) {
+            pos++;
+            while (pos < end && (ch = s.charAt(pos)) >= '0' && ch <= '9') {
+                mantissa = mantissa * 10 + (ch - '0');
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return Double.NaN;
+                }
+                exponent--;
+                digits = true;
+                pos++;
+            }
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        if (pos < end && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+                negativeExponent = s.charAt(pos) == '-';
+                pos++;
+            }
+            if (pos == end) {
+                return Double.NaN;
+            }
+            int e = 0;
+            while (pos < end && (ch = s.charAt(pos)) >= '0' && ch <= '9') {
+                e = e * 10 + (ch - '0');
+                if (e > POWERS_OF_TEN.length * 2) {
+                    return Double.NaN;
+                }
+                pos++;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (pos != end || exponent < -(POWERS_OF_TEN.length - 1) || exponent > POWERS_OF_TEN.length - 1) {
+            return Double.NaN;
+        }
+        // both operands are exact, so the single rounding of the operation gives the correct result
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Text of the field with the decimal separator replaced by {@code '.'}.
+     */
+    protected final String numericText(LineFields fields, int field) {
+        String text = fields.text(field);
+        return data.decchar == '.' ? text : text.replace(data.decchar, '.');
+    }
+
+    private static final class LogicalColumn extends ScanColumn {
+        private final ArrayList<byte[]> chunks = new ArrayList<>();
+
+        LogicalColumn(LocalData data) {
+            super(data, RType.Logical);
+        }
+
+        @Override
+        protected void addChunk() {
+            chunks.add(new byte[CHUNK_SIZE]);
+        }
+
+        @Override
+        void set(int index, LineFields fields, int field) {
+            byte value = isNaString(fields, field, true) ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(fields.text(field));
+            if (value == RRuntime.LOGICAL_NA) {
+                complete = false;
+            }
+            chunks.get(chunk(index))[offset(index)] = value;
+        }
+
+        @Override
+        RAbstractVector toVector(int length) {
+            byte[] result = new byte[length];
+            copyChunks(chunks, result, length, 1);
+            return RDataFactory.createLogicalVector(result, complete);
+        }
+    }
+
+    private static final class IntColumn extends ScanColumn {
+        private final ArrayList<int[]> chunks = new ArrayList<>();
+
+        IntColumn(LocalData data) {
+            super(data, RType.Integer);
+        }
+
+        @Override
+        protected void addChunk() {
+            chunks.add(new int[CHUNK_SIZE]);
+        }
+
+        @Override
+        void set(int index, LineFields fields, int field) {
+            int value;
+            if (isNaString(fields, field, true)) {
+                value = RRuntime.INT_NA;
+            } else if (fields.hasRange(field)) {
+                value = parseInt(fields.line, fields.start(field), fields.end(field));
+            } else {
+                value = RRuntime.parseInt(fields.text(field));
+            }
+            if (value == RRuntime.INT_NA) {
+                complete = false;
+            }
+            chunks.get(chunk(index))[offset(index)] = value;
+        }
+
+        @Override
+        RAbstractVector toVector(int length) {
+            int[] result = new int[length];
+            copyChunks(chunks, result, length, 1);
+            return RDataFactory.createIntVector(result, complete);
+        }
+    }
+
+    private static final class DoubleColumn extends ScanColumn {
+        private final ArrayList<double[]> chunks = new ArrayList<>();
+
+        DoubleColumn(LocalData data) {
+            super(data, RType.Double);
+        }
+
+        @Override
+        protected void addChunk() {
+            chunks.add(new double[CHUNK_SIZE]);
+        }
+
+        @Override
+        void set(int index, LineFields fields, int field) {
+            double value;
+            if (isNaString(fields, field, true)) {
+                value = RRuntime.DOUBLE_NA;
+            } else {
+                value = fields.hasRange(field) ? parseSimpleDouble(fields.line, fields.start(field), fields.end(field), data.decchar) : Double.NaN;
+                if (Double.isNaN(value)) {
+                    value = RRuntime.string2doubleNoCheck(numericText(fields, field));
+                }
+            }
+            if (RRuntime.isNA(value)) {
+                complete = false;
+            }
+            chunks.get(chunk(index))[offset(index)] = value;
+        }
+
+        @Override
+        RAbstractVector toVector(int length) {
+            double[] result = new double[length];
+            copyChunks(chunks, result, length, 1);
+            return RDataFactory.createDoubleVector(result, complete);
+        }
+    }
+
+    private static final class ComplexColumn extends ScanColumn {
+        private final ArrayList<double[]> chunks = new ArrayList<>();
+
+        ComplexColumn(LocalData data) {
+            super(data, RType.Complex);
+        }
+
+        @Override
+        protected void addChunk() {
+            chunks.add(new double[CHUNK_SIZE * 2]);
+        }
+
+        @Override
+        void set(int index, LineFields fields, int field) {
+            RComplex value = isNaString(fields, field, true) ? RRuntime.COMPLEX_NA : RRuntime.string2complexNoCheck(numericText(fields, field));
+            if (RRuntime.isNA(value)) {
+                complete = false;
+            }
+            double[] c = chunks.get(chunk(index));
+            c[offset(index) * 2] = value.getRealPart();
+            c[offset(index) * 2 + 1] = value.getImaginaryPart();
+        }
+
+        @Override
+        RAbstractVector toVector(int length) {
+            double[] result = new double[length * 2];
+            copyChunks(chunks, result, length, 2);
+            return RDataFactory.createComplexVector(result, complete);
+        }
+    }
+
+    private static final class StringColumn extends ScanColumn {
+        private final ArrayList<String[]> chunks = new ArrayList<>();
+
+        StringColumn(LocalData data) {
+            super(data, RType.Character);
+        }
+
+        @Override
+        protected void addChunk() {
+            chunks.add(new String[CHUNK_SIZE]);
+        }
+
+        @Override
+        void set(int index, LineFields fields, int field) {
+            String value;
+            if (isNaString(fields, field, false)) {
+                value = RRuntime.STRING_NA;
+                complete = false;
+            } else {
+                String text = fields.text(field);
+                String oldEntry = data.stringTable.putIfAbsent(text, text);
+                value = oldEntry == null ? text : oldEntry;
+            }
+            chunks.get(chunk(index))[offset(index)] = value;
+        }
+
+        @Override
+        RAbstractVector toVector(int length) {
+            String[] result = new String[length];
+            copyChunks(chunks, result, length, 1);
+            return RDataFactory.createStringVector(result, complete);
+        }
+    }
+
+    private static final class RawColumn extends ScanColumn {
+        private final ArrayList<byte[]> chunks = new ArrayList<>();
+
+        RawColumn(LocalData data) {
+            super(data, RType.Raw);
+        }
+
+        @Override
+        protected void addChunk() {
+            chunks.add(new byte[CHUNK_SIZE]);
+        }
+
+        @Override
+        void set(int index, LineFields fields, int field) {
+            byte value = isNaString(fields, field, true) ? 0 : RRuntime.string2raw(fields.text(field)).getValue();
+            chunks.get(chunk(index))[offset(index)] = value;
+        }
+
+        @Override
+        RAbstractVector toVector(int length) {
+            byte[] result = new byte[length];
+            copyChunks(chunks, result, length, 1);
+            return RDataFactory.createRawVector(result);
+        }
+    }
+}
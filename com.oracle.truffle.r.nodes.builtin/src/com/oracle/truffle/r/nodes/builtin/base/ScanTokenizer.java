@@ -0,0 +1,517 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.r.nodes.builtin.base.Scan.LocalData;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.conn.RConnection.ReadLineWarning;
+import com.oracle.truffle.r.runtime.conn.StdConnections;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+
+/**
+ * Streaming tokenizer behind {@link Scan}. The input is read from the connection in chunks of
+ * lines. Every line is split into fields that are only described by their offsets in the line, and
+ * the fields are converted directly into the typed {@link ScanColumn column buffers}. A string is
+ * only created for a field if the column is of type character or if the field is not handled by
+ * the fast paths of the numeric conversions, and no line is retained beyond its chunk.
+ *
+ * Splitting the lines and converting their fields are independent for every line. Chunks with
+ * enough lines are therefore processed by several threads if the {@code threads} argument allows
+ * it. Assigning the fields to records, which follows the {@code fill}, {@code flush} and
+ * {@code multi.line} rules, is always done sequentially.
+ */
+final class ScanTokenizer implements AutoCloseable {
+
+    private static final int CHUNK_LINES = 8192;
+    private static final int MIN_PARALLEL_LINES = 1024;
+
+    private static final byte PLAIN = 0;
+    private static final byte QUOTED = 1;
+    private static final byte ESCAPED = 2;
+
+    private static final AtomicInteger poolId = new AtomicInteger();
+
+    private final RBaseNode errorContext;
+    private final LocalData data;
+    private final ScanColumn[] columns;
+    private final int nc;
+    private final int maxRecords;
+    private final int maxLines;
+    private final boolean flush;
+    private final boolean fill;
+    private final boolean blSkip;
+    private final boolean multiLine;
+    private final int threads;
+    private ExecutorService executor;
+
+    private int records;
+    private int column;
+    private int lines;
+    private boolean done;
+
+    ScanTokenizer(RBaseNode errorContext, LocalData data, ScanColumn[] columns, int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, int threads) {
+        this.errorContext = errorContext;
+        this.data = data;
+        this.columns = columns;
+        this.nc = columns.length;
+        this.maxRecords = maxRecords;
+        this.maxLines = maxLines;
+        this.flush = flush;
+        this.fill = fill;
+        this.blSkip = blSkip;
+        this.multiLine = multiLine;
+        this.threads = threads;
+    }
+
+    /**
+     * Reads until the end of the input or until one of the limits is reached. Unconsumed input is
+     * pushed back to the connection.
+     *
+     * @return the number of complete records read
+     */
+    int read() throws IOException {
+        while (!done) {
+            int count = CHUNK_LINES;
+            if (maxLines > 0) {
+                count = Math.min(count, maxLines - lines);
+            }
+            if (maxRecords > 0) {
+                count = Math.min(count, Math.max(1, maxRecords - records));
+            }
+            if (data.con == StdConnections.getStdin()) {
+                // do not wait for more input than needed
+                count = 1;
+            }
+            String[] chunk = data.con.readLines(count, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), data.skipNull);
+            if (chunk == null || chunk.length == 0) {
+                break;
+            }
+            processChunk(chunk);
+        }
+        return records;
+    }
+
+    /**
+     * Returns the number of fields of the last, incomplete record, which is only possible with
+     * {@code multi.line}.
+     */
+    int getPendingFields() {
+        return column;
+    }
+
+    /**
+     * Completes the last record by treating the missing fields as empty.
+     */
+    int fillPendingRecord() {
+        assert column > 0;
+        for (ScanColumn c : columns) {
+            c.ensureCapacity(records + 1);
+        }
+        fillRecord(records, column);
+        column = 0;
+        return ++records;
+    }
+
+    private void processChunk(String[] chunk) throws IOException {
+        int count = chunk.length;
+        LineFields[] fields = new LineFields[count];
+        forEachSlice(count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                fields[i] = LineFields.split(chunk[i], data);
+            }
+            return null;
+        });
+
+        // assign the fields to records
+        int[] lineRecord = new int[count];
+        int[] lineColumn = new int[count];
+        int[] lineUsed = new int[count];
+        int[] filledRecord = new int[count];
+        Arrays.fill(filledRecord, -1);
+        int end = count;
+        String remainder = null;
+        for (int l = 0; l < count; l++) {
+            LineFields f = fields[l];
+            if (f.incomplete) {
+                throw RError.error(RError.SHOW_CALLER, Message.INCOMPLETE_FINAL_LINE, f.line);
+            }
+            if (f.count == 0) {
+                if (blSkip) {
+                    continue;
+                }
+                f = fields[l] = LineFields.blank(f.line);
+            }
+            lineRecord[l] = records;
+            lineColumn[l] = column;
+            int used = 0;
+            while (used < f.count) {
+                used++;
+                if (++column == nc) {
+                    records++;
+                    column = 0;
+                    if (records == maxRecords) {
+                        done = true;
+                        break;
+                    }
+                    if (flush) {
+                        break;
+                    }
+                }
+            }
+            lineUsed[l] = used;
+            if (done) {
+                if (used < f.count) {
+                    remainder = f.line.substring(f.rawStart(used));
+                }
+                end = l + 1;
+                break;
+            }
+            if (column > 0) {
+                if (fill) {
+                    filledRecord[l] = records;
+                    records++;
+                    column = 0;
+                } else if (!multiLine) {
+                    throw errorContext.error(Message.LINE_ELEMENTS, lines + 1, nc);
+                }
+            }
+            lines++;
+            if (lines == maxLines || (maxRecords > 0 && records == maxRecords)) {
+                done = true;
+                end = l + 1;
+                break;
+            }
+        }
+
+        for (ScanColumn c : columns) {
+            c.ensureCapacity(column > 0 ? records + 1 : records);
+        }
+        for (int l = 0; l < end; l++) {
+            if (filledRecord[l] >= 0) {
+                fillRecord(filledRecord[l], (lineColumn[l] + lineUsed[l]) % nc);
+            }
+        }
+        int[] failure = forEachSlice(end, (from, to) -> {
+            for (int l = from; l < to; l++) {
+                int[] f = convertLine(fields[l], lineRecord[l], lineColumn[l], lineUsed[l]);
+                if (f != null) {
+                    f[0] = l;
+                    return f;
+                }
+            }
+            return null;
+        });
+        if (failure != null) {
+            LineFields f = fields[failure[0]];
+            throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, columns[failure[2]].getType().getName(), f.text(failure[1]));
+        }
+
+        if (remainder != null || end < count) {
+            ArrayList<String> pushBack = new ArrayList<>(count - end + 1);
+            if (remainder != null) {
+                pushBack.add(remainder);
+            }
+            pushBack.addAll(Arrays.asList(chunk).subList(end, count));
+            data.con.pushBack(RDataFactory.createStringVector(pushBack.toArray(new String[pushBack.size()]), RDataFactory.COMPLETE_VECTOR), true);
+        }
+    }
+
+    /**
+     * Returns {@code null} or {@code {line, field, column}} describing the field that could not be
+     * converted.
+     */
+    private int[] convertLine(LineFields f, int firstRecord, int firstColumn, int used) {
+        int record = firstRecord;
+        int c = firstColumn;
+        for (int i = 0; i < used; i++) {
+            try {
+                columns[c].set(record, f, i);
+            } catch (NumberFormatException e) {
+                return new int[]{-1, i, c};
+            }
+            if (++c == nc) {
+                c = 0;
+                record++;
+            }
+        }
+        return null;
+    }
+
+    private void fillRecord(int record, int firstColumn) {
+        LineFields empty = LineFields.blank("");
+        for (int c = firstColumn; c < nc; c++) {
+            try {
+                columns[c].set(record, empty, 0);
+            } catch (NumberFormatException e) {
+                throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, columns[c].getType().getName(), "");
+            }
+        }
+    }
+
+    private interface Slice {
+        int[] process(int from, int to);
+    }
+
+    /**
+     * Processes the range {@code [0, count)} in slices, returning the first non-null result in the
+     * order of the slices.
+     */
+    private int[] forEachSlice(int count, Slice slice) {
+        if (threads <= 1 || count < MIN_PARALLEL_LINES) {
+            return slice.process(0, count);
+        }
+        if (executor == null) {
+            String prefix = "scan-" + poolId.incrementAndGet() + "-";
+            AtomicInteger threadId = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, prefix + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        int sliceLength = (count + threads - 1) / threads;
+        ArrayList<Future<int[]>> results = new ArrayList<>(threads);
+        for (int from = 0; from < count; from += sliceLength) {
+            int start = from;
+            int end = Math.min(count, from + sliceLength);
+            results.add(executor.submit(() -> slice.process(start, end)));
+        }
+        int[] result = null;
+        for (Future<int[]> future : results) {
+            try {
+                int[] r = future.get();
+                if (result == null) {
+                    result = r;
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw RInternalError.shouldNotReachHere(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The fields of one line. Unquoted fields and quoted fields without doubled quotes are only
+     * described by their range in the line.
+     */
+    static final class LineFields {
+        private static final int[] NO_BOUNDS = new int[0];
+
+        final String line;
+        int count;
+        boolean incomplete;
+        private int[] bounds = NO_BOUNDS;
+        private byte[] kinds;
+
+        private LineFields(String line) {
+            this.line = line;
+        }
+
+        /**
+         * A line consisting of a single empty field.
+         */
+        static LineFields blank(String line) {
+            LineFields f = new LineFields(line);
+            f.add(PLAIN, 0, 0);
+            return f;
+        }
+
+        private void add(byte kind, int start, int end) {
+            if (count * 2 == bounds.length) {
+                int newCount = Math.max(8, count * 2);
+                bounds = Arrays.copyOf(bounds, newCount * 2);
+                kinds = kinds == null ? new byte[newCount] : Arrays.copyOf(kinds, newCount);
+            }
+            bounds[count * 2] = start;
+            bounds[count * 2 + 1] = end;
+            kinds[count] = kind;
+            count++;
+        }
+
+        boolean hasRange(int field) {
+            return kinds[field] != ESCAPED;
+        }
+
+        int start(int field) {
+            return bounds[field * 2];
+        }
+
+        int end(int field) {
+            return bounds[field * 2 + 1];
+        }
+
+        int rawStart(int field) {
+            return kinds[field] == QUOTED ? start(field) - 1 : start(field);
+        }
+
+        /**
+         * Length of the raw field, which is an upper bound of the length of the text.
+         */
+        int length(int field) {
+            return end(field) - start(field);
+        }
+
+        boolean textEquals(int field, String s) {
+            if (hasRange(field)) {
+                return length(field) == s.length() && line.regionMatches(start(field), s, 0, s.length());
+            }
+            return text(field).equals(s);
+        }
+
+        String text(int field) {
+            int start = start(field);
+            int end = end(field);
+            if (hasRange(field)) {
+                return line.substring(start, end);
+            }
+            // a quoted part with doubled quotes, possibly followed by unquoted text
+            char quote = line.charAt(start);
+            StringBuilder str = new StringBuilder(end - start);
+            int pos = start + 1;
+            while (true) {
+                char ch = line.charAt(pos++);
+                if (ch == quote) {
+                    if (pos < end && line.charAt(pos) == quote) {
+                        str.append(quote);
+                        pos++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    str.append(ch);
+                }
+            }
+            return str.append(line, pos, end).toString();
+        }
+
+        static LineFields split(String line, LocalData data) {
+            LineFields f = new LineFields(line);
+            int length = line.length();
+            if (data.sepchar == 0) {
+                int pos = skipWhitespace(line, 0);
+                while (pos < length && line.charAt(pos) != data.comchar) {
+                    pos = f.splitField(pos, data);
+                    pos = skipWhitespace(line, pos);
+                }
+            } else if (length > 0 && line.charAt(0) != data.comchar) {
+                int pos = 0;
+                while (true) {
+                    pos = f.splitField(pos, data);
+                    if (pos < length && line.charAt(pos) == data.sepchar) {
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return f;
+        }
+
+        /**
+         * Adds the field starting at {@code start} and returns the position of its terminator.
+         */
+        private int splitField(int start, LocalData data) {
+            int length = line.length();
+            int pos = start;
+            byte kind = PLAIN;
+            int contentStart = start;
+            int contentEnd = -1;
+            if (pos < length && isInSet(line.charAt(pos), data.quoteset)) {
+                char quote = line.charAt(pos++);
+                kind = QUOTED;
+                contentStart = pos;
+                while (true) {
+                    if (pos == length) {
+                        incomplete = true;
+                        return length;
+                    }
+                    char ch = line.charAt(pos++);
+                    if (ch == quote) {
+                        if (pos < length && line.charAt(pos) == quote) {
+                            kind = ESCAPED;
+                            pos++;
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                contentEnd = pos - 1;
+            }
+            while (pos < length && !isTerminator(line.charAt(pos), data)) {
+                pos++;
+            }
+            if (kind == PLAIN) {
+                add(PLAIN, start, pos);
+            } else if (kind == QUOTED && contentEnd == pos - 1) {
+                add(QUOTED, contentStart, contentEnd);
+            } else {
+                add(ESCAPED, start, pos);
+            }
+            return pos;
+        }
+
+        private static boolean isTerminator(char ch, LocalData data) {
+            if (data.sepchar == 0) {
+                return ch == ' ' || ch == '\t' || ch == data.comchar;
+            }
+            return ch == data.sepchar || ch == data.comchar;
+        }
+
+        private static int skipWhitespace(String s, int start) {
+            int pos = start;
+            while (pos < s.length() && (s.charAt(pos) == ' ' || s.charAt(pos) == '\t')) {
+                pos++;
+            }
+            return pos;
+        }
+
+        private static boolean isInSet(char ch, char[] quoteset) {
+            for (int i = 0; i < quoteset.length; i++) {
+                if (ch == quoteset[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -54,8 +54,10 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
 
 /**
  * The internal functions mandated by {@code base/sort.R}. N.B. We use the standard JDK sorting
@@ -125,14 +127,43 @@ public class SortFunctions {
         return data;
     }
 
+    /**
+     * Integer and double vectors are not sorted again if their data are known to be sorted already,
+     * and the result is marked as sorted unless it contains {@code NA}s, which end up at one of its
+     * ends.
+     */
     protected static RDoubleVector jdkSort(RDoubleVector vec, boolean decreasing) {
         double[] data = vec.materialize().getDataCopy();
-        return RDataFactory.createDoubleVector(sort(data, decreasing), vec.isComplete());
+        if (!isSorted(vec, decreasing)) {
+            sort(data, decreasing);
+        }
+        RDoubleVector result = RDataFactory.createDoubleVector(data, vec.isComplete());
+        if (data.length == 0 || !Double.isNaN(data[decreasing ? 0 : data.length - 1])) {
+            setSorted(result, decreasing);
+        }
+        return result;
     }
 
     protected static RIntVector jdkSort(RIntVector vec, boolean decreasing) {
         int[] data = vec.materialize().getDataCopy();
-        return RDataFactory.createIntVector(sort(data, decreasing), vec.isComplete());
+        if (!isSorted(vec, decreasing)) {
+            sort(data, decreasing);
+        }
+        RIntVector result = RDataFactory.createIntVector(data, vec.isComplete());
+        if (data.length == 0 || !RRuntime.isNA(data[decreasing ? data.length - 1 : 0])) {
+            setSorted(result, decreasing);
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    private static boolean isSorted(RAbstractVector vec, boolean decreasing) {
+        return VectorDataLibrary.getFactory().getUncached().isSorted(vec.getData(), decreasing, false);
+    }
+
+    @TruffleBoundary
+    static void setSorted(RAbstractVector vec, boolean decreasing) {
+        VectorDataLibrary.getFactory().getUncached().setSorted(vec.getData(), decreasing);
     }
 
     protected static RStringVector jdkSort(RStringVector vec, boolean decreasing) {
@@ -260,12 +291,14 @@ public class SortFunctions {
     /**
      * This a helper function for the code in sort.R. It does NOT return the input vectors sorted,
      * but returns an {@link RIntVector} of indices (positions) indicating the sort order (Or
-     * {@link RNull#instance} if no vectors). In short it is a special variant of {@code order}. For
-     * now we delegate to {@code order} and do not implement the {@code retgrp} argument.
+     * {@link RNull#instance} if no vectors). In short it is a special variant of {@code order} that
+     * supports a direction per key and, if {@code retgrp} is set, returns the boundaries of the
+     * groups of equal keys in the {@code ends} attribute. See {@link RadixOrder} for the algorithm.
      */
     @RBuiltin(name = "radixsort", kind = INTERNAL, parameterNames = {"na.last", "decreasing", "retgrp", "sortstr", "..."}, behavior = PURE)
     public abstract static class RadixSort extends RBuiltinNode.Arg5 {
-        @Child private Order orderNode = OrderNodeGen.create();
+
+        private static final RStringVector GROUPING_CLASS = RDataFactory.createStringVector(new String[]{"grouping", "integer"}, RDataFactory.COMPLETE_VECTOR);
 
         static {
             Casts casts = new Casts(RadixSort.class);
@@ -275,14 +308,8 @@ public class SortFunctions {
             casts.arg("sortstr").asLogicalVector().findFirst().map(toBoolean());
         }
 
-        @SuppressWarnings("unused")
         @Specialization
         protected Object radixSort(byte naLast, RLogicalVector decreasingVec, boolean retgrp, boolean sortstr, RArgsValuesAndNames zz) {
-            // Partial implementation just to get startup to work
-            if (retgrp) {
-                // sortstr only has an effect when retrgrp == true
-                throw RError.nyi(this, "radixsort: retgrp == TRUE not implemented");
-            }
             int nargs = zz.getLength();
             if (nargs == 0) {
                 return RNull.instance;
@@ -290,25 +317,58 @@ public class SortFunctions {
             if (nargs != decreasingVec.getLength()) {
                 throw error(RError.Message.RADIX_SORT_DEC_MATCH);
             }
-            /*
-             * Order takes a single decreasing argument that applies to all the vectors. We
-             * potentially have a different value for each vector, so we have to process one by one.
-             * However, OrderNode can't yet handle that, so we abort if nargs > 1 and the decreasing
-             * values don't match.
-             */
-            byte lastdb = RRuntime.LOGICAL_NA;
+            int length = -1;
             for (int i = 0; i < nargs; i++) {
-                byte db = decreasingVec.getDataAt(i);
-                if (RRuntime.isNA(db)) {
+                if (RRuntime.isNA(decreasingVec.getDataAt(i))) {
                     throw error(RError.Message.RADIX_SORT_DEC_NOT_LOGICAL);
                 }
-                if (lastdb != RRuntime.LOGICAL_NA && db != lastdb) {
-                    throw RError.nyi(this, "radixsort: args > 1 with differing 'decreasing' values not implemented");
+                Object arg = zz.getArgument(i);
+                if (!(arg instanceof RIntVector || arg instanceof RDoubleVector || arg instanceof RLogicalVector || arg instanceof RStringVector)) {
+                    if (arg instanceof RAbstractVector) {
+                        throw error(RError.Message.UNIMPLEMENTED_TYPE_IN_FUNCTION, ((RAbstractVector) arg).getRType().getName(), "radixsort");
+                    }
+                    throw error(RError.Message.NOT_A_VECTOR, i + 1);
+                }
+                int argLength = ((RAbstractVector) arg).getLength();
+                if (length != -1 && argLength != length) {
+                    throw error(RError.Message.ARGUMENT_LENGTHS_DIFFER);
+                }
+                length = argLength;
+            }
+            int na = RRuntime.isNA(naLast) ? RadixOrder.NA_REMOVE : naLast == RRuntime.LOGICAL_TRUE ? RadixOrder.NA_LAST : RadixOrder.NA_FIRST;
+            // sortstr only has an effect when retgrp == true
+            return radixOrder(zz.getArguments(), decreasingVec, length, na, retgrp, sortstr || !retgrp);
+        }
+
+        @TruffleBoundary
+        private static RIntVector radixOrder(Object[] args, RLogicalVector decreasingVec, int length, int naLast, boolean retgrp, boolean sortstr) {
+            RadixOrder radixOrder = new RadixOrder(length, naLast, retgrp, SortWorkers.threadCount(length));
+            // least significant key first
+            for (int i = args.length - 1; i >= 0; i--) {
+                Object arg = args[i];
+                boolean decreasing = RRuntime.fromLogical(decreasingVec.getDataAt(i));
+                if (arg instanceof RIntVector) {
+                    radixOrder.addKey(((RIntVector) arg).getReadonlyData(), decreasing);
+                } else if (arg instanceof RDoubleVector) {
+                    radixOrder.addKey(((RDoubleVector) arg).getReadonlyData(), decreasing);
+                } else if (arg instanceof RLogicalVector) {
+                    radixOrder.addKey(((RLogicalVector) arg).getReadonlyData(), decreasing);
+                } else {
+                    radixOrder.addKey(((RStringVector) arg).getReadonlyStringData(), decreasing, sortstr);
+                }
+            }
+            int[] order = radixOrder.getOrder();
+            RIntVector result = RDataFactory.createIntVector(order, RDataFactory.COMPLETE_VECTOR);
+            if (retgrp) {
+                int[] ends = radixOrder.getGroupEnds(order);
+                int maxgrpn = 0;
+                for (int i = 0; i < ends.length; i++) {
+                    maxgrpn = Math.max(maxgrpn, ends[i] - (i == 0 ? 0 : ends[i - 1]));
                 }
-                lastdb = db;
+                result.setAttr("ends", RDataFactory.createIntVector(ends, RDataFactory.COMPLETE_VECTOR));
+                result.setAttr("maxgrpn", maxgrpn);
+                result.setClassAttr(GROUPING_CLASS);
             }
-            boolean decreasing = RRuntime.fromLogical(decreasingVec.getDataAt(0));
-            Object result = orderNode.execute(naLast, decreasing, zz);
             return result;
         }
     }
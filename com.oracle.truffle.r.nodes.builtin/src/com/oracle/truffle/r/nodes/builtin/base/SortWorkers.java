@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+
+/**
+ * The threads shared by the parallel sorts of {@link RadixOrder} and {@link MergeOrder}.
+ */
+final class SortWorkers {
+
+    private static ForkJoinPool pool;
+
+    private SortWorkers() {
+        // no instances
+    }
+
+    /**
+     * Returns the number of threads that should sort {@code length} elements according to
+     * {@link FastROptions#SortThreads} and {@link FastROptions#SortParallelThreshold}.
+     */
+    static int threadCount(int length) {
+        RContext context = RContext.getInstance();
+        if (length < context.getNonNegativeIntOption(FastROptions.SortParallelThreshold)) {
+            return 1;
+        }
+        int threads = context.getNonNegativeIntOption(FastROptions.SortThreads);
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    static synchronized ForkJoinPool getPool(int parallelism) {
+        if (pool == null || pool.getParallelism() != parallelism) {
+            // the workers of a replaced pool terminate once they are idle
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+}
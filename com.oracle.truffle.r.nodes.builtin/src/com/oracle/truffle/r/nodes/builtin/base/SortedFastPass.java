@@ -36,12 +36,15 @@ import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
 
 /**
- * Fast path check if a vector is already sorted. For now we simply return {@code FALSE}. This
- * should be improved.
+ * Fast path check if a vector is already sorted, which lets {@code sort} and {@code order} skip the
+ * sorting. Only the sortedness recorded in the vector data is used, the elements are not checked.
+ * Since data are only reported to be sorted if they do not contain {@code NA}s, the position of
+ * {@code NA}s, including their removal with {@code nalast=NA}, does not matter.
  */
 @RBuiltin(name = "sorted_fpass", kind = INTERNAL, parameterNames = {"x", "decr", "nalast"}, behavior = PURE)
 public abstract class SortedFastPass extends RBuiltinNode.Arg3 {
@@ -56,11 +59,13 @@ public abstract class SortedFastPass extends RBuiltinNode.Arg3 {
     @Specialization(limit = "getTypedVectorDataLibraryCacheSize()")
     protected byte isSorted(RIntVector x, boolean decr, byte nalast,
                     @CachedLibrary("x.getData()") VectorDataLibrary dataLib) {
-        if (RRuntime.isNA(nalast)) {
-            // TODO: we may add support for this into the library
-            return RRuntime.LOGICAL_FALSE;
-        }
-        return RRuntime.asLogical(dataLib.isSorted(x.getData(), decr, RRuntime.fromLogical(nalast)));
+        return RRuntime.asLogical(dataLib.isSorted(x.getData(), decr, nalast == RRuntime.LOGICAL_TRUE));
+    }
+
+    @Specialization(limit = "getTypedVectorDataLibraryCacheSize()")
+    protected byte isSorted(RDoubleVector x, boolean decr, byte nalast,
+                    @CachedLibrary("x.getData()") VectorDataLibrary dataLib) {
+        return RRuntime.asLogical(dataLib.isSorted(x.getData(), decr, nalast == RRuntime.LOGICAL_TRUE));
     }
 
     @Fallback
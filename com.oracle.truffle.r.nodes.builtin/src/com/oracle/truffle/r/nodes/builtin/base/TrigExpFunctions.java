@@ -30,7 +30,10 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE_ARITHMETIC;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -38,6 +41,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.runtime.data.nodes.attributes.UnaryCopyAttributesNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.primitive.ParallelMap;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
@@ -484,13 +488,17 @@ public class TrigExpFunctions {
             xNACheck.enable(x);
             yNACheck.enable(y);
             double[] array = prepareArray(Math.max(yLength, xLength));
-            for (int i = 0; profile.inject(i < array.length); i++) {
-                double yValue = y.getDataAt(i % yLength);
-                double xValue = x.getDataAt(i % xLength);
-                if (xNACheck.check(yValue) || yNACheck.check(xValue)) {
-                    array[i] = RRuntime.DOUBLE_NA;
-                } else {
-                    array[i] = Math.atan2(yValue, xValue);
+            if (ParallelMap.isParallel(array.length)) {
+                atan2InParallel(y.getReadonlyData(), x.getReadonlyData(), array);
+            } else {
+                for (int i = 0; profile.inject(i < array.length); i++) {
+                    double yValue = y.getDataAt(i % yLength);
+                    double xValue = x.getDataAt(i % xLength);
+                    if (xNACheck.check(yValue) || yNACheck.check(xValue)) {
+                        array[i] = RRuntime.DOUBLE_NA;
+                    } else {
+                        array[i] = Math.atan2(yValue, xValue);
+                    }
                 }
             }
             RDoubleVector result = createResult(array);
@@ -503,6 +511,43 @@ public class TrigExpFunctions {
             return result;
         }
 
+        /**
+         * Each range uses its own NA checks, they are merged into the checks of this node once all
+         * ranges are done.
+         */
+        @TruffleBoundary
+        private void atan2InParallel(double[] y, double[] x, double[] array) {
+            AtomicBoolean xSeenNA = new AtomicBoolean();
+            AtomicBoolean ySeenNA = new AtomicBoolean();
+            ParallelMap.forEachRange(array.length, (from, to) -> {
+                NACheck xCheck = NACheck.create();
+                NACheck yCheck = NACheck.create();
+                xCheck.enable(true);
+                yCheck.enable(true);
+                for (int i = from; i < to; i++) {
+                    double yValue = y[i % y.length];
+                    double xValue = x[i % x.length];
+                    if (xCheck.check(yValue) || yCheck.check(xValue)) {
+                        array[i] = RRuntime.DOUBLE_NA;
+                    } else {
+                        array[i] = Math.atan2(yValue, xValue);
+                    }
+                }
+                if (!xCheck.neverSeenNA()) {
+                    xSeenNA.set(true);
+                }
+                if (!yCheck.neverSeenNA()) {
+                    ySeenNA.set(true);
+                }
+            });
+            if (xSeenNA.get()) {
+                xNACheck.seenNA();
+            }
+            if (ySeenNA.get()) {
+                yNACheck.seenNA();
+            }
+        }
+
         @Specialization(guards = "y.getLength() == 0 || x.getLength() == 0")
         protected RDoubleVector atan2Empty(@SuppressWarnings("unused") RDoubleVector y, @SuppressWarnings("unused") RDoubleVector x) {
             return RDataFactory.createEmptyDoubleVector();
@@ -67,6 +67,7 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
     private static final long BIG_THRESHOLD = 100;
 
     private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile sortedProfile = ConditionProfile.createBinaryProfile();
 
     static {
         Casts casts = new Casts(Unique.class);
@@ -260,7 +261,22 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         Object vecData = vec.getData();
         int vecLength = vecLib.getLength(vecData);
         reportWork(vecLength);
-        if (bigProfile.profile(vecLength * (long) vecLength > BIG_THRESHOLD)) {
+        boolean descending = vecLib.isSorted(vecData, true, false);
+        if (sortedProfile.profile(descending || vecLib.isSorted(vecData, false, false))) {
+            // equal values are adjacent, it is enough to compare with the previous one
+            int[] data = new int[vecLength];
+            int ind = 0;
+            SeqIterator it = vecLib.iterator(vecData);
+            while (vecLib.nextLoopCondition(vecData, it)) {
+                int val = vecLib.getNextInt(vecData, it);
+                if (ind == 0 || data[ind - 1] != val) {
+                    data[ind++] = val;
+                }
+            }
+            RIntVector result = RDataFactory.createIntVector(Arrays.copyOf(data, ind), RDataFactory.COMPLETE_VECTOR);
+            SortFunctions.setSorted(result, descending);
+            return result;
+        } else if (bigProfile.profile(vecLength * (long) vecLength > BIG_THRESHOLD)) {
             NonRecursiveHashSetInt set = new NonRecursiveHashSetInt();
             int[] data = new int[16];
             int ind = 0;
@@ -386,10 +402,25 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
     }
 
     @SuppressWarnings("unused")
-    @Specialization
-    protected RDoubleVector doUnique(RDoubleVector vec, byte incomparables, byte fromLast, int nmax) {
+    @Specialization(limit = "getTypedVectorDataLibraryCacheSize()")
+    protected RDoubleVector doUnique(RDoubleVector vec, byte incomparables, byte fromLast, int nmax,
+                    @CachedLibrary("vec.getData()") VectorDataLibrary vecLib) {
         reportWork(vec.getLength());
-        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
+        boolean descending = vecLib.isSorted(vec.getData(), true, false);
+        if (sortedProfile.profile(descending || vecLib.isSorted(vec.getData(), false, false))) {
+            // equal values are adjacent, it is enough to compare with the previous one
+            double[] data = new double[vec.getLength()];
+            int ind = 0;
+            for (int i = 0; i < vec.getLength(); i++) {
+                double val = vec.getDataAt(i);
+                if (ind == 0 || data[ind - 1] != val) {
+                    data[ind++] = val;
+                }
+            }
+            RDoubleVector result = RDataFactory.createDoubleVector(Arrays.copyOf(data, ind), RDataFactory.COMPLETE_VECTOR);
+            SortFunctions.setSorted(result, descending);
+            return result;
+        } else if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
             NonRecursiveHashSetDouble set = new NonRecursiveHashSetDouble(vec.getLength());
             double[] data = new double[vec.getLength()];
             int ind = 0;
@@ -58,7 +58,6 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.nodes.VectorReuse;
-import com.oracle.truffle.r.runtime.env.REnvironment;
 
 @RBuiltin(name = "names<-", kind = PRIMITIVE, parameterNames = {"x", "value"}, dispatch = INTERNAL_GENERIC, behavior = PURE)
 public abstract class UpdateNames extends RBuiltinNode.Arg2 {
@@ -173,11 +172,12 @@ public abstract class UpdateNames extends RBuiltinNode.Arg2 {
     private RFunction getAsCharacterFunction() {
         if (asCharacterFunction == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            Object value = REnvironment.baseEnv(RContext.getInstance()).findFunction("as.character");
-            if (!(value instanceof RFunction)) {
-                throw error(Message.GENERIC, "Could not find function 'as.character' in the base environment.");
+            // the builtin functions are shared by all the contexts that share this node
+            RFunction value = RContext.getInstance().lookupBuiltin("as.character");
+            if (value == null) {
+                throw error(Message.GENERIC, "Could not find builtin function 'as.character'.");
             }
-            asCharacterFunction = (RFunction) value;
+            asCharacterFunction = value;
         }
         return asCharacterFunction;
     }
@@ -26,6 +26,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -78,7 +79,12 @@ public abstract class UpdateSlot extends RBuiltinNode.Arg3 implements UpdateSlot
 
         private static final ArgumentsSignature SIGNATURE = ArgumentsSignature.get("cl", "name", "valueClass");
 
-        @CompilationFinal private RFunction checkSlotAssignFunction;
+        /**
+         * The call target of the {@code checkAtAssignment} function, the function itself is not
+         * cached, because it belongs to a context, while this node may be shared by the contexts
+         * of an engine.
+         */
+        @CompilationFinal private RootCallTarget checkSlotAssignTarget;
         @Child private ClassHierarchyNode objClassHierarchy;
         @Child private ClassHierarchyNode valClassHierarchy;
         @Child private ReadVariableNode checkAtAssignmentFind = ReadVariableNode.createFunctionLookup("checkAtAssignment");
@@ -87,13 +93,13 @@ public abstract class UpdateSlot extends RBuiltinNode.Arg3 implements UpdateSlot
         private final ConditionProfile cached = ConditionProfile.createBinaryProfile();
 
         public void execute(VirtualFrame frame, Object object, String name, Object value) {
-            if (checkSlotAssignFunction == null) {
+            if (checkSlotAssignTarget == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                checkSlotAssignFunction = (RFunction) checkAtAssignmentFind.execute(frame);
+                checkSlotAssignTarget = ((RFunction) checkAtAssignmentFind.execute(frame)).getTarget();
             }
             if (checkAtAssignmentCall == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                checkAtAssignmentCall = insert(CallRFunctionNode.create(checkSlotAssignFunction.getTarget()));
+                checkAtAssignmentCall = insert(CallRFunctionNode.create(checkSlotAssignTarget));
             }
             if (objClassHierarchy == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -106,11 +112,11 @@ public abstract class UpdateSlot extends RBuiltinNode.Arg3 implements UpdateSlot
             RStringVector objClass = objClassHierarchy.execute(object);
             RStringVector valClass = valClassHierarchy.execute(value);
             RFunction currentFunction = (RFunction) checkAtAssignmentFind.execute(frame);
-            if (cached.profile(currentFunction == checkSlotAssignFunction)) {
+            if (cached.profile(currentFunction.getTarget() == checkSlotAssignTarget)) {
                 // TODO: technically, someone could override checkAtAssignment function and access
                 // the caller, but it's rather unlikely
-                checkAtAssignmentCall.execute(frame, checkSlotAssignFunction, RCaller.createInvalid(frame), new Object[]{objClass, name, valClass}, SIGNATURE,
-                                checkSlotAssignFunction.getEnclosingFrame(), null);
+                checkAtAssignmentCall.execute(frame, currentFunction, RCaller.createInvalid(frame), new Object[]{objClass, name, valClass}, SIGNATURE,
+                                currentFunction.getEnclosingFrame(), null);
             } else {
                 // slow path
                 RContext.getEngine().evalFunction(currentFunction, frame.materialize(), RCaller.createInvalid(frame), true, null, objClass, name, valClass);
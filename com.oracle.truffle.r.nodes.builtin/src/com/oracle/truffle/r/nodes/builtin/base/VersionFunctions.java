@@ -25,7 +25,6 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.READS_STATE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -81,12 +80,8 @@ public abstract class VersionFunctions {
             }
 
             // BZIP2
-            try {
-                versions.add(RCompression.getBz2Version());
-                libNames.add("bzip2");
-            } catch (IOException e) {
-                // ignore
-            }
+            versions.add(RCompression.getBz2Version());
+            libNames.add("bzip2");
 
             // BLAS
             libNames.add("BLAS");
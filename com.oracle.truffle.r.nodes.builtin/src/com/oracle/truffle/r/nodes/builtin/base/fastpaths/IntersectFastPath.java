@@ -34,6 +34,8 @@ import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeCost;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode.NonRecursiveHashMapInt;
 import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -163,6 +165,7 @@ public abstract class IntersectFastPath extends RFastPathNode {
     protected RIntVector intersect(RIntVector x, RIntVector y,
                     @CachedLibrary(value = "x.getData()") VectorDataLibrary xLib,
                     @CachedLibrary(value = "y.getData()") VectorDataLibrary yLib,
+                    @Cached("createBinaryProfile()") ConditionProfile isYIndexedProfile,
                     @Cached("createBinaryProfile()") ConditionProfile isXSortedProfile,
                     @Cached("createBinaryProfile()") ConditionProfile isYSortedProfile,
                     @Cached("create(false)") IntersectSortedNode intersectSortedNode) {
@@ -176,7 +179,25 @@ public abstract class IntersectFastPath extends RFastPathNode {
         RBaseNode.reportWork(this, xLength + yLength);
 
         int[] result;
-        if (isXSortedProfile.profile(isSorted(xLib, xData))) {
+        if (isYIndexedProfile.profile(MatchInternalNode.useIndex(y))) {
+            NonRecursiveHashMapInt yIndex = MatchInternalNode.getIntIndex(y, yLib);
+            result = EMPTY_INT_ARRAY;
+            int maxResultLength = Math.min(xLength, yLength);
+            boolean[] used = new boolean[yLength];
+            int count = 0;
+            for (int i = 0; i < xLength; i++) {
+                int value = xLib.getInt(xData, xrit, i);
+                int pos = yIndex.get(value);
+                if (pos >= 0 && !used[pos]) {
+                    used[pos] = true;
+                    if (count >= result.length) {
+                        result = Arrays.copyOf(result, Math.min(maxResultLength, Math.max(result.length * 2, 8)));
+                    }
+                    result[count++] = value;
+                }
+            }
+            result = intersectSortedNode.resultLengthMatchProfile.profile(count == result.length) ? result : Arrays.copyOf(result, count);
+        } else if (isXSortedProfile.profile(isSorted(xLib, xData))) {
             RIntVector tempY;
             if (isYSortedProfile.profile(isSorted(yLib, yData))) {
                 tempY = y;
@@ -29,6 +29,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode;
 import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
@@ -41,6 +42,8 @@ import com.oracle.truffle.r.runtime.nodes.RFastPathNode;
 @ImportStatic(DSLConfig.class)
 public abstract class IsElementFastPath extends RFastPathNode {
 
+    private final ConditionProfile indexProfile = ConditionProfile.createBinaryProfile();
+
     @Specialization(guards = {"elLib.getLength(el.getData()) == 1"}, limit = "getTypedVectorDataLibraryCacheSize()")
     protected Byte iselementOneCachedString(RStringVector el, RStringVector set,
                     @CachedLibrary("el.getData()") VectorDataLibrary elLib,
@@ -50,6 +53,9 @@ public abstract class IsElementFastPath extends RFastPathNode {
         Object elData = el.getData();
         Object setData = set.getData();
         String element = elLib.getStringAt(elData, 0);
+        if (indexProfile.profile(MatchInternalNode.useIndex(set))) {
+            return RRuntime.asLogical(MatchInternalNode.getCharacterIndex(set, setLib).get(element) != -1);
+        }
         VectorDataLibrary.SeqIterator it = setLib.iterator(setData);
         while (setLib.nextLoopCondition(setData, it)) {
             if (element.equals(setLib.getNextString(setData, it))) {
@@ -104,6 +110,9 @@ public abstract class IsElementFastPath extends RFastPathNode {
         Object elData = el.getData();
         Object setData = set.getData();
         double element = elLib.getDoubleAt(elData, 0);
+        if (indexProfile.profile(MatchInternalNode.useIndex(set))) {
+            return RRuntime.asLogical(MatchInternalNode.getDoubleIndex(set, setLib).get(element) != -1);
+        }
 
         VectorDataLibrary.SeqIterator it = setLib.iterator(setData);
         while (setLib.nextLoopCondition(setData, it)) {
@@ -22,10 +22,14 @@
  */
 package com.oracle.truffle.r.nodes.builtin.base.fastpaths;
 
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode;
+import com.oracle.truffle.r.nodes.builtin.MatchInternalNode.NonRecursiveHashMapInt;
 import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntSeqVectorData;
@@ -38,19 +42,28 @@ public abstract class SetDiffFastPath extends RFastPathNode {
 
     @Specialization(guards = {"isSequenceStride1(x)"}, limit = "getTypedVectorDataLibraryCacheSize()")
     protected static Object cached(RIntVector x, RIntVector y,
-                    @CachedLibrary("y.getData()") VectorDataLibrary yLib) {
+                    @CachedLibrary("y.getData()") VectorDataLibrary yLib,
+                    @Cached("createBinaryProfile()") ConditionProfile isYIndexedProfile) {
         Object yData = y.getData();
         RIntSeqVectorData seq = x.getSequence();
         int xLength = seq.getLength();
         int xStart = seq.getStart();
         boolean[] excluded = new boolean[xLength];
 
-        VectorDataLibrary.SeqIterator it = yLib.iterator(yData);
-        while (yLib.nextLoopCondition(yData, it)) {
-            int element = yLib.getNextInt(yData, it);
-            int index = element - xStart;
-            if (index >= 0 && index < xLength) {
-                excluded[index] = true;
+        if (isYIndexedProfile.profile(xLength < yLib.getLength(yData) && MatchInternalNode.useIndex(y))) {
+            // cheaper to look up the (shorter) sequence in the index than to scan y
+            NonRecursiveHashMapInt yIndex = MatchInternalNode.getIntIndex(y, yLib);
+            for (int i = 0; i < xLength; i++) {
+                excluded[i] = yIndex.get(i + xStart) != -1;
+            }
+        } else {
+            VectorDataLibrary.SeqIterator it = yLib.iterator(yData);
+            while (yLib.nextLoopCondition(yData, it)) {
+                int element = yLib.getNextInt(yData, it);
+                int index = element - xStart;
+                if (index >= 0 && index < xLength) {
+                    excluded[index] = true;
+                }
             }
         }
         int cnt = 0;
@@ -54,12 +54,12 @@ import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.ChildContextInfo;
 import com.oracle.truffle.r.runtime.context.EvalThread;
-import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.context.RContext.ConsoleIO;
 import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
 import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RMissing;
 import com.oracle.truffle.r.runtime.data.RNull;
@@ -187,7 +187,7 @@ public class FastRContext {
     public abstract static class Spawn extends RBuiltinNode.Arg2 {
         @Override
         public Object[] getDefaultParameterValues() {
-            return new Object[]{RMissing.instance, FastROptions.sharedContextsOptionValue ? "SHARE_ALL" : "SHARE_NOTHING"};
+            return new Object[]{RMissing.instance, TruffleRLanguage.getCurrentLanguage().isSharedContexts() ? "SHARE_ALL" : "SHARE_NOTHING"};
         }
 
         static {
@@ -567,6 +567,26 @@ public class FastRContext {
         }
     }
 
+    @RBuiltin(name = ".fastr.channel.stats", kind = PRIMITIVE, parameterNames = {"id"}, behavior = COMPLEX)
+    public abstract static class ChannelStats extends RBuiltinNode.Arg1 {
+
+        private static final String[] NAMES = new String[]{"sent", "received", "serializedBytes", "blockedTime"};
+
+        static {
+            Casts casts = new Casts(ChannelStats.class);
+            CastsHelper.id(casts);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RDoubleVector stats(int id) {
+            long[] stats = RChannel.getStatistics(id);
+            // blocked time is reported in seconds
+            double[] data = new double[]{stats[0], stats[1], stats[2], stats[3] / 1e9};
+            return RDataFactory.createDoubleVector(data, RDataFactory.COMPLETE_VECTOR, RDataFactory.createStringVector(NAMES, RDataFactory.COMPLETE_VECTOR));
+        }
+    }
+
     @RBuiltin(name = ".fastr.channel.select", kind = PRIMITIVE, parameterNames = {"ids"}, behavior = COMPLEX)
     public abstract static class ChannelSelect extends RBuiltinNode.Arg1 {
 
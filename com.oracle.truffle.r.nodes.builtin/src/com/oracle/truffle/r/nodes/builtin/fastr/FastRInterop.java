@@ -773,6 +773,9 @@ public class FastRInterop {
         public Object toArray(RIntVector vec, @SuppressWarnings("unused") RMissing className, boolean flat,
                         @Cached() R2Foreign r2Foreign,
                         @CachedContext(TruffleRLanguage.class) TruffleLanguage.ContextReference<RContext> ctxRef) {
+            if (getDim(flat, vec).length == 1) {
+                return ctxRef.get().getEnv().asGuestValue(vec.getDataCopy());
+            }
             return toArray(ctxRef.get(), vec, flat, int.class, (array, i) -> Array.set(array, i, r2Foreign.convertNoBox(vec.getDataAt(i))));
         }
 
@@ -804,6 +807,10 @@ public class FastRInterop {
         @TruffleBoundary
         public Object toArray(RDoubleVector vec, @SuppressWarnings("unused") RMissing className, boolean flat,
                         @CachedContext(TruffleRLanguage.class) TruffleLanguage.ContextReference<RContext> ctxRef) {
+            if (getDim(flat, vec).length == 1) {
+                // copy the data in bulk instead of setting the elements one by one
+                return ctxRef.get().getEnv().asGuestValue(vec.getDataCopy());
+            }
             return toArray(ctxRef.get(), vec, flat, double.class, (array, i) -> Array.set(array, i, vec.getDataAt(i)));
         }
 
@@ -850,6 +857,9 @@ public class FastRInterop {
         @TruffleBoundary
         public Object toArray(RRawVector vec, @SuppressWarnings("unused") RMissing className, boolean flat,
                         @CachedContext(TruffleRLanguage.class) TruffleLanguage.ContextReference<RContext> ctxRef) {
+            if (getDim(flat, vec).length == 1) {
+                return ctxRef.get().getEnv().asGuestValue(vec.getDataCopy());
+            }
             return toArray(ctxRef.get(), vec, flat, byte.class, (array, i) -> Array.set(array, i, vec.getRawDataAt(i)));
         }
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.InvalidationCounts;
+
+/**
+ * Reports how often the assumptions about the lookups of variables and about their stable values
+ * got invalidated, per environment or function, to find the environments that cause a lot of
+ * deoptimization. Optionally resets the counters.
+ */
+@RBuiltin(name = ".fastr.lookup.stats", kind = PRIMITIVE, parameterNames = {"reset"}, behavior = COMPLEX)
+public abstract class FastRLookupStats extends RBuiltinNode.Arg1 {
+
+    private static final RStringVector NAMES = RDataFactory.createStringVector(new String[]{"invalidatedLookups", "causedLookupInvalidations", "stableValueInvalidations"},
+                    RDataFactory.COMPLETE_VECTOR);
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_FALSE};
+    }
+
+    static {
+        Casts casts = new Casts(FastRLookupStats.class);
+        casts.arg("reset").asLogicalVector().findFirst().map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RList lookupStats(boolean reset) {
+        List<InvalidationCounts> counts = FrameSlotChangeMonitor.getInvalidationCounts(reset);
+        Object[] listData = new Object[counts.size()];
+        String[] names = new String[counts.size()];
+        for (int i = 0; i < listData.length; i++) {
+            InvalidationCounts c = counts.get(i);
+            listData[i] = RDataFactory.createDoubleVector(new double[]{c.invalidatedLookups, c.causedLookupInvalidations, c.stableValueInvalidations}, RDataFactory.COMPLETE_VECTOR, NAMES);
+            names[i] = c.name;
+        }
+        return RDataFactory.createList(listData, RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR));
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -45,6 +45,8 @@ public class ExtBuiltinsList {
                     com.oracle.truffle.r.library.utils.Crc64NodeGen.class,
                     com.oracle.truffle.r.library.utils.CountFields.class,
                     com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.MCIsChildNodeGen.class,
+                    com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.NextStreamNodeGen.class,
+                    com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.NextSubStreamNodeGen.class,
                     com.oracle.truffle.r.nodes.builtin.base.foreign.WriteTableNodeGen.class,
                     com.oracle.truffle.r.nodes.builtin.base.foreign.ReadTableHeadNodeGen.class,
                     com.oracle.truffle.r.nodes.builtin.base.foreign.MakeQuartzDefault.class,
@@ -27,9 +27,12 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.primitive.BinaryMapNAFunctionNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleFusedVectorData;
 import com.oracle.truffle.r.runtime.data.RDoubleSeqVectorData;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntSeqVectorData;
 import com.oracle.truffle.r.runtime.data.RSeq;
 import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
@@ -97,6 +100,37 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
         return null;
     }
 
+    @Override
+    public boolean mayFuse(RAbstractVector left, RAbstractVector right, RType argumentType, RType resultType) {
+        return getFusedOperation() != 0 && argumentType == RType.Double && resultType == RType.Double && left instanceof RDoubleVector && right instanceof RDoubleVector;
+    }
+
+    @Override
+    public RAbstractVector tryFuse(RAbstractVector left, int leftLength, RAbstractVector right, int rightLength) {
+        if (Math.max(leftLength, rightLength) < RDoubleFusedVectorData.MIN_LENGTH) {
+            return null;
+        }
+        return RDoubleFusedVectorData.fuse(getFusedOperation(), (RDoubleVector) left, leftLength, (RDoubleVector) right, rightLength);
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    private byte getFusedOperation() {
+        if (arithmetic instanceof Add) {
+            return RDoubleFusedVectorData.ADD;
+        } else if (arithmetic instanceof Subtract) {
+            return RDoubleFusedVectorData.SUBTRACT;
+        } else if (arithmetic instanceof Multiply) {
+            return RDoubleFusedVectorData.MULTIPLY;
+        } else if (arithmetic instanceof Div) {
+            return RDoubleFusedVectorData.DIVIDE;
+        }
+        return 0;
+    }
+
     private boolean isSequenceMulArithmetic() {
         return arithmetic instanceof Multiply || arithmetic instanceof IntegerDiv || arithmetic instanceof Div;
     }
@@ -107,7 +141,12 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
 
     @Override
     public double applyDouble(double left, double right) {
-        if (leftNACheck.check(left)) {
+        return applyDouble(leftNACheck, rightNACheck, left, right);
+    }
+
+    @Override
+    public double applyDouble(NACheck leftCheck, NACheck rightCheck, double left, double right) {
+        if (leftCheck.check(left)) {
             // Note: these corner cases also apply in BinaryArithmeticSpecial node
             if (this.arithmetic instanceof BinaryArithmetic.Pow && right == 0) {
                 // CORNER: Make sure NA^0 == 1
@@ -118,12 +157,12 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
             }
             return RRuntime.DOUBLE_NA;
         }
-        if (rightNACheck.check(right)) {
+        if (rightCheck.check(right)) {
             if (this.arithmetic instanceof BinaryArithmetic.Pow && left == 1) {
                 // CORNER: Make sure 1^NA == 1
                 return 1;
             }
-            if (leftNACheck.checkNAorNaN(left)) {
+            if (leftCheck.checkNAorNaN(left)) {
                 // CORNER: Make sure NaN op NA == NaN
                 return left;
             }
@@ -36,17 +36,23 @@ import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.CharSXPWrapper;
+import com.oracle.truffle.r.runtime.data.RAltrepData;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RComplexNativeVectorData;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleNativeVectorData;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntSeqVectorData;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RIntNativeVectorData;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
+import com.oracle.truffle.r.runtime.data.RLogicalNativeVectorData;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringSeqVectorData;
+import com.oracle.truffle.r.runtime.data.RStringVecNativeData;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
 import com.oracle.truffle.r.runtime.data.VectorDataLibrary.RandomAccessIterator;
@@ -62,6 +68,7 @@ abstract class AbstractMatchNode extends RBaseNode {
     public abstract Object execute(RAbstractVector x, RAbstractVector table, int noMatch);
 
     protected final ConditionProfile bigTableProfile = ConditionProfile.createBinaryProfile();
+    protected final ConditionProfile sortedTableProfile = ConditionProfile.createBinaryProfile();
 
 }
 
@@ -112,9 +119,18 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     @Cached("create()") NAProfile naProfile,
                     @Cached("create()") BranchProfile foundProfile,
                     @Cached("create()") BranchProfile notFoundProfile) {
+        int element = xDataLib.getIntAt(x.getData(), 0);
         Object tableData = table.getData();
+        boolean descending = tableDataLib.isSorted(tableData, true, false);
+        if (sortedTableProfile.profile(descending || tableDataLib.isSorted(tableData, false, false))) {
+            int pos = RRuntime.isNA(element) ? -1 : findInSorted(tableData, tableDataLib, element, descending);
+            return pos == -1 ? nomatch : pos + 1;
+        }
+        if (useIndex(table)) {
+            int pos = getIntIndex(table, tableDataLib).get(element);
+            return pos == -1 ? nomatch : pos + 1;
+        }
         SeqIterator it = tableDataLib.iterator(tableData);
-        int element = xDataLib.getIntAt(x.getData(), 0);
         if (naProfile.isNA(element)) {
             while (tableDataLib.nextLoopCondition(tableData, it)) {
                 if (tableDataLib.isNextNA(tableData, it)) {
@@ -249,6 +265,11 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     @Cached("create()") BranchProfile notFoundProfile) {
         double element = xDataLib.getDoubleAt(x.getData(), 0);
         Object tableData = table.getData();
+        boolean descending = tableDataLib.isSorted(tableData, true, false);
+        if (sortedTableProfile.profile(descending || tableDataLib.isSorted(tableData, false, false))) {
+            int pos = Double.isNaN(element) ? -1 : findInSorted(tableData, tableDataLib, element, descending);
+            return pos == -1 ? nomatch : pos + 1;
+        }
         if (naProfile.isNA(element)) {
             SeqIterator it = tableDataLib.iterator(tableData);
             while (tableDataLib.nextLoopCondition(tableData, it)) {
@@ -707,6 +728,10 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     @Cached("create()") BranchProfile foundProfile,
                     @Cached("create()") BranchProfile notFoundProfile) {
         String element = xDataLib.getStringAt(x.getData(), 0);
+        if (useIndex(table)) {
+            int pos = getCharacterIndex(table, tableDataLib).get(element);
+            return pos == -1 ? nomatch : pos + 1;
+        }
         Object tableData = table.getData();
         SeqIterator it = tableDataLib.iterator(tableData);
         if (naProfile.isNA(element)) {
@@ -803,16 +828,10 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
 
     protected RIntVector matchString(RAbstractVector x, RAbstractVector table, int nomatch, VectorDataLibrary xDataLib, VectorDataLibrary tableDataLib) {
         Object xData = x.getData();
-        Object tableData = table.getData();
         int xLength = xDataLib.getLength(xData);
-        int tableLength = tableDataLib.getLength(tableData);
         int[] result = initResult(xLength, nomatch);
         boolean matchAll = true;
-        NonRecursiveHashMapCharacter hashTable = new NonRecursiveHashMapCharacter(tableLength);
-        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
-        for (int i = tableLength - 1; i >= 0; i--) {
-            hashTable.put(tableDataLib.getString(tableData, rit, i), i);
-        }
+        NonRecursiveHashMapCharacter hashTable = getCharacterIndex(table, tableDataLib);
         SeqIterator it = xDataLib.iterator(xData);
         while (xDataLib.nextLoopCondition(xData, it)) {
             String xx = xDataLib.getNextString(xData, it);
@@ -826,6 +845,174 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
         return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
     }
 
+    /*
+     * Hash indexes of tables. The index maps a value to the position of its first occurrence in
+     * the table. It is attached to the table if the table is shared: shared vectors are not
+     * modified in place and the table drops the index as soon as it stops being shared or its data
+     * is written, so repeated lookups in the same table (e.g. %in% in a loop) build it only once.
+     */
+
+    /**
+     * Marks a shared table that has been searched once, the index is built on the next search.
+     * Arguments are shared only for the duration of the call, so a table that is searched once
+     * per call does not pay for building a full index each time.
+     */
+    private static final Object SEARCHED = new Object();
+
+    /**
+     * Returns {@code true} if the index of {@code table} should be used instead of a one-off
+     * search, i.e., if the index is already attached or the table is shared and has been searched
+     * before.
+     */
+    public static boolean useIndex(RAbstractVector table) {
+        if (!table.isShared() || isNativeData(table.getData())) {
+            return false;
+        }
+        if (table.getContentIndex() == null) {
+            table.attachContentIndex(null, SEARCHED);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isNativeData(Object data) {
+        // native memory can be modified by native code without any notice
+        return data instanceof RIntNativeVectorData || data instanceof RDoubleNativeVectorData || data instanceof RLogicalNativeVectorData || data instanceof RComplexNativeVectorData ||
+                        data instanceof RStringVecNativeData || data instanceof RAltrepData;
+    }
+
+    /**
+     * Attaches the index built from the contents of {@code table} unless the table was written
+     * since {@code expected} was read from it, the index is not modified after it is attached.
+     */
+    private static void attachIndex(RAbstractVector table, Object expected, Object index) {
+        if (!isNativeData(table.getData())) {
+            table.attachContentIndex(expected, index);
+        }
+    }
+
+    /**
+     * Returns the index of {@code table} values as read by {@link VectorDataLibrary#getInt}.
+     */
+    public static NonRecursiveHashMapInt getIntIndex(RAbstractVector table, VectorDataLibrary tableDataLib) {
+        Object attached = table.getContentIndex();
+        if (attached instanceof NonRecursiveHashMapInt) {
+            return (NonRecursiveHashMapInt) attached;
+        }
+        Object tableData = table.getData();
+        int tableLength = tableDataLib.getLength(tableData);
+        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
+        NonRecursiveHashMapInt hashTable = new NonRecursiveHashMapInt(tableLength);
+        for (int i = tableLength - 1; i >= 0; i--) {
+            hashTable.put(tableDataLib.getInt(tableData, rit, i), i);
+        }
+        attachIndex(table, attached, hashTable);
+        return hashTable;
+    }
+
+    /**
+     * Returns the index of {@code table} values as read by {@link VectorDataLibrary#getDouble}.
+     */
+    public static NonRecursiveHashMapDouble getDoubleIndex(RAbstractVector table, VectorDataLibrary tableDataLib) {
+        Object attached = table.getContentIndex();
+        if (attached instanceof NonRecursiveHashMapDouble) {
+            return (NonRecursiveHashMapDouble) attached;
+        }
+        Object tableData = table.getData();
+        int tableLength = tableDataLib.getLength(tableData);
+        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
+        NonRecursiveHashMapDouble hashTable = new NonRecursiveHashMapDouble(tableLength);
+        for (int i = tableLength - 1; i >= 0; i--) {
+            hashTable.put(tableDataLib.getDouble(tableData, rit, i), i);
+        }
+        attachIndex(table, attached, hashTable);
+        return hashTable;
+    }
+
+    /**
+     * Returns the index of {@code table} values as read by {@link VectorDataLibrary#getComplex}.
+     */
+    public static NonRecursiveHashMapComplex getComplexIndex(RAbstractVector table, VectorDataLibrary tableDataLib) {
+        Object attached = table.getContentIndex();
+        if (attached instanceof NonRecursiveHashMapComplex) {
+            return (NonRecursiveHashMapComplex) attached;
+        }
+        Object tableData = table.getData();
+        int tableLength = tableDataLib.getLength(tableData);
+        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
+        NonRecursiveHashMapComplex hashTable = new NonRecursiveHashMapComplex(tableLength);
+        for (int i = tableLength - 1; i >= 0; i--) {
+            hashTable.put(tableDataLib.getComplex(tableData, rit, i), i);
+        }
+        attachIndex(table, attached, hashTable);
+        return hashTable;
+    }
+
+    /**
+     * Returns the index of {@code table} values as read by {@link VectorDataLibrary#getString}.
+     */
+    public static NonRecursiveHashMapCharacter getCharacterIndex(RAbstractVector table, VectorDataLibrary tableDataLib) {
+        Object attached = table.getContentIndex();
+        if (attached instanceof NonRecursiveHashMapCharacter) {
+            return (NonRecursiveHashMapCharacter) attached;
+        }
+        Object tableData = table.getData();
+        int tableLength = tableDataLib.getLength(tableData);
+        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
+        NonRecursiveHashMapCharacter hashTable = new NonRecursiveHashMapCharacter(tableLength);
+        for (int i = tableLength - 1; i >= 0; i--) {
+            hashTable.put(tableDataLib.getString(tableData, rit, i), i);
+        }
+        attachIndex(table, attached, hashTable);
+        return hashTable;
+    }
+
+    /*
+     * Tables whose data are known to be sorted (see VectorDataLibrary#isSorted) are searched by
+     * bisection, which needs neither an index nor a pass over the whole table. Sorted data contain
+     * no NA or NaN, so only non-NA values are searched.
+     */
+
+    /**
+     * Returns the position of the first occurrence of {@code value} in the sorted table or
+     * {@code -1}.
+     */
+    private static int findInSorted(Object tableData, VectorDataLibrary tableDataLib, int value, boolean descending) {
+        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
+        int low = 0;
+        int high = tableDataLib.getLength(tableData);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int current = tableDataLib.getInt(tableData, rit, middle);
+            if (descending ? current > value : current < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < tableDataLib.getLength(tableData) && tableDataLib.getInt(tableData, rit, low) == value ? low : -1;
+    }
+
+    /**
+     * Returns the position of the first occurrence of {@code value} in the sorted table or
+     * {@code -1}. Like in GNU R, {@code 0} and {@code -0} are equal.
+     */
+    private static int findInSorted(Object tableData, VectorDataLibrary tableDataLib, double value, boolean descending) {
+        RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
+        int low = 0;
+        int high = tableDataLib.getLength(tableData);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            double current = tableDataLib.getDouble(tableData, rit, middle);
+            if (descending ? current > value : current < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < tableDataLib.getLength(tableData) && tableDataLib.getDouble(tableData, rit, low) == value ? low : -1;
+    }
+
     private abstract static class MatchAsNode extends AbstractMatchNode {
         protected abstract RIntVector execute(RAbstractAtomicVector x, RAbstractAtomicVector table, int nomatch);
     }
@@ -843,9 +1030,23 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             int[] result = initResult(xLength, nomatch);
             boolean matchAll = true;
 
+            boolean descending = tableDataLib.isSorted(tableData, true, false);
+            if (sortedTableProfile.profile(descending || tableDataLib.isSorted(tableData, false, false))) {
+                SeqIterator it = xDataLib.iterator(xData);
+                while (xDataLib.nextLoopCondition(xData, it)) {
+                    int xx = xDataLib.getNextInt(xData, it);
+                    int index = RRuntime.isNA(xx) ? -1 : findInSorted(tableData, tableDataLib, xx, descending);
+                    if (index != -1) {
+                        result[it.getIndex()] = index + 1;
+                    } else {
+                        matchAll = false;
+                    }
+                }
+                return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+            }
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
             NonRecursiveHashMapInt hashTable;
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
+            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR) && !useIndex(table))) {
                 hashTable = new NonRecursiveHashMapInt(xLength);
                 NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(xLength);
                 SeqIterator it = xDataLib.iterator(xData);
@@ -859,10 +1060,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     }
                 }
             } else {
-                hashTable = new NonRecursiveHashMapInt(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getInt(tableData, rit, i), i);
-                }
+                hashTable = getIntIndex(table, tableDataLib);
             }
             SeqIterator it = xDataLib.iterator(xData);
             while (xDataLib.nextLoopCondition(xData, it)) {
@@ -890,9 +1088,23 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             int tableLength = tableDataLib.getLength(tableData);
             int[] result = initResult(xLength, nomatch);
             boolean matchAll = true;
+            boolean descending = tableDataLib.isSorted(tableData, true, false);
+            if (sortedTableProfile.profile(descending || tableDataLib.isSorted(tableData, false, false))) {
+                SeqIterator it = xDataLib.iterator(xData);
+                while (xDataLib.nextLoopCondition(xData, it)) {
+                    double xx = xDataLib.getNextDouble(xData, it);
+                    int index = Double.isNaN(xx) ? -1 : findInSorted(tableData, tableDataLib, xx, descending);
+                    if (index != -1) {
+                        result[it.getIndex()] = index + 1;
+                    } else {
+                        matchAll = false;
+                    }
+                }
+                return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+            }
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
             NonRecursiveHashMapDouble hashTable;
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
+            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR) && !useIndex(table))) {
                 hashTable = new NonRecursiveHashMapDouble(xLength);
                 NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(xLength);
                 SeqIterator it = xDataLib.iterator(xData);
@@ -906,10 +1118,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     }
                 }
             } else {
-                hashTable = new NonRecursiveHashMapDouble(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getDouble(tableData, rit, i), i);
-                }
+                hashTable = getDoubleIndex(table, tableDataLib);
             }
             SeqIterator it = xDataLib.iterator(xData);
             while (xDataLib.nextLoopCondition(xData, it)) {
@@ -940,7 +1149,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             boolean matchAll = true;
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
             NonRecursiveHashMapComplex hashTable;
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
+            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR) && !useIndex(table))) {
                 hashTable = new NonRecursiveHashMapComplex(xLength);
                 NonRecursiveHashSetComplex hashSet = new NonRecursiveHashSetComplex(xLength);
                 SeqIterator it = xDataLib.iterator(xData);
@@ -954,10 +1163,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     }
                 }
             } else {
-                hashTable = new NonRecursiveHashMapComplex(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getComplex(tableData, rit, i), i);
-                }
+                hashTable = getComplexIndex(table, tableDataLib);
             }
             SeqIterator it = xDataLib.iterator(xData);
             while (xDataLib.nextLoopCondition(xData, it)) {
@@ -987,7 +1193,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             boolean matchAll = true;
             NonRecursiveHashMapCharacter hashTable;
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
+            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR) && !useIndex(table))) {
                 hashTable = new NonRecursiveHashMapCharacter(xLength);
                 NonRecursiveHashSetCharacter hashSet = new NonRecursiveHashSetCharacter(xLength);
                 SeqIterator it = xDataLib.iterator(xData);
@@ -1001,10 +1207,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
                     }
                 }
             } else {
-                hashTable = new NonRecursiveHashMapCharacter(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getString(tableData, rit, i), i);
-                }
+                hashTable = getCharacterIndex(table, tableDataLib);
             }
             SeqIterator it = xDataLib.iterator(xData);
             while (xDataLib.nextLoopCondition(xData, it)) {
@@ -1039,7 +1242,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
         }
     }
 
-    private static final class NonRecursiveHashMapCharacter extends NonRecursiveHashMap {
+    public static final class NonRecursiveHashMapCharacter extends NonRecursiveHashMap {
 
         private final String[] keys;
 
@@ -1048,7 +1251,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             keys = new String[values.length];
         }
 
-        public boolean put(String key, int value) {
+        boolean put(String key, int value) {
             assert value >= 0;
             if (RRuntime.isNA(key)) {
                 boolean ret = naValue == 0;
@@ -1097,7 +1300,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
         }
     }
 
-    private static final class NonRecursiveHashMapComplex extends NonRecursiveHashMap {
+    public static final class NonRecursiveHashMapComplex extends NonRecursiveHashMap {
 
         private final RComplex[] keys;
         private final int m;
@@ -1118,7 +1321,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             k = k1;
         }
 
-        public boolean put(RComplex key, int value) {
+        boolean put(RComplex key, int value) {
             assert value >= 0;
             if (RRuntime.isNA(key)) {
                 boolean ret = naValue == 0;
@@ -1174,7 +1377,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
         }
     }
 
-    private static final class NonRecursiveHashMapDouble extends NonRecursiveHashMap {
+    public static final class NonRecursiveHashMapDouble extends NonRecursiveHashMap {
 
         private final double[] keys;
         private int nanValue;
@@ -1185,7 +1388,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             Arrays.fill(keys, RRuntime.DOUBLE_NA);
         }
 
-        public boolean put(double key, int value) {
+        boolean put(double key, int value) {
             assert value >= 0;
             if (RRuntime.isNA(key)) {
                 boolean ret = naValue == 0;
@@ -1240,7 +1443,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
         }
     }
 
-    private static final class NonRecursiveHashMapInt extends NonRecursiveHashMap {
+    public static final class NonRecursiveHashMapInt extends NonRecursiveHashMap {
 
         private final int[] keys;
 
@@ -1250,7 +1453,7 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             Arrays.fill(keys, RRuntime.INT_NA);
         }
 
-        public boolean put(int key, int value) {
+        boolean put(int key, int value) {
             assert value >= 0;
             if (RRuntime.isNA(key)) {
                 boolean ret = naValue == 0;
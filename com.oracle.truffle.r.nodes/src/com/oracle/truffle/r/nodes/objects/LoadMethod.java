@@ -22,6 +22,7 @@ package com.oracle.truffle.r.nodes.objects;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -65,7 +66,11 @@ abstract class LoadMethod extends RBaseNode {
     @Child private LocalReadVariableNode methodsEnvRead = LocalReadVariableNode.create("methods", true);
     @Child private ReadVariableNode loadMethodFind;
     @Child private CallRFunctionNode loadMethodCall;
-    @CompilationFinal private RFunction loadMethodFunction;
+    /**
+     * The call target of the {@code loadMethod} function, the function itself belongs to a context,
+     * while this node may be shared by the contexts of an engine.
+     */
+    @CompilationFinal private RootCallTarget loadMethodTarget;
     private final ConditionProfile cached = ConditionProfile.createBinaryProfile();
     private final ConditionProfile moreAttributes = ConditionProfile.createBinaryProfile();
     private final ConditionProfile noNextMethodAttr = ConditionProfile.createBinaryProfile();
@@ -129,20 +134,20 @@ abstract class LoadMethod extends RBaseNode {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 loadMethodFind = insert(ReadVariableNode.createFunctionLookup(RRuntime.R_LOAD_METHOD_NAME));
                 currentFunction = (RFunction) loadMethodFind.execute(frame, methodsEnv.getFrame());
-                loadMethodFunction = currentFunction;
+                loadMethodTarget = currentFunction.getTarget();
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                loadMethodCall = insert(CallRFunctionNode.create(loadMethodFunction.getTarget()));
+                loadMethodCall = insert(CallRFunctionNode.create(loadMethodTarget));
                 RError.performanceWarning("loadMethod executing slow path");
             } else {
                 currentFunction = (RFunction) loadMethodFind.execute(frame, methodsEnv.getFrame(methodsFrameAccessProfile));
             }
             RSyntaxElement originalCall = RASTUtils.getOriginalCall(this);
             RCaller caller = originalCall == null ? RCaller.createInvalid(frame) : RCaller.create(frame, originalCall);
-            if (cached.profile(currentFunction == loadMethodFunction)) {
+            if (cached.profile(currentFunction.getTarget() == loadMethodTarget)) {
                 // TODO: technically, someone could override loadMethod function and access the
                 // caller, but it's rather unlikely
-                ret = (RFunction) loadMethodCall.execute(frame, loadMethodFunction, caller, new Object[]{fdef, fname, REnvironment.frameToEnvironment(frame.materialize())}, SIGNATURE,
-                                loadMethodFunction.getEnclosingFrame(), null);
+                ret = (RFunction) loadMethodCall.execute(frame, currentFunction, caller, new Object[]{fdef, fname, REnvironment.frameToEnvironment(frame.materialize())}, SIGNATURE,
+                                currentFunction.getEnclosingFrame(), null);
             } else {
                 // slow path
                 ret = (RFunction) RContext.getEngine().evalFunction(currentFunction, frame.materialize(), caller, true, null, fdef, fname, REnvironment.frameToEnvironment(frame.materialize()));
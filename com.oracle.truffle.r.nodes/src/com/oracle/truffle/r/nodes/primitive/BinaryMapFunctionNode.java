@@ -23,12 +23,14 @@
 package com.oracle.truffle.r.nodes.primitive;
 
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.AbstractContainerLibrary;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
 import com.oracle.truffle.r.runtime.data.WarningInfo;
 
 /**
@@ -70,6 +72,15 @@ public abstract class BinaryMapFunctionNode extends RBaseNode {
         throw RInternalError.shouldNotReachHere();
     }
 
+    /**
+     * Variant of {@link #applyDouble(double, double)} that records {@code NA} operands in the given
+     * checks instead of the checks of this node, so that it can be invoked by several threads at
+     * once, see {@link #isParallelizable()}.
+     */
+    public double applyDouble(NACheck leftCheck, NACheck rightCheck, double left, double right) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
     public double applyDouble(int left, int right) {
         throw RInternalError.shouldNotReachHere();
     }
@@ -102,6 +113,39 @@ public abstract class BinaryMapFunctionNode extends RBaseNode {
         return null;
     }
 
+    /**
+     * Returns <code>true</code> if the result of this operation on vectors of the given classes may
+     * be deferred with {@link #tryFuse(RAbstractVector, int, RAbstractVector, int)}.
+     */
+    public boolean mayFuse(RAbstractVector left, RAbstractVector right, RType argumentType, RType resultType) {
+        return false;
+    }
+
+    /**
+     * Returns a vector that computes the result of this operation lazily, possibly together with
+     * the operations that produced the operands. Returns <code>null</code> if the operation is to
+     * be computed eagerly.
+     */
+    public RAbstractVector tryFuse(RAbstractVector left, int leftLength, RAbstractVector right, int rightLength) {
+        return null;
+    }
+
+    /**
+     * Returns <code>true</code> if {@link #applyDouble(NACheck, NACheck, double, double)} may be
+     * invoked by several threads at once, see {@link ParallelMap}.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
+    /**
+     * Merges the state of the checks passed to
+     * {@link #applyDouble(NACheck, NACheck, double, double)} into the checks of this node once all
+     * the threads are done.
+     */
+    public void mergeNAChecks(boolean leftSeenNA, boolean rightSeenNA) {
+    }
+
     /**
      * Enables the node for the two operation. Invoked once for each BinaryMap operation invocation.
      */
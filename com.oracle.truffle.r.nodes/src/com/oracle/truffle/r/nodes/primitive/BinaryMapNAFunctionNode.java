@@ -83,6 +83,16 @@ public abstract class BinaryMapNAFunctionNode extends BinaryMapFunctionNode {
         return leftNACheck.neverSeenNA() && rightNACheck.neverSeenNA() && !introducesNA();
     }
 
+    @Override
+    public final void mergeNAChecks(boolean leftSeenNA, boolean rightSeenNA) {
+        if (leftSeenNA) {
+            leftNACheck.seenNA();
+        }
+        if (rightSeenNA) {
+            rightNACheck.seenNA();
+        }
+    }
+
     public final NACheck getLeftNACheck() {
         return leftNACheck;
     }
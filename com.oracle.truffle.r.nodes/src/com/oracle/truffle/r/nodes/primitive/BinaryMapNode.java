@@ -22,7 +22,10 @@
  */
 package com.oracle.truffle.r.nodes.primitive;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.BranchProfile;
@@ -39,6 +42,7 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RScalarVector;
 import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
@@ -50,6 +54,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 final class BinaryMapScalarNode extends BinaryMapNode {
 
@@ -173,6 +178,8 @@ final class BinaryMapVectorNode extends BinaryMapNode {
     // compile-time optimization flags
     private final boolean mayContainMetadata;
     private final boolean mayFoldConstantTime;
+    private final boolean mayFuse;
+    private final boolean mayMapInParallel;
     private final boolean mayShareLeft;
     private final boolean mayShareRight;
 
@@ -187,6 +194,9 @@ final class BinaryMapVectorNode extends BinaryMapNode {
         boolean rightVectorImpl = right.isMaterialized();
         this.mayContainMetadata = leftVectorImpl || rightVectorImpl;
         this.mayFoldConstantTime = function.mayFoldConstantTime(left, right);
+        this.mayFuse = function.mayFuse(left, right, argumentType, resultType);
+        this.mayMapInParallel = function.isParallelizable() && argumentType == RType.Double && resultType == RType.Double && left.getRType() == RType.Double &&
+                        right.getRType() == RType.Double;
         this.mayShareLeft = left.getRType() == resultType && leftVectorImpl;
         this.mayShareRight = right.getRType() == resultType && rightVectorImpl;
         // lazily create profiles only if needed to avoid unnecessary allocations
@@ -248,6 +258,13 @@ final class BinaryMapVectorNode extends BinaryMapNode {
             Object rightDataCast = rightLibrary.cast(rightData, argumentType);
             target = function.tryFoldConstantTime(warningInfo, leftDataCast, leftLength, rightDataCast, rightLength);
         }
+        // deferring the operation would compute the result sequentially once it is needed
+        if (mayFuse && target == null && !(mayMapInParallel && ParallelMap.isParallel(Math.max(leftLength, rightLength)))) {
+            target = function.tryFuse(left, leftLength, right, rightLength);
+            if (target != null) {
+                warningInfo = new WarningInfo();
+            }
+        }
         if (target == null) {
             int maxLength = maxLengthProfile.profile(leftLength >= rightLength) ? leftLength : rightLength;
 
@@ -255,7 +272,14 @@ final class BinaryMapVectorNode extends BinaryMapNode {
             assert right.getLength() == rightLength;
             SeqIterator leftIter = leftLibrary.iterator(leftData);
             SeqIterator rightIter = rightLibrary.iterator(rightData);
-            if (mayShareLeft && left.getRType() == resultType && shareLeft.profile(leftLength == maxLength && ((RSharingAttributeStorage) left).isTemporary())) {
+            if (mayMapInParallel && ParallelMap.isParallel(maxLength)) {
+                double[] result = mapInParallel(function, leftLibrary.getReadonlyDoubleData(leftData), rightLibrary.getReadonlyDoubleData(rightData), maxLength);
+                if (leftLength != rightLength && maxLength % Math.min(leftLength, rightLength) != 0) {
+                    RError.warning(this, RError.Message.LENGTH_NOT_MULTI);
+                }
+                target = RDataFactory.createDoubleVector(result, function.isComplete());
+                warningInfo = new WarningInfo();
+            } else if (mayShareLeft && left.getRType() == resultType && shareLeft.profile(leftLength == maxLength && ((RSharingAttributeStorage) left).isTemporary())) {
                 target = left;
                 try (SeqWriteIterator resultIter = leftLibrary.writeIterator(leftData)) {
                     warningInfo = resultIter.getWarningInfo();
@@ -294,6 +318,50 @@ final class BinaryMapVectorNode extends BinaryMapNode {
         return target;
     }
 
+    /**
+     * Each range is processed with its own NA checks, which are always enabled and merged into the
+     * checks of {@code function} once all the ranges are done.
+     */
+    @TruffleBoundary
+    private static double[] mapInParallel(BinaryMapFunctionNode function, double[] left, double[] right, int length) {
+        double[] result = new double[length];
+        AtomicBoolean leftSeenNA = new AtomicBoolean();
+        AtomicBoolean rightSeenNA = new AtomicBoolean();
+        ParallelMap.forEachRange(length, (from, to) -> {
+            NACheck leftCheck = NACheck.create();
+            NACheck rightCheck = NACheck.create();
+            leftCheck.enable(true);
+            rightCheck.enable(true);
+            int leftLength = left.length;
+            int rightLength = right.length;
+            if (leftLength == length && rightLength == length) {
+                for (int i = from; i < to; i++) {
+                    result[i] = function.applyDouble(leftCheck, rightCheck, left[i], right[i]);
+                }
+            } else {
+                int leftIndex = from % leftLength;
+                int rightIndex = from % rightLength;
+                for (int i = from; i < to; i++) {
+                    result[i] = function.applyDouble(leftCheck, rightCheck, left[leftIndex], right[rightIndex]);
+                    if (++leftIndex == leftLength) {
+                        leftIndex = 0;
+                    }
+                    if (++rightIndex == rightLength) {
+                        rightIndex = 0;
+                    }
+                }
+            }
+            if (!leftCheck.neverSeenNA()) {
+                leftSeenNA.set(true);
+            }
+            if (!rightCheck.neverSeenNA()) {
+                rightSeenNA.set(true);
+            }
+        });
+        function.mergeNAChecks(leftSeenNA.get(), rightSeenNA.get());
+        return result;
+    }
+
     private VectorDataLibrary getResultLibrary() {
         if (resultLibrary == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.primitive;
+
+import java.util.concurrent.RecursiveAction;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+
+/**
+ * Splits element-wise operations on large vectors into ranges of indices that are processed by
+ * several threads, used by {@link BinaryMapNode}, {@link UnaryMapNode} and some of the
+ * mathematical builtins.
+ *
+ * The actions run on threads that did not enter the context, so they must only compute on arrays
+ * and must not report warnings or access the context. Each element is computed exactly like in
+ * the sequential loop, therefore the results do not depend on the number of threads.
+ */
+public final class ParallelMap {
+
+    /**
+     * Vectors shorter than this are never split, whatever {@link FastROptions#MapParallelThreshold}
+     * says, the threads would not even be woken up before the work is done.
+     */
+    private static final int MIN_PARALLEL_LENGTH = 16 * 1024;
+
+    /**
+     * The ranges are multiples of this size so that threads do not write to the same cache lines.
+     */
+    private static final int RANGE_ALIGNMENT = 1024;
+
+    private ParallelMap() {
+        // no instances
+    }
+
+    @FunctionalInterface
+    public interface RangeAction {
+        /**
+         * Processes the elements with indices in {@code [from, to)}.
+         */
+        void apply(int from, int to);
+    }
+
+    /**
+     * Returns {@code true} if a vector of {@code length} elements should be processed by several
+     * threads according to {@link FastROptions#MapThreads} and
+     * {@link FastROptions#MapParallelThreshold}.
+     */
+    public static boolean isParallel(int length) {
+        return length >= MIN_PARALLEL_LENGTH && threadCount(length) > 1;
+    }
+
+    @TruffleBoundary
+    private static int threadCount(int length) {
+        return threadCount(RContext.getInstance(), length);
+    }
+
+    private static int threadCount(RContext context, int length) {
+        /*
+         * The loops are bound by memory bandwidth, not by arithmetic. The default threshold of 1M
+         * elements is chosen so that the fork-join overhead (tens of microseconds) stays below a
+         * few percent of a sequential pass (about a millisecond).
+         */
+        if (length < context.getNonNegativeIntOption(FastROptions.MapParallelThreshold)) {
+            return 1;
+        }
+        int threads = context.getNonNegativeIntOption(FastROptions.MapThreads);
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    /**
+     * Applies {@code action} to ranges covering {@code [0, length)} and returns once all of them
+     * are processed. Exceptions thrown by the action are rethrown. The threads belong to the
+     * current context, see {@link RContext#getMapPool(int)}.
+     */
+    @TruffleBoundary
+    public static void forEachRange(int length, RangeAction action) {
+        RContext context = RContext.getInstance();
+        int threads = threadCount(context, length);
+        if (threads <= 1) {
+            action.apply(0, length);
+            return;
+        }
+        // several ranges per thread so that the work can be balanced by stealing
+        int rangeSize = Math.max(RANGE_ALIGNMENT, (length / (threads * 4) + RANGE_ALIGNMENT - 1) / RANGE_ALIGNMENT * RANGE_ALIGNMENT);
+        int ranges = (length + rangeSize - 1) / rangeSize;
+        context.getMapPool(threads).invoke(new RangeTask(action, length, rangeSize, 0, ranges));
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAction action;
+        private final int length;
+        private final int rangeSize;
+        private final int fromRange;
+        private final int toRange;
+
+        RangeTask(RangeAction action, int length, int rangeSize, int fromRange, int toRange) {
+            this.action = action;
+            this.length = length;
+            this.rangeSize = rangeSize;
+            this.fromRange = fromRange;
+            this.toRange = toRange;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRange - fromRange == 1) {
+                int from = fromRange * rangeSize;
+                action.apply(from, Math.min(length, from + rangeSize));
+            } else {
+                int middle = (fromRange + toRange) >>> 1;
+                invokeAll(new RangeTask(action, length, rangeSize, fromRange, middle), new RangeTask(action, length, rangeSize, middle, toRange));
+            }
+        }
+    }
+}
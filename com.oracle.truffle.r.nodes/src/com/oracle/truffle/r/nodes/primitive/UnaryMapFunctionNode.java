@@ -26,6 +26,7 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 @SuppressWarnings("unused")
 public abstract class UnaryMapFunctionNode extends RBaseNode {
@@ -38,6 +39,21 @@ public abstract class UnaryMapFunctionNode extends RBaseNode {
         return null;
     }
 
+    /**
+     * Returns <code>true</code> if {@link #applyDouble(NACheck, double)} may be invoked by several
+     * threads at once, see {@link ParallelMap}.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
+    /**
+     * Merges the state of the checks passed to {@link #applyDouble(NACheck, double)} into the check
+     * of this node once all the threads are done.
+     */
+    public void mergeNAChecks(boolean operandSeenNA) {
+    }
+
     /**
      * Enables all NA checks for the given input vectors.
      */
@@ -60,6 +76,14 @@ public abstract class UnaryMapFunctionNode extends RBaseNode {
         throw RInternalError.shouldNotReachHere();
     }
 
+    /**
+     * Like {@link #applyDouble(double)}, but records <code>NA</code> values in the given check
+     * instead of the check of this node.
+     */
+    public double applyDouble(NACheck operandCheck, double operand) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
     public double applyDouble(RComplex operand) {
         throw RInternalError.shouldNotReachHere();
     }
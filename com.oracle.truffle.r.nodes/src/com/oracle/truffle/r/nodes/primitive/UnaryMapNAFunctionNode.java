@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -46,4 +46,11 @@ public abstract class UnaryMapNAFunctionNode extends UnaryMapFunctionNode {
     public final boolean isComplete() {
         return operandNACheck.neverSeenNA();
     }
+
+    @Override
+    public final void mergeNAChecks(boolean operandSeenNA) {
+        if (operandSeenNA) {
+            operandNACheck.seenNA();
+        }
+    }
 }
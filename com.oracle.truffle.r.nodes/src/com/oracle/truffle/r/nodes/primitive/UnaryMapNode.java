@@ -22,6 +22,8 @@
  */
 package com.oracle.truffle.r.nodes.primitive;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -38,6 +40,7 @@ import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RScalarVector;
@@ -47,6 +50,7 @@ import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.SequentialIterator;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 final class UnaryMapScalarNode extends UnaryMapNode {
 
@@ -110,6 +114,7 @@ final class UnaryMapVectorNode extends UnaryMapNode {
     // compile-time optimization flags
     private final boolean mayContainMetadata;
     private final boolean mayFoldConstantTime;
+    private final boolean mayMapInParallel;
     private final boolean mayShareOperand;
     private final boolean isGeneric;
 
@@ -120,6 +125,7 @@ final class UnaryMapVectorNode extends UnaryMapNode {
         boolean operandVector = operand.isMaterialized();
         this.mayContainMetadata = operandVector;
         this.mayFoldConstantTime = argumentType == operand.getRType() && scalarNode.mayFoldConstantTime(dataClass);
+        this.mayMapInParallel = scalarNode.isParallelizable() && argumentType == RType.Double && resultType == RType.Double && operand instanceof RDoubleVector;
         this.mayShareOperand = operandVector;
         this.isGeneric = isGeneric;
 
@@ -145,6 +151,10 @@ final class UnaryMapVectorNode extends UnaryMapNode {
         if (mayFoldConstantTime) {
             target = function.tryFoldConstantTime(operand, operandLength);
         }
+        if (target == null && mayMapInParallel && ParallelMap.isParallel(operandLength)) {
+            target = RDataFactory.createDoubleVector(mapInParallel(function, (RDoubleVector) operand), function.isComplete());
+            RBaseNode.reportWork(this, operandLength);
+        }
         if (target == null) {
             VectorAccess operandAccess = isGeneric ? operand.slowPathAccess() : fastOperandAccess;
             boolean targetIsComplete = true;
@@ -175,6 +185,29 @@ final class UnaryMapVectorNode extends UnaryMapNode {
         return target;
     }
 
+    /**
+     * Each range uses its own NA check, the checks are merged into the check of {@code function}
+     * once all ranges are processed.
+     */
+    @TruffleBoundary
+    private static double[] mapInParallel(UnaryMapFunctionNode function, RDoubleVector operand) {
+        double[] values = operand.getReadonlyData();
+        double[] result = new double[values.length];
+        AtomicBoolean operandSeenNA = new AtomicBoolean();
+        ParallelMap.forEachRange(values.length, (from, to) -> {
+            NACheck operandCheck = NACheck.create();
+            operandCheck.enable(true);
+            for (int i = from; i < to; i++) {
+                result[i] = function.applyDouble(operandCheck, values[i]);
+            }
+            if (!operandCheck.neverSeenNA()) {
+                operandSeenNA.set(true);
+            }
+        });
+        function.mergeNAChecks(operandSeenNA.get());
+        return result;
+    }
+
     private RAbstractVector handleMetadata(RAbstractVector target, RAbstractVector operand) {
         RAbstractVector result = target;
         if (containsMetadata(operand) && operand != target) {
@@ -35,6 +35,7 @@ import com.oracle.truffle.r.runtime.ops.Operation;
 import com.oracle.truffle.r.runtime.ops.UnaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.UnaryArithmetic.Negate;
 import com.oracle.truffle.r.runtime.ops.UnaryArithmetic.Plus;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 public class ScalarUnaryArithmeticNode extends UnaryMapNAFunctionNode {
 
@@ -73,9 +74,19 @@ public class ScalarUnaryArithmeticNode extends UnaryMapNAFunctionNode {
         return false;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public final double applyDouble(double operand) {
-        if (operandNACheck.check(operand)) {
+        return applyDouble(operandNACheck, operand);
+    }
+
+    @Override
+    public final double applyDouble(NACheck operandCheck, double operand) {
+        if (operandCheck.check(operand)) {
             return RRuntime.DOUBLE_NA;
         }
         try {
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Constants and helpers shared by {@link BZip2InputStream} and {@link BZip2OutputStream}, which
+ * implement the bzip2 file format (as produced by bzip2 0.9.5 and later) without the need for a
+ * native library or a {@code bzip2} sub-process.
+ */
+final class BZip2 {
+
+    /**
+     * The version of libbzip2 whose format is implemented, reported by {@code extSoftVersion}.
+     */
+    static final String VERSION = "1.0.6, 6-Sept-2010";
+
+    static final int BLOCK_MAGIC_HI = 0x314159;
+    static final int BLOCK_MAGIC_LO = 0x265359;
+    static final int EOS_MAGIC_HI = 0x177245;
+    static final int EOS_MAGIC_LO = 0x385090;
+
+    static final int BASE_BLOCK_SIZE = 100000;
+    static final int MAX_ALPHA_SIZE = 258;
+    static final int MAX_CODE_LEN = 23;
+    static final int RUNA = 0;
+    static final int RUNB = 1;
+    static final int MIN_GROUPS = 2;
+    static final int MAX_GROUPS = 6;
+    static final int GROUP_SIZE = 50;
+    static final int MAX_SELECTORS = 2 + (900000 / GROUP_SIZE);
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int c = i << 24;
+            for (int j = 0; j < 8; j++) {
+                c = (c & 0x80000000) != 0 ? (c << 1) ^ 0x04C11DB7 : c << 1;
+            }
+            CRC_TABLE[i] = c;
+        }
+    }
+
+    private BZip2() {
+        // no instances
+    }
+
+    /**
+     * Updates the (big-endian CRC32) block checksum with one byte repeated {@code count} times.
+     */
+    static int updateCRC(int crc, int b, int count) {
+        int result = crc;
+        for (int i = 0; i < count; i++) {
+            result = (result << 8) ^ CRC_TABLE[((result >>> 24) ^ b) & 0xff];
+        }
+        return result;
+    }
+
+    static int combineCRC(int combinedCRC, int blockCRC) {
+        return ((combinedCRC << 1) | (combinedCRC >>> 31)) ^ blockCRC;
+    }
+
+    /**
+     * Growable big-endian bit buffer. The bits of a block are not byte aligned in a bzip2 stream,
+     * therefore blocks encoded in parallel are appended bit-wise.
+     */
+    static final class BitWriter {
+        private byte[] buf;
+        private int length;
+        private long acc;
+        private int accBits;
+
+        BitWriter(int initialCapacity) {
+            buf = new byte[Math.max(initialCapacity, 16)];
+        }
+
+        /**
+         * Writes the lowest {@code n} (at most 32) bits of {@code value}.
+         */
+        void write(int n, int value) {
+            acc = (acc << n) | (value & (0xFFFFFFFFL >>> (32 - n)));
+            accBits += n;
+            while (accBits >= 8) {
+                if (length == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+                accBits -= 8;
+                buf[length++] = (byte) (acc >>> accBits);
+            }
+        }
+
+        void append(BitWriter other) {
+            for (int i = 0; i < other.length; i++) {
+                write(8, other.buf[i]);
+            }
+            if (other.accBits > 0) {
+                write(other.accBits, (int) other.acc);
+            }
+        }
+
+        /**
+         * Pads the last byte with zero bits.
+         */
+        void alignToByte() {
+            if (accBits > 0) {
+                write(8 - accBits, 0);
+            }
+        }
+
+        /**
+         * Writes all complete bytes to {@code out}, only the pending (less than 8) bits are kept.
+         */
+        void drainTo(OutputStream out) throws IOException {
+            out.write(buf, 0, length);
+            length = 0;
+        }
+    }
+}
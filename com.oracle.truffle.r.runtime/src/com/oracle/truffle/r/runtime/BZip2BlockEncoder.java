@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import static com.oracle.truffle.r.runtime.BZip2.GROUP_SIZE;
+import static com.oracle.truffle.r.runtime.BZip2.RUNA;
+import static com.oracle.truffle.r.runtime.BZip2.RUNB;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.r.runtime.BZip2.BitWriter;
+
+/**
+ * Encodes a single bzip2 block: Burrows-Wheeler transform, move-to-front with zero run-length
+ * coding and multi-table Huffman coding. Blocks are independent of each other, which allows
+ * {@link BZip2OutputStream} to encode them in parallel.
+ */
+final class BZip2BlockEncoder {
+
+    private static final int MAX_ENCODE_CODE_LEN = 17;
+    private static final int GREATER_ICOST = 15;
+    private static final int LESSER_ICOST = 0;
+    private static final int N_ITERS = 4;
+
+    private BZip2BlockEncoder() {
+        // no instances
+    }
+
+    /**
+     * Encodes {@code block[0..length)}, i.e., the data after the initial run-length encoding, into
+     * a new {@link BitWriter}.
+     *
+     * @param blockCRC the checksum of the data before the initial run-length encoding
+     */
+    static BitWriter encode(byte[] block, int length, int blockCRC) {
+        assert length > 0;
+        boolean[] inUse = new boolean[256];
+        for (int i = 0; i < length; i++) {
+            inUse[block[i] & 0xff] = true;
+        }
+        int[] unseqToSeq = new int[256];
+        int nInUse = 0;
+        for (int i = 0; i < 256; i++) {
+            if (inUse[i]) {
+                unseqToSeq[i] = nInUse++;
+            }
+        }
+
+        int[] ptr = sortRotations(block, length);
+        int origPtr = -1;
+        char[] mtfv = new char[length + 1];
+        int alphaSize = nInUse + 2;
+        int[] mtfFreq = new int[alphaSize];
+        int nMTF = 0;
+        byte[] yy = new byte[nInUse];
+        for (int i = 0; i < nInUse; i++) {
+            yy[i] = (byte) i;
+        }
+        int zPend = 0;
+        for (int i = 0; i < length; i++) {
+            int p = ptr[i];
+            if (p == 0) {
+                origPtr = i;
+                p = length;
+            }
+            byte ll = (byte) unseqToSeq[block[p - 1] & 0xff];
+            if (yy[0] == ll) {
+                zPend++;
+                continue;
+            }
+            if (zPend > 0) {
+                nMTF = writeZeroRun(mtfv, nMTF, mtfFreq, zPend);
+                zPend = 0;
+            }
+            int j = 1;
+            byte tmp = yy[1];
+            yy[1] = yy[0];
+            while (tmp != ll) {
+                j++;
+                byte tmp2 = tmp;
+                tmp = yy[j];
+                yy[j] = tmp2;
+            }
+            yy[0] = tmp;
+            mtfv[nMTF++] = (char) (j + 1);
+            mtfFreq[j + 1]++;
+        }
+        if (zPend > 0) {
+            nMTF = writeZeroRun(mtfv, nMTF, mtfFreq, zPend);
+        }
+        int eob = nInUse + 1;
+        mtfv[nMTF++] = (char) eob;
+        mtfFreq[eob]++;
+        assert origPtr >= 0;
+
+        BitWriter out = new BitWriter(nMTF / 2 + 1024);
+        out.write(24, BZip2.BLOCK_MAGIC_HI);
+        out.write(24, BZip2.BLOCK_MAGIC_LO);
+        out.write(32, blockCRC);
+        out.write(1, 0); // not randomised
+        out.write(24, origPtr);
+        writeSymbolMap(out, inUse);
+        writeHuffmanCoded(out, mtfv, nMTF, mtfFreq, alphaSize);
+        return out;
+    }
+
+    private static int writeZeroRun(char[] mtfv, int start, int[] mtfFreq, int count) {
+        int n = start;
+        int zPend = count - 1;
+        while (true) {
+            if ((zPend & 1) != 0) {
+                mtfv[n++] = RUNB;
+                mtfFreq[RUNB]++;
+            } else {
+                mtfv[n++] = RUNA;
+                mtfFreq[RUNA]++;
+            }
+            if (zPend < 2) {
+                break;
+            }
+            zPend = (zPend - 2) / 2;
+        }
+        return n;
+    }
+
+    /**
+     * Sorts all cyclic rotations of {@code s[0..n)} by prefix doubling with counting sort.
+     *
+     * @return the start positions of the rotations in sorted order
+     */
+    static int[] sortRotations(byte[] s, int n) {
+        int[] p = new int[n];
+        int[] c = new int[n];
+        int[] pn = new int[n];
+        int[] cn = new int[n];
+        int[] cnt = new int[Math.max(256, n)];
+        for (int i = 0; i < n; i++) {
+            cnt[s[i] & 0xff]++;
+        }
+        for (int i = 1; i < 256; i++) {
+            cnt[i] += cnt[i - 1];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            p[--cnt[s[i] & 0xff]] = i;
+        }
+        int classes = 1;
+        c[p[0]] = 0;
+        for (int i = 1; i < n; i++) {
+            if (s[p[i]] != s[p[i - 1]]) {
+                classes++;
+            }
+            c[p[i]] = classes - 1;
+        }
+        for (int shift = 1; shift < n && classes < n; shift <<= 1) {
+            for (int i = 0; i < n; i++) {
+                int q = p[i] - shift;
+                pn[i] = q < 0 ? q + n : q;
+            }
+            Arrays.fill(cnt, 0, classes, 0);
+            for (int i = 0; i < n; i++) {
+                cnt[c[pn[i]]]++;
+            }
+            for (int i = 1; i < classes; i++) {
+                cnt[i] += cnt[i - 1];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                p[--cnt[c[pn[i]]]] = pn[i];
+            }
+            cn[p[0]] = 0;
+            classes = 1;
+            for (int i = 1; i < n; i++) {
+                int cur = p[i] + shift;
+                int prev = p[i - 1] + shift;
+                if (c[p[i]] != c[p[i - 1]] || c[cur >= n ? cur - n : cur] != c[prev >= n ? prev - n : prev]) {
+                    classes++;
+                }
+                cn[p[i]] = classes - 1;
+            }
+            int[] tmp = c;
+            c = cn;
+            cn = tmp;
+        }
+        return p;
+    }
+
+    private static void writeSymbolMap(BitWriter out, boolean[] inUse) {
+        int inUse16 = 0;
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                if (inUse[i * 16 + j]) {
+                    inUse16 |= 1 << (15 - i);
+                    break;
+                }
+            }
+        }
+        out.write(16, inUse16);
+        for (int i = 0; i < 16; i++) {
+            if ((inUse16 & (1 << (15 - i))) != 0) {
+                int bits = 0;
+                for (int j = 0; j < 16; j++) {
+                    if (inUse[i * 16 + j]) {
+                        bits |= 1 << (15 - j);
+                    }
+                }
+                out.write(16, bits);
+            }
+        }
+    }
+
+    private static void writeHuffmanCoded(BitWriter out, char[] mtfv, int nMTF, int[] mtfFreq, int alphaSize) {
+        int nGroups;
+        if (nMTF < 200) {
+            nGroups = 2;
+        } else if (nMTF < 600) {
+            nGroups = 3;
+        } else if (nMTF < 1200) {
+            nGroups = 4;
+        } else if (nMTF < 2400) {
+            nGroups = 5;
+        } else {
+            nGroups = 6;
+        }
+        int[][] len = new int[nGroups][alphaSize];
+
+        // initial tables cover consecutive ranges of symbols with about the same frequency
+        int nPart = nGroups;
+        int remF = nMTF;
+        int gs = 0;
+        while (nPart > 0) {
+            int tFreq = remF / nPart;
+            int ge = gs - 1;
+            int aFreq = 0;
+            while (aFreq < tFreq && ge < alphaSize - 1) {
+                ge++;
+                aFreq += mtfFreq[ge];
+            }
+            if (ge > gs && nPart != nGroups && nPart != 1 && ((nGroups - nPart) % 2 == 1)) {
+                aFreq -= mtfFreq[ge];
+                ge--;
+            }
+            for (int v = 0; v < alphaSize; v++) {
+                len[nPart - 1][v] = v >= gs && v <= ge ? LESSER_ICOST : GREATER_ICOST;
+            }
+            nPart--;
+            gs = ge + 1;
+            remF -= aFreq;
+        }
+
+        int nSelectors = (nMTF + GROUP_SIZE - 1) / GROUP_SIZE;
+        byte[] selectors = new byte[nSelectors];
+        int[][] rfreq = new int[nGroups][alphaSize];
+        for (int iter = 0; iter < N_ITERS; iter++) {
+            for (int t = 0; t < nGroups; t++) {
+                Arrays.fill(rfreq[t], 0);
+            }
+            int sel = 0;
+            for (gs = 0; gs < nMTF; gs += GROUP_SIZE) {
+                int ge = Math.min(gs + GROUP_SIZE, nMTF);
+                int bt = 0;
+                int bc = Integer.MAX_VALUE;
+                for (int t = 0; t < nGroups; t++) {
+                    int[] tl = len[t];
+                    int cost = 0;
+                    for (int i = gs; i < ge; i++) {
+                        cost += tl[mtfv[i]];
+                    }
+                    if (cost < bc) {
+                        bc = cost;
+                        bt = t;
+                    }
+                }
+                selectors[sel++] = (byte) bt;
+                int[] rf = rfreq[bt];
+                for (int i = gs; i < ge; i++) {
+                    rf[mtfv[i]]++;
+                }
+            }
+            for (int t = 0; t < nGroups; t++) {
+                makeCodeLengths(len[t], rfreq[t], alphaSize, MAX_ENCODE_CODE_LEN);
+            }
+        }
+
+        int[][] code = new int[nGroups][alphaSize];
+        for (int t = 0; t < nGroups; t++) {
+            assignCodes(code[t], len[t], alphaSize);
+        }
+
+        out.write(3, nGroups);
+        out.write(15, nSelectors);
+        byte[] pos = new byte[nGroups];
+        for (int i = 0; i < nGroups; i++) {
+            pos[i] = (byte) i;
+        }
+        for (int i = 0; i < nSelectors; i++) {
+            byte s = selectors[i];
+            int j = 0;
+            byte tmp = pos[0];
+            while (s != tmp) {
+                j++;
+                byte tmp2 = tmp;
+                tmp = pos[j];
+                pos[j] = tmp2;
+            }
+            pos[0] = tmp;
+            // unary coded MTF position
+            for (int k = 0; k < j; k++) {
+                out.write(1, 1);
+            }
+            out.write(1, 0);
+        }
+
+        for (int t = 0; t < nGroups; t++) {
+            int curr = len[t][0];
+            out.write(5, curr);
+            for (int i = 0; i < alphaSize; i++) {
+                while (curr < len[t][i]) {
+                    out.write(2, 2);
+                    curr++;
+                }
+                while (curr > len[t][i]) {
+                    out.write(2, 3);
+                    curr--;
+                }
+                out.write(1, 0);
+            }
+        }
+
+        int sel = 0;
+        for (gs = 0; gs < nMTF; gs += GROUP_SIZE) {
+            int ge = Math.min(gs + GROUP_SIZE, nMTF);
+            int[] tl = len[selectors[sel]];
+            int[] tc = code[selectors[sel]];
+            sel++;
+            for (int i = gs; i < ge; i++) {
+                out.write(tl[mtfv[i]], tc[mtfv[i]]);
+            }
+        }
+    }
+
+    /**
+     * Computes Huffman code lengths limited to {@code maxLen}; frequencies are flattened until the
+     * limit is met, like libbzip2 does.
+     */
+    static void makeCodeLengths(int[] len, int[] freq, int alphaSize, int maxLen) {
+        long[] weight = new long[alphaSize * 2];
+        int[] parent = new int[alphaSize * 2];
+        boolean[] used = new boolean[alphaSize * 2];
+        for (int i = 0; i < alphaSize; i++) {
+            weight[i] = freq[i] == 0 ? 1 : freq[i];
+        }
+        while (true) {
+            int nNodes = alphaSize;
+            Arrays.fill(used, false);
+            Arrays.fill(parent, -1);
+            for (int remaining = alphaSize; remaining > 1; remaining--) {
+                int n1 = -1;
+                int n2 = -1;
+                for (int i = 0; i < nNodes; i++) {
+                    if (!used[i]) {
+                        if (n1 == -1 || weight[i] < weight[n1]) {
+                            n2 = n1;
+                            n1 = i;
+                        } else if (n2 == -1 || weight[i] < weight[n2]) {
+                            n2 = i;
+                        }
+                    }
+                }
+                used[n1] = true;
+                used[n2] = true;
+                weight[nNodes] = weight[n1] + weight[n2];
+                parent[n1] = nNodes;
+                parent[n2] = nNodes;
+                nNodes++;
+            }
+            boolean tooLong = false;
+            for (int i = 0; i < alphaSize; i++) {
+                int depth = 0;
+                for (int k = i; parent[k] != -1; k = parent[k]) {
+                    depth++;
+                }
+                len[i] = depth;
+                tooLong |= depth > maxLen;
+            }
+            if (!tooLong) {
+                return;
+            }
+            for (int i = 0; i < alphaSize; i++) {
+                weight[i] = 1 + weight[i] / 2;
+            }
+        }
+    }
+
+    private static void assignCodes(int[] code, int[] len, int alphaSize) {
+        int minLen = 32;
+        int maxLen = 0;
+        for (int i = 0; i < alphaSize; i++) {
+            maxLen = Math.max(maxLen, len[i]);
+            minLen = Math.min(minLen, len[i]);
+        }
+        int vec = 0;
+        for (int n = minLen; n <= maxLen; n++) {
+            for (int i = 0; i < alphaSize; i++) {
+                if (len[i] == n) {
+                    code[i] = vec++;
+                }
+            }
+            vec <<= 1;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import static com.oracle.truffle.r.runtime.BZip2.GROUP_SIZE;
+import static com.oracle.truffle.r.runtime.BZip2.MAX_ALPHA_SIZE;
+import static com.oracle.truffle.r.runtime.BZip2.MAX_CODE_LEN;
+import static com.oracle.truffle.r.runtime.BZip2.MAX_GROUPS;
+import static com.oracle.truffle.r.runtime.BZip2.MAX_SELECTORS;
+import static com.oracle.truffle.r.runtime.BZip2.MIN_GROUPS;
+import static com.oracle.truffle.r.runtime.BZip2.RUNA;
+import static com.oracle.truffle.r.runtime.BZip2.RUNB;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming bzip2 decompressor, one block is held in memory at a time. Like the {@code bzip2}
+ * utility, concatenated streams are decompressed as a whole.
+ */
+public final class BZip2InputStream extends InputStream {
+
+    private final InputStream in;
+    private long bitBuf;
+    private int bitCount;
+
+    private int blockSize100k;
+    private byte[] ll;
+    private int[] tt;
+    private int nblock;
+    private int used;
+    private int tPos;
+    private int storedBlockCRC;
+    private int blockCRC;
+    private int storedCombinedCRC;
+    private int combinedCRC;
+
+    private int lastChar = -1;
+    private int runCount;
+    private int repeat;
+    private boolean eof;
+
+    public BZip2InputStream(InputStream in) throws IOException {
+        this.in = in;
+        if (!readStreamHeader(true)) {
+            throw new IOException("not a bzip2 stream");
+        }
+        nextBlock();
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (!eof) {
+            int ch = nextByte();
+            if (ch >= 0) {
+                return ch;
+            }
+            endBlock();
+            nextBlock();
+        }
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len && !eof) {
+            int ch = nextByte();
+            if (ch >= 0) {
+                b[off + n++] = (byte) ch;
+            } else {
+                endBlock();
+                nextBlock();
+            }
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ll = null;
+        tt = null;
+        in.close();
+    }
+
+    /**
+     * Returns the next decompressed byte of the current block or {@code -1} at the block end.
+     */
+    private int nextByte() {
+        while (true) {
+            if (repeat > 0) {
+                repeat--;
+                blockCRC = BZip2.updateCRC(blockCRC, lastChar, 1);
+                return lastChar;
+            }
+            if (used == nblock) {
+                return -1;
+            }
+            int ch = ll[tPos] & 0xff;
+            tPos = tt[tPos];
+            used++;
+            if (runCount == 4) {
+                repeat = ch;
+                runCount = 0;
+                continue;
+            }
+            if (ch == lastChar) {
+                runCount++;
+            } else {
+                lastChar = ch;
+                runCount = 1;
+            }
+            blockCRC = BZip2.updateCRC(blockCRC, ch, 1);
+            return ch;
+        }
+    }
+
+    private void endBlock() throws IOException {
+        if (~blockCRC != storedBlockCRC) {
+            throw new IOException("bzip2 data error: block checksum mismatch");
+        }
+        combinedCRC = BZip2.combineCRC(combinedCRC, storedBlockCRC);
+    }
+
+    private boolean readStreamHeader(boolean first) throws IOException {
+        int b = in.read();
+        if (b == -1 && !first) {
+            return false;
+        }
+        if (b != 'B' || in.read() != 'Z' || in.read() != 'h') {
+            if (first) {
+                return false;
+            }
+            // trailing garbage after a complete stream is ignored, like the bzip2 utility does
+            return false;
+        }
+        int level = in.read();
+        if (level < '1' || level > '9') {
+            throw new IOException("bzip2 data error: invalid block size");
+        }
+        blockSize100k = level - '0';
+        combinedCRC = 0;
+        return true;
+    }
+
+    private void nextBlock() throws IOException {
+        while (true) {
+            int magicHi = bits(24);
+            int magicLo = bits(24);
+            if (magicHi == BZip2.BLOCK_MAGIC_HI && magicLo == BZip2.BLOCK_MAGIC_LO) {
+                decodeBlock();
+                return;
+            } else if (magicHi == BZip2.EOS_MAGIC_HI && magicLo == BZip2.EOS_MAGIC_LO) {
+                storedCombinedCRC = bits(32);
+                if (storedCombinedCRC != combinedCRC) {
+                    throw new IOException("bzip2 data error: stream checksum mismatch");
+                }
+                bitCount = 0;
+                if (!readStreamHeader(false)) {
+                    eof = true;
+                    ll = null;
+                    tt = null;
+                    return;
+                }
+            } else {
+                throw new IOException("bzip2 data error: bad block header");
+            }
+        }
+    }
+
+    private void decodeBlock() throws IOException {
+        storedBlockCRC = bits(32);
+        if (bits(1) != 0) {
+            throw new IOException("bzip2 data error: randomised blocks are not supported");
+        }
+        int origPtr = bits(24);
+
+        int[] seqToUnseq = new int[256];
+        int nInUse = 0;
+        int inUse16 = bits(16);
+        for (int i = 0; i < 16; i++) {
+            if ((inUse16 & (1 << (15 - i))) != 0) {
+                int inUse = bits(16);
+                for (int j = 0; j < 16; j++) {
+                    if ((inUse & (1 << (15 - j))) != 0) {
+                        seqToUnseq[nInUse++] = i * 16 + j;
+                    }
+                }
+            }
+        }
+        if (nInUse == 0) {
+            throw new IOException("bzip2 data error: empty symbol map");
+        }
+        int alphaSize = nInUse + 2;
+
+        int nGroups = bits(3);
+        int nSelectors = bits(15);
+        if (nGroups < MIN_GROUPS || nGroups > MAX_GROUPS || nSelectors < 1) {
+            throw new IOException("bzip2 data error: bad table header");
+        }
+        byte[] pos = new byte[nGroups];
+        for (int i = 0; i < nGroups; i++) {
+            pos[i] = (byte) i;
+        }
+        byte[] selectors = new byte[Math.min(nSelectors, MAX_SELECTORS)];
+        for (int i = 0; i < nSelectors; i++) {
+            int j = 0;
+            while (bits(1) == 1) {
+                j++;
+                if (j >= nGroups) {
+                    throw new IOException("bzip2 data error: bad selector");
+                }
+            }
+            byte tmp = pos[j];
+            for (int k = j; k > 0; k--) {
+                pos[k] = pos[k - 1];
+            }
+            pos[0] = tmp;
+            // selectors beyond the maximum are ignored, like libbzip2 1.0.8 does
+            if (i < selectors.length) {
+                selectors[i] = tmp;
+            }
+        }
+        nSelectors = selectors.length;
+
+        int[][] limit = new int[nGroups][MAX_CODE_LEN + 1];
+        int[][] base = new int[nGroups][MAX_CODE_LEN + 2];
+        int[][] perm = new int[nGroups][MAX_ALPHA_SIZE];
+        int[] minLens = new int[nGroups];
+        int[] len = new int[alphaSize];
+        for (int t = 0; t < nGroups; t++) {
+            int curr = bits(5);
+            for (int i = 0; i < alphaSize; i++) {
+                while (true) {
+                    if (curr < 1 || curr > 20) {
+                        throw new IOException("bzip2 data error: bad code length");
+                    }
+                    if (bits(1) == 0) {
+                        break;
+                    }
+                    curr += bits(1) == 0 ? 1 : -1;
+                }
+                len[i] = curr;
+            }
+            minLens[t] = createDecodeTables(limit[t], base[t], perm[t], len, alphaSize);
+        }
+
+        int eob = nInUse + 1;
+        int nblockMax = blockSize100k * BZip2.BASE_BLOCK_SIZE;
+        if (ll == null || ll.length < nblockMax) {
+            ll = new byte[nblockMax];
+            tt = new int[nblockMax];
+        }
+        int[] unzftab = new int[256];
+        byte[] yy = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            yy[i] = (byte) i;
+        }
+
+        int groupNo = -1;
+        int groupPos = 0;
+        int t = 0;
+        int count = 0;
+        int sym;
+        int runLength = 0;
+        int runWeight = 1;
+        while (true) {
+            if (groupPos == 0) {
+                groupNo++;
+                if (groupNo >= nSelectors) {
+                    throw new IOException("bzip2 data error: too many symbols");
+                }
+                groupPos = GROUP_SIZE;
+                t = selectors[groupNo];
+            }
+            groupPos--;
+            int zn = minLens[t];
+            int zvec = bits(zn);
+            while (zvec > limit[t][zn]) {
+                zn++;
+                if (zn > 20) {
+                    throw new IOException("bzip2 data error: bad code");
+                }
+                zvec = (zvec << 1) | bits(1);
+            }
+            int idx = zvec - base[t][zn];
+            if (idx < 0 || idx >= MAX_ALPHA_SIZE) {
+                throw new IOException("bzip2 data error: bad code");
+            }
+            sym = perm[t][idx];
+
+            if (sym == RUNA || sym == RUNB) {
+                runLength += (sym == RUNA ? 1 : 2) * runWeight;
+                runWeight <<= 1;
+                if (runLength > nblockMax) {
+                    throw new IOException("bzip2 data error: block overflow");
+                }
+                continue;
+            }
+            if (runLength > 0) {
+                if (count + runLength > nblockMax) {
+                    throw new IOException("bzip2 data error: block overflow");
+                }
+                int uc = seqToUnseq[yy[0] & 0xff];
+                unzftab[uc] += runLength;
+                for (int i = 0; i < runLength; i++) {
+                    ll[count++] = (byte) uc;
+                }
+                runLength = 0;
+                runWeight = 1;
+            }
+            if (sym == eob) {
+                break;
+            }
+            if (count >= nblockMax) {
+                throw new IOException("bzip2 data error: block overflow");
+            }
+            int j = sym - 1;
+            byte tmp = yy[j];
+            System.arraycopy(yy, 0, yy, 1, j);
+            yy[0] = tmp;
+            int uc = seqToUnseq[tmp & 0xff];
+            unzftab[uc]++;
+            ll[count++] = (byte) uc;
+        }
+        if (origPtr >= count) {
+            throw new IOException("bzip2 data error: bad origin pointer");
+        }
+
+        int[] cftab = new int[256];
+        for (int i = 1; i < 256; i++) {
+            cftab[i] = cftab[i - 1] + unzftab[i - 1];
+        }
+        for (int i = 0; i < count; i++) {
+            tt[cftab[ll[i] & 0xff]++] = i;
+        }
+        nblock = count;
+        used = 0;
+        tPos = tt[origPtr];
+        lastChar = -1;
+        runCount = 0;
+        repeat = 0;
+        blockCRC = 0xFFFFFFFF;
+    }
+
+    /**
+     * Canonical Huffman decoding tables as used by libbzip2.
+     *
+     * @return the minimal code length
+     */
+    private static int createDecodeTables(int[] limit, int[] base, int[] perm, int[] len, int alphaSize) {
+        int minLen = 32;
+        int maxLen = 0;
+        for (int i = 0; i < alphaSize; i++) {
+            maxLen = Math.max(maxLen, len[i]);
+            minLen = Math.min(minLen, len[i]);
+        }
+        int pp = 0;
+        for (int i = minLen; i <= maxLen; i++) {
+            for (int j = 0; j < alphaSize; j++) {
+                if (len[j] == i) {
+                    perm[pp++] = j;
+                }
+            }
+        }
+        for (int i = 0; i < alphaSize; i++) {
+            base[len[i] + 1]++;
+        }
+        for (int i = 1; i < base.length; i++) {
+            base[i] += base[i - 1];
+        }
+        int vec = 0;
+        for (int i = minLen; i <= maxLen; i++) {
+            vec += base[i + 1] - base[i];
+            limit[i] = vec - 1;
+            vec <<= 1;
+        }
+        for (int i = minLen + 1; i <= maxLen; i++) {
+            base[i] = ((limit[i - 1] + 1) << 1) - base[i];
+        }
+        return minLen;
+    }
+
+    private int bits(int n) throws IOException {
+        while (bitCount < n) {
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException("bzip2 data error: unexpected end of stream");
+            }
+            bitBuf = (bitBuf << 8) | b;
+            bitCount += 8;
+        }
+        bitCount -= n;
+        return (int) ((bitBuf >>> bitCount) & ((1L << n) - 1));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.oracle.truffle.r.runtime.BZip2.BitWriter;
+
+/**
+ * Streaming bzip2 compressor. Input is collected into blocks of at most
+ * {@code blockSize100k * 100000} bytes (after the initial run-length encoding). If more than one
+ * thread is allowed, the blocks are encoded concurrently and written in their original order,
+ * otherwise each block is encoded when it is full. The encoder threads are only started once the
+ * first block is full, i.e., when there is more than one block.
+ */
+public final class BZip2OutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final int maxBlockLength;
+    private final int threads;
+    private ExecutorService executor;
+    private final ArrayDeque<Future<BitWriter>> pending = new ArrayDeque<>();
+    private final BitWriter writer = new BitWriter(8192);
+
+    private byte[] block;
+    private int blockLength;
+    private int blockCRC = 0xFFFFFFFF;
+    private int combinedCRC;
+    private int runChar = -1;
+    private int runLength;
+    private boolean finished;
+
+    /**
+     * @param blockSize100k block size in units of 100000 bytes (1 to 9)
+     * @param threads maximum number of blocks being encoded at the same time
+     */
+    public BZip2OutputStream(OutputStream out, int blockSize100k, int threads) {
+        assert blockSize100k >= 1 && blockSize100k <= 9;
+        this.out = out;
+        this.maxBlockLength = blockSize100k * BZip2.BASE_BLOCK_SIZE - 19;
+        this.threads = threads;
+        this.block = new byte[maxBlockLength + 20];
+        writer.write(8, 'B');
+        writer.write(8, 'Z');
+        writer.write(8, 'h');
+        writer.write(8, '0' + blockSize100k);
+    }
+
+    public BZip2OutputStream(OutputStream out) {
+        this(out, 9, 1);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        int ch = b & 0xff;
+        if (ch == runChar && runLength < 255) {
+            runLength++;
+        } else {
+            if (runLength > 0) {
+                flushRun();
+            }
+            runChar = ch;
+            runLength = 1;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            // handle all consecutive equal bytes at once
+            byte value = b[i];
+            int next = i + 1;
+            while (next < end && b[next] == value) {
+                next++;
+            }
+            int count = next - i;
+            i = next;
+            int ch = value & 0xff;
+            if (ch != runChar) {
+                if (runLength > 0) {
+                    flushRun();
+                }
+                runChar = ch;
+            }
+            while (true) {
+                int n = Math.min(count, 255 - runLength);
+                runLength += n;
+                count -= n;
+                if (count == 0) {
+                    break;
+                }
+                flushRun();
+                runChar = ch;
+            }
+        }
+    }
+
+    /**
+     * Appends the current run to the block: up to four literal bytes followed by the number of
+     * additional repetitions.
+     */
+    private void flushRun() throws IOException {
+        blockCRC = BZip2.updateCRC(blockCRC, runChar, runLength);
+        byte ch = (byte) runChar;
+        if (runLength < 4) {
+            for (int i = 0; i < runLength; i++) {
+                block[blockLength++] = ch;
+            }
+        } else {
+            block[blockLength++] = ch;
+            block[blockLength++] = ch;
+            block[blockLength++] = ch;
+            block[blockLength++] = ch;
+            block[blockLength++] = (byte) (runLength - 4);
+        }
+        runLength = 0;
+        runChar = -1;
+        if (blockLength >= maxBlockLength) {
+            endBlock();
+        }
+    }
+
+    private void endBlock() throws IOException {
+        if (blockLength == 0) {
+            return;
+        }
+        int crc = ~blockCRC;
+        combinedCRC = BZip2.combineCRC(combinedCRC, crc);
+        if (executor == null && threads > 1 && blockLength >= maxBlockLength) {
+            executor = RCompression.createEncoderPool("bzip2", threads);
+        }
+        if (executor == null) {
+            writer.append(BZip2BlockEncoder.encode(block, blockLength, crc));
+            writer.drainTo(out);
+        } else {
+            byte[] data = block;
+            int length = blockLength;
+            pending.add(executor.submit(() -> BZip2BlockEncoder.encode(data, length, crc)));
+            block = new byte[maxBlockLength + 20];
+            while (pending.size() >= threads || (!pending.isEmpty() && pending.peek().isDone())) {
+                writeEncoded(pending.poll());
+            }
+        }
+        blockLength = 0;
+        blockCRC = 0xFFFFFFFF;
+    }
+
+    private void writeEncoded(Future<BitWriter> encoded) throws IOException {
+        try {
+            writer.append(encoded.get());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("bzip2 compression failed", e);
+        }
+        writer.drainTo(out);
+    }
+
+    /**
+     * Writes all remaining data and the end of stream marker without closing the underlying
+     * stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (runLength > 0) {
+            flushRun();
+        }
+        endBlock();
+        while (!pending.isEmpty()) {
+            writeEncoded(pending.poll());
+        }
+        writer.write(24, BZip2.EOS_MAGIC_HI);
+        writer.write(24, BZip2.EOS_MAGIC_LO);
+        writer.write(32, combinedCRC);
+        writer.alignToByte();
+        writer.drainTo(out);
+        block = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            for (Future<BitWriter> f : pending) {
+                f.cancel(true);
+            }
+            if (executor != null) {
+                executor.shutdown();
+            }
+            out.close();
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -23,37 +23,246 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
 
 public class LazyDBCache {
 
+    /**
+     * Caches the contents of lazy-load database ({@code .rdb}) files, which are memory-mapped if
+     * the file system allows it, and a bounded LRU cache of decompressed entries (the size is
+     * controlled by {@link FastROptions#LazyLoadCacheSize}). The unserialized objects are not
+     * cached since they are bound to the environments of the context that created them.
+     *
+     * Both caches only hold immutable data and are shared by a context and all its child contexts.
+     * They are keyed by the canonical path, modification time and size of the file, so a database
+     * that is rewritten, e.g. when a package is reinstalled, is read again instead of being served
+     * from a stale mapping. Each context remembers which version of a file it uses until it calls
+     * {@code lazyLoadDBflush}, which only affects that context.
+     */
     public static final class ContextStateImpl implements RContext.ContextState {
-        private final Map<String, byte[]> dbCache = new HashMap<>();
+        private SharedCache shared;
+        private final Map<String, DBFile> files = new ConcurrentHashMap<>();
 
-        public byte[] getData(RContext context, String dbPath) {
-            byte[] dbData = dbCache.get(dbPath);
-            if (dbData == null) {
+        @Override
+        public RContext.ContextState initialize(RContext context) {
+            RContext parent = context.getParent();
+            if (parent != null && parent.stateLazyDBCache.shared != null) {
+                shared = parent.stateLazyDBCache.shared;
+            } else {
+                shared = new SharedCache(context.getNonNegativeIntOption(FastROptions.LazyLoadCacheSize) * 1024L * 1024L);
+            }
+            return this;
+        }
+
+        /**
+         * Returns a read-only buffer with the contents of the whole file. The buffer is shared,
+         * callers must not rely on its position and limit.
+         */
+        public ByteBuffer getData(RContext context, String dbPath) {
+            return getFile(context, dbPath).data;
+        }
+
+        /**
+         * Returns the decompressed entry at {@code offset} or {@code null} if it is not cached. The
+         * result must not be modified.
+         */
+        public byte[] getEntry(RContext context, String dbPath, int offset) {
+            return shared.getEntry(new EntryKey(getFile(context, dbPath).id, offset));
+        }
+
+        /**
+         * Caches the decompressed entry at {@code offset}, {@code data} must not be modified
+         * afterwards.
+         */
+        public void putEntry(RContext context, String dbPath, int offset, byte[] data) {
+            shared.putEntry(new EntryKey(getFile(context, dbPath).id, offset), data);
+        }
+
+        /**
+         * Forgets the version of the file used by this context, the next access checks the file
+         * again.
+         */
+        public void remove(String dbPath) {
+            // no an error if missing
+            files.remove(dbPath);
+        }
+
+        private DBFile getFile(RContext context, String dbPath) {
+            DBFile file = files.get(dbPath);
+            if (file == null) {
                 try {
-                    dbData = context.getSafeTruffleFile(dbPath).readAllBytes();
+                    file = shared.getFile(context.getSafeTruffleFile(dbPath));
                 } catch (IOException ex) {
                     // unexpected
                     throw RInternalError.shouldNotReachHere(ex);
                 }
-                dbCache.put(dbPath, dbData);
+                DBFile existing = files.putIfAbsent(dbPath, file);
+                if (existing != null) {
+                    file = existing;
+                }
             }
-            return dbData;
-        }
-
-        public void remove(String dbPath) {
-            // no an error if missing
-            dbCache.remove(dbPath);
+            return file;
         }
 
         public static ContextStateImpl newContextState() {
             return new ContextStateImpl();
         }
     }
+
+    private static ByteBuffer readFile(TruffleFile file) throws IOException {
+        try (SeekableByteChannel channel = file.newByteChannel(Collections.singleton(StandardOpenOption.READ))) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // the offsets in the index are integers
+                throw RError.error(RError.NO_CALLER, RError.Message.GENERIC, "lazy-load database '" + file.getPath() + "' is too large");
+            }
+            if (channel instanceof FileChannel) {
+                return ((FileChannel) channel).map(MapMode.READ_ONLY, 0, size);
+            }
+            // e.g. a virtual file system that does not support mapping
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+
+    private static final class SharedCache {
+        /**
+         * The latest version of each file by canonical path, older versions are only kept alive
+         * by the contexts that still use them.
+         */
+        private final Map<String, DBFile> files = new HashMap<>();
+        private final LinkedHashMap<EntryKey, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxEntriesSize;
+        private long entriesSize;
+
+        SharedCache(long maxEntriesSize) {
+            this.maxEntriesSize = maxEntriesSize;
+        }
+
+        synchronized DBFile getFile(TruffleFile file) throws IOException {
+            TruffleFile canonical = file.getCanonicalFile();
+            FileId id = new FileId(canonical.getPath(), canonical.getLastModifiedTime().toMillis(), canonical.size());
+            DBFile cached = files.get(id.path);
+            if (cached != null && cached.id.equals(id)) {
+                return cached;
+            }
+            DBFile result = new DBFile(id, readFile(canonical));
+            files.put(id.path, result);
+            if (cached != null) {
+                removeEntries(cached.id);
+            }
+            return result;
+        }
+
+        synchronized byte[] getEntry(EntryKey key) {
+            return entries.get(key);
+        }
+
+        synchronized void putEntry(EntryKey key, byte[] data) {
+            if (data.length > maxEntriesSize / 4) {
+                // do not let a single entry evict most of the cache
+                return;
+            }
+            byte[] old = entries.put(key, data);
+            if (old != null) {
+                entriesSize -= old.length;
+            }
+            entriesSize += data.length;
+            Iterator<byte[]> iter = entries.values().iterator();
+            while (entriesSize > maxEntriesSize && iter.hasNext()) {
+                entriesSize -= iter.next().length;
+                iter.remove();
+            }
+        }
+
+        private void removeEntries(FileId id) {
+            Iterator<Map.Entry<EntryKey, byte[]>> iter = entries.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry<EntryKey, byte[]> entry = iter.next();
+                if (entry.getKey().file.equals(id)) {
+                    entriesSize -= entry.getValue().length;
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    private static final class DBFile {
+        private final FileId id;
+        private final ByteBuffer data;
+
+        DBFile(FileId id, ByteBuffer data) {
+            this.id = id;
+            this.data = data;
+        }
+    }
+
+    private static final class FileId {
+        private final String path;
+        private final long lastModified;
+        private final long size;
+
+        FileId(String path, long lastModified, long size) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, size);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FileId)) {
+                return false;
+            }
+            FileId other = (FileId) obj;
+            return lastModified == other.lastModified && size == other.size && path.equals(other.path);
+        }
+    }
+
+    private static final class EntryKey {
+        private final FileId file;
+        private final int offset;
+
+        EntryKey(FileId file, int offset) {
+            this.file = file;
+            this.offset = offset;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, offset);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey other = (EntryKey) obj;
+            return offset == other.offset && file.equals(other.file);
+        }
+    }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.tukaani.xz.FinishableOutputStream;
+import org.tukaani.xz.FinishableWrapperOutputStream;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * Multi-threaded LZMA2 compressor. The input is split into chunks of {@code dictSize} bytes that
+ * are compressed independently and written in their original order. In raw mode the result is a
+ * single LZMA2 stream (every chunk starts with a dictionary reset and only the last end marker is
+ * kept), otherwise every chunk becomes a separate {@code .xz} stream, which is valid since decoders
+ * process concatenated {@code .xz} streams as a whole.
+ *
+ * The compression ratio is slightly worse than for a single stream, therefore this should only be
+ * used for data spanning several chunks. When not in raw mode, the first chunk is compressed in the
+ * calling thread directly into its own {@code .xz} stream and the encoder threads are only started
+ * once it is full, so that data fitting into one chunk give the same output as
+ * {@link XZOutputStream} and do not pay for the thread pool.
+ */
+public final class ParallelXZOutputStream extends OutputStream {
+
+    private static final byte LZMA2_END_MARKER = 0x00;
+
+    private final OutputStream out;
+    private final LZMA2Options options;
+    private final boolean raw;
+    private final int threads;
+    private final int chunkSize;
+    private ExecutorService executor;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    /**
+     * Stream compressing the first chunk in the calling thread, {@code null} once it is full.
+     */
+    private XZOutputStream serial;
+    private int serialLength;
+
+    private byte[] chunk;
+    private int chunkLength;
+    private boolean wroteChunk;
+    private boolean finished;
+
+    public ParallelXZOutputStream(OutputStream out, LZMA2Options options, boolean raw, int threads) throws IOException {
+        assert threads > 1;
+        this.out = out;
+        this.options = options;
+        this.raw = raw;
+        this.threads = threads;
+        this.chunkSize = options.getDictSize();
+        if (raw) {
+            this.chunk = new byte[chunkSize];
+        } else {
+            this.serial = new XZOutputStream(out, options, XZ.CHECK_CRC32);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (serial != null) {
+            serial.write(b);
+            if (++serialLength == chunkSize) {
+                endSerial();
+            }
+            return;
+        }
+        chunk[chunkLength++] = (byte) b;
+        if (chunkLength == chunk.length) {
+            endChunk(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int pos = off;
+        int remaining = len;
+        if (serial != null && remaining > 0) {
+            int n = Math.min(remaining, chunkSize - serialLength);
+            serial.write(b, pos, n);
+            serialLength += n;
+            pos += n;
+            remaining -= n;
+            if (serialLength == chunkSize) {
+                endSerial();
+            }
+        }
+        while (remaining > 0) {
+            int n = Math.min(remaining, chunk.length - chunkLength);
+            System.arraycopy(b, pos, chunk, chunkLength, n);
+            chunkLength += n;
+            pos += n;
+            remaining -= n;
+            if (chunkLength == chunk.length) {
+                endChunk(false);
+            }
+        }
+    }
+
+    private void endSerial() throws IOException {
+        serial.finish();
+        serial = null;
+        wroteChunk = true;
+        chunk = new byte[chunkSize];
+    }
+
+    private void endChunk(boolean last) throws IOException {
+        if (executor == null) {
+            executor = RCompression.createEncoderPool("xz", threads);
+        }
+        byte[] data = chunk;
+        int length = chunkLength;
+        pending.add(executor.submit(() -> compressChunk(data, length)));
+        wroteChunk = true;
+        chunk = last ? null : new byte[chunk.length];
+        chunkLength = 0;
+        while (pending.size() > threads || (!pending.isEmpty() && pending.peek().isDone())) {
+            writeCompressed(pending.poll());
+        }
+    }
+
+    private byte[] compressChunk(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2 + 64);
+        try (FinishableOutputStream os = raw ? options.getOutputStream(new FinishableWrapperOutputStream(bos)) : new XZOutputStream(bos, options, XZ.CHECK_CRC32)) {
+            os.write(data, 0, length);
+        }
+        return bos.toByteArray();
+    }
+
+    private void writeCompressed(Future<byte[]> compressed) throws IOException {
+        byte[] data;
+        try {
+            data = compressed.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("xz compression failed", e);
+        }
+        if (raw) {
+            assert data[data.length - 1] == LZMA2_END_MARKER;
+            out.write(data, 0, data.length - 1);
+        } else {
+            out.write(data);
+        }
+    }
+
+    /**
+     * Writes all remaining data without closing the underlying stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (serial != null) {
+            serial.finish();
+            serial = null;
+            return;
+        }
+        if (chunkLength > 0 || (!wroteChunk && !raw)) {
+            endChunk(true);
+        }
+        while (!pending.isEmpty()) {
+            writeCompressed(pending.poll());
+        }
+        if (raw) {
+            out.write(LZMA2_END_MARKER);
+        }
+        chunk = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            for (Future<byte[]> f : pending) {
+                f.cancel(true);
+            }
+            if (executor != null) {
+                executor.shutdown();
+            }
+            out.close();
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,21 +22,22 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.Semaphore;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.object.DynamicObject;
+import static com.oracle.truffle.r.runtime.context.FastROptions.ChannelQueueCapacity;
 import static com.oracle.truffle.r.runtime.context.FastROptions.ChannelReceiveTimeout;
 
 import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.conn.RConnection;
-import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
 import com.oracle.truffle.r.runtime.data.Closure;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout;
@@ -55,7 +56,10 @@ import static com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess.getS
 import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Implementation of a channel abstraction used for communication between parallel contexts in
@@ -63,159 +67,181 @@ import java.util.concurrent.TimeUnit;
  */
 public class RChannel {
 
-    // TODO: cheaper way of serializing data (re-usable buffer?)
-
-    private static final int INITIAL_CHANNEL_NUM = 4;
-    private static final int CHANNEL_NUM_GROW_FACTOR = 2;
-    private static final int QUEUE_CAPACITY = 1;
+    /*
+     * Serialization buffers larger than this are not returned to the pool once they have been
+     * unserialized, and at most MAX_POOLED_BUFFERS buffers are kept.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_POOLED_BUFFERS = 16;
 
-    private static int[] keys = new int[INITIAL_CHANNEL_NUM];
-    private static RChannel[] channels = new RChannel[INITIAL_CHANNEL_NUM];
+    /*
+     * Channel ids are positive, the master's end of a channel is identified by the id itself and
+     * the client's end by the negated id.
+     */
+    private static final AtomicInteger nextId = new AtomicInteger(1);
 
-    private static final int CLOSED_CHANNEL_KEY = -1;
+    /*
+     * The ids are unique in the VM, the keys are chosen by R code and only unique among the
+     * contexts spawned from the same root context, see RContext#getChannelsByKey.
+     */
+    private static final ConcurrentHashMap<Integer, RChannel> channelsById = new ConcurrentHashMap<>();
 
     /*
-     * Used to mediate access to the semaphore instances
+     * Buffers for objects that need to be serialized when sent. A buffer travels with the message
+     * and the receiver returns it to the pool once it has unserialized the object.
      */
-    private static final Semaphore create = new Semaphore(1, true);
+    private static final ArrayBlockingQueue<SerializeBuffer> bufferPool = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    private final int id;
+    private final int key;
+    private final ConcurrentHashMap<Integer, RChannel> channelsByKey;
+    private final ArrayBlockingQueue<Object> masterToClient;
+    private final ArrayBlockingQueue<Object> clientToMaster;
+
+    private final LongAdder sentMessages = new LongAdder();
+    private final LongAdder receivedMessages = new LongAdder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    private RChannel(int id, int key, ConcurrentHashMap<Integer, RChannel> channelsByKey, int queueCapacity) {
+        this.id = id;
+        this.key = key;
+        this.channelsByKey = channelsByKey;
+        this.masterToClient = new ArrayBlockingQueue<>(queueCapacity);
+        this.clientToMaster = new ArrayBlockingQueue<>(queueCapacity);
+    }
 
-    private final ArrayBlockingQueue<Object> masterToClient = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
-    private final ArrayBlockingQueue<Object> clientToMaster = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static int getQueueCapacity(RContext context) {
+        return Math.max(1, context.getNonNegativeIntOption(ChannelQueueCapacity));
+    }
 
     public static int createChannel(int key) {
         if (key <= 0) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel's key must be positive");
         }
-        try {
-            create.acquire();
-            return createChannelInternal(key)[0];
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error creating a channel");
-        } finally {
-            create.release();
+        RChannel channel = tryCreateChannel(key);
+        if (channel == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified key already exists");
         }
+        return channel.id;
     }
 
     public static int[] createForkChannel(int portBaseNumber) {
-        try {
-            create.acquire();
-
-            int firstUnused = 0;
-            int port = -1;
-            while (true) {
-                // generate unique values for channel keys
-                // (addition factor is chosen based on how snow generates port numbers)
-                port = portBaseNumber + (firstUnused + 1) * 1000;
-                firstUnused = firstUnused + 1;
-                if (getChannelInternal(port) == null) {
-                    break;
-                }
-            }
-            assert port > 0;
-            return createChannelInternal(port);
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error creating a channel");
-        } finally {
-            create.release();
-        }
-    }
-
-    private static int[] createChannelInternal(int key) throws RError {
+        int firstUnused = 0;
         while (true) {
-            int freeSlot = -1;
-            // start from one as we need slots that have distinguishable positive and negative
-            // value
-            for (int i = 1; i < keys.length; i++) {
-                if (keys[i] == key) {
-                    throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified key already exists");
-                }
-                if (keys[i] == 0 && freeSlot == -1) {
-                    freeSlot = i;
-                }
-            }
-            if (freeSlot != -1) {
-                keys[freeSlot] = key;
-                channels[freeSlot] = new RChannel();
-                return new int[]{freeSlot, key};
-            } else {
-                int[] keysTmp = new int[keys.length * CHANNEL_NUM_GROW_FACTOR];
-                RChannel[] channelsTmp = new RChannel[channels.length * CHANNEL_NUM_GROW_FACTOR];
-                for (int i = 1; i < keys.length; i++) {
-                    keysTmp[i] = keys[i];
-                    channelsTmp[i] = channels[i];
-                }
-                keys = keysTmp;
-                channels = channelsTmp;
+            // generate unique values for channel keys
+            // (addition factor is chosen based on how snow generates port numbers)
+            int port = portBaseNumber + (firstUnused + 1) * 1000;
+            firstUnused = firstUnused + 1;
+            assert port > 0;
+            RChannel channel = tryCreateChannel(port);
+            if (channel != null) {
+                return new int[]{channel.id, port};
             }
         }
     }
 
-    public static int getChannel(int key) {
-        try {
-            create.acquire();
-            Integer res = getChannelInternal(key);
-            if (res != null) {
-                return res;
-            }
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error accessing channel");
-        } finally {
-            create.release();
-        }
-        throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel does not exist");
+    /**
+     * Creates and registers a new channel, returns {@code null} if a channel with given key already
+     * exists.
+     */
+    private static RChannel tryCreateChannel(int key) {
+        RContext context = RContext.getInstance();
+        ConcurrentHashMap<Integer, RChannel> channelsByKey = context.getChannelsByKey();
+        RChannel channel = new RChannel(nextId.getAndIncrement(), key, channelsByKey, getQueueCapacity(context));
+        // the id is registered first so that the channel is reachable by id as soon as anyone can
+        // find it by its key
+        channelsById.put(channel.id, channel);
+        if (channelsByKey.putIfAbsent(key, channel) != null) {
+            channelsById.remove(channel.id);
+            return null;
+        }
+        return channel;
     }
 
-    private static Integer getChannelInternal(int key) {
-        for (int i = 1; i < keys.length; i++) {
-            if (keys[i] == key) {
-                return -i;
-            }
+    public static int getChannel(int key) {
+        RChannel channel = RContext.getInstance().getChannelsByKey().get(key);
+        if (channel == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel does not exist");
         }
-        return null;
+        return -channel.id;
     }
 
     public static void closeChannel(int id) {
         int actualId = Math.abs(id);
-        try {
-            create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
-                // closing an already closed channel does not necessarily have to be an error (and
-                // makes parallell package's worker script work unchanged)
-                if (keys[actualId] != CLOSED_CHANNEL_KEY) {
-                    throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
-                }
+        RChannel channel = channelsById.get(actualId);
+        if (channel == null) {
+            // closing an already closed channel does not necessarily have to be an error (and
+            // makes parallell package's worker script work unchanged); ids are never re-used, so
+            // any id that was handed out and is not registered any more belongs to a closed channel
+            if (actualId == 0 || actualId >= nextId.get()) {
+                throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
             }
-            keys[actualId] = CLOSED_CHANNEL_KEY;
-            channels[actualId] = null;
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error closing channel");
-        } finally {
-            create.release();
+            return;
         }
+        // the id and the key are released in one step, so that a concurrent attempt to create a
+        // channel with the same key sees either the open channel or no channel at all
+        channel.channelsByKey.compute(channel.key, (k, registered) -> {
+            channelsById.remove(actualId, channel);
+            return registered == channel ? null : registered;
+        });
     }
 
     private static RChannel getChannelFromId(int id) {
-        int actualId = Math.abs(id);
-        try {
-            create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
-                throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
+        RChannel channel = channelsById.get(Math.abs(id));
+        if (channel == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
+        }
+        return channel;
+    }
+
+    /**
+     * Returns the number of messages sent and received through the channel, the number of bytes
+     * that had to be serialized for the sent messages and the total time (in nanoseconds) senders
+     * and receivers spent blocked on the channel.
+     */
+    public static long[] getStatistics(int id) {
+        RChannel channel = getChannelFromId(id);
+        return new long[]{channel.sentMessages.sum(), channel.receivedMessages.sum(), channel.serializedBytes.sum(), channel.blockedNanos.sum()};
+    }
+
+    /**
+     * A serialization buffer whose array is handed over to the receiver as is, i.e., without the
+     * copy made by {@link ByteArrayOutputStream#toByteArray()}.
+     */
+    private static final class SerializeBuffer extends ByteArrayOutputStream {
+
+        static SerializeBuffer acquire() {
+            SerializeBuffer buffer = bufferPool.poll();
+            return buffer == null ? new SerializeBuffer() : buffer;
+        }
+
+        void release() {
+            if (buf.length <= MAX_POOLED_BUFFER_SIZE) {
+                reset();
+                bufferPool.offer(this);
             }
-            RChannel channel = channels[actualId];
-            return channel;
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error transmitting through channel");
-        } finally {
-            create.release();
+        }
+
+        byte[] getArray() {
+            return buf;
         }
     }
 
     public static void send(int id, Object data) {
+        RChannel channel = getChannelFromId(id);
         Output out = new Output();
         Object msg = out.processOutgoingMessage(data);
-        RChannel channel = getChannelFromId(id);
+        channel.serializedBytes.add(out.serializedBytes);
         try {
-            (id > 0 ? channel.masterToClient : channel.clientToMaster).put(msg);
+            ArrayBlockingQueue<Object> queue = id > 0 ? channel.masterToClient : channel.clientToMaster;
+            if (!queue.offer(msg)) {
+                // only the time spent waiting for space in the queue counts as blocked
+                long start = System.nanoTime();
+                queue.put(msg);
+                channel.blockedNanos.add(System.nanoTime() - start);
+            }
+            channel.sentMessages.increment();
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error sending through the channel");
         }
@@ -226,15 +252,20 @@ public class RChannel {
         try {
             ArrayBlockingQueue<Object> queue = id < 0 ? channel.masterToClient : channel.clientToMaster;
             int timeout = RContext.getInstance().getNonNegativeIntOption(ChannelReceiveTimeout);
-            Object msg;
-            if (timeout > 0) {
-                // timeout for testing
-                // if no msg is send due to an error .take() will block forever
-                msg = queue.poll(timeout, TimeUnit.SECONDS);
-            } else {
-                msg = queue.take();
+            Object msg = queue.poll();
+            if (msg == null) {
+                long start = System.nanoTime();
+                if (timeout > 0) {
+                    // timeout for testing
+                    // if no msg is send due to an error .take() will block forever
+                    msg = queue.poll(timeout, TimeUnit.SECONDS);
+                } else {
+                    msg = queue.take();
+                }
+                channel.blockedNanos.add(System.nanoTime() - start);
             }
             if (msg != null) {
+                channel.receivedMessages.increment();
                 Input in = new Input();
                 return in.processedReceivedMessage(msg);
             }
@@ -248,6 +279,7 @@ public class RChannel {
         RChannel channel = getChannelFromId(id);
         Object msg = (id < 0 ? channel.masterToClient : channel.clientToMaster).poll();
         if (msg != null) {
+            channel.receivedMessages.increment();
             Input in = new Input();
             return in.processedReceivedMessage(msg);
         }
@@ -403,9 +435,9 @@ public class RChannel {
         protected static class SerializedAttributable {
 
             private final DynamicObject attributes;
-            private final byte[] serializedAttributable;
+            private final SerializeBuffer serializedAttributable;
 
-            public SerializedAttributable(DynamicObject attributes, byte[] serializedAttributable) {
+            public SerializedAttributable(DynamicObject attributes, SerializeBuffer serializedAttributable) {
                 this.attributes = attributes;
                 this.serializedAttributable = serializedAttributable;
             }
@@ -414,7 +446,7 @@ public class RChannel {
                 return attributes;
             }
 
-            public byte[] getSerializedAttributable() {
+            public SerializeBuffer getSerializedAttributable() {
                 return serializedAttributable;
             }
         }
@@ -422,6 +454,8 @@ public class RChannel {
 
     private static class Output extends TransmitterCommon {
 
+        private long serializedBytes;
+
         private static Object makeShared(Object o) {
             if (RSharingAttributeStorage.isShareable(o)) {
                 RSharingAttributeStorage shareable = (RSharingAttributeStorage) o;
@@ -524,7 +558,9 @@ public class RChannel {
                 // them - should we define a new method to be used here?
                 attributable.initAttributes(null);
             }
-            byte[] serializedAttributable = RSerialize.serialize(RContext.getInstance(), attributable, RSerialize.XDR, RSerialize.DEFAULT_VERSION, null);
+            SerializeBuffer serializedAttributable = SerializeBuffer.acquire();
+            RSerialize.serialize(RContext.getInstance(), attributable, RSerialize.XDR, RSerialize.DEFAULT_VERSION, null, serializedAttributable);
+            serializedBytes += serializedAttributable.size();
             if (attributes != null) {
                 attributable.initAttributes(attributes);
                 attributes = createShareableSlow(attributes, true);
@@ -729,7 +765,7 @@ public class RChannel {
             REnvironment env = (REnvironment) unserializeObject(f.getEnv());
             MaterializedFrame enclosingFrame = env.getFrame();
             RFunction fn;
-            if (FastROptions.sharedContextsOptionValue) {
+            if (TruffleRLanguage.getCurrentLanguage().isSharedContexts()) {
                 fn = RDataFactory.createFunction(f.getName(), f.getPackageName(), f.getTarget(), f.getRBuiltin(), enclosingFrame);
             } else {
                 HasSignature root = (HasSignature) f.getTarget().getRootNode();
@@ -749,7 +785,9 @@ public class RChannel {
         @TruffleBoundary
         private static RAttributable unserializeAttributable(SerializedAttributable a) throws IOException {
             DynamicObject attributes = a.getAttributes();
-            RAttributable attributable = (RAttributable) RSerialize.unserialize(a.getSerializedAttributable(), null, null, null);
+            SerializeBuffer buffer = a.getSerializedAttributable();
+            RAttributable attributable = (RAttributable) RSerialize.unserialize(buffer.getArray(), buffer.size(), null, null, null);
+            buffer.release();
             if (attributes != null) {
                 assert attributable.getAttributes() == null;
                 // attributes unserialized in caller methods
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,25 +22,32 @@
  */
 package com.oracle.truffle.r.runtime;
 
-import com.oracle.truffle.api.TruffleFile;
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.ProcessBuilder.Redirect;
-import java.nio.file.OpenOption;
-import java.nio.file.StandardOpenOption;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
 
+import org.tukaani.xz.FinishableWrapperOutputStream;
 import org.tukaani.xz.LZMA2InputStream;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
 
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.ffi.ZipRFFI;
 
 /**
- * Abstracts the implementation of the various forms of compression used in R. Since the C API for
- * LZMA is very complex (as used by GnuR), we use an 'xz' subprocess to do the work.
+ * Abstracts the implementation of the various forms of compression used in R. GZIP uses the native
+ * zlib, LZMA2/XZ uses the {@code org.tukaani.xz} library and BZIP2 is implemented by
+ * {@link BZip2InputStream} and {@link BZip2OutputStream}. Large payloads are compressed by several
+ * threads, see {@link FastROptions#CompressionThreads}.
  */
 public class RCompression {
     public enum Type {
@@ -104,25 +111,57 @@ public class RCompression {
      * @return {@code true} iff success
      */
     public static boolean uncompress(Type type, byte[] udata, byte[] cdata) {
+        if (type == Type.GZIP) {
+            return gzipUncompress(udata, cdata);
+        }
+        return uncompress(type, udata, ByteBuffer.wrap(cdata));
+    }
+
+    /**
+     * Variant of {@link #uncompress(Type, byte[], byte[])} that reads the compressed data between
+     * the position and the limit of {@code cdata}, e.g. a slice of a memory-mapped file. Except
+     * for {@link Type#GZIP}, the compressed data is not copied.
+     */
+    public static boolean uncompress(Type type, byte[] udata, ByteBuffer cdata) {
         switch (type) {
             case NONE:
-                System.arraycopy(cdata, 0, udata, 0, cdata.length);
+                cdata.get(udata, 0, Math.min(udata.length, cdata.remaining()));
                 return true;
             case GZIP:
-                return gzipUncompress(udata, cdata);
+                byte[] data = new byte[cdata.remaining()];
+                cdata.get(data);
+                return gzipUncompress(udata, data);
             case BZIP2:
-                throw RInternalError.unimplemented("BZIP2 compression");
+                try (InputStream is = new BZip2InputStream(new ByteBufferInputStream(cdata))) {
+                    return readFully(is, udata);
+                } catch (IOException ex) {
+                    return false;
+                }
             case XZ:
-                return lzmaUncompress(udata, cdata);
+                int dictSize = udata.length < LZMA2InputStream.DICT_SIZE_MIN ? LZMA2InputStream.DICT_SIZE_MIN : udata.length;
+                try (InputStream is = new LZMA2InputStream(new ByteBufferInputStream(cdata), dictSize)) {
+                    return readFully(is, udata);
+                } catch (IOException ex) {
+                    return false;
+                }
             default:
                 assert false;
                 return false;
         }
     }
 
+    private static boolean readFully(InputStream is, byte[] udata) throws IOException {
+        int totalRead = 0;
+        int n;
+        while (totalRead < udata.length && (n = is.read(udata, totalRead, udata.length - totalRead)) > 0) {
+            totalRead += n;
+        }
+        return totalRead == udata.length;
+    }
+
     /**
-     * Uncompress for internal use in {@code LazyLoadDBInsertValue} where size of uncompressed data
-     * is known.
+     * Compress for internal use in {@code LazyLoadDBInsertValue} where size of uncompressed data is
+     * known.
      *
      * @param type compression type
      * @param udata uncompressed data
@@ -137,15 +176,53 @@ public class RCompression {
             case GZIP:
                 return gzipCompress(udata, cdata);
             case BZIP2:
-                throw RInternalError.unimplemented("BZIP2 compression");
             case XZ:
-                return lzmaCompress(udata, cdata);
+                byte[] result = compress(type, udata);
+                if (result == null || result.length > cdata.length) {
+                    return false;
+                }
+                System.arraycopy(result, 0, cdata, 0, result.length);
+                return true;
             default:
                 assert false;
                 return false;
         }
     }
 
+    /**
+     * Compress for internal use in {@code LazyLoadDBInsertValue}, the {@link Type#BZIP2} and
+     * {@link Type#XZ} (raw LZMA2) formats are supported.
+     *
+     * @param type compression type
+     * @param udata uncompressed data
+     * @return the compressed data or {@code null} on failure
+     */
+    public static byte[] compress(Type type, byte[] udata) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(udata.length / 4 + 64);
+        int threads = getCompressionThreads();
+        try {
+            switch (type) {
+                case BZIP2:
+                    try (OutputStream os = new BZip2OutputStream(bos, 9, threads)) {
+                        os.write(udata);
+                    }
+                    break;
+                case XZ:
+                    LZMA2Options options = new LZMA2Options();
+                    boolean parallel = threads > 1 && udata.length > 2L * options.getDictSize();
+                    try (OutputStream os = parallel ? new ParallelXZOutputStream(bos, options, true, threads) : options.getOutputStream(new FinishableWrapperOutputStream(bos))) {
+                        os.write(udata);
+                    }
+                    break;
+                default:
+                    throw RInternalError.shouldNotReachHere("unexpected compression type " + type);
+            }
+        } catch (IOException ex) {
+            return null;
+        }
+        return bos.toByteArray();
+    }
+
     private static boolean gzipCompress(byte[] udata, byte[] cdata) {
         int rc = (int) ZipRFFI.CompressRootNode.create(RContext.getInstance()).call(cdata, udata);
         return rc == 0;
@@ -157,131 +234,78 @@ public class RCompression {
     }
 
     /**
-     * There is no obvious counterpart to {@link LZMA2InputStream} and according to the XZ forum it
-     * is not implemented for Java, so have to use sub-process.
+     * Creates the stream used by {@code bzfile} connections opened for writing.
      */
-    private static boolean lzmaCompress(byte[] udata, byte[] cdata) {
-        int rc;
-        ProcessBuilder pb = new ProcessBuilder("xz", "--compress", "--format=raw", "--lzma2", "--stdout");
-        pb.redirectError(Redirect.INHERIT);
-        try {
-            Process p = pb.start();
-            OutputStream os = p.getOutputStream();
-            InputStream is = p.getInputStream();
-            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed("xz", is, cdata);
-            readThread.start();
-            os.write(udata);
-            os.close();
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return true;
-            }
-        } catch (InterruptedException | IOException ex) {
-            return false;
+    public static OutputStream createBZip2OutputStream(OutputStream out, int blockSize100k) {
+        return new BZip2OutputStream(out, blockSize100k, getCompressionThreads());
+    }
+
+    /**
+     * Creates the stream used by {@code xzfile} connections opened for writing. If allowed, data
+     * beyond the first {@code dictSize} bytes are compressed by several threads, which produces a
+     * sequence of {@code .xz} streams.
+     */
+    public static OutputStream createXZOutputStream(OutputStream out, LZMA2Options options) throws IOException {
+        int threads = getCompressionThreads();
+        if (threads > 1) {
+            return new ParallelXZOutputStream(out, options, false, threads);
         }
-        assert rc != 0;
-        return false;
+        return new XZOutputStream(out, options, XZ.CHECK_CRC32);
+    }
 
+    public static String getBz2Version() {
+        return BZip2.VERSION;
     }
 
-    private static boolean lzmaUncompress(byte[] udata, byte[] data) {
-        int dictSize = udata.length < LZMA2InputStream.DICT_SIZE_MIN ? LZMA2InputStream.DICT_SIZE_MIN : udata.length;
-        try (LZMA2InputStream lzmaStream = new LZMA2InputStream(new ByteArrayInputStream(data), dictSize)) {
-            int totalRead = 0;
-            int n;
-            while ((n = lzmaStream.read(udata, totalRead, udata.length - totalRead)) > 0) {
-                totalRead += n;
-            }
-            return totalRead == udata.length;
-        } catch (IOException ex) {
-            return false;
-        }
+    private static int getCompressionThreads() {
+        int threads = RContext.getInstance().getNonNegativeIntOption(FastROptions.CompressionThreads);
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
     }
 
-    public static byte[] bzipUncompressFromFile(TruffleFile path) throws IOException {
-        String[] command = new String[]{"bzip2", "-dc", path.getPath()};
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectError(Redirect.INHERIT);
-        Process p = pb.start();
-        InputStream is = p.getInputStream();
-        ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-        readThread.start();
-        try {
-            int rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return Arrays.copyOf(readThread.getData(), readThread.getTotalRead());
-            } else {
-                throw new IOException("bzip2 error code: " + rc);
-            }
-        } catch (InterruptedException ex) {
-            // fall through
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
         }
-        throw new IOException();
-    }
 
-    public static void bzipCompressToFile(byte[] data, TruffleFile path, boolean append) throws IOException {
-        String[] command = new String[]{"bzip2", "-zc"};
-        int rc;
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectError(Redirect.INHERIT);
-        Process p = pb.start();
-        InputStream is = p.getInputStream();
-        OutputStream os = p.getOutputStream();
-        ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-        readThread.start();
-        os.write(data);
-        os.close();
-        try {
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                byte[] cData = Arrays.copyOf(readThread.getData(), readThread.getTotalRead());
-                OpenOption[] openOptions = append ? new OpenOption[]{StandardOpenOption.APPEND} : new OpenOption[0];
-                path.newOutputStream(openOptions).write(cData);
-                return;
-            } else {
-                throw new IOException("bzip2 error code: " + rc);
-            }
-        } catch (InterruptedException ex) {
-            // fall through
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
         }
-        throw new IOException();
-    }
 
-    public static String getBz2Version() throws IOException {
-        // assumes: "bzip2, a block-sorting file compressor. Version 1.0.6, 6-Sept-2010."
-        String[] command = {"bzip2", "-V"};
-        int rc;
-        ProcessBuilder pb = new ProcessBuilder(command);
-        Process p = pb.start();
-        // version is written to the error output stream
-        InputStream is = p.getErrorStream();
-        OutputStream os = p.getOutputStream();
-        ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-        readThread.start();
-        os.close();
-        try {
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                String output = new String(readThread.getData(), 0, readThread.getTotalRead());
-                String version = "Version ";
-                String firstLine = output.split("\\n")[0];
-                int versionIdx = firstLine.indexOf(version);
-                if (versionIdx >= 0) {
-                    int commaIdx = firstLine.lastIndexOf('.');
-                    if (commaIdx > versionIdx) {
-                        return firstLine.substring(versionIdx + version.length(), commaIdx);
-                    }
-                }
-            } else {
-                throw new IOException("bzip2 error code: " + rc);
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
             }
-        } catch (InterruptedException ex) {
-            // fall through
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
         }
-        throw new IOException();
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static final AtomicInteger encoderPoolId = new AtomicInteger();
+
+    /**
+     * Creates a pool of daemon threads used to compress independent blocks of data. The threads do
+     * not enter the context, they only operate on byte arrays.
+     */
+    static ExecutorService createEncoderPool(String name, int threads) {
+        String prefix = name + "-encoder-" + encoderPoolId.incrementAndGet() + "-";
+        AtomicInteger threadId = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, prefix + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
@@ -29,6 +29,7 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.MaterializedFrame;
@@ -1020,6 +1021,24 @@ public class RRuntime {
         return obj instanceof TruffleObject && !(obj instanceof RTruffleObject);
     }
 
+    /**
+     * Returns the Java array wrapped by {@code obj} if it is a host object wrapping an array of a
+     * primitive type, otherwise {@code null}. Such arrays can be accessed and copied directly
+     * instead of element by element through interop.
+     */
+    @TruffleBoundary
+    public static Object asHostPrimitiveArray(Object obj) {
+        if (!isForeignObject(obj)) {
+            return null;
+        }
+        TruffleLanguage.Env env = RContext.getInstance().getEnv();
+        if (!env.isHostObject(obj)) {
+            return null;
+        }
+        Object hostObject = env.asHostObject(obj);
+        return hostObject != null && hostObject.getClass().isArray() && hostObject.getClass().getComponentType().isPrimitive() ? hostObject : null;
+    }
+
     public static int getForeignArraySize(Object object, InteropLibrary interop) {
         assert interop.hasArrayElements(object);
         long size;
@@ -27,6 +27,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
@@ -247,6 +250,10 @@ public class RSerialize {
             super(buf);
         }
 
+        public PByteArrayInputStream(byte[] buf, int length) {
+            super(buf, 0, length);
+        }
+
         byte[] getData() {
             return buf;
         }
@@ -254,6 +261,10 @@ public class RSerialize {
         int pos() {
             return pos;
         }
+
+        int count() {
+            return count;
+        }
     }
 
     public interface CallHook {
@@ -407,7 +418,16 @@ public class RSerialize {
      */
     @TruffleBoundary
     public static Object unserialize(byte[] data, CallHook hook, String packageName, String functionName) throws IOException {
-        InputStream is = new PByteArrayInputStream(data);
+        return unserialize(data, data.length, hook, packageName, functionName);
+    }
+
+    /**
+     * As {@link #unserialize(byte[], CallHook, String, String)}, but only the first {@code length}
+     * bytes of {@code data} are used.
+     */
+    @TruffleBoundary
+    public static Object unserialize(byte[] data, int length, CallHook hook, String packageName, String functionName) throws IOException {
+        InputStream is = new PByteArrayInputStream(data, length);
         Input instance = trace() ? new TracingInput(is, hook, packageName, functionName) : new Input(is, hook, packageName, functionName);
         Object result = instance.unserialize();
         return result;
@@ -853,14 +873,7 @@ public class RSerialize {
                 case INTSXP: {
                     int len = stream.readInt();
                     int[] data = new int[len];
-                    boolean complete = RDataFactory.COMPLETE_VECTOR;
-                    for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
-                            complete = false;
-                        }
-                        data[i] = intVal;
-                    }
+                    boolean complete = stream.readInts(data);
                     result = RDataFactory.createIntVector(data, complete);
                     break;
                 }
@@ -868,16 +881,7 @@ public class RSerialize {
                 case LGLSXP: {
                     int len = stream.readInt();
                     byte[] data = new byte[len];
-                    boolean complete = RDataFactory.COMPLETE_VECTOR;
-                    for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
-                            complete = false;
-                            data[i] = RRuntime.LOGICAL_NA;
-                        } else {
-                            data[i] = (byte) intVal;
-                        }
-                    }
+                    boolean complete = stream.readLogicals(data);
                     result = RDataFactory.createLogicalVector(data, complete);
                     break;
                 }
@@ -885,14 +889,7 @@ public class RSerialize {
                 case REALSXP: {
                     int len = stream.readInt();
                     double[] data = new double[len];
-                    boolean complete = RDataFactory.COMPLETE_VECTOR;
-                    for (int i = 0; i < len; i++) {
-                        double doubleVal = stream.readDouble();
-                        if (RRuntime.isNA(doubleVal)) {
-                            complete = false;
-                        }
-                        data[i] = doubleVal;
-                    }
+                    boolean complete = stream.readDoubles(data);
                     result = RDataFactory.createDoubleVector(data, complete);
                     break;
                 }
@@ -1228,6 +1225,49 @@ public class RSerialize {
 
         abstract void readRaw(byte[] data) throws IOException;
 
+        /**
+         * Fills {@code data} with ints and returns {@code true} if none of them is {@code NA}.
+         */
+        boolean readInts(int[] data) throws IOException {
+            boolean complete = true;
+            for (int i = 0; i < data.length; i++) {
+                int value = readInt();
+                complete &= value != RRuntime.INT_NA;
+                data[i] = value;
+            }
+            return complete;
+        }
+
+        /**
+         * Fills {@code data} with logicals, which are stored as ints, and returns {@code true} if
+         * none of them is {@code NA}.
+         */
+        boolean readLogicals(byte[] data) throws IOException {
+            boolean complete = true;
+            for (int i = 0; i < data.length; i++) {
+                int value = readInt();
+                if (value == RRuntime.INT_NA) {
+                    complete = false;
+                    data[i] = RRuntime.LOGICAL_NA;
+                } else {
+                    data[i] = (byte) value;
+                }
+            }
+            return complete;
+        }
+
+        /**
+         * Fills {@code data} with doubles and returns {@code true} if none of them is {@code NA}.
+         */
+        boolean readDoubles(double[] data) throws IOException {
+            boolean complete = true;
+            for (int i = 0; i < data.length; i++) {
+                double value = readDouble();
+                complete &= !RRuntime.isNA(value);
+                data[i] = value;
+            }
+            return complete;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -1248,6 +1288,12 @@ public class RSerialize {
 
         private static final int READ_BUFFER_SIZE = 32 * 1024;
 
+        /**
+         * The maximal number of elements decoded by one bulk read, small enough for the decoded
+         * elements to be still in the cache when they are checked for {@code NA}.
+         */
+        private static final int BULK_CHUNK = 4096;
+
         private final class Buffer {
             private final byte[] buf;
             private int size;
@@ -1304,6 +1350,47 @@ public class RSerialize {
                 offset += data.length;
             }
 
+            /**
+             * Returns the number of elements of {@code elementSize} bytes available in the buffer,
+             * at most {@code max} and {@link #BULK_CHUNK}.
+             */
+            int available(int elementSize, int max) {
+                return Math.min(Math.min(max, BULK_CHUNK), (size - offset) / elementSize);
+            }
+
+            boolean readInts(int[] data, int from, int count) {
+                ByteBuffer.wrap(buf, offset, count * Integer.BYTES).order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(data, from, count);
+                offset += count * Integer.BYTES;
+                boolean complete = true;
+                for (int i = from; i < from + count; i++) {
+                    complete &= data[i] != RRuntime.INT_NA;
+                }
+                return complete;
+            }
+
+            boolean readLogicals(byte[] data, int from, int count) {
+                IntBuffer view = ByteBuffer.wrap(buf, offset, count * Integer.BYTES).order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+                offset += count * Integer.BYTES;
+                boolean complete = true;
+                for (int i = 0; i < count; i++) {
+                    int value = view.get(i);
+                    boolean isNA = value == RRuntime.INT_NA;
+                    complete &= !isNA;
+                    data[from + i] = isNA ? RRuntime.LOGICAL_NA : (byte) value;
+                }
+                return complete;
+            }
+
+            boolean readDoubles(double[] data, int from, int count) {
+                ByteBuffer.wrap(buf, offset, count * Double.BYTES).order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().get(data, from, count);
+                offset += count * Double.BYTES;
+                boolean complete = true;
+                for (int i = from; i < from + count; i++) {
+                    complete &= !RRuntime.isNA(data[i]);
+                }
+                return complete;
+            }
+
             void readData(int n) throws IOException {
                 if (offset + n > size) {
                     if (offset != size) {
@@ -1339,7 +1426,7 @@ public class RSerialize {
                 // we already have the data and we have read the beginning
                 PByteArrayInputStream pbis = (PByteArrayInputStream) is;
                 defaultBuffer = new Buffer(pbis.getData());
-                defaultBuffer.size = pbis.getData().length;
+                defaultBuffer.size = pbis.count();
                 defaultBuffer.offset = pbis.pos();
             } else {
                 defaultBuffer = new Buffer(new byte[READ_BUFFER_SIZE]);
@@ -1368,6 +1455,51 @@ public class RSerialize {
             ensureData(data.length).readRaw(data);
         }
 
+        /*
+         * The bulk reads decode the elements in the buffer in chunks through big-endian views
+         * instead of assembling every element from its bytes, the buffer is refilled between the
+         * chunks.
+         */
+
+        @Override
+        boolean readInts(int[] data) throws IOException {
+            boolean complete = true;
+            int pos = 0;
+            while (pos < data.length) {
+                Buffer buffer = ensureData(Integer.BYTES);
+                int count = buffer.available(Integer.BYTES, data.length - pos);
+                complete &= buffer.readInts(data, pos, count);
+                pos += count;
+            }
+            return complete;
+        }
+
+        @Override
+        boolean readLogicals(byte[] data) throws IOException {
+            boolean complete = true;
+            int pos = 0;
+            while (pos < data.length) {
+                Buffer buffer = ensureData(Integer.BYTES);
+                int count = buffer.available(Integer.BYTES, data.length - pos);
+                complete &= buffer.readLogicals(data, pos, count);
+                pos += count;
+            }
+            return complete;
+        }
+
+        @Override
+        boolean readDoubles(double[] data) throws IOException {
+            boolean complete = true;
+            int pos = 0;
+            while (pos < data.length) {
+                Buffer buffer = ensureData(Double.BYTES);
+                int count = buffer.available(Double.BYTES, data.length - pos);
+                complete &= buffer.readDoubles(data, pos, count);
+                pos += count;
+            }
+            return complete;
+        }
+
         private Buffer ensureData(int n) throws IOException {
             Buffer usedBuffer;
             if (n > defaultBuffer.buf.length) {
@@ -1465,6 +1597,26 @@ public class RSerialize {
 
         abstract void flush() throws IOException;
 
+        void writeInts(int[] data) throws IOException {
+            for (int i = 0; i < data.length; i++) {
+                writeInt(data[i]);
+            }
+        }
+
+        /**
+         * Writes logicals as ints, {@code NA} as {@link RRuntime#INT_NA}.
+         */
+        void writeLogicals(byte[] data) throws IOException {
+            for (int i = 0; i < data.length; i++) {
+                writeInt(RRuntime.logical2int(data[i]));
+            }
+        }
+
+        void writeDoubles(double[] data) throws IOException {
+            for (int i = 0; i < data.length; i++) {
+                writeDouble(data[i]);
+            }
+        }
     }
 
     private static class XdrOutputFormat extends POutputStream {
@@ -1541,6 +1693,50 @@ public class RSerialize {
             buf[offset++] = (byte) (valueBits & 0xff);
         }
 
+        /*
+         * The bulk writes encode the elements in chunks that fill the rest of the buffer through
+         * big-endian views.
+         */
+
+        @Override
+        void writeInts(int[] data) throws IOException {
+            int pos = 0;
+            while (pos < data.length) {
+                ensureSpace(Integer.BYTES);
+                int count = Math.min(data.length - pos, (buf.length - offset) / Integer.BYTES);
+                ByteBuffer.wrap(buf, offset, count * Integer.BYTES).order(ByteOrder.BIG_ENDIAN).asIntBuffer().put(data, pos, count);
+                offset += count * Integer.BYTES;
+                pos += count;
+            }
+        }
+
+        @Override
+        void writeLogicals(byte[] data) throws IOException {
+            int pos = 0;
+            while (pos < data.length) {
+                ensureSpace(Integer.BYTES);
+                int count = Math.min(data.length - pos, (buf.length - offset) / Integer.BYTES);
+                IntBuffer view = ByteBuffer.wrap(buf, offset, count * Integer.BYTES).order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+                for (int i = 0; i < count; i++) {
+                    view.put(i, RRuntime.logical2int(data[pos + i]));
+                }
+                offset += count * Integer.BYTES;
+                pos += count;
+            }
+        }
+
+        @Override
+        void writeDoubles(double[] data) throws IOException {
+            int pos = 0;
+            while (pos < data.length) {
+                ensureSpace(Double.BYTES);
+                int count = Math.min(data.length - pos, (buf.length - offset) / Double.BYTES);
+                ByteBuffer.wrap(buf, offset, count * Double.BYTES).order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().put(data, pos, count);
+                offset += count * Double.BYTES;
+                pos += count;
+            }
+        }
+
         private void ensureSpace(int n) throws IOException {
             if (offset + n > buf.length) {
                 flushBuffer();
@@ -1772,15 +1968,29 @@ public class RSerialize {
                                 break;
                             }
 
+                            /*
+                             * Only vectors backed by a Java array are written in bulk, the others
+                             * (sequences, native memory, ALTREP) would have to be materialized
+                             * first and are read element by element instead.
+                             */
                             case INTSXP:
                             case LGLSXP: {
-                                // logicals are written as ints
                                 RAbstractVector vector = (RAbstractVector) obj;
-                                VectorAccess access = vector.slowPathAccess();
-                                try (SequentialIterator iter = access.access(vector)) {
-                                    stream.writeInt(access.getLength(iter));
-                                    while (access.next(iter)) {
-                                        stream.writeInt(access.getInt(iter));
+                                Object array = vector.isMaterialized() ? vector.getInternalManagedData() : null;
+                                if (array instanceof int[]) {
+                                    stream.writeInt(((int[]) array).length);
+                                    stream.writeInts((int[]) array);
+                                } else if (array instanceof byte[]) {
+                                    // logicals are written as ints
+                                    stream.writeInt(((byte[]) array).length);
+                                    stream.writeLogicals((byte[]) array);
+                                } else {
+                                    VectorAccess access = vector.slowPathAccess();
+                                    try (SequentialIterator iter = access.access(vector)) {
+                                        stream.writeInt(access.getLength(iter));
+                                        while (access.next(iter)) {
+                                            stream.writeInt(access.getInt(iter));
+                                        }
                                     }
                                 }
                                 break;
@@ -1788,11 +1998,17 @@ public class RSerialize {
 
                             case REALSXP: {
                                 RDoubleVector vector = (RDoubleVector) obj;
-                                VectorAccess access = vector.slowPathAccess();
-                                try (SequentialIterator iter = access.access(vector)) {
-                                    stream.writeInt(access.getLength(iter));
-                                    while (access.next(iter)) {
-                                        stream.writeDouble(access.getDouble(iter));
+                                double[] array = vector.isMaterialized() ? vector.getInternalManagedData() : null;
+                                if (array != null) {
+                                    stream.writeInt(array.length);
+                                    stream.writeDoubles(array);
+                                } else {
+                                    VectorAccess access = vector.slowPathAccess();
+                                    try (SequentialIterator iter = access.access(vector)) {
+                                        stream.writeInt(access.getLength(iter));
+                                        while (access.next(iter)) {
+                                            stream.writeDouble(access.getDouble(iter));
+                                        }
                                     }
                                 }
                                 break;
@@ -2446,10 +2662,19 @@ public class RSerialize {
     @TruffleBoundary
     public static byte[] serialize(RContext context, Object obj, int type, int version, Object refhook) {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serialize(context, obj, type, version, refhook, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * As {@link #serialize(RContext, Object, int, int, Object)}, but appends to the given (possibly
+     * re-used) buffer.
+     */
+    @TruffleBoundary
+    public static void serialize(RContext context, Object obj, int type, int version, Object refhook, ByteArrayOutputStream out) {
         try {
             Output output = new Output(context, type, version, (CallHook) refhook, out);
             output.serialize(obj);
-            return out.toByteArray();
         } catch (IOException ex) {
             throw RInternalError.shouldNotReachHere(ex);
         }
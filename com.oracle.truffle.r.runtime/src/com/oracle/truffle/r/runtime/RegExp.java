@@ -22,13 +22,133 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.ffi.PCRERFFI;
 
 /**
  * Support methods for regular expressions.
  */
 public class RegExp {
 
+    /**
+     * Per-context LRU cache of compiled regular expressions, so that e.g. {@code gsub} called
+     * repeatedly with the same handful of patterns does not recompile them on each call (or for
+     * each element). Both {@link Pattern} instances and compiled PCRE patterns are cached, the key
+     * consists of the pattern, the compile flags and the kind of the compiled object. The size is
+     * controlled by {@link FastROptions#RegexCacheSize}.
+     *
+     * The compiled PCRE patterns and the character tables are never freed, which is what happened
+     * also before they were cached.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+        private Map<CacheKey, Object> cache;
+        private long pcreTables;
+
+        @Override
+        public RContext.ContextState initialize(RContext context) {
+            int maxSize = context.getNonNegativeIntOption(FastROptions.RegexCacheSize);
+            if (maxSize > 0) {
+                cache = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                        return size() > maxSize;
+                    }
+                };
+            }
+            return this;
+        }
+
+        private synchronized Object get(CacheKey key) {
+            return cache == null ? null : cache.get(key);
+        }
+
+        private synchronized void put(CacheKey key, Object value) {
+            if (cache != null) {
+                cache.put(key, value);
+            }
+        }
+
+        @TruffleBoundary
+        public synchronized long getPCRETables() {
+            return pcreTables;
+        }
+
+        @TruffleBoundary
+        public synchronized void setPCRETables(long tables) {
+            pcreTables = tables;
+        }
+
+        @TruffleBoundary
+        public PCRERFFI.Result getPCRE(String pattern, int cflags) {
+            return (PCRERFFI.Result) get(new CacheKey(CacheKey.PCRE, pattern, cflags));
+        }
+
+        @TruffleBoundary
+        public void putPCRE(String pattern, int cflags, PCRERFFI.Result compiled) {
+            put(new CacheKey(CacheKey.PCRE, pattern, cflags), compiled);
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+    }
+
+    private static final class CacheKey {
+        static final int JAVA = 0;
+        static final int PCRE = 1;
+
+        private final int kind;
+        private final String pattern;
+        private final int flags;
+
+        CacheKey(int kind, String pattern, int flags) {
+            this.kind = kind;
+            this.pattern = pattern;
+            this.flags = flags;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, pattern, flags);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return kind == other.kind && flags == other.flags && pattern.equals(other.pattern);
+        }
+    }
+
+    /**
+     * Returns the compiled {@link Pattern} for given pattern and flags, using the cache of the
+     * current context.
+     *
+     * @throws java.util.regex.PatternSyntaxException if the pattern is not valid
+     */
+    @TruffleBoundary
+    public static Pattern compile(String pattern, int flags) {
+        ContextStateImpl state = RContext.getInstance().stateRegExp;
+        CacheKey key = new CacheKey(CacheKey.JAVA, pattern, flags);
+        Pattern result = (Pattern) state.get(key);
+        if (result == null) {
+            result = Pattern.compile(pattern, flags);
+            state.put(key, result);
+        }
+        return result;
+    }
+
     private enum Predefined {
         alnum("\\p{Alnum}"),
         alpha("\\p{Alpha}"),
@@ -60,9 +60,11 @@ import java.util.zip.GZIPOutputStream;
  */
 abstract class DelegateRConnection extends RBaseObject implements RConnection, ByteChannel {
     public static final int DEFAULT_CACHE_SIZE = 16 * 1024;
+    private static final int WRITE_LINES_BUFFER_SIZE = 8 * 1024;
     protected final BaseRConnection base;
     private final ByteBuffer cache;
     private final boolean readCache;
+    private ByteBuffer singleByte;
 
     DelegateRConnection(BaseRConnection base) {
         this(base, DEFAULT_CACHE_SIZE, true);
@@ -87,8 +89,16 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
     private static int transfer(ByteBuffer from, ByteBuffer to) {
         int nbytes = Math.min(to.remaining(), from.remaining());
         if (nbytes > 0) {
-            to.put(from.array(), from.arrayOffset() + from.position(), nbytes);
-            from.position(from.position() + nbytes);
+            if (from.hasArray()) {
+                to.put(from.array(), from.arrayOffset() + from.position(), nbytes);
+                from.position(from.position() + nbytes);
+            } else {
+                // e.g. a direct buffer
+                int limit = from.limit();
+                from.limit(from.position() + nbytes);
+                to.put(from);
+                from.limit(limit);
+            }
         }
         return nbytes;
     }
@@ -250,22 +260,9 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
      */
     @TruffleBoundary
     public static boolean writeStringHelper(WritableByteChannel out, String s, boolean nl, Charset encoding) throws IOException {
-        boolean incomplete;
-        final byte[] bytes = s.getBytes(encoding);
-        final byte[] lineSepBytes = nl ? System.lineSeparator().getBytes(encoding) : null;
-
-        ByteBuffer buf = ByteBuffer.allocate(bytes.length + (nl ? lineSepBytes.length : 0));
-        buf.put(bytes);
-        if (nl) {
-            buf.put(lineSepBytes);
-            incomplete = false;
-        } else {
-            incomplete = !s.contains("\n");
-        }
-
-        buf.rewind();
-        out.write(buf);
-        return incomplete;
+        final String text = nl ? s + System.lineSeparator() : s;
+        out.write(ByteBuffer.wrap(text.getBytes(encoding)));
+        return !nl && !s.contains("\n");
     }
 
     /**
@@ -389,28 +386,41 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
         }
     }
 
+    /**
+     * Writes the lines, each followed by {@code sep}. The encoded lines are collected in a buffer
+     * so that channels without a write cache are not called twice for every line.
+     *
+     * @return {@code true} if an incomplete line was written; {@code false} otherwise
+     */
     @TruffleBoundary
     public static boolean writeLinesHelper(WritableByteChannel out, RStringVector lines, String sep, Charset encoding) throws IOException {
-        if (sep != null && sep.contains("\n")) {
-            // fast path: we know that the line is complete
-            final ByteBuffer nlBuf = ByteBuffer.wrap(sep.getBytes(encoding));
-            for (int i = 0; i < lines.getLength(); i++) {
-                final String line = lines.getDataAt(i);
-                final ByteBuffer buf = ByteBuffer.wrap(line.getBytes(encoding));
-                out.write(buf);
-                nlBuf.rewind();
-                out.write(nlBuf);
-            }
-            return false;
-        } else {
-            // slow path: we have to scan every string if it contains a newline
-            boolean incomplete = false;
-            for (int i = 0; i < lines.getLength(); i++) {
-                final String line = lines.getDataAt(i);
-                incomplete = DelegateRConnection.writeStringHelper(out, line, false, encoding);
-                incomplete = DelegateRConnection.writeStringHelper(out, sep, false, encoding) || incomplete;
+        final byte[] sepBytes = sep != null ? sep.getBytes(encoding) : new byte[0];
+        final ByteBuffer buf = ByteBuffer.allocate(WRITE_LINES_BUFFER_SIZE);
+        for (int i = 0; i < lines.getLength(); i++) {
+            putOrWrite(out, buf, lines.getDataAt(i).getBytes(encoding));
+            putOrWrite(out, buf, sepBytes);
+        }
+        writeBuffer(out, buf);
+        // a separator without a newline leaves the last line incomplete
+        return lines.getLength() > 0 && (sep == null || !sep.contains("\n"));
+    }
+
+    private static void putOrWrite(WritableByteChannel out, ByteBuffer buf, byte[] bytes) throws IOException {
+        if (bytes.length > buf.remaining()) {
+            writeBuffer(out, buf);
+            if (bytes.length > buf.capacity()) {
+                out.write(ByteBuffer.wrap(bytes));
+                return;
             }
-            return incomplete;
+        }
+        buf.put(bytes);
+    }
+
+    private static void writeBuffer(WritableByteChannel out, ByteBuffer buf) throws IOException {
+        if (buf.position() > 0) {
+            buf.flip();
+            out.write(buf);
+            buf.clear();
         }
     }
 
@@ -460,15 +470,16 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
     @TruffleBoundary
     public int read(ByteBuffer dst) throws IOException {
         if (readCache && cache != null) {
+            if (dst.remaining() >= cache.capacity()) {
+                return readUncached(dst);
+            }
             final int bytesRequested = dst.remaining();
             int totalBytesRead = 0;
             int bytesToRead = 0;
             boolean eof;
             do {
                 eof = ensureDataAvailable(dst.remaining());
-                bytesToRead = Math.min(cache.remaining(), dst.remaining());
-                cache.get(dst.array(), dst.position(), bytesToRead);
-                dst.position(dst.position() + bytesToRead);
+                bytesToRead = transfer(cache, dst);
                 totalBytesRead += bytesToRead;
             } while (totalBytesRead < bytesRequested && bytesToRead > 0 && !eof);
             return totalBytesRead == 0 && eof ? -1 : totalBytesRead;
@@ -477,10 +488,33 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
         }
     }
 
+    /**
+     * Reads a request that is at least as large as the cache by draining the cache and then reading
+     * directly from the channel into {@code dst}, so that bulk reads are not copied through the
+     * cache.
+     */
+    private int readUncached(ByteBuffer dst) throws IOException {
+        int totalBytesRead = transfer(cache, dst);
+        int bytesRead = 0;
+        while (dst.hasRemaining()) {
+            bytesRead = getChannel().read(dst);
+            if (bytesRead <= 0) {
+                break;
+            }
+            totalBytesRead += bytesRead;
+        }
+        return totalBytesRead == 0 && bytesRead < 0 ? -1 : totalBytesRead;
+    }
+
     @Override
     @TruffleBoundary
     public int write(ByteBuffer src) throws IOException {
         if (!readCache && cache != null) {
+            if (src.remaining() >= cache.capacity()) {
+                // bulk writes do not need to be copied through the cache
+                flush();
+                return getChannel().write(src);
+            }
             int total = 0;
             while (src.hasRemaining()) {
                 total += transfer(src, cache);
@@ -512,25 +546,23 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
             // consider byte to be unsigned
             return cache.get() & 0xFF;
         } else {
-
-            ByteBuffer buf = ByteBuffer.allocate(1);
-            int n = getChannel().read(buf);
+            if (singleByte == null) {
+                singleByte = ByteBuffer.allocate(1);
+            }
+            singleByte.clear();
+            int n = getChannel().read(singleByte);
             if (n <= 0) {
                 return -1;
             }
-            buf.flip();
-            return buf.get() & 0xFF;
+            return singleByte.get(0) & 0xFF;
         }
     }
 
     private boolean ensureDataAvailable(int i) throws IOException {
         assert cache != null;
         if (cache.remaining() < i) {
-            byte[] rem = new byte[cache.remaining()];
-            cache.get(rem);
-            assert !cache.hasRemaining();
-            cache.clear();
-            cache.put(rem);
+            // move the remaining bytes to the beginning
+            cache.compact();
             int read = getChannel().read(cache);
             cache.flip();
             return read == -1;
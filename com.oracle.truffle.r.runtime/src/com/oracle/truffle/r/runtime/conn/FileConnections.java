@@ -22,8 +22,6 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
@@ -33,12 +31,11 @@ import java.nio.file.StandardOpenOption;
 import java.util.EnumSet;
 
 import org.tukaani.xz.LZMA2Options;
-import org.tukaani.xz.XZ;
 import org.tukaani.xz.XZInputStream;
-import org.tukaani.xz.XZOutputStream;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.r.runtime.BZip2InputStream;
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RCompression.Type;
 import com.oracle.truffle.r.runtime.RError;
@@ -217,11 +214,11 @@ public class FileConnections {
             case Append:
             case AppendBinary:
                 TruffleFile afile = base.path;
-                return new CompressedOutputRConnection(base, new XZOutputStream(afile.newOutputStream(StandardOpenOption.APPEND), new LZMA2Options(), XZ.CHECK_CRC32), false);
+                return new CompressedOutputRConnection(base, RCompression.createXZOutputStream(afile.newOutputStream(StandardOpenOption.APPEND), new LZMA2Options()), false);
             case Write:
             case WriteBinary:
                 TruffleFile wfile = base.path;
-                return new CompressedOutputRConnection(base, new XZOutputStream(wfile.newOutputStream(), new LZMA2Options(), XZ.CHECK_CRC32), false);
+                return new CompressedOutputRConnection(base, RCompression.createXZOutputStream(wfile.newOutputStream(), new LZMA2Options()), false);
             default:
                 throw RError.nyi(RError.SHOW_CALLER2, "open mode: " + base.getOpenMode());
         }
@@ -232,14 +229,15 @@ public class FileConnections {
         switch (base.getOpenMode().abstractOpenMode) {
             case Read:
             case ReadBinary:
-                byte[] bzipUdata = RCompression.bzipUncompressFromFile(base.path);
-                return new ByteStreamCompressedInputRConnection(base, new ByteArrayInputStream(bzipUdata));
+                return new CompressedInputRConnection(base, new BZip2InputStream(base.path.newInputStream()));
             case Append:
             case AppendBinary:
-                return new BZip2OutputRConnection(base, new ByteArrayOutputStream(), true);
+                TruffleFile afile = base.path;
+                return new CompressedOutputRConnection(base, RCompression.createBZip2OutputStream(afile.newOutputStream(StandardOpenOption.APPEND), 9), false);
             case Write:
             case WriteBinary:
-                return new BZip2OutputRConnection(base, new ByteArrayOutputStream(), false);
+                TruffleFile wfile = base.path;
+                return new CompressedOutputRConnection(base, RCompression.createBZip2OutputStream(wfile.newOutputStream(), 9), false);
             default:
                 throw RError.nyi(RError.SHOW_CALLER2, "open mode: " + base.getOpenMode());
         }
@@ -755,29 +753,4 @@ public class FileConnections {
             writeOffset = raf.getFilePointer();
         }
     }
-
-    private static class ByteStreamCompressedInputRConnection extends CompressedInputRConnection {
-        ByteStreamCompressedInputRConnection(BasePathRConnection base, ByteArrayInputStream is) {
-            super(base, is);
-        }
-    }
-
-    private static class BZip2OutputRConnection extends CompressedOutputRConnection {
-        private final ByteArrayOutputStream bos;
-        private final boolean append;
-
-        BZip2OutputRConnection(BasePathRConnection base, ByteArrayOutputStream os, boolean append) {
-            super(base, os, false);
-            this.bos = os;
-            this.append = append;
-        }
-
-        @Override
-        public void close() throws IOException {
-            flush();
-            // Now actually do the compression using sub-process
-            byte[] data = bos.toByteArray();
-            RCompression.bzipCompressToFile(data, ((BasePathRConnection) base).path, append);
-        }
-    }
 }
@@ -22,14 +22,11 @@
  */
 package com.oracle.truffle.r.runtime.context;
 
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Option;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.FastRConfig;
-import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RLogger;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -123,6 +120,30 @@ public class FastROptions {
     public static final OptionKey<String> AdditionalOptions = new OptionKey<>("");
     @Option(category = OptionCategory.INTERNAL, help = "Enables timeout (in seconds) when receiving messages from a channel") //
     public static final OptionKey<Integer> ChannelReceiveTimeout = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, help = "Number of messages that can be buffered in each direction of a channel before the sender blocks") //
+    public static final OptionKey<Integer> ChannelQueueCapacity = new OptionKey<>(1);
+    @Option(category = OptionCategory.EXPERT, help = "Maximum number of compiled regular expressions cached per context by grep, sub, regexpr and related functions (0 disables the cache)") //
+    public static final OptionKey<Integer> RegexCacheSize = new OptionKey<>(128);
+    @Option(category = OptionCategory.EXPERT, help = "Number of threads used to compress large xz and bzip2 data (0 means the number of available processors)") //
+    public static final OptionKey<Integer> CompressionThreads = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, help = "Maximum size in MB of decompressed lazy-load database entries cached by a context and its child contexts (0 disables the cache)") //
+    public static final OptionKey<Integer> LazyLoadCacheSize = new OptionKey<>(64);
+    @Option(category = OptionCategory.EXPERT, help = "Number of threads used by scan to split and convert large inputs (0 means the number of available processors)") //
+    public static final OptionKey<Integer> ScanThreads = new OptionKey<>(1);
+    @Option(category = OptionCategory.EXPERT, help = "Number of threads used to multiply large double matrices (0 means the number of available processors)") //
+    public static final OptionKey<Integer> MatMultThreads = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, help = "Minimal number of multiply-add operations of a double matrix product for it to be computed by several threads") //
+    public static final OptionKey<Integer> MatMultParallelThreshold = new OptionKey<>(4 * 1024 * 1024);
+    @Option(category = OptionCategory.EXPERT, help = "Number of threads used to sort large vectors (0 means the number of available processors)") //
+    public static final OptionKey<Integer> SortThreads = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, help = "Minimal number of elements of a vector for it to be sorted by several threads") //
+    public static final OptionKey<Integer> SortParallelThreshold = new OptionKey<>(256 * 1024);
+    @Option(category = OptionCategory.EXPERT, help = "Number of threads used to apply arithmetic operations and mathematical functions to large double vectors (0 means the number of available processors)") //
+    public static final OptionKey<Integer> MapThreads = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, help = "Minimal number of elements of a double vector for arithmetic operations and mathematical functions to be applied by several threads") //
+    public static final OptionKey<Integer> MapParallelThreshold = new OptionKey<>(1024 * 1024);
+    @Option(category = OptionCategory.EXPERT, help = "Minimal length of numeric, logical and raw vectors allocated by Rf_allocVector for them to be kept in native memory from the start instead of being copied there on the first DATAPTR (negative values disable this)") //
+    public static final OptionKey<Integer> NativeAllocVectorThreshold = new OptionKey<>(-1);
     @Option(category = OptionCategory.EXPERT, help = "Restrict force splitting of call targets") //
     public static final OptionKey<Boolean> RestrictForceSplitting = new OptionKey<>(true);
     @Option(category = OptionCategory.INTERNAL, help = "Turn on explicit GC via the gc built-in. Otherwise calls to gc are ignored.") //
@@ -149,12 +170,6 @@ public class FastROptions {
      */
     public static final String NATIVE_DATA_INSPECTOR = "NATIVE_DATA_INSPECTOR";
 
-    /**
-     * For now we enforce that this option is set JVM wide, so that we can avoid reading it via
-     * {@link RContext} on the fastr path.
-     */
-    @CompilationFinal public static boolean sharedContextsOptionValue;
-
     private final RContext context;
 
     private final Map<OptionKey<?>, Object> values = new HashMap<>();
@@ -174,7 +189,6 @@ public class FastROptions {
         values.put(key, value);
     }
 
-    private static boolean initializedFirstOptions;
     private boolean initialized;
 
     void initialize() {
@@ -208,11 +222,8 @@ public class FastROptions {
 
         checkObsoleteJVMArgs();
         DSLConfig.initialize(getValue(DSLCacheSizeFactor));
-        if (initializedFirstOptions && sharedContextsOptionValue != getValue(SharedContexts)) {
-            throw RError.error(RError.NO_CALLER, Message.GENERIC, "FastR option ShareContexts can be set only to a single value per JVM/native-image instance.");
-        }
-        sharedContextsOptionValue = getValue(SharedContexts);
-        initializedFirstOptions = true;
+        // read on the fast path via the language, see TruffleRLanguage#isSharedContexts
+        context.getLanguage().initializeSharedContexts(getValue(SharedContexts));
         initialized = true;
     }
 
@@ -50,6 +50,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -58,12 +59,10 @@ import java.util.logging.Level;
 
 import org.graalvm.options.OptionKey;
 
-import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
-import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleContext;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage.Env;
@@ -76,12 +75,14 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.r.launcher.RCmdOptions;
 import com.oracle.truffle.r.launcher.RStartParams;
 import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.PrimitiveMethodsInfo;
 import com.oracle.truffle.r.runtime.RCaller;
+import com.oracle.truffle.r.runtime.RChannel;
 import com.oracle.truffle.r.runtime.REnvVars;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RErrorHandling;
@@ -94,6 +95,7 @@ import com.oracle.truffle.r.runtime.RProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RRuntimeASTAccess;
 import com.oracle.truffle.r.runtime.RSerialize;
+import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.ReturnException;
 import com.oracle.truffle.r.runtime.SuppressFBWarnings;
 import com.oracle.truffle.r.runtime.TempPathName;
@@ -260,6 +262,27 @@ public final class RContext {
         return result;
     }
 
+    /**
+     * The copies of the call targets shared by the contexts of the engine, which this context runs
+     * instead of the originals, by the root node of the original.
+     */
+    private final WeakHashMap<RootNode, RootCallTarget> codeCopies = new WeakHashMap<>();
+
+    /**
+     * Returns this context's copy of the call target of {@code shared}, which is created by
+     * {@code createCopy} on the first call. The call targets of the parsed sources are shared by
+     * all the contexts of an engine, but their nodes cache the frame slots and lookups of the
+     * global environment they ran in first.
+     */
+    public synchronized RootCallTarget getCodeCopy(RootNode shared, Supplier<RootCallTarget> createCopy) {
+        RootCallTarget result = codeCopies.get(shared);
+        if (result == null) {
+            result = createCopy.get();
+            codeCopies.put(shared, result);
+        }
+        return result;
+    }
+
     public RFFIUpCallTargets getRFFIUpCallTargets() {
         return rffiUpCallTargets;
     }
@@ -292,6 +315,16 @@ public final class RContext {
      */
     private RContext sharedChild;
 
+    /**
+     * The channels by their keys, only used in root contexts, see {@link #getChannelsByKey()}.
+     */
+    private final ConcurrentHashMap<Integer, RChannel> channelsByKey = new ConcurrentHashMap<>();
+
+    /**
+     * The threads that process large vectors in parallel, see {@link #getMapPool(int)}.
+     */
+    private ForkJoinPool mapPool;
+
     /**
      * Used by the MethodListDispatch class.
      */
@@ -333,10 +366,6 @@ public final class RContext {
         RContext.builtinLookup = rBuiltinLookup;
     }
 
-    // need an additional flag as we don't want multi-slot processing to start until context
-    // initialization is fully complete - singleContext flag is not good enough for that
-    private static final Assumption isSingleContextAssumption = Truffle.getRuntime().createAssumption("is single RContext");
-
     private final Env env;
     private final boolean initial;
     /**
@@ -366,6 +395,7 @@ public final class RContext {
     public final InstrumentationState stateInstrumentation;
     public final ContextStateImpl stateInternalCode;
     public final DLL.ContextStateImpl stateDLL;
+    public final RegExp.ContextStateImpl stateRegExp;
     public final GCTortureState gcTorture;
     public volatile EventLoopState eventLoopState;
 
@@ -394,7 +424,7 @@ public final class RContext {
     private ContextState[] contextStates() {
         return new ContextState[]{stateREnvVars, stateRLocale, stateRProfile, stateTempPath, stateROptions, stateREnvironment, stateRErrorHandling, stateRConnection, stateStdConnections, stateRNG,
                         stateRFFI,
-                        stateRSerialize, stateLazyDBCache, stateInstrumentation, stateDLL};
+                        stateRSerialize, stateLazyDBCache, stateInstrumentation, stateDLL, stateRegExp};
     }
 
     public static void setEmbedded() {
@@ -482,6 +512,7 @@ public final class RContext {
         this.stateInstrumentation = InstrumentationState.newContextState(instrumenter);
         this.stateInternalCode = ContextStateImpl.newContextState();
         this.stateDLL = DLL.ContextStateImpl.newContextState();
+        this.stateRegExp = RegExp.ContextStateImpl.newContextState();
 
         this.rffiUpCallTargets = new RFFIUpCallTargets();
 
@@ -562,6 +593,7 @@ public final class RContext {
         stateRNG.initialize(this);
         stateRSerialize.initialize(this);
         stateLazyDBCache.initialize(this);
+        stateRegExp.initialize(this);
         stateInstrumentation.initialize(this);
         stateInternalCode.initialize(this);
         gcTorture.initialize(this);
@@ -647,6 +679,10 @@ public final class RContext {
             assert !initial || EvalThread.threadCnt.get() == 0 : "Did not close all children contexts";
 
             this.allocationReporter.removeActiveListener(ALLOCATION_ACTIVATION_LISTENER);
+            if (mapPool != null) {
+                mapPool.shutdown();
+                mapPool = null;
+            }
             EventLoopState eventLoopStateLocal = this.eventLoopState;
             if (eventLoopStateLocal != null) {
                 eventLoopStateLocal.removeTemporaryDirectory();
@@ -658,6 +694,35 @@ public final class RContext {
         return parentContext;
     }
 
+    /**
+     * Returns the channels created by the root context of this context or by any of its descendants
+     * by their keys. Unrelated contexts, which may share the language and its code, do not see
+     * each other's channels.
+     */
+    public ConcurrentHashMap<Integer, RChannel> getChannelsByKey() {
+        RContext root = this;
+        while (root.parentContext != null) {
+            root = root.parentContext;
+        }
+        return root.channelsByKey;
+    }
+
+    /**
+     * Returns the pool that processes large vectors with {@code parallelism} threads, see
+     * {@link FastROptions#MapThreads}. The pool is replaced if the option changed and it is shut
+     * down when this context is disposed; the tasks already submitted to a replaced pool still
+     * complete.
+     */
+    public synchronized ForkJoinPool getMapPool(int parallelism) {
+        if (mapPool == null || mapPool.getParallelism() != parallelism) {
+            if (mapPool != null) {
+                mapPool.shutdown();
+            }
+            mapPool = new ForkJoinPool(parallelism);
+        }
+        return mapPool;
+    }
+
     public Env getEnv() {
         return env;
     }
@@ -789,12 +854,16 @@ public final class RContext {
         return multiSlotIndex;
     }
 
+    /**
+     * Returns {@code false} once a context of the current language instance shares the frames of
+     * its parent, see {@link TruffleRLanguage#isSingleContext()}.
+     */
     public static boolean isSingle() {
-        return isSingleContextAssumption.isValid();
+        return TruffleRLanguage.getCurrentLanguage().isSingleContext();
     }
 
     public static void markNonSingle() {
-        isSingleContextAssumption.invalidate();
+        TruffleRLanguage.getCurrentLanguage().markNonSingleContext();
     }
 
     public static RContext getInstance() {
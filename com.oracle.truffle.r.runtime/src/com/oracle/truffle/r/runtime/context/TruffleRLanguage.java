@@ -22,14 +22,21 @@
  */
 package com.oracle.truffle.r.runtime.context;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionValues;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.Scope;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.TruffleLanguage.ContextPolicy;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.instrumentation.Instrumenter;
 import com.oracle.truffle.api.instrumentation.ProvidedTags;
@@ -40,6 +47,8 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.r.runtime.ExitException;
 import com.oracle.truffle.r.runtime.RAccuracyInfo;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSuicide;
 import com.oracle.truffle.r.runtime.conn.RFileTypeDetector;
@@ -50,17 +59,30 @@ import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RTruffleObject;
 import com.oracle.truffle.r.runtime.env.RScope;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 import com.oracle.truffle.r.runtime.instrument.RSyntaxTags;
 import com.oracle.truffle.r.runtime.instrument.RSyntaxTags.FunctionBodyBlockTag;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
+/**
+ * The contexts of an engine share one instance of the language and its ASTs. Therefore the nodes
+ * cache only values that are the same in every context, e.g. builtin functions and call targets,
+ * and the state that used to be VM-wide, such as the single context assumption, the value of
+ * {@link FastROptions#SharedContexts} and the frame descriptor meta data, is kept here. The code
+ * parsed from a source runs in the global environment of the context that evaluates it, so the
+ * contexts other than the first one run their own copy of it, see {@link RContext#getCodeCopy}.
+ */
 @TruffleLanguage.Registration(name = "R", id = "R", version = "3.6.1", mimeType = {RRuntime.R_APP_MIME,
-                RRuntime.R_TEXT_MIME}, interactive = true, fileTypeDetectors = RFileTypeDetector.class, dependentLanguages = "llvm")
+                RRuntime.R_TEXT_MIME}, interactive = true, fileTypeDetectors = RFileTypeDetector.class, dependentLanguages = "llvm", contextPolicy = ContextPolicy.SHARED)
 @ProvidedTags({StandardTags.CallTag.class, StandardTags.StatementTag.class, StandardTags.RootBodyTag.class, StandardTags.RootTag.class, RSyntaxTags.LoopTag.class, FunctionBodyBlockTag.class})
 public final class TruffleRLanguage extends TruffleLanguage<RContext> {
 
-    private static int activeContexts = 0;
+    /**
+     * The number of contexts in the VM, which may belong to different instances of the language.
+     * The context policy allows to create and dispose contexts of one instance concurrently.
+     */
+    private static final AtomicInteger activeContexts = new AtomicInteger();
 
     public String getRHome() {
         return getLanguageHome();
@@ -77,9 +99,12 @@ public final class TruffleRLanguage extends TruffleLanguage<RContext> {
         }
     }
 
-    private final HashMap<String, RFunction> builtinFunctionCache = new HashMap<>();
+    /**
+     * The builtin functions are shared by all the contexts of this language instance.
+     */
+    private final ConcurrentHashMap<String, RFunction> builtinFunctionCache = new ConcurrentHashMap<>();
 
-    public HashMap<String, RFunction> getBuiltinFunctionCache() {
+    public ConcurrentHashMap<String, RFunction> getBuiltinFunctionCache() {
         return builtinFunctionCache;
     }
 
@@ -107,10 +132,52 @@ public final class TruffleRLanguage extends TruffleLanguage<RContext> {
     }
 
     public static boolean isAnyContextActive() {
-        return activeContexts > 0;
+        return activeContexts.get() > 0;
+    }
+
+    /**
+     * Claimed by the first context in the VM, which loads the native R library and initializes the
+     * other process-wide state, see {@link RContext#isInitial()}. The contexts of one instance of
+     * the language may be created concurrently, hence the atomic claim.
+     */
+    private static final AtomicBoolean systemInitialized = new AtomicBoolean();
+
+    // need an additional flag as we don't want multi-slot processing to start until context
+    // initialization is fully complete - singleContext flag is not good enough for that
+    private final Assumption singleContextAssumption = Truffle.getRuntime().createAssumption("is single RContext");
+
+    /**
+     * The value of {@link FastROptions#SharedContexts}, which must be the same for all the contexts
+     * of this language instance, so that it can be read without the context on the fast path.
+     */
+    @CompilationFinal private boolean sharedContexts;
+    private boolean sharedContextsInitialized;
+
+    private final FrameSlotChangeMonitor.FrameDescriptors frameDescriptors = new FrameSlotChangeMonitor.FrameDescriptors();
+
+    public boolean isSingleContext() {
+        return singleContextAssumption.isValid();
+    }
+
+    public void markNonSingleContext() {
+        singleContextAssumption.invalidate();
+    }
+
+    public boolean isSharedContexts() {
+        return sharedContexts;
+    }
+
+    synchronized void initializeSharedContexts(boolean value) {
+        if (sharedContextsInitialized && sharedContexts != value) {
+            throw RError.error(RError.NO_CALLER, Message.GENERIC, "FastR option SharedContexts can be set only to a single value per engine.");
+        }
+        sharedContexts = value;
+        sharedContextsInitialized = true;
     }
 
-    private static boolean systemInitialized;
+    public FrameSlotChangeMonitor.FrameDescriptors getFrameDescriptors() {
+        return frameDescriptors;
+    }
 
     @Override
     protected boolean isObjectOfLanguage(Object object) {
@@ -119,17 +186,16 @@ public final class TruffleRLanguage extends TruffleLanguage<RContext> {
 
     @Override
     protected void initializeContext(RContext context) throws Exception {
-        activeContexts++;
-        if (!systemInitialized) {
+        activeContexts.incrementAndGet();
+        if (context.isInitial()) {
             initialize();
-            systemInitialized = true;
         }
         context.initializeContext();
     }
 
     @Override
     protected RContext createContext(Env env) {
-        boolean initialContext = !systemInitialized;
+        boolean initialContext = systemInitialized.compareAndSet(false, true);
         if (initialContext) {
             access.onInitializeContext(env);
         }
@@ -141,9 +207,18 @@ public final class TruffleRLanguage extends TruffleLanguage<RContext> {
         return FastROptions.getDescriptors();
     }
 
+    /**
+     * The code is only shared by contexts with the same options, because some options are read
+     * when the ASTs are created or specialized, e.g. {@link FastROptions#DSLCacheSizeFactor}.
+     */
+    @Override
+    protected boolean areOptionsCompatible(OptionValues firstOptions, OptionValues newOptions) {
+        return firstOptions.equals(newOptions);
+    }
+
     @Override
     protected void disposeContext(RContext context) {
-        activeContexts--;
+        activeContexts.decrementAndGet();
         context.dispose();
     }
 
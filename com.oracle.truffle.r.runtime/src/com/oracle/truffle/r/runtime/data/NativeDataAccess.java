@@ -334,6 +334,17 @@ public final class NativeDataAccess {
             assert this.length == 0 || dataAddress.getAddress() != getEmptyDataAddress();
         }
 
+        @TruffleBoundary
+        void allocateNativeZeroed(int vectorLength, long elementsCount, ElementType type) {
+            assert getDataAddress() == 0;
+            if (vectorLength != 0) {
+                setDataAddress(NativeMemory.allocateZeroed(type, elementsCount, delegate));
+            } else {
+                setExternalDataAddress(getEmptyDataAddress());
+            }
+            this.length = vectorLength;
+        }
+
         @TruffleBoundary
         void allocateNativeString(byte[] bytes) {
             assert getDataAddress() == 0;
@@ -1316,6 +1327,36 @@ public final class NativeDataAccess {
 
     public static void setNativeContents(RBaseObject obj, long address, int length) {
         assert obj.getNativeMirror() != null;
+        invalidateNoNative(obj);
+        NativeMirror mirror = obj.getNativeMirror();
+        mirror.setExternalDataAddress(address);
+        mirror.length = length;
+    }
+
+    /**
+     * Allocates the native memory of a vector that has no Java array, e.g., one created by
+     * {@code RDoubleVector.createNative}. Unlike the memory passed to
+     * {@link #setNativeContents(RBaseObject, long, int)}, this memory is owned by the vector and
+     * freed once the vector is collected. Logicals are stored as {@code int}s like in GNU R.
+     */
+    static void allocateZeroedNativeContents(RBaseObject obj, int length) {
+        assert obj.getNativeMirror() != null;
+        invalidateNoNative(obj);
+        NativeMirror mirror = obj.getNativeMirror();
+        if (obj instanceof RDoubleVector) {
+            mirror.allocateNativeZeroed(length, length, ElementType.DOUBLE);
+        } else if (obj instanceof RComplexVector) {
+            mirror.allocateNativeZeroed(length, length * 2L, ElementType.DOUBLE);
+        } else if (obj instanceof RIntVector || obj instanceof RLogicalVector) {
+            mirror.allocateNativeZeroed(length, length, ElementType.INT);
+        } else if (obj instanceof RRawVector) {
+            mirror.allocateNativeZeroed(length, length, ElementType.BYTE);
+        } else {
+            throw RInternalError.shouldNotReachHere(obj.getClass().getSimpleName());
+        }
+    }
+
+    private static void invalidateNoNative(RBaseObject obj) {
         if (noDoubleNative.isValid() && obj instanceof RDoubleVector) {
             noDoubleNative.invalidate();
         } else if (noComplexNative.isValid() && obj instanceof RComplexVector) {
@@ -1329,9 +1370,6 @@ public final class NativeDataAccess {
         } else if (noStringNative.isValid() && obj instanceof RStringVector) {
             noStringNative.invalidate();
         }
-        NativeMirror mirror = obj.getNativeMirror();
-        mirror.setExternalDataAddress(address);
-        mirror.length = length;
     }
 
     public static void setNativeWrapper(RBaseObject obj, Object wrapper) {
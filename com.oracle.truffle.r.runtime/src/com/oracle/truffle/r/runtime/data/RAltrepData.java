@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.ffi.CallRFFI;
+import com.oracle.truffle.r.runtime.ffi.DLL;
+import com.oracle.truffle.r.runtime.ffi.DLL.DLLInfo;
+import com.oracle.truffle.r.runtime.ffi.DLL.SymbolHandle;
+import com.oracle.truffle.r.runtime.ffi.NativeCallInfo;
+
+/**
+ * Common state of vector data objects that represent ALTREP instances created by native code via
+ * {@code R_new_altrep}. The {@code altrepClass} is the external pointer created by
+ * {@code R_make_alt*_class} and it holds the native method table. The elements are never copied
+ * to Java eagerly: elements are read directly from native memory if the class can provide a data
+ * pointer without materialization ({@code Dataptr_or_null}), otherwise they are fetched in regions
+ * of {@link #REGION_SIZE} elements via the native {@code Get_region} method.
+ *
+ * The native methods receive the owning vector as their {@code SEXP} argument and may call back
+ * into {@code R_altrep_data1/2}, which is why the owner is always set before any downcall.
+ */
+public abstract class RAltrepData implements TruffleObject, VectorDataWithOwner {
+
+    private static final String ALTREP_LENGTH = "__AltrepLength";
+    private static final String ALTREP_DATAPTR = "__AltrepDataptr";
+    private static final String ALTREP_DATAPTR_OR_NULL = "__AltrepDataptrOrNull";
+    protected static final String ALTINTEGER_ELT = "__AltIntegerElt";
+    protected static final String ALTINTEGER_GET_REGION = "__AltIntegerGetRegion";
+    protected static final String ALTREAL_ELT = "__AltRealElt";
+    protected static final String ALTREAL_GET_REGION = "__AltRealGetRegion";
+
+    /**
+     * The number of elements fetched by one {@code Get_region} call when the elements are read one
+     * by one, e.g. by an iterator.
+     */
+    protected static final int REGION_SIZE = 1024;
+
+    private static final ConcurrentHashMap<String, NativeCallInfo> callInfoTable = new ConcurrentHashMap<>(8);
+
+    private final RExternalPtr altrepClass;
+    private Object data1;
+    private Object data2;
+    protected RAbstractContainer owner;
+    protected int length;
+    /**
+     * Address of the native data as returned by {@code Dataptr_or_null} or {@code Dataptr}, zero if
+     * it is not known (yet). Once non-zero, the elements are read directly from native memory.
+     */
+    protected long dataptr;
+    private boolean dataptrQueried;
+
+    protected RAltrepData(RExternalPtr altrepClass, Object data1, Object data2) {
+        this.altrepClass = altrepClass;
+        this.data1 = data1;
+        this.data2 = data2;
+    }
+
+    /**
+     * Returns the ALTREP data of given object or {@code null} if the object is not an ALTREP
+     * instance.
+     */
+    public static RAltrepData get(Object x) {
+        if (x instanceof RAbstractContainer) {
+            Object data = ((RAbstractContainer) x).getData();
+            if (data instanceof RAltrepData) {
+                return (RAltrepData) data;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void setOwner(RAbstractContainer owner) {
+        this.owner = owner;
+    }
+
+    public RExternalPtr getAltrepClass() {
+        return altrepClass;
+    }
+
+    public Object getData1() {
+        return data1;
+    }
+
+    public Object getData2() {
+        return data2;
+    }
+
+    public void setData1(Object data1) {
+        this.data1 = data1;
+    }
+
+    public void setData2(Object data2) {
+        this.data2 = data2;
+    }
+
+    /**
+     * Queries the native {@code Length} method. Must be called once the owner is set.
+     */
+    @TruffleBoundary
+    final int queryLength() {
+        Object result = callNative(ALTREP_LENGTH);
+        length = (int) ((RDoubleVector) result).getDataAt(0);
+        return length;
+    }
+
+    /**
+     * Returns the address of the native data if the ALTREP class can provide it without
+     * materialization, otherwise {@code 0}. The result of {@code Dataptr_or_null} is cached.
+     */
+    @TruffleBoundary
+    final long getDataptrOrZero() {
+        if (!dataptrQueried) {
+            dataptr = toAddress(callNative(ALTREP_DATAPTR_OR_NULL));
+            dataptrQueried = true;
+        }
+        return dataptr;
+    }
+
+    /**
+     * Forces the native {@code Dataptr} method, which may materialize the data on the native side.
+     * Used when the owner vector is passed to native code that accesses the data directly.
+     */
+    @TruffleBoundary
+    public final long getDataptr() {
+        if (dataptr == 0) {
+            dataptr = toAddress(callNative(ALTREP_DATAPTR));
+            dataptrQueried = true;
+            if (dataptr == 0) {
+                throw RInternalError.shouldNotReachHere("ALTREP Dataptr method returned NULL");
+            }
+        }
+        return dataptr;
+    }
+
+    @TruffleBoundary
+    protected final Object callNative(String name, Object... args) {
+        assert owner != null : "ALTREP data used without owner";
+        Object[] callArgs = new Object[args.length + 1];
+        callArgs[0] = owner;
+        System.arraycopy(args, 0, callArgs, 1, args.length);
+        return CallRFFI.InvokeCallRootNode.create(RContext.getInstance()).call(getNativeFunctionInfo(name), callArgs);
+    }
+
+    protected static RExternalPtr wrapAddress(long address) {
+        return RDataFactory.createExternalPtr(new SymbolHandle(address), RNull.instance, RNull.instance);
+    }
+
+    private static long toAddress(Object result) {
+        return result instanceof RExternalPtr ? ((RExternalPtr) result).getAddr().asAddress() : 0;
+    }
+
+    private static NativeCallInfo getNativeFunctionInfo(String name) {
+        NativeCallInfo nativeCallInfo = callInfoTable.get(name);
+        if (nativeCallInfo == null) {
+            DLLInfo findLibraryContainingSymbol = DLL.findLibraryContainingSymbol(RContext.getInstance(), name);
+            SymbolHandle findSymbol = DLL.findSymbol(name, findLibraryContainingSymbol);
+            nativeCallInfo = new NativeCallInfo(name, findSymbol, findLibraryContainingSymbol);
+            callInfoTable.put(name, nativeCallInfo);
+        }
+        return nativeCallInfo;
+    }
+}
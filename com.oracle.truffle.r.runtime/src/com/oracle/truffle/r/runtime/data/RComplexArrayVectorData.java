@@ -179,11 +179,13 @@ class RComplexArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        contentsWritten();
         return new SeqWriteIterator(data, data.length >> 1);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        contentsWritten();
         return new RandomAccessWriteIterator(data);
     }
 
@@ -214,6 +216,7 @@ class RComplexArrayVectorData implements TruffleObject, VectorDataWithOwner {
         int idx = index * 2;
         data[idx] = value.getRealPart();
         data[idx + 1] = value.getImaginaryPart();
+        contentsWritten();
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
             complete = false;
@@ -238,6 +241,15 @@ class RComplexArrayVectorData implements TruffleObject, VectorDataWithOwner {
         getStore(it)[idx + 1] = value.getImaginaryPart();
     }
 
+    /**
+     * Drops all metadata derived from the contents, called whenever the data are written.
+     */
+    private void contentsWritten() {
+        if (owner != null) {
+            owner.invalidateContentIndex();
+        }
+    }
+
     private static double[] getStore(Iterator it) {
         return (double[]) it.getStore();
     }
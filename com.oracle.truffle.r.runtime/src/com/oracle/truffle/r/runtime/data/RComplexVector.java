@@ -102,6 +102,19 @@ public final class RComplexVector extends RAbstractAtomicVector implements RMate
         RComplexVector result = new RComplexVector();
         NativeDataAccess.toNative(result);
         NativeDataAccess.setNativeContents(result, address, length);
+        result.setData(new RComplexNativeVectorData(result), length);
+        return result;
+    }
+
+    /**
+     * Creates a vector of zeros whose data live in native memory owned by the vector, so that
+     * native code can access them without copying them first.
+     */
+    static RComplexVector createNative(int length) {
+        RComplexVector result = new RComplexVector();
+        NativeDataAccess.toNative(result);
+        NativeDataAccess.allocateZeroedNativeContents(result, length);
+        result.setData(new RComplexNativeVectorData(result), length);
         return result;
     }
 
@@ -686,10 +686,7 @@ public final class RDataFactory {
 
         @TruffleBoundary
         public final REnvironment createNewEnv(String name, boolean hashed, int initialSize) {
-            REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name);
-            env.setHashed(hashed);
-            env.setInitialSize(initialSize);
-            return traceDataCreated(env);
+            return traceDataCreated(new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name, hashed, initialSize));
         }
 
         public final RS4Object createS4Object() {
@@ -757,6 +754,10 @@ public final class RDataFactory {
         return traceDataCreated(RIntVector.fromNative(address, length));
     }
 
+    public static RIntVector createNativeIntVector(int length) {
+        return traceDataCreated(RIntVector.createNative(length));
+    }
+
     public static RIntVector createIntVector(int length) {
         return createIntVector(length, false);
     }
@@ -793,6 +794,10 @@ public final class RDataFactory {
         return traceDataCreated(RDoubleVector.fromNative(address, length));
     }
 
+    public static RDoubleVector createNativeDoubleVector(int length) {
+        return traceDataCreated(RDoubleVector.createNative(length));
+    }
+
     public static RDoubleVector createDoubleVector(int length) {
         return createDoubleVector(length, false);
     }
@@ -853,6 +858,10 @@ public final class RDataFactory {
         return traceDataCreated(RComplexVector.fromNative(address, length));
     }
 
+    public static RComplexVector createNativeComplexVector(int length) {
+        return traceDataCreated(RComplexVector.createNative(length));
+    }
+
     public static RComplexVector createComplexVector(int length) {
         return createComplexVector(length, false);
     }
@@ -934,6 +943,10 @@ public final class RDataFactory {
         return traceDataCreated(RLogicalVector.fromNative(address, length));
     }
 
+    public static RLogicalVector createNativeLogicalVector(int length) {
+        return traceDataCreated(RLogicalVector.createNative(length));
+    }
+
     public static RLogicalVector createLogicalVector(int length) {
         return createLogicalVector(length, false);
     }
@@ -1041,6 +1054,10 @@ public final class RDataFactory {
         return traceDataCreated(RRawVector.fromNative(address, length));
     }
 
+    public static RRawVector createNativeRawVector(int length) {
+        return traceDataCreated(RRawVector.createNative(length));
+    }
+
     public static RStringVector createStringVectorFromScalar(String value) {
         return createStringVector(new String[]{value}, !RRuntime.isNA(value));
     }
@@ -1272,10 +1289,7 @@ public final class RDataFactory {
 
     @TruffleBoundary
     public static REnvironment createNewEnv(String name, boolean hashed, int initialSize) {
-        REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name);
-        env.setHashed(hashed);
-        env.setInitialSize(initialSize);
-        return traceDataCreated(env);
+        return traceDataCreated(new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name, hashed, initialSize));
     }
 
     public static RS4Object createS4Object() {
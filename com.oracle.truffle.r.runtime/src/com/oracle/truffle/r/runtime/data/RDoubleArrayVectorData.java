@@ -50,6 +50,13 @@ class RDoubleArrayVectorData implements TruffleObject, VectorDataWithOwner {
     private boolean complete;
     private RDoubleVector owner;
 
+    /**
+     * Whether the data are known to be sorted in ascending, resp. descending, order and to contain
+     * no {@code NA} or {@code NaN}. Both flags are reset by any write.
+     */
+    private boolean sortedAscending;
+    private boolean sortedDescending;
+
     RDoubleArrayVectorData(double[] data, boolean complete) {
         this.data = data;
         this.complete = complete && ENABLE_COMPLETE;
@@ -92,7 +99,10 @@ class RDoubleArrayVectorData implements TruffleObject, VectorDataWithOwner {
     @ExportMessage
     public RDoubleArrayVectorData copy(@SuppressWarnings("unused") boolean deep,
                     @Shared("nullOwner") @Cached BranchProfile ownerIsNull) {
-        return new RDoubleArrayVectorData(Arrays.copyOf(data, data.length), isComplete(ownerIsNull));
+        RDoubleArrayVectorData result = new RDoubleArrayVectorData(Arrays.copyOf(data, data.length), isComplete(ownerIsNull));
+        result.sortedAscending = sortedAscending;
+        result.sortedDescending = sortedDescending;
+        return result;
     }
 
     @ExportMessage
@@ -104,6 +114,21 @@ class RDoubleArrayVectorData implements TruffleObject, VectorDataWithOwner {
         return complete && ENABLE_COMPLETE;
     }
 
+    @ExportMessage
+    public boolean isSorted(boolean descending, @SuppressWarnings("unused") boolean naLast) {
+        return descending ? sortedDescending : sortedAscending;
+    }
+
+    @ExportMessage
+    public void setSorted(boolean descending) {
+        assert verifySorted(descending);
+        if (descending) {
+            sortedDescending = true;
+        } else {
+            sortedAscending = true;
+        }
+    }
+
     @ExportMessage
     public double[] getReadonlyDoubleData() {
         return data;
@@ -173,11 +198,13 @@ class RDoubleArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        contentsWritten();
         return new SeqWriteIterator(data, data.length);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        contentsWritten();
         return new RandomAccessWriteIterator(data);
     }
 
@@ -206,6 +233,7 @@ class RDoubleArrayVectorData implements TruffleObject, VectorDataWithOwner {
     @ExportMessage
     public void setDoubleAt(int index, double value, @Shared("setCompleteProfile") @Cached BranchProfile setCompleteProfile) {
         data[index] = value;
+        contentsWritten();
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
             complete = false;
@@ -225,6 +253,29 @@ class RDoubleArrayVectorData implements TruffleObject, VectorDataWithOwner {
         getStore(it)[index] = value;
     }
 
+    /**
+     * Drops all metadata derived from the contents, called whenever the data are written.
+     */
+    void contentsWritten() {
+        sortedAscending = false;
+        sortedDescending = false;
+        if (owner != null) {
+            owner.invalidateContentIndex();
+        }
+    }
+
+    private boolean verifySorted(boolean descending) {
+        for (int i = 0; i < data.length; i++) {
+            if (Double.isNaN(data[i])) {
+                return false;
+            }
+            if (i > 0 && (descending ? data[i - 1] < data[i] : data[i - 1] > data[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static double[] getStore(Iterator it) {
         return (double[]) it.getStore();
     }
@@ -22,6 +22,8 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
 import com.oracle.truffle.api.dsl.Cached.Shared;
@@ -100,6 +102,12 @@ class RDoubleForeignObjData implements TruffleObject {
                     @CachedLibrary("this.foreign") InteropLibrary interop,
                     @Shared("resultProfile") @Cached("createClassProfile()") ValueProfile resultProfile,
                     @Shared("unprecisseProfile") @Cached("createBinaryProfile()") ConditionProfile unprecisseDoubleProfile) {
+        Object hostArray = RRuntime.asHostPrimitiveArray(foreign);
+        if (hostArray instanceof double[]) {
+            // copy Java arrays in bulk rather than element by element
+            double[] array = (double[]) hostArray;
+            return Arrays.copyOf(array, array.length);
+        }
         int len = getLength(interop);
         return getDataAsArray(len, len, valueInterop, interop, resultProfile, unprecisseDoubleProfile);
     }
@@ -0,0 +1,536 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.LoopConditionProfile;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary.Iterator;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary.RandomAccessIterator;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary.SeqIterator;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
+
+/**
+ * Deferred result of a chain of element-wise double arithmetic operations, e.g., {@code a * b + c}.
+ *
+ * The operations are recorded as a small postfix program over the arrays of the operands and
+ * scalar constants, see {@link #fuse(byte, RDoubleVector, int, RDoubleVector, int)}. No element is
+ * computed until the data is read for the first time, at which point the whole program is
+ * evaluated in a single pass over blocks of {@link #BLOCK_SIZE} elements, so that the intermediate
+ * results stay in the cache instead of being allocated as vectors. The computed values replace the
+ * program. Like sequences, the vector is turned into an {@link RDoubleArrayVectorData} when it is
+ * materialized, e.g., when it is updated in place.
+ *
+ * The operands whose arrays are referenced by the program have their reference count incremented,
+ * therefore they are never updated in place while the program may still read them. The reference
+ * counts are decremented again once the values are computed and the program is released, the
+ * operands of a vector that is never read stay shared, which only costs a copy when they are
+ * updated. The
+ * program and the computed values are kept in a single volatile field, which is only read into a
+ * local before it is used, so that the data can be read by several threads.
+ */
+@ExportLibrary(VectorDataLibrary.class)
+public final class RDoubleFusedVectorData implements TruffleObject {
+
+    public static final byte ADD = 1;
+    public static final byte SUBTRACT = 2;
+    public static final byte MULTIPLY = 3;
+    public static final byte DIVIDE = 4;
+
+    private static final byte LOAD = 5;
+    private static final byte CONSTANT = 6;
+
+    /**
+     * Vectors shorter than this are computed eagerly, the bookkeeping would not pay off.
+     */
+    public static final int MIN_LENGTH = 128;
+
+    /**
+     * Maximal number of instructions of a program, longer chains are split into several fused
+     * vectors.
+     */
+    private static final int MAX_CODE_LENGTH = 32;
+
+    private static final int BLOCK_SIZE = 512;
+
+    private final int length;
+
+    /**
+     * Either the {@link Program} or, once it has been evaluated, the computed {@code double[]}.
+     */
+    private volatile Object state;
+
+    private static final AtomicReferenceFieldUpdater<RDoubleFusedVectorData, Object> STATE_UPDATER = AtomicReferenceFieldUpdater.newUpdater(RDoubleFusedVectorData.class, Object.class,
+                    "state");
+
+    private RDoubleFusedVectorData(int length, Program program) {
+        this.length = length;
+        this.state = program;
+    }
+
+    private RDoubleFusedVectorData(double[] values) {
+        this.length = values.length;
+        this.state = values;
+    }
+
+    /**
+     * Returns the deferred result of {@code left op right}, where {@code op} is one of
+     * {@link #ADD}, {@link #SUBTRACT}, {@link #MULTIPLY} and {@link #DIVIDE}, or {@code null} if
+     * the operation cannot be deferred. That is the case if an operand has attributes, if the
+     * operands are not either of the same length or one of them a scalar, if the result is shorter
+     * than {@link #MIN_LENGTH} or if a non-scalar operand is neither backed by a Java array nor
+     * itself deferred.
+     */
+    @TruffleBoundary
+    public static RDoubleVector fuse(byte op, RDoubleVector left, int leftLength, RDoubleVector right, int rightLength) {
+        assert op >= ADD && op <= DIVIDE;
+        int resultLength = Math.max(leftLength, rightLength);
+        if (resultLength < MIN_LENGTH || left.getAttributes() != null || right.getAttributes() != null) {
+            return null;
+        }
+        ProgramBuilder builder = new ProgramBuilder();
+        if (!builder.addOperand(left, leftLength, resultLength) || !builder.addOperand(right, rightLength, resultLength)) {
+            return null;
+        }
+        builder.add(op, 0);
+        if (builder.codeLength > MAX_CODE_LENGTH) {
+            return null;
+        }
+        Program program = builder.build();
+        program.retainOperands();
+        return new RDoubleVector(new RDoubleFusedVectorData(resultLength, program), resultLength);
+    }
+
+    /**
+     * An immutable postfix program, {@code retained} are the vectors owning the arrays it reads.
+     */
+    private static final class Program {
+        private final byte[] code;
+        private final int[] operands;
+        private final double[][] arrays;
+        private final double[] constants;
+        private final int stackDepth;
+        private final RDoubleVector[] retained;
+
+        Program(byte[] code, int[] operands, double[][] arrays, double[] constants, int stackDepth, RDoubleVector[] retained) {
+            this.code = code;
+            this.operands = operands;
+            this.arrays = arrays;
+            this.constants = constants;
+            this.stackDepth = stackDepth;
+            this.retained = retained;
+        }
+
+        /**
+         * The referenced arrays must not be updated in place anymore.
+         */
+        void retainOperands() {
+            for (RDoubleVector vector : retained) {
+                if (!vector.isSharedPermanent()) {
+                    vector.incRefCount();
+                }
+            }
+        }
+
+        /**
+         * Undoes {@link #retainOperands()}, must be called exactly once when the program is not
+         * going to be evaluated anymore.
+         */
+        void releaseOperands() {
+            for (RDoubleVector vector : retained) {
+                if (!vector.isSharedPermanent() && !vector.isTemporary()) {
+                    vector.decRefCount();
+                }
+            }
+        }
+    }
+
+    private static final class ProgramBuilder {
+        private byte[] code = new byte[8];
+        private int[] operands = new int[8];
+        private int codeLength;
+        private double[][] arrays = new double[2][];
+        private int arrayCount;
+        private double[] constants = new double[2];
+        private int constantCount;
+        private int depth;
+        private int maxDepth;
+        private RDoubleVector[] retained = new RDoubleVector[2];
+        private int retainedCount;
+
+        private void add(byte op, int operand) {
+            if (codeLength == code.length) {
+                code = Arrays.copyOf(code, codeLength * 2);
+                operands = Arrays.copyOf(operands, codeLength * 2);
+            }
+            code[codeLength] = op;
+            operands[codeLength++] = operand;
+            depth += op == LOAD || op == CONSTANT ? 1 : -1;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private void addArray(double[] array) {
+            if (arrayCount == arrays.length) {
+                arrays = Arrays.copyOf(arrays, arrayCount * 2);
+            }
+            arrays[arrayCount] = array;
+            add(LOAD, arrayCount++);
+        }
+
+        private void addConstant(double value) {
+            if (constantCount == constants.length) {
+                constants = Arrays.copyOf(constants, constantCount * 2);
+            }
+            constants[constantCount] = value;
+            add(CONSTANT, constantCount++);
+        }
+
+        private boolean addOperand(RDoubleVector vector, int vectorLength, int resultLength) {
+            Object data = vector.getData();
+            if (vectorLength != resultLength) {
+                if (vectorLength != 1) {
+                    return false;
+                }
+                addConstant(VectorDataLibrary.getFactory().getUncached().getDoubleAt(data, 0));
+                return true;
+            }
+            if (data instanceof RDoubleFusedVectorData) {
+                // read the state into a local, it may be computed concurrently
+                Object fusedState = ((RDoubleFusedVectorData) data).state;
+                if (fusedState instanceof double[]) {
+                    addRetainedArray(vector, (double[]) fusedState);
+                } else {
+                    inline((Program) fusedState);
+                }
+                return true;
+            } else if (data instanceof RDoubleArrayVectorData) {
+                addRetainedArray(vector, ((RDoubleArrayVectorData) data).getReadonlyDoubleData());
+                return true;
+            }
+            return false;
+        }
+
+        private void addRetainedArray(RDoubleVector vector, double[] array) {
+            addRetained(vector);
+            addArray(array);
+        }
+
+        private void addRetained(RDoubleVector vector) {
+            if (retainedCount == retained.length) {
+                retained = Arrays.copyOf(retained, retainedCount * 2);
+            }
+            retained[retainedCount++] = vector;
+        }
+
+        /**
+         * Copies the instructions of {@code fused}, the new program retains the same operands since
+         * {@code fused} releases them once it is evaluated.
+         */
+        private void inline(Program fused) {
+            byte[] fusedCode = fused.code;
+            int[] fusedOperands = fused.operands;
+            double[][] fusedArrays = fused.arrays;
+            double[] fusedConstants = fused.constants;
+            for (RDoubleVector vector : fused.retained) {
+                addRetained(vector);
+            }
+            for (int i = 0; i < fusedCode.length; i++) {
+                byte op = fusedCode[i];
+                if (op == LOAD) {
+                    addArray(fusedArrays[fusedOperands[i]]);
+                } else if (op == CONSTANT) {
+                    addConstant(fusedConstants[fusedOperands[i]]);
+                } else {
+                    add(op, 0);
+                }
+            }
+        }
+
+        private Program build() {
+            assert depth == 1;
+            return new Program(Arrays.copyOf(code, codeLength), Arrays.copyOf(operands, codeLength), Arrays.copyOf(arrays, arrayCount), Arrays.copyOf(constants, constantCount), maxDepth,
+                            Arrays.copyOf(retained, retainedCount));
+        }
+    }
+
+    private double[] getValues() {
+        Object current = state;
+        if (current instanceof double[]) {
+            return (double[]) current;
+        }
+        double[] result = computeValues((Program) current);
+        return publish((Program) current, result) ? result : (double[]) state;
+    }
+
+    /**
+     * Replaces the program with the computed values and releases its operands, unless another
+     * thread has already done so.
+     */
+    private boolean publish(Program program, double[] computed) {
+        if (STATE_UPDATER.compareAndSet(this, program, computed)) {
+            program.releaseOperands();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the program block by block. An entry of the stack is a block of an operand array or
+     * of a buffer holding constants or intermediate results, the last operation writes directly
+     * into the result.
+     */
+    @TruffleBoundary
+    private double[] computeValues(Program program) {
+        byte[] programCode = program.code;
+        int[] programOperands = program.operands;
+        double[][] programArrays = program.arrays;
+        double[] programConstants = program.constants;
+        int stackDepth = program.stackDepth;
+        double[] result = new double[length];
+        double[][] stackArrays = new double[stackDepth][];
+        int[] stackOffsets = new int[stackDepth];
+        boolean[] stackBuffers = new boolean[stackDepth];
+        double[][] freeBuffers = new double[stackDepth][];
+        int freeCount = 0;
+        for (int from = 0; from < length; from += BLOCK_SIZE) {
+            int count = Math.min(BLOCK_SIZE, length - from);
+            int top = -1;
+            for (int pc = 0; pc < programCode.length; pc++) {
+                byte op = programCode[pc];
+                if (op == LOAD) {
+                    top++;
+                    stackArrays[top] = programArrays[programOperands[pc]];
+                    stackOffsets[top] = from;
+                    stackBuffers[top] = false;
+                } else {
+                    double[] target;
+                    int targetOffset;
+                    if (pc == programCode.length - 1) {
+                        target = result;
+                        targetOffset = from;
+                    } else {
+                        target = freeCount > 0 ? freeBuffers[--freeCount] : new double[BLOCK_SIZE];
+                        targetOffset = 0;
+                    }
+                    if (op == CONSTANT) {
+                        Arrays.fill(target, 0, count, programConstants[programOperands[pc]]);
+                        top++;
+                    } else {
+                        apply(op, stackArrays[top - 1], stackOffsets[top - 1], stackArrays[top], stackOffsets[top], target, targetOffset, count);
+                        for (int i = top - 1; i <= top; i++) {
+                            if (stackBuffers[i]) {
+                                freeBuffers[freeCount++] = stackArrays[i];
+                            }
+                        }
+                        top--;
+                    }
+                    stackArrays[top] = target;
+                    stackOffsets[top] = targetOffset;
+                    stackBuffers[top] = target != result;
+                }
+            }
+            assert top == 0 && stackArrays[0] == result;
+        }
+        return result;
+    }
+
+    /**
+     * Computes {@code left op right} into {@code target}. The arithmetic is done in a simple loop
+     * first and the operands are only inspected if the result is {@code NaN}, which is always the
+     * case if one of them is {@code NA} or {@code NaN}.
+     */
+    private static void apply(byte op, double[] left, int leftOffset, double[] right, int rightOffset, double[] target, int targetOffset, int count) {
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    target[targetOffset + i] = left[leftOffset + i] + right[rightOffset + i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    target[targetOffset + i] = left[leftOffset + i] - right[rightOffset + i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    target[targetOffset + i] = left[leftOffset + i] * right[rightOffset + i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < count; i++) {
+                    target[targetOffset + i] = left[leftOffset + i] / right[rightOffset + i];
+                }
+                break;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+        for (int i = 0; i < count; i++) {
+            double value = target[targetOffset + i];
+            if (Double.isNaN(value)) {
+                target[targetOffset + i] = fixNA(left[leftOffset + i], right[rightOffset + i], value);
+            }
+        }
+    }
+
+    /**
+     * The same treatment of {@code NA} as in the eager arithmetic: {@code NA op x} is {@code NA},
+     * {@code NaN op NA} is {@code NaN} and {@code x op NA} is {@code NA} otherwise.
+     */
+    private static double fixNA(double left, double right, double result) {
+        if (RRuntime.isNA(left)) {
+            return RRuntime.DOUBLE_NA;
+        } else if (RRuntime.isNA(right)) {
+            return Double.isNaN(left) ? left : RRuntime.DOUBLE_NA;
+        }
+        return result;
+    }
+
+    @ExportMessage
+    public NACheck getNACheck(@Shared("naCheck") @Cached() NACheck na) {
+        na.enable(true);
+        return na;
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    public RType getType() {
+        return RType.Double;
+    }
+
+    @ExportMessage
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * If the values have not been read yet, they are computed directly into the array of the
+     * result.
+     */
+    @ExportMessage
+    public RDoubleArrayVectorData materialize() {
+        Object current = state;
+        if (current instanceof Program) {
+            double[] computed = computeValues((Program) current);
+            if (publish((Program) current, computed)) {
+                return new RDoubleArrayVectorData(computed, false);
+            }
+        }
+        return new RDoubleArrayVectorData(getValues().clone(), false);
+    }
+
+    /**
+     * The copy gets the computed values, so that the operands are not retained twice.
+     */
+    @ExportMessage
+    public RDoubleFusedVectorData copy(@SuppressWarnings("unused") boolean deep) {
+        return new RDoubleFusedVectorData(getValues().clone());
+    }
+
+    @ExportMessage
+    public double[] getReadonlyDoubleData() {
+        return getValues();
+    }
+
+    @ExportMessage
+    public double[] getDoubleDataCopy() {
+        return getValues().clone();
+    }
+
+    // Read access to the elements:
+
+    @ExportMessage
+    public SeqIterator iterator(@Shared("naCheck") @Cached() NACheck naCheck,
+                    @Shared("SeqItLoopProfile") @Cached("createCountingProfile()") LoopConditionProfile loopProfile) {
+        SeqIterator it = new SeqIterator(getValues(), length);
+        naCheck.enable(true);
+        it.initLoopConditionProfile(loopProfile);
+        return it;
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    public boolean nextImpl(SeqIterator it, boolean loopCondition,
+                    @Shared("SeqItLoopProfile") @Cached("createCountingProfile()") LoopConditionProfile loopProfile) {
+        return it.next(loopCondition, loopProfile);
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    public void nextWithWrap(SeqIterator it,
+                    @Cached("createBinaryProfile()") ConditionProfile wrapProfile) {
+        it.nextWithWrap(wrapProfile);
+    }
+
+    @ExportMessage
+    public RandomAccessIterator randomAccessIterator(@Shared("naCheck") @Cached() NACheck naCheck) {
+        naCheck.enable(true);
+        return new RandomAccessIterator(getValues());
+    }
+
+    @ExportMessage
+    public Object getDataAtAsObject(int index) {
+        return getDoubleAt(index);
+    }
+
+    @ExportMessage
+    public double getDoubleAt(int index) {
+        return getValues()[index];
+    }
+
+    @ExportMessage
+    public double getNextDouble(SeqIterator it, @Shared("naCheck") @Cached() NACheck naCheck) {
+        double value = getStore(it)[it.getIndex()];
+        naCheck.check(value);
+        return value;
+    }
+
+    @ExportMessage
+    public double getDouble(RandomAccessIterator it, int index, @Shared("naCheck") @Cached() NACheck naCheck) {
+        double value = getStore(it)[index];
+        naCheck.check(value);
+        return value;
+    }
+
+    private static double[] getStore(Iterator it) {
+        return (double[]) it.getStore();
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        Object current = state;
+        return current instanceof double[] ? "fused[computed, " + length + "]" : "fused[" + ((Program) current).code.length + " instructions, " + length + "]";
+    }
+}
@@ -94,7 +94,9 @@ public class RDoubleSeqVectorData implements RSeq, TruffleObject {
 
     @ExportMessage
     public RDoubleArrayVectorData materialize() {
-        return new RDoubleArrayVectorData(getDoubleDataCopy(), isComplete());
+        RDoubleArrayVectorData result = new RDoubleArrayVectorData(getDoubleDataCopy(), isComplete());
+        result.setSorted(stride < 0);
+        return result;
     }
 
     @ExportMessage
@@ -80,6 +80,19 @@ public final class RDoubleVector extends RAbstractNumericVector implements RMate
         super.setData(data);
     }
 
+    /**
+     * Creates a vector backed by the ALTREP instance described by given class and data; see
+     * {@link RAltrepData}. The length is queried from the native {@code Length} method.
+     */
+    public static RDoubleVector createAltrep(RExternalPtr altrepClass, Object data1, Object data2) {
+        RDoubleAltrepData data = new RDoubleAltrepData(altrepClass, data1, data2);
+        RDoubleVector result = new RDoubleVector();
+        // the owner must be set before the native method can be invoked
+        result.setData(data, 0);
+        result.setData(data, data.queryLength());
+        return result;
+    }
+
     public static RDoubleVector createForeignWrapper(Object foreign) {
         RDoubleForeignObjData data = new RDoubleForeignObjData(foreign);
         return new RDoubleVector(data, VectorDataLibrary.getFactory().getUncached().getLength(data));
@@ -107,6 +120,18 @@ public final class RDoubleVector extends RAbstractNumericVector implements RMate
         return result;
     }
 
+    /**
+     * Creates a vector of zeros whose data live in native memory owned by the vector, so that
+     * native code can access them without copying them first.
+     */
+    static RDoubleVector createNative(int length) {
+        RDoubleVector result = new RDoubleVector();
+        NativeDataAccess.toNative(result);
+        NativeDataAccess.allocateZeroedNativeContents(result, length);
+        result.setData(new RDoubleNativeVectorData(result), length);
+        return result;
+    }
+
     @Override
     @Ignore // AbstractContainerLibrary
     public boolean isMaterialized() {
@@ -331,6 +356,14 @@ public final class RDoubleVector extends RAbstractNumericVector implements RMate
         return newData;
     }
 
+    @Override
+    public void dataExposedForWrite() {
+        super.dataExposedForWrite();
+        if (data instanceof RDoubleArrayVectorData) {
+            ((RDoubleArrayVectorData) data).contentsWritten();
+        }
+    }
+
     @Override
     public double[] getDataTemp() {
         return (double[]) super.getDataTemp();
@@ -348,6 +381,14 @@ public final class RDoubleVector extends RAbstractNumericVector implements RMate
 
     public long allocateNativeContents() {
         try {
+            if (data instanceof RAltrepData) {
+                // the native code owns the data, no need to copy it
+                long address = ((RAltrepData) data).getDataptr();
+                NativeDataAccess.toNative(this);
+                NativeDataAccess.setNativeContents(this, address, getLength());
+                setData(new RDoubleNativeVectorData(this), getLength());
+                return address;
+            }
             data = VectorDataLibrary.getFactory().getUncached().materialize(data);
             long result = NativeDataAccess.allocateNativeContents(this, getArrayForNativeDataAccess(), getLength());
             setData(new RDoubleNativeVectorData(this), getLength());
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Exclusive;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.LoopConditionProfile;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary.RandomAccessIterator;
+import com.oracle.truffle.r.runtime.data.VectorDataLibrary.SeqIterator;
+import com.oracle.truffle.r.runtime.ffi.util.NativeMemory;
+import com.oracle.truffle.r.runtime.ffi.util.NativeMemory.ElementType;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
+
+/**
+ * Read-only data of int ALTREP instances. See {@link RAltrepData}.
+ */
+@ExportLibrary(VectorDataLibrary.class)
+final class RIntAltrepData extends RAltrepData {
+
+    /**
+     * The elements with indices {@code [regionStart, regionStart + regionLength)} as last fetched
+     * by {@link #fetchRegion(int)}.
+     */
+    private int[] region;
+    private int regionStart;
+    private int regionLength;
+
+    RIntAltrepData(RExternalPtr altrepClass, Object data1, Object data2) {
+        super(altrepClass, data1, data2);
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    public NACheck getNACheck() {
+        return NACheck.getEnabled();
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    public RType getType() {
+        return RType.Integer;
+    }
+
+    @ExportMessage
+    public int getLength() {
+        return length;
+    }
+
+    @ExportMessage
+    public RIntArrayVectorData materialize() {
+        return copy(false);
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    public boolean isWriteable() {
+        return false;
+    }
+
+    @ExportMessage
+    public RIntArrayVectorData copy(@SuppressWarnings("unused") boolean deep) {
+        return new RIntArrayVectorData(getIntDataCopy(), RDataFactory.INCOMPLETE_VECTOR);
+    }
+
+    /**
+     * Copies the whole data either directly from the native data pointer, or via the native
+     * {@code Get_region} method, which falls back to {@code Elt} if the class does not define it.
+     * {@code Get_region} may return fewer elements than requested, so it is called until the data
+     * are complete; if it stops making progress, the rest is read region by region.
+     */
+    @ExportMessage
+    @TruffleBoundary
+    public int[] getIntDataCopy() {
+        int[] result = new int[length];
+        if (length == 0) {
+            return result;
+        }
+        long addr = getDataptrOrZero();
+        if (addr != 0) {
+            NativeMemory.copyMemory(addr, result, ElementType.INT, length);
+            return result;
+        }
+        long buffer = NativeMemory.allocate(ElementType.INT, length, this);
+        int copied = 0;
+        try {
+            while (copied < length) {
+                Object count = callNative(ALTINTEGER_GET_REGION, RDataFactory.createIntVectorFromScalar(copied), RDataFactory.createIntVectorFromScalar(length - copied),
+                                wrapAddress(buffer + (long) copied * Integer.BYTES));
+                int n = ((RIntVector) count).getDataAt(0);
+                if (n <= 0) {
+                    break;
+                }
+                copied += Math.min(n, length - copied);
+            }
+            NativeMemory.copyMemory(buffer, result, ElementType.INT, copied);
+        } finally {
+            NativeMemory.free(buffer, this);
+        }
+        for (int i = copied; i < length; i++) {
+            result[i] = readElement(i);
+        }
+        return result;
+    }
+
+    // Read access to the elements:
+
+    @ExportMessage
+    public SeqIterator iterator(@Shared("naCheck") @Cached() NACheck naCheck,
+                    @Shared("SeqItLoopProfile") @Cached("createCountingProfile()") LoopConditionProfile loopProfile) {
+        SeqIterator it = new SeqIterator(this, length);
+        naCheck.enable(true);
+        it.initLoopConditionProfile(loopProfile);
+        return it;
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    public boolean nextImpl(SeqIterator it, boolean loopCondition,
+                    @Shared("SeqItLoopProfile") @Cached("createCountingProfile()") LoopConditionProfile loopProfile) {
+        return it.next(loopCondition, loopProfile);
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    public void nextWithWrap(SeqIterator it,
+                    @Exclusive @Cached("createBinaryProfile()") ConditionProfile wrapProfile) {
+        it.nextWithWrap(wrapProfile);
+    }
+
+    @ExportMessage
+    public RandomAccessIterator randomAccessIterator(@Shared("naCheck") @Cached() NACheck naCheck) {
+        naCheck.enable(true);
+        return new RandomAccessIterator(this);
+    }
+
+    @ExportMessage
+    public int getIntAt(int index,
+                    @Shared("naCheck") @Cached() NACheck naCheck) {
+        int value = readElement(index);
+        naCheck.check(value);
+        return value;
+    }
+
+    @ExportMessage
+    public int getNextInt(SeqIterator it,
+                    @Shared("naCheck") @Cached() NACheck naCheck) {
+        int value = readElement(it.getIndex());
+        naCheck.check(value);
+        return value;
+    }
+
+    @ExportMessage
+    public int getInt(@SuppressWarnings("unused") RandomAccessIterator it, int index,
+                    @Shared("naCheck") @Cached() NACheck naCheck) {
+        int value = readElement(index);
+        naCheck.check(value);
+        return value;
+    }
+
+    // Utility methods:
+
+    /**
+     * Reads the element directly from native memory if there is a data pointer, otherwise from the
+     * region fetched by {@code Get_region} that contains it. The native data cannot change without
+     * a data pointer, so the fetched region never gets stale.
+     */
+    @TruffleBoundary
+    private int readElement(int index) {
+        long addr = getDataptrOrZero();
+        if (addr != 0) {
+            return NativeMemory.getInt(addr, index);
+        }
+        if (index < regionStart || index >= regionStart + regionLength) {
+            fetchRegion(index);
+        }
+        return region[index - regionStart];
+    }
+
+    /**
+     * Fetches the aligned region of {@link #REGION_SIZE} elements that contains {@code index} with
+     * one {@code Get_region} call. If the call returns too few elements, only the element itself
+     * is read via {@code Elt}.
+     */
+    private void fetchRegion(int index) {
+        int start = index - index % REGION_SIZE;
+        int count = Math.min(REGION_SIZE, length - start);
+        if (region == null) {
+            region = new int[Math.min(REGION_SIZE, length)];
+        }
+        long buffer = NativeMemory.allocate(ElementType.INT, count, this);
+        int fetched;
+        try {
+            Object result = callNative(ALTINTEGER_GET_REGION, RDataFactory.createIntVectorFromScalar(start), RDataFactory.createIntVectorFromScalar(count), wrapAddress(buffer));
+            fetched = Math.min(((RIntVector) result).getDataAt(0), count);
+            if (fetched > index - start) {
+                NativeMemory.copyMemory(buffer, region, ElementType.INT, fetched);
+            }
+        } finally {
+            NativeMemory.free(buffer, this);
+        }
+        if (fetched > index - start) {
+            regionStart = start;
+            regionLength = fetched;
+        } else {
+            Object result = callNative(ALTINTEGER_ELT, RDataFactory.createIntVectorFromScalar(index));
+            region[0] = ((RIntVector) result).getDataAt(0);
+            regionStart = index;
+            regionLength = 1;
+        }
+    }
+}
@@ -50,6 +50,13 @@ class RIntArrayVectorData implements TruffleObject, VectorDataWithOwner {
     private RIntVector owner;
     private boolean complete;
 
+    /**
+     * Whether the data are known to be sorted in ascending, resp. descending, order and to contain
+     * no {@code NA}. Both flags are reset by any write.
+     */
+    private boolean sortedAscending;
+    private boolean sortedDescending;
+
     RIntArrayVectorData(int[] data, boolean complete) {
         this.data = data;
         this.complete = complete && ENABLE_COMPLETE;
@@ -92,7 +99,10 @@ class RIntArrayVectorData implements TruffleObject, VectorDataWithOwner {
     @ExportMessage
     public RIntArrayVectorData copy(@SuppressWarnings("unused") boolean deep,
                     @Shared("nullOwner") @Cached BranchProfile ownerIsNull) {
-        return new RIntArrayVectorData(Arrays.copyOf(data, data.length), isComplete(ownerIsNull));
+        RIntArrayVectorData result = new RIntArrayVectorData(Arrays.copyOf(data, data.length), isComplete(ownerIsNull));
+        result.sortedAscending = sortedAscending;
+        result.sortedDescending = sortedDescending;
+        return result;
     }
 
     @ExportMessage
@@ -104,6 +114,21 @@ class RIntArrayVectorData implements TruffleObject, VectorDataWithOwner {
         return complete && ENABLE_COMPLETE;
     }
 
+    @ExportMessage
+    public boolean isSorted(boolean descending, @SuppressWarnings("unused") boolean naLast) {
+        return descending ? sortedDescending : sortedAscending;
+    }
+
+    @ExportMessage
+    public void setSorted(boolean descending) {
+        assert verifySorted(descending);
+        if (descending) {
+            sortedDescending = true;
+        } else {
+            sortedAscending = true;
+        }
+    }
+
     @ExportMessage
     public int[] getReadonlyIntData() {
         return data;
@@ -175,11 +200,13 @@ class RIntArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        contentsWritten();
         return new SeqWriteIterator(data, data.length);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        contentsWritten();
         return new RandomAccessWriteIterator(data);
     }
 
@@ -208,6 +235,7 @@ class RIntArrayVectorData implements TruffleObject, VectorDataWithOwner {
     @ExportMessage
     public void setIntAt(int index, int value, @Shared("setCompleteProfile") @Cached BranchProfile setCompleteProfile) {
         data[index] = value;
+        contentsWritten();
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
             if (owner != null) {
@@ -231,6 +259,29 @@ class RIntArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     // Utility methods:
 
+    /**
+     * Drops all metadata derived from the contents, called whenever the data are written.
+     */
+    void contentsWritten() {
+        sortedAscending = false;
+        sortedDescending = false;
+        if (owner != null) {
+            owner.invalidateContentIndex();
+        }
+    }
+
+    private boolean verifySorted(boolean descending) {
+        for (int i = 0; i < data.length; i++) {
+            if (RRuntime.isNA(data[i])) {
+                return false;
+            }
+            if (i > 0 && (descending ? data[i - 1] < data[i] : data[i - 1] > data[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static int[] getStore(Iterator it) {
         return (int[]) it.getStore();
     }
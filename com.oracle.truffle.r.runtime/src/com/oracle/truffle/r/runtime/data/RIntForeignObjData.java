@@ -22,6 +22,8 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
 import com.oracle.truffle.api.dsl.Cached.Shared;
@@ -102,6 +104,12 @@ class RIntForeignObjData implements TruffleObject {
                     @Shared("resultProfile") @Cached("createClassProfile()") ValueProfile resultProfile,
                     @Shared("isTOProfile") @Cached("createBinaryProfile()") ConditionProfile isTruffleObjectProfile,
                     @Shared("isIntProfile") @Cached("createBinaryProfile()") ConditionProfile isIntProfile) {
+        Object hostArray = RRuntime.asHostPrimitiveArray(foreign);
+        if (hostArray instanceof int[]) {
+            // copy Java arrays in bulk rather than element by element
+            int[] array = (int[]) hostArray;
+            return Arrays.copyOf(array, array.length);
+        }
         int len = getLength(interop);
         return getDataAsArray(len, len, valueInterop, interop, resultProfile, isTruffleObjectProfile, isIntProfile);
     }
@@ -119,7 +119,9 @@ public class RIntSeqVectorData implements RSeq, TruffleObject {
 
     @ExportMessage
     public RIntArrayVectorData materialize(@Shared("naCheck") @Cached() NACheck naCheck) {
-        return new RIntArrayVectorData(getIntDataCopy(naCheck), isComplete());
+        RIntArrayVectorData result = new RIntArrayVectorData(getIntDataCopy(naCheck), isComplete());
+        result.setSorted(stride < 0);
+        return result;
     }
 
     @ExportMessage
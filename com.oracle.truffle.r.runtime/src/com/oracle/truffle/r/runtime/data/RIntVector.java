@@ -86,6 +86,18 @@ public final class RIntVector extends RAbstractNumericVector {
         return result;
     }
 
+    /**
+     * Creates a vector of zeros whose data live in native memory owned by the vector, so that
+     * native code can access them without copying them first.
+     */
+    static RIntVector createNative(int length) {
+        RIntVector result = new RIntVector();
+        NativeDataAccess.toNative(result);
+        NativeDataAccess.allocateZeroedNativeContents(result, length);
+        result.setData(new RIntNativeVectorData(result), length);
+        return result;
+    }
+
     public static RIntVector createSequence(int start, int stride, int length) {
         return new RIntVector(new RIntSeqVectorData(start, stride, length), length);
     }
@@ -100,6 +112,19 @@ public final class RIntVector extends RAbstractNumericVector {
         return result;
     }
 
+    /**
+     * Creates a vector backed by the ALTREP instance described by given class and data; see
+     * {@link RAltrepData}. The length is queried from the native {@code Length} method.
+     */
+    public static RIntVector createAltrep(RExternalPtr altrepClass, Object data1, Object data2) {
+        RIntAltrepData data = new RIntAltrepData(altrepClass, data1, data2);
+        RIntVector result = new RIntVector();
+        // the owner must be set before the native method can be invoked
+        result.setData(data, 0);
+        result.setData(data, data.queryLength());
+        return result;
+    }
+
     public static RIntVector createForeignWrapper(Object foreign) {
         RIntForeignObjData data = new RIntForeignObjData(foreign);
         return new RIntVector(data, VectorDataLibrary.getFactory().getUncached().getLength(data));
@@ -348,6 +373,14 @@ public final class RIntVector extends RAbstractNumericVector {
         return newData;
     }
 
+    @Override
+    public void dataExposedForWrite() {
+        super.dataExposedForWrite();
+        if (data instanceof RIntArrayVectorData) {
+            ((RIntArrayVectorData) data).contentsWritten();
+        }
+    }
+
     @Override
     public int[] getDataTemp() {
         return (int[]) super.getDataTemp();
@@ -365,6 +398,14 @@ public final class RIntVector extends RAbstractNumericVector {
 
     public long allocateNativeContents() {
         try {
+            if (data instanceof RAltrepData) {
+                // the native code owns the data, no need to copy it
+                long address = ((RAltrepData) data).getDataptr();
+                NativeDataAccess.toNative(this);
+                NativeDataAccess.setNativeContents(this, address, getLength());
+                setData(new RIntNativeVectorData(this), getLength());
+                return address;
+            }
             setData(VectorDataLibrary.getFactory().getUncached().materialize(data), getLength());
             long result = NativeDataAccess.allocateNativeContents(this, getArrayForNativeDataAccess(), getLength());
             setData(new RIntNativeVectorData(this), getLength());
@@ -179,11 +179,13 @@ class RLogicalArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        contentsWritten();
         return new SeqWriteIterator(data, data.length);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        contentsWritten();
         return new RandomAccessWriteIterator(data);
     }
 
@@ -210,6 +212,7 @@ class RLogicalArrayVectorData implements TruffleObject, VectorDataWithOwner {
     @ExportMessage
     public void setLogicalAt(int index, byte value, @Shared("setCompleteProfile") @Cached BranchProfile setCompleteProfile) {
         data[index] = value;
+        contentsWritten();
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
             complete = false;
@@ -227,6 +230,15 @@ class RLogicalArrayVectorData implements TruffleObject, VectorDataWithOwner {
         getStore(it)[index] = value;
     }
 
+    /**
+     * Drops all metadata derived from the contents, called whenever the data are written.
+     */
+    private void contentsWritten() {
+        if (owner != null) {
+            owner.invalidateContentIndex();
+        }
+    }
+
     private static byte[] getStore(Iterator it) {
         return (byte[]) it.getStore();
     }
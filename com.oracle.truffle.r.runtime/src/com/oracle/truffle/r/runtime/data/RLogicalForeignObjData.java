@@ -91,6 +91,16 @@ class RLogicalForeignObjData implements TruffleObject {
     @ExportMessage
     public byte[] getLogicalDataCopy(@CachedLibrary(limit = "5") InteropLibrary valueInterop,
                     @CachedLibrary("this.foreign") InteropLibrary interop) {
+        Object hostArray = RRuntime.asHostPrimitiveArray(foreign);
+        if (hostArray instanceof boolean[]) {
+            // read Java arrays directly rather than element by element through interop
+            boolean[] array = (boolean[]) hostArray;
+            byte[] data = new byte[array.length];
+            for (int i = 0; i < array.length; i++) {
+                data[i] = RRuntime.asLogical(array[i]);
+            }
+            return data;
+        }
         int len = getLength(interop);
         return getDataAsArray(len, len, valueInterop, interop);
     }
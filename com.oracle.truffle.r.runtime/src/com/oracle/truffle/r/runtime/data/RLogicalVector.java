@@ -96,6 +96,18 @@ public final class RLogicalVector extends RAbstractAtomicVector implements RMate
         return result;
     }
 
+    /**
+     * Creates a vector of zeros whose data live in native memory owned by the vector, so that
+     * native code can access them without copying them first.
+     */
+    static RLogicalVector createNative(int length) {
+        RLogicalVector result = new RLogicalVector();
+        NativeDataAccess.toNative(result);
+        NativeDataAccess.allocateZeroedNativeContents(result, length);
+        result.setData(new RLogicalNativeVectorData(result), length);
+        return result;
+    }
+
     @ExportMessage
     boolean isNull(
                     @CachedLibrary(limit = DATA_LIB_LIMIT) VectorDataLibrary dataLib,
@@ -86,6 +86,18 @@ public final class RRawVector extends RAbstractNumericVector implements RMateria
         return result;
     }
 
+    /**
+     * Creates a vector of zeros whose data live in native memory owned by the vector, so that
+     * native code can access them without copying them first.
+     */
+    static RRawVector createNative(int length) {
+        RRawVector result = new RRawVector();
+        NativeDataAccess.toNative(result);
+        NativeDataAccess.allocateZeroedNativeContents(result, length);
+        result.setData(new RRawNativeVectorData(result), length);
+        return result;
+    }
+
     @Override
     public RType getRType() {
         return RType.Raw;
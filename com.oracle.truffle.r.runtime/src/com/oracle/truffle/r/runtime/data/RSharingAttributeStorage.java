@@ -22,6 +22,10 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
 /**
  * An adaptor class for the several R types that are both attributable and shareable.
  * 
@@ -72,6 +76,18 @@ public abstract class RSharingAttributeStorage extends RAttributable {
 
     private int refCount;
 
+    /**
+     * Lookup structure derived from the contents of this object, e.g., the hash index built by
+     * {@code match}. It is only retained while the object is shared (shared objects are never
+     * modified in place) and it is dropped as soon as the object stops being shared or its data
+     * are written. The index must be fully built and never modified after it is attached, the
+     * field is volatile so that other threads see it only after it was built.
+     */
+    private volatile Object contentIndex;
+
+    private static final AtomicReferenceFieldUpdater<RSharingAttributeStorage, Object> CONTENT_INDEX_UPDATER = AtomicReferenceFieldUpdater.newUpdater(RSharingAttributeStorage.class,
+                    Object.class, "contentIndex");
+
     public final boolean isTemporary() {
         return refCount == 0;
     }
@@ -95,6 +111,9 @@ public abstract class RSharingAttributeStorage extends RAttributable {
         assert refCount != SHARED_PERMANENT_VAL : "cannot decRefCount of shared permanent value";
         assert refCount > 0 : "cannot decRefCount when refCount <= 0";
         refCount--;
+        if (refCount <= 1) {
+            contentIndex = null;
+        }
     }
 
     public final boolean isSharedPermanent() {
@@ -118,9 +137,39 @@ public abstract class RSharingAttributeStorage extends RAttributable {
      */
     public RSharingAttributeStorage makeTemporary() {
         refCount = 0;
+        contentIndex = null;
         return this;
     }
 
+    /**
+     * Returns the index previously attached by {@link #attachContentIndex(Object, Object)}, or
+     * {@code null} if there is none or the object may have been modified since.
+     */
+    public final Object getContentIndex() {
+        return contentIndex;
+    }
+
+    /**
+     * Attaches an index derived from the contents of this object, provided that the currently
+     * attached index is still {@code expected}, i.e., that the object was not written since
+     * {@code expected} was read. The index is only kept for shared objects, for other objects this
+     * is a no-op.
+     */
+    @TruffleBoundary
+    public final boolean attachContentIndex(Object expected, Object index) {
+        return refCount > 1 && CONTENT_INDEX_UPDATER.compareAndSet(this, expected, index);
+    }
+
+    /**
+     * Drops the index attached by {@link #attachContentIndex(Object, Object)}, must be called
+     * whenever the contents of this object are written or replaced.
+     */
+    public final void invalidateContentIndex() {
+        if (contentIndex != null) {
+            contentIndex = null;
+        }
+    }
+
     public RBaseObject getNonShared() {
         if (isShared()) {
             RSharingAttributeStorage res = copy();
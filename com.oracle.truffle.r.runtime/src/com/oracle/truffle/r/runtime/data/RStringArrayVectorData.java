@@ -183,11 +183,13 @@ class RStringArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        contentsWritten();
         return new SeqWriteIterator(data, data.length);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        contentsWritten();
         return new RandomAccessWriteIterator(data);
     }
 
@@ -216,6 +218,7 @@ class RStringArrayVectorData implements TruffleObject, VectorDataWithOwner {
     @ExportMessage
     public void setStringAt(int index, String value, @Shared("setCompleteProfile") @Cached BranchProfile setCompleteProfile) {
         data[index] = value;
+        contentsWritten();
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
             if (owner != null) {
@@ -239,6 +242,15 @@ class RStringArrayVectorData implements TruffleObject, VectorDataWithOwner {
 
     // Utility methods:
 
+    /**
+     * Drops all metadata derived from the contents, called whenever the data are written.
+     */
+    private void contentsWritten() {
+        if (owner != null) {
+            owner.invalidateContentIndex();
+        }
+    }
+
     private static String[] getStore(Iterator it) {
         return (String[]) it.getStore();
     }
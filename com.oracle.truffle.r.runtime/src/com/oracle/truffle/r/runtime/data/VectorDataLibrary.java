@@ -117,12 +117,25 @@ public abstract class VectorDataLibrary extends Library {
      * If this method returns {@code true}, then it is guaranteed that this data is sorted in a way
      * specified by the arguments {@code descending} and {@code naLast}. If this method returns
      * {@code false}, then this data may or may not be sorted.
+     *
+     * Data that report to be sorted never contain {@code NA} or {@code NaN} values, so the position
+     * of {@code NA}s given by {@code naLast} does not matter for the implementations.
      */
     @SuppressWarnings("unused")
     public boolean isSorted(Object receiver, boolean descending, boolean naLast) {
         return false;
     }
 
+    /**
+     * Records that this data is sorted in the order given by {@code descending} and that it does not
+     * contain any {@code NA} or {@code NaN} value. Should be invoked by the producers of sorted data,
+     * e.g., {@code sort}, and implementations that keep track of this information must forget it
+     * once the data is written to. Implementations that do not keep track of it ignore this message.
+     */
+    @SuppressWarnings("unused")
+    public void setSorted(Object receiver, boolean descending) {
+    }
+
     /**
      * Returns {@code true} is this data object can be written to.
      */
@@ -1717,6 +1730,12 @@ public abstract class VectorDataLibrary extends Library {
             return delegate.isSorted(receiver, descending, naLast);
         }
 
+        @Override
+        public void setSorted(Object receiver, boolean descending) {
+            verifyIfSlowAssertsEnabled(receiver);
+            delegate.setSorted(receiver, descending);
+        }
+
         @Override
         public boolean isWriteable(Object data) {
             verifyIfSlowAssertsEnabled(data);
@@ -94,6 +94,7 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
 
     public final void setData(Object data) {
         this.data = data;
+        invalidateContentIndex();
         if (data instanceof VectorDataWithOwner) {
             // "setOwner" may be a message in the VectorDataLibrary to make this fast
             ((VectorDataWithOwner) data).setOwner(this);
@@ -215,7 +216,11 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
      * @return vector data
      */
     public final Object getDataNonShared() {
-        return !isShared() ? getReadonlyData() : getDataCopy();
+        if (!isShared()) {
+            dataExposedForWrite();
+            return getReadonlyData();
+        }
+        return getDataCopy();
     }
 
     /**
@@ -227,7 +232,19 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
      * @return vector data
      */
     public Object getDataTemp() {
-        return isTemporary() ? getReadonlyData() : getDataCopy();
+        if (isTemporary()) {
+            dataExposedForWrite();
+            return getReadonlyData();
+        }
+        return getDataCopy();
+    }
+
+    /**
+     * Must be called before the internal data array is handed out to be written directly, e.g. by
+     * {@link #getDataTemp()}, drops all metadata derived from the contents of the vector.
+     */
+    public void dataExposedForWrite() {
+        invalidateContentIndex();
     }
 
     @InternalDeprecation("Some data strategies do not maintain completeness flag, " +
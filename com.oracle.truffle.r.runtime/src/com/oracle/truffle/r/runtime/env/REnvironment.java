@@ -71,6 +71,7 @@ import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.env.frame.NSBaseMaterializedFrame;
 import com.oracle.truffle.r.runtime.env.frame.REnvEmptyFrameAccess;
 import com.oracle.truffle.r.runtime.env.frame.REnvFrameAccess;
+import com.oracle.truffle.r.runtime.env.frame.REnvHashFrameAccess;
 import com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess;
 import com.oracle.truffle.r.runtime.interop.Foreign2R;
 import com.oracle.truffle.r.runtime.interop.R2Foreign;
@@ -894,7 +895,7 @@ public abstract class REnvironment extends RAttributable {
     }
 
     public REnvironment getParent() {
-        MaterializedFrame enclosingFrame = RArguments.getEnclosingFrame(getFrame());
+        MaterializedFrame enclosingFrame = RArguments.getEnclosingFrame(getArgumentsFrame());
         return enclosingFrame == null ? emptyEnv : frameToEnvironment(enclosingFrame);
     }
 
@@ -904,7 +905,7 @@ public abstract class REnvironment extends RAttributable {
      */
     public void setParent(REnvironment env) {
         if (getParent() != env) {
-            RArguments.setEnclosingFrame(getFrame(), env.getFrame(), true);
+            RArguments.setEnclosingFrame(getArgumentsFrame(), env.getFrame(), true);
         }
     }
 
@@ -964,6 +965,28 @@ public abstract class REnvironment extends RAttributable {
         return frameAccessProfile.profile(frameAccess).getFrame();
     }
 
+    /**
+     * Return the {@link MaterializedFrame} only to access its arguments, e.g., to set the enclosing
+     * frame, see {@link REnvFrameAccess#getArgumentsFrame()}.
+     */
+    public MaterializedFrame getArgumentsFrame() {
+        return frameAccess.getArgumentsFrame();
+    }
+
+    /**
+     * @see REnvFrameAccess#getBindingsFrame()
+     */
+    public MaterializedFrame getBindingsFrame(ValueProfile frameAccessProfile) {
+        return frameAccessProfile.profile(frameAccess).getBindingsFrame();
+    }
+
+    /**
+     * @see REnvFrameAccess#isFrameBacked()
+     */
+    public boolean isFrameBacked() {
+        return frameAccess.isFrameBacked();
+    }
+
     public void lock(boolean bindings) {
         locked = true;
         if (bindings) {
@@ -1220,9 +1243,10 @@ public abstract class REnvironment extends RAttributable {
     /**
      * An environment explicitly created with, typically, {@code new.env}, but also used internally.
      * Such environments are always {@link #UNNAMED} but can later be given a name as an attribute.
-     * This is the class used by the {@code new.env} function. We record but do not interpret the
-     * {@code hash} input, as we always use a hashmap, for possible use by the serialization code
-     * (GnuR generates different output format for hash environments).
+     * This is the class used by the {@code new.env} function. The {@code hash} input selects the
+     * {@link REnvHashFrameAccess}, which moves the bindings of environments used as large
+     * dictionaries into a hash map; it is also recorded for the serialization code (GnuR generates
+     * different output format for hash environments).
      *
      */
     public static final class NewEnv extends REnvironment {
@@ -1236,6 +1260,16 @@ public abstract class REnvironment extends RAttributable {
             }
         }
 
+        public NewEnv(MaterializedFrame frame, String name, boolean hashed, int initialSize) {
+            super(UNNAMED, hashed ? new REnvHashFrameAccess(frame, initialSize) : new REnvTruffleFrameAccess(frame));
+            RArguments.setEnvironment(frame, this);
+            if (name != null) {
+                setAttr(NAME_ATTR_KEY, name);
+            }
+            this.hashed = hashed;
+            this.initialSize = initialSize;
+        }
+
         public boolean isHashed() {
             return hashed;
         }
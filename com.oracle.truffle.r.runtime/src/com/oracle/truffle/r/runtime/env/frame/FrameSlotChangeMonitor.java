@@ -23,13 +23,18 @@
 package com.oracle.truffle.r.runtime.env.frame;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -53,6 +58,7 @@ import com.oracle.truffle.r.runtime.StableValue;
 import com.oracle.truffle.r.runtime.context.ChildContextInfo;
 import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
 import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
@@ -61,6 +67,17 @@ import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
  * This class maintains information about the current hierarchy of environments in the system. This
  * information is described as assumptions that will be invalidated if the layout changes, and thus
  * make sure that code is properly deoptimized.
+ *
+ * Changes of the hierarchy itself, i.e., of the enclosing frames of existing environments, are
+ * rare and take the write lock of {@link FrameDescriptors#hierarchyLock}. Lookups and new bindings,
+ * which happen concurrently in parallel contexts, only take its read lock and synchronize on the
+ * meta data of the individual frame descriptors, never on two of them at once. A lookup registers
+ * its result before it records the lookup in the frame descriptors it went through, while a new
+ * binding is added before the lookups recorded for it are invalidated. Checking the lookup once
+ * more after registering it therefore either sees the new binding or its result gets invalidated.
+ *
+ * The number of invalidated lookups and stable values is counted per frame descriptor, see
+ * {@link #getInvalidationCounts(boolean)}.
  */
 public final class FrameSlotChangeMonitor {
 
@@ -178,6 +195,11 @@ public final class FrameSlotChangeMonitor {
     private static final class FrameDescriptorMetaData {
         private final String name; // name for debug purposes
         private final WeakReference<MaterializedFrame> singletonFrame;
+        /**
+         * The sub descriptors, lookups and lookup results are guarded by the monitor of this
+         * object, the sub descriptors also by the write lock of
+         * {@link FrameDescriptors#hierarchyLock}.
+         */
         private final Set<FrameDescriptor> subDescriptors = Collections.newSetFromMap(new WeakHashMap<>(2));
 
         /**
@@ -191,10 +213,24 @@ public final class FrameSlotChangeMonitor {
          */
         private final WeakHashMap<Object, WeakReference<LookupResult>> lookupResults = new WeakHashMap<>(2);
 
-        private WeakReference<FrameDescriptor> enclosingFrameDescriptor = new WeakReference<>(null);
-        private Assumption enclosingFrameDescriptorAssumption = Truffle.getRuntime().createAssumption("enclosing frame descriptor");
+        private volatile WeakReference<FrameDescriptor> enclosingFrameDescriptor = new WeakReference<>(null);
+        private volatile Assumption enclosingFrameDescriptorAssumption = Truffle.getRuntime().createAssumption("enclosing frame descriptor");
         private final Assumption containsNoActiveBindingAssumption = Truffle.getRuntime().createAssumption("contains no active binding");
 
+        /**
+         * The number of lookup results that started in this frame descriptor and were invalidated.
+         */
+        private final AtomicLong invalidatedLookups = new AtomicLong();
+        /**
+         * The number of lookup results that were invalidated because of a new binding in this
+         * frame descriptor or a change of its enclosing frame.
+         */
+        private final AtomicLong causedLookupInvalidations = new AtomicLong();
+        /**
+         * The number of stable values of bindings in this frame descriptor that were invalidated.
+         */
+        private final AtomicLong stableValueInvalidations = new AtomicLong();
+
         private FrameDescriptorMetaData(String name, MaterializedFrame singletonFrame) {
             this.name = name;
             this.singletonFrame = singletonFrame == null ? null : new WeakReference<>(singletonFrame);
@@ -224,46 +260,132 @@ public final class FrameSlotChangeMonitor {
         }
     }
 
-    private static final WeakHashMap<FrameDescriptor, FrameDescriptorMetaData> frameDescriptors = new WeakHashMap<>();
+    /**
+     * The meta data of the frame descriptors of one language instance and the lock of their
+     * hierarchy. The contexts of an engine share the language instance and the frame descriptors of
+     * its code, see {@link TruffleRLanguage#getFrameDescriptors()}.
+     */
+    public static final class FrameDescriptors {
+        private final Map<FrameDescriptor, FrameDescriptorMetaData> metaData = Collections.synchronizedMap(new WeakHashMap<>());
+
+        private final ReentrantReadWriteLock hierarchyLock = new ReentrantReadWriteLock();
+        private final Lock readLock = hierarchyLock.readLock();
+        private final Lock writeLock = hierarchyLock.writeLock();
+    }
+
+    private static FrameDescriptors getFrameDescriptors() {
+        return TruffleRLanguage.getCurrentLanguage().getFrameDescriptors();
+    }
+
+    private static Map<FrameDescriptor, FrameDescriptorMetaData> frameDescriptors() {
+        return getFrameDescriptors().metaData;
+    }
+
+    private static Lock readLock() {
+        return getFrameDescriptors().readLock;
+    }
+
+    private static Lock writeLock() {
+        return getFrameDescriptors().writeLock;
+    }
 
     /**
      * This function tries to fulfill the lookup for the given name in the given frame based only on
      * the static knowledge about the frame descriptor hierarchy and stable bindings. Returns
      * {@code null} in case this was not possible.
      */
-    public static synchronized LookupResult lookup(Frame frame, Object identifier) {
+    public static LookupResult lookup(Frame frame, Object identifier) {
         CompilerAsserts.neverPartOfCompilation();
-        FrameDescriptorMetaData metaData = getMetaData(frame);
-        WeakReference<LookupResult> weakResult = metaData.lookupResults.get(identifier);
-        LookupResult result = weakResult == null ? null : weakResult.get();
-        if (result != null && result.isValid()) {
-            return result;
+        readLock().lock();
+        try {
+            FrameDescriptorMetaData metaData = getMetaData(frame);
+            LookupResult result;
+            synchronized (metaData) {
+                WeakReference<LookupResult> weakResult = metaData.lookupResults.get(identifier);
+                result = weakResult == null ? null : weakResult.get();
+            }
+            if (result != null && result.isValid()) {
+                return result;
+            }
+            SlotLocation location = locate(frame, identifier);
+            if (location == null) {
+                return null;
+            }
+            LookupResult lookupResult = location.createResult(identifier);
+            if (lookupResult == null) {
+                return null;
+            }
+            synchronized (metaData) {
+                metaData.lookupResults.put(identifier, new WeakReference<>(lookupResult));
+            }
+            addPreviousLookups(frame, location.frame, identifier);
+            // a binding added concurrently may have missed the lookups recorded above
+            if (!location.equals(locate(frame, identifier))) {
+                lookupResult.invalidate();
+                return null;
+            }
+            return lookupResult;
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    /**
+     * The frame and slot that a lookup resolves to, the slot is {@code null} if the lookup reached
+     * the empty environment.
+     */
+    private static final class SlotLocation {
+        private final Frame frame;
+        private final FrameSlot slot;
+        private final StableValue<Object> stableValue;
+
+        SlotLocation(Frame frame, FrameSlot slot, StableValue<Object> stableValue) {
+            this.frame = frame;
+            this.slot = slot;
+            this.stableValue = stableValue;
+        }
+
+        LookupResult createResult(Object identifier) {
+            if (slot == null) {
+                return new MissingLookupResult(identifier.toString());
+            } else if (stableValue != null) {
+                return new StableValueLookupResult(identifier.toString(), stableValue);
+            }
+            FrameDescriptorMetaData metaData = getMetaData(frame);
+            if (metaData.singletonFrame == null) {
+                // no stable value and no singleton frame
+                return null;
+            }
+            assert metaData.singletonFrame.get() != null;
+            return new FrameAndSlotLookupResult(identifier.toString(), metaData.singletonFrame.get(), slot);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof SlotLocation && ((SlotLocation) obj).frame == frame && ((SlotLocation) obj).slot == slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(frame);
         }
+    }
+
+    /**
+     * Finds the frame that defines {@code identifier}, or {@code null} if the hierarchy of frame
+     * descriptors does not match the enclosing frames.
+     */
+    private static SlotLocation locate(Frame frame, Object identifier) {
         Frame current = frame;
         while (true) {
             FrameSlot slot = current.getFrameDescriptor().findFrameSlot(identifier);
             if (slot != null) {
-                LookupResult lookupResult;
                 StableValue<Object> stableValue = getFrameSlotInfo(slot).stableValue;
                 // if stableValue.getValue() == null, then this is a frame slot that doesn't have a
                 // value, which can happen, e.g., when package creates a value in its namespace, but
                 // then removes it in .onLoad
                 if (stableValue == null || stableValue.getValue() != null) {
-                    if (stableValue != null) {
-                        lookupResult = new StableValueLookupResult(identifier.toString(), stableValue);
-                    } else {
-                        FrameDescriptorMetaData currentMetaData = getMetaData(current);
-                        if (currentMetaData.singletonFrame == null) {
-                            // no stable value and no singleton frame
-                            return null;
-                        } else {
-                            assert currentMetaData.singletonFrame.get() != null;
-                            lookupResult = new FrameAndSlotLookupResult(identifier.toString(), currentMetaData.singletonFrame.get(), slot);
-                        }
-                    }
-                    addPreviousLookups(frame, current, identifier);
-                    metaData.lookupResults.put(identifier, new WeakReference<>(lookupResult));
-                    return lookupResult;
+                    return new SlotLocation(current, slot, stableValue);
                 }
             }
             Frame next = RArguments.getEnclosingFrame(current);
@@ -284,23 +406,20 @@ public final class FrameSlotChangeMonitor {
                 return null;
             }
             if (next == null) {
-                // leave "current" if we hit the empty env
-                break;
+                // not frame slot found: missing value, leave "current" if we hit the empty env
+                return new SlotLocation(current, null, null);
             }
             current = next;
         }
-        // not frame slot found: missing value
-        addPreviousLookups(frame, current, identifier);
-        LookupResult lookupResult = new MissingLookupResult(identifier.toString());
-        metaData.lookupResults.put(identifier, new WeakReference<>(lookupResult));
-        return lookupResult;
     }
 
     private static void addPreviousLookups(Frame from, Frame to, Object identifier) {
         Frame mark = from;
         while (true) {
             FrameDescriptorMetaData lookupMetaData = getMetaData(mark);
-            lookupMetaData.previousLookups.add(identifier);
+            synchronized (lookupMetaData) {
+                lookupMetaData.previousLookups.add(identifier);
+            }
             if (mark == to) {
                 break;
             }
@@ -315,22 +434,37 @@ public final class FrameSlotChangeMonitor {
         return metaData.getEnclosingFrameDescriptor() == nextDesc;
     }
 
-    private static synchronized void invalidateNames(FrameDescriptorMetaData metaData, Collection<Object> identifiers) {
-        if (metaData.previousLookups.removeAll(identifiers)) {
+    /**
+     * Invalidates the lookups of {@code identifiers} in {@code metaData} and its sub descriptors
+     * and returns the number of invalidated lookup results.
+     */
+    private static long invalidateNames(FrameDescriptorMetaData metaData, Collection<Object> identifiers) {
+        long count = 0;
+        FrameDescriptor[] subDescriptors;
+        synchronized (metaData) {
+            if (!metaData.previousLookups.removeAll(identifiers)) {
+                return 0;
+            }
             for (Object identifier : identifiers) {
                 WeakReference<LookupResult> result = metaData.lookupResults.remove(identifier);
                 if (result != null) {
                     LookupResult lookup = result.get();
-                    if (lookup != null) {
+                    if (lookup != null && lookup.isValid()) {
                         lookup.invalidate();
+                        count++;
                     }
                 }
             }
-            for (FrameDescriptor descriptor : metaData.subDescriptors) {
-                FrameDescriptorMetaData sub = getMetaData(descriptor);
-                invalidateNames(sub, identifiers);
-            }
+            subDescriptors = metaData.subDescriptors.toArray(new FrameDescriptor[0]);
+        }
+        if (count > 0) {
+            metaData.invalidatedLookups.addAndGet(count);
         }
+        for (FrameDescriptor descriptor : subDescriptors) {
+            FrameDescriptorMetaData sub = getMetaData(descriptor);
+            count += invalidateNames(sub, identifiers);
+        }
+        return count;
     }
 
     /**
@@ -340,9 +474,9 @@ public final class FrameSlotChangeMonitor {
         return frame == null ? null : frame instanceof NSBaseMaterializedFrame ? ((NSBaseMaterializedFrame) frame).getMarkerFrameDescriptor() : frame.getFrameDescriptor();
     }
 
-    private static synchronized FrameDescriptorMetaData getMetaData(FrameDescriptor descriptor) {
+    private static FrameDescriptorMetaData getMetaData(FrameDescriptor descriptor) {
         CompilerAsserts.neverPartOfCompilation();
-        FrameDescriptorMetaData result = frameDescriptors.get(descriptor);
+        FrameDescriptorMetaData result = frameDescriptors().get(descriptor);
         assert result != null : "null metadata for " + descriptor;
         return result;
     }
@@ -358,43 +492,57 @@ public final class FrameSlotChangeMonitor {
         return target;
     }
 
-    public static synchronized boolean isEnclosingFrameDescriptor(FrameDescriptor descriptor, Frame newEnclosingFrame) {
+    public static boolean isEnclosingFrameDescriptor(FrameDescriptor descriptor, Frame newEnclosingFrame) {
         CompilerAsserts.neverPartOfCompilation();
         FrameDescriptorMetaData target = getDescriptorMetaData(descriptor);
         FrameDescriptor newEnclosingDescriptor = handleBaseNamespaceEnv(newEnclosingFrame);
         return target.getEnclosingFrameDescriptor() == newEnclosingDescriptor;
     }
 
-    public static synchronized void initializeEnclosingFrame(FrameDescriptor descriptor, Frame newEnclosingFrame) {
+    /**
+     * Only sets the enclosing frame descriptor of a descriptor that has none, which does not
+     * invalidate any lookups, so this is not considered a change of the hierarchy.
+     */
+    public static void initializeEnclosingFrame(FrameDescriptor descriptor, Frame newEnclosingFrame) {
         CompilerAsserts.neverPartOfCompilation();
         FrameDescriptorMetaData target = getDescriptorMetaData(descriptor);
 
         FrameDescriptor newEnclosingDescriptor = handleBaseNamespaceEnv(newEnclosingFrame);
 
-        // this function can be called multiple times with the same enclosing descriptor
-        if (target.getEnclosingFrameDescriptor() != newEnclosingDescriptor) {
-            assert target.getEnclosingFrameDescriptor() == null : "existing enclosing descriptor while initializing " + target.name;
-            assert target.lookupResults.isEmpty() : "existing lookup results while initializing " + target.name;
+        readLock().lock();
+        try {
+            synchronized (target) {
+                // this function can be called multiple times with the same enclosing descriptor
+                if (target.getEnclosingFrameDescriptor() == newEnclosingDescriptor) {
+                    return;
+                }
+                assert target.getEnclosingFrameDescriptor() == null : "existing enclosing descriptor while initializing " + target.name;
+                assert target.lookupResults.isEmpty() : "existing lookup results while initializing " + target.name;
 
-            target.updateEnclosingFrameDescriptor(newEnclosingDescriptor);
+                target.updateEnclosingFrameDescriptor(newEnclosingDescriptor);
+            }
             if (newEnclosingDescriptor != null) {
                 FrameDescriptorMetaData newEnclosing = getMetaData(newEnclosingDescriptor);
-                newEnclosing.subDescriptors.add(descriptor);
+                synchronized (newEnclosing) {
+                    newEnclosing.subDescriptors.add(descriptor);
+                }
             }
+        } finally {
+            readLock().unlock();
         }
     }
 
-    public static synchronized void initializeEnclosingFrame(Frame frame, Frame newEnclosingFrame) {
+    public static void initializeEnclosingFrame(Frame frame, Frame newEnclosingFrame) {
         initializeEnclosingFrame(handleBaseNamespaceEnv(frame), newEnclosingFrame);
     }
 
-    private static synchronized void setEnclosingFrame(FrameDescriptor descriptor, MaterializedFrame newEnclosingFrame, MaterializedFrame oldEnclosingFrame) {
+    private static void setEnclosingFrame(FrameDescriptor descriptor, MaterializedFrame newEnclosingFrame, MaterializedFrame oldEnclosingFrame) {
         CompilerAsserts.neverPartOfCompilation();
         FrameDescriptorMetaData target = getMetaData(descriptor);
         assert target != null : "frame descriptor wasn't registered properly for " + descriptor;
 
         // invalidate existing lookups
-        invalidateAllNames(target);
+        target.causedLookupInvalidations.addAndGet(invalidateAllNames(target));
 
         FrameDescriptor oldEnclosingDescriptor = target.getEnclosingFrameDescriptor();
         FrameDescriptor newEnclosingDescriptor = handleBaseNamespaceEnv(newEnclosingFrame);
@@ -415,52 +563,82 @@ public final class FrameSlotChangeMonitor {
         }
     }
 
-    public static synchronized void setEnclosingFrame(Frame frame, MaterializedFrame newEnclosingFrame, MaterializedFrame oldEnclosingFrame) {
-        setEnclosingFrame(handleBaseNamespaceEnv(frame), newEnclosingFrame, oldEnclosingFrame);
+    public static void setEnclosingFrame(Frame frame, MaterializedFrame newEnclosingFrame, MaterializedFrame oldEnclosingFrame) {
+        writeLock().lock();
+        try {
+            setEnclosingFrame(handleBaseNamespaceEnv(frame), newEnclosingFrame, oldEnclosingFrame);
+        } finally {
+            writeLock().unlock();
+        }
     }
 
-    private static void invalidateAllNames(FrameDescriptorMetaData target) {
+    /**
+     * Invalidates all the lookups in {@code target} and its sub descriptors, only called with the
+     * write lock held, and returns the number of invalidated lookup results.
+     */
+    private static long invalidateAllNames(FrameDescriptorMetaData target) {
+        long count = 0;
         for (Map.Entry<Object, WeakReference<LookupResult>> entry : target.lookupResults.entrySet()) {
             LookupResult lookup = entry.getValue().get();
-            if (lookup != null) {
+            if (lookup != null && lookup.isValid()) {
                 lookup.invalidate();
+                count++;
             }
         }
         target.lookupResults.clear();
+        if (count > 0) {
+            target.invalidatedLookups.addAndGet(count);
+        }
         if (!target.previousLookups.isEmpty()) {
             target.previousLookups.clear();
             for (FrameDescriptor sub : target.subDescriptors) {
-                invalidateAllNames(getMetaData(sub));
+                count += invalidateAllNames(getMetaData(sub));
             }
         }
+        return count;
     }
 
-    public static synchronized void detach(Frame frame) {
+    public static void detach(Frame frame) {
         CompilerAsserts.neverPartOfCompilation();
-        FrameDescriptorMetaData position = getMetaData(frame);
-        FrameDescriptor oldEnclosingDescriptor = position.getEnclosingFrameDescriptor();
-        FrameDescriptorMetaData oldEnclosing = getMetaData(oldEnclosingDescriptor);
-        FrameDescriptor newEnclosingDescriptor = oldEnclosing.getEnclosingFrameDescriptor();
-        FrameDescriptorMetaData newEnclosing = getMetaData(newEnclosingDescriptor);
+        writeLock().lock();
+        try {
+            FrameDescriptorMetaData position = getMetaData(frame);
+            FrameDescriptor oldEnclosingDescriptor = position.getEnclosingFrameDescriptor();
+            FrameDescriptorMetaData oldEnclosing = getMetaData(oldEnclosingDescriptor);
+            FrameDescriptor newEnclosingDescriptor = oldEnclosing.getEnclosingFrameDescriptor();
+            FrameDescriptorMetaData newEnclosing = getMetaData(newEnclosingDescriptor);
 
-        invalidateNames(oldEnclosing, oldEnclosingDescriptor.getIdentifiers());
+            oldEnclosing.causedLookupInvalidations.addAndGet(invalidateNames(oldEnclosing, oldEnclosingDescriptor.getIdentifiers()));
 
-        position.updateEnclosingFrameDescriptor(newEnclosingDescriptor);
-        oldEnclosing.updateEnclosingFrameDescriptor(null);
-        oldEnclosing.subDescriptors.remove(frame.getFrameDescriptor());
-        newEnclosing.subDescriptors.remove(oldEnclosingDescriptor);
-        newEnclosing.subDescriptors.add(frame.getFrameDescriptor());
+            position.updateEnclosingFrameDescriptor(newEnclosingDescriptor);
+            oldEnclosing.updateEnclosingFrameDescriptor(null);
+            oldEnclosing.subDescriptors.remove(frame.getFrameDescriptor());
+            newEnclosing.subDescriptors.remove(oldEnclosingDescriptor);
+            newEnclosing.subDescriptors.add(frame.getFrameDescriptor());
+        } finally {
+            writeLock().unlock();
+        }
     }
 
-    public static synchronized void attach(Frame frame, Frame newEnclosingFrame) {
+    public static void attach(Frame frame, Frame newEnclosingFrame) {
         CompilerAsserts.neverPartOfCompilation();
+        writeLock().lock();
+        try {
+            attachLocked(frame, newEnclosingFrame);
+        } finally {
+            writeLock().unlock();
+        }
+    }
+
+    private static void attachLocked(Frame frame, Frame newEnclosingFrame) {
         FrameDescriptorMetaData position = getMetaData(frame);
         FrameDescriptorMetaData newEnclosing = getMetaData(newEnclosingFrame);
         FrameDescriptor oldEnclosingDescriptor = position.getEnclosingFrameDescriptor();
         FrameDescriptorMetaData oldEnclosing = getMetaData(oldEnclosingDescriptor);
 
-        invalidateAllNames(newEnclosing);
-        invalidateNames(position, newEnclosingFrame.getFrameDescriptor().getIdentifiers());
+        long count = invalidateAllNames(newEnclosing);
+        count += invalidateNames(position, newEnclosingFrame.getFrameDescriptor().getIdentifiers());
+        newEnclosing.causedLookupInvalidations.addAndGet(count);
 
         newEnclosing.previousLookups.clear();
         newEnclosing.previousLookups.addAll(oldEnclosing.previousLookups);
@@ -530,8 +708,10 @@ public final class FrameSlotChangeMonitor {
         @CompilationFinal private volatile StableValue<Object> stableValue;
         private int invalidationCount;
         private final boolean possibleMultiSlot;
+        private final FrameDescriptorMetaData metaData;
 
-        FrameSlotInfoImpl(boolean isSingletonFrame, boolean isGlobalEnv, Object identifier, boolean isNewEnv) {
+        FrameSlotInfoImpl(FrameDescriptorMetaData metaData, boolean isSingletonFrame, boolean isGlobalEnv, Object identifier, boolean isNewEnv) {
+            this.metaData = metaData;
             nonLocalModifiedAssumption = Truffle.getRuntime().createAssumption(identifier + ":NonLocalModified");
             noMultiSlot = Truffle.getRuntime().createAssumption(identifier + ":NoMultiSlot");
             this.possibleMultiSlot = isSingletonFrame && !isNewEnv;
@@ -593,6 +773,7 @@ public final class FrameSlotChangeMonitor {
         private void invalidateStableValue(StableValue<Object> sv, Object value, FrameSlot slot) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             sv.getAssumption().invalidate();
+            metaData.stableValueInvalidations.incrementAndGet();
             if (invalidationCount > 0) {
                 invalidationCount--;
                 out("setting singleton value %s = %s", slot.getIdentifier(), value == null ? "null" : value.getClass());
@@ -776,17 +957,29 @@ public final class FrameSlotChangeMonitor {
         return findOrAddFrameSlot(fd, (Object) identifier, initialKind);
     }
 
-    private static synchronized FrameSlot findOrAddFrameSlot(FrameDescriptor fd, Object identifier, FrameSlotKind initialKind) {
+    private static FrameSlot findOrAddFrameSlot(FrameDescriptor fd, Object identifier, FrameSlotKind initialKind) {
         CompilerAsserts.neverPartOfCompilation();
         assert identifier instanceof String || identifier instanceof RFrameSlot;
         FrameSlot frameSlot = fd.findFrameSlot(identifier);
         if (frameSlot != null) {
             return frameSlot;
-        } else {
-            FrameDescriptorMetaData metaData = getMetaData(fd);
-            invalidateNames(metaData, Arrays.asList(identifier));
-            return fd.addFrameSlot(identifier, new FrameSlotInfoImpl(metaData.singletonFrame != null, "global".equals(metaData.name), identifier, metaData.name.startsWith("<new-env-")),
-                            initialKind);
+        }
+        FrameDescriptorMetaData metaData = getMetaData(fd);
+        readLock().lock();
+        try {
+            synchronized (metaData) {
+                frameSlot = fd.findFrameSlot(identifier);
+                if (frameSlot != null) {
+                    return frameSlot;
+                }
+                frameSlot = fd.addFrameSlot(identifier,
+                                new FrameSlotInfoImpl(metaData, metaData.singletonFrame != null, "global".equals(metaData.name), identifier, metaData.name.startsWith("<new-env-")), initialKind);
+            }
+            // the slot is added first, so that concurrent lookups either find it or get invalidated
+            metaData.causedLookupInvalidations.addAndGet(invalidateNames(metaData, Arrays.asList(identifier)));
+            return frameSlot;
+        } finally {
+            readLock().unlock();
         }
     }
 
@@ -817,7 +1010,7 @@ public final class FrameSlotChangeMonitor {
 
     public static void setBooleanAndInvalidate(Frame frame, FrameSlot frameSlot, boolean newValue, boolean isNonLocal, BranchProfile invalidateProfile) {
         FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
-        if (FastROptions.sharedContextsOptionValue && isMultislot(info) && !RContext.isSingle()) {
+        if (isMultiContext() && isMultislot(info)) {
             info.setMultiSlot(frame, frameSlot, newValue);
         } else {
             frame.setBoolean(frameSlot, newValue);
@@ -829,7 +1022,7 @@ public final class FrameSlotChangeMonitor {
     }
 
     public static void setBoolean(Frame frame, FrameSlot frameSlot, boolean newValue) {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
             if (isMultislot(info)) {
                 info.setMultiSlot(frame, frameSlot, newValue);
@@ -841,7 +1034,7 @@ public final class FrameSlotChangeMonitor {
 
     public static void setByteAndInvalidate(Frame frame, FrameSlot frameSlot, byte newValue, boolean isNonLocal, BranchProfile invalidateProfile) {
         FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
-        if (FastROptions.sharedContextsOptionValue && isMultislot(info) && !RContext.isSingle()) {
+        if (isMultiContext() && isMultislot(info)) {
             info.setMultiSlot(frame, frameSlot, newValue);
         } else {
             frame.setByte(frameSlot, newValue);
@@ -853,7 +1046,7 @@ public final class FrameSlotChangeMonitor {
     }
 
     public static void setByte(Frame frame, FrameSlot frameSlot, byte newValue) {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
             if (isMultislot(info)) {
                 info.setMultiSlot(frame, frameSlot, newValue);
@@ -865,7 +1058,7 @@ public final class FrameSlotChangeMonitor {
 
     public static void setIntAndInvalidate(Frame frame, FrameSlot frameSlot, int newValue, boolean isNonLocal, BranchProfile invalidateProfile) {
         FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
-        if (FastROptions.sharedContextsOptionValue && isMultislot(info) && !RContext.isSingle()) {
+        if (isMultiContext() && isMultislot(info)) {
             info.setMultiSlot(frame, frameSlot, newValue);
         } else {
             frame.setInt(frameSlot, newValue);
@@ -877,7 +1070,7 @@ public final class FrameSlotChangeMonitor {
     }
 
     public static void setInt(Frame frame, FrameSlot frameSlot, int newValue) {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
             if (isMultislot(info)) {
                 info.setMultiSlot(frame, frameSlot, newValue);
@@ -889,7 +1082,7 @@ public final class FrameSlotChangeMonitor {
 
     public static void setDoubleAndInvalidate(Frame frame, FrameSlot frameSlot, double newValue, boolean isNonLocal, BranchProfile invalidateProfile) {
         FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
-        if (FastROptions.sharedContextsOptionValue && isMultislot(info) && !RContext.isSingle()) {
+        if (isMultiContext() && isMultislot(info)) {
             info.setMultiSlot(frame, frameSlot, newValue);
         } else {
             frame.setDouble(frameSlot, newValue);
@@ -901,7 +1094,7 @@ public final class FrameSlotChangeMonitor {
     }
 
     public static void setDouble(Frame frame, FrameSlot frameSlot, double newValue) {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
             if (isMultislot(info)) {
                 info.setMultiSlot(frame, frameSlot, newValue);
@@ -918,7 +1111,7 @@ public final class FrameSlotChangeMonitor {
 
     private static void setAndInvalidate(Frame frame, FrameSlot frameSlot, Object newValue, boolean isNonLocal, BranchProfile invalidateProfile) {
         FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
-        if (FastROptions.sharedContextsOptionValue && isMultislot(info) && !RContext.isSingle()) {
+        if (isMultiContext() && isMultislot(info)) {
             info.setMultiSlot(frame, frameSlot, newValue);
         } else {
             frame.setObject(frameSlot, newValue);
@@ -930,7 +1123,7 @@ public final class FrameSlotChangeMonitor {
     }
 
     public static void setObject(Frame frame, FrameSlot frameSlot, Object newValue) {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(frameSlot);
             if (isMultislot(info)) {
                 info.setMultiSlot(frame, frameSlot, newValue);
@@ -949,28 +1142,28 @@ public final class FrameSlotChangeMonitor {
      * Initializes the internal data structures for a newly created frame descriptor that is
      * intended to be used for a non-function frame (and thus will only ever be used for one frame).
      */
-    public static synchronized void initializeNonFunctionFrameDescriptor(String name, MaterializedFrame frame) {
+    public static void initializeNonFunctionFrameDescriptor(String name, MaterializedFrame frame) {
         CompilerAsserts.neverPartOfCompilation();
-        frameDescriptors.put(handleBaseNamespaceEnv(frame), new FrameDescriptorMetaData(name, frame));
+        frameDescriptors().put(handleBaseNamespaceEnv(frame), new FrameDescriptorMetaData(name, frame));
     }
 
-    public static synchronized FrameDescriptor initializeFunctionFrameDescriptor(String name, FrameDescriptor frameDescriptor) {
+    public static FrameDescriptor initializeFunctionFrameDescriptor(String name, FrameDescriptor frameDescriptor) {
         CompilerAsserts.neverPartOfCompilation();
-        frameDescriptors.put(frameDescriptor, new FrameDescriptorMetaData(name, null));
+        frameDescriptors().put(frameDescriptor, new FrameDescriptorMetaData(name, null));
         return frameDescriptor;
     }
 
-    public static synchronized Assumption getEnclosingFrameDescriptorAssumption(FrameDescriptor descriptor) {
+    public static Assumption getEnclosingFrameDescriptorAssumption(FrameDescriptor descriptor) {
         CompilerAsserts.neverPartOfCompilation();
-        return frameDescriptors.get(descriptor).getEnclosingFrameDescriptorAssumption();
+        return frameDescriptors().get(descriptor).getEnclosingFrameDescriptorAssumption();
     }
 
-    public static synchronized Assumption getContainsNoActiveBindingAssumption(FrameDescriptor descriptor) {
+    public static Assumption getContainsNoActiveBindingAssumption(FrameDescriptor descriptor) {
         CompilerAsserts.neverPartOfCompilation();
-        return frameDescriptors.get(descriptor).getContainsNoActiveBindingAssumption();
+        return frameDescriptors().get(descriptor).getContainsNoActiveBindingAssumption();
     }
 
-    public static synchronized StableValue<Object> getStableValueAssumption(FrameDescriptor descriptor, FrameSlot frameSlot, Object value) {
+    public static StableValue<Object> getStableValueAssumption(FrameDescriptor descriptor, FrameSlot frameSlot, Object value) {
         CompilerAsserts.neverPartOfCompilation();
         StableValue<Object> stableValue = getFrameSlotInfo(frameSlot).getStableValue();
         if (stableValue != null) {
@@ -981,7 +1174,7 @@ public final class FrameSlotChangeMonitor {
         return stableValue;
     }
 
-    public static synchronized MaterializedFrame getSingletonFrame(FrameDescriptor descriptor) {
+    public static MaterializedFrame getSingletonFrame(FrameDescriptor descriptor) {
         WeakReference<MaterializedFrame> singleton = getMetaData(descriptor).singletonFrame;
         return singleton == null ? null : singleton.get();
     }
@@ -993,17 +1186,22 @@ public final class FrameSlotChangeMonitor {
     /*
      * This method should be called for frames of all environments on the search path.
      */
-    public static synchronized void handleAllMultiSlots(Frame frame, int[] indices, boolean replicate) {
-        // make a copy avoid potential updates to the array iterated over
-        FrameSlot[] slots = new FrameSlot[frame.getFrameDescriptor().getSlots().size()];
-        slots = frame.getFrameDescriptor().getSlots().toArray(slots);
-        for (int i = 0; i < slots.length; i++) {
-            FrameSlotInfoImpl.handleSearchPathMultiSlot(frame, slots[i], indices, replicate);
+    public static void handleAllMultiSlots(Frame frame, int[] indices, boolean replicate) {
+        writeLock().lock();
+        try {
+            // make a copy avoid potential updates to the array iterated over
+            FrameSlot[] slots = new FrameSlot[frame.getFrameDescriptor().getSlots().size()];
+            slots = frame.getFrameDescriptor().getSlots().toArray(slots);
+            for (int i = 0; i < slots.length; i++) {
+                FrameSlotInfoImpl.handleSearchPathMultiSlot(frame, slots[i], indices, replicate);
+            }
+        } finally {
+            writeLock().unlock();
         }
     }
 
     public static Object getObject(FrameSlot slot, Frame frame) throws FrameSlotTypeException {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(slot);
             if (info.noMultiSlot.isValid()) {
                 return frame.getObject(slot);
@@ -1030,7 +1228,7 @@ public final class FrameSlotChangeMonitor {
     }
 
     public static Object getValue(FrameSlot slot, Frame frame) {
-        if (FastROptions.sharedContextsOptionValue && !RContext.isSingle()) {
+        if (isMultiContext()) {
             FrameSlotInfoImpl info = getFrameSlotInfo(slot);
             if (info.noMultiSlot.isValid()) {
                 return frame.getValue(slot);
@@ -1055,6 +1253,15 @@ public final class FrameSlotChangeMonitor {
         return frame.getFrameDescriptor().findFrameSlot(slot.getIdentifier()) != null;
     }
 
+    /**
+     * Multi slots are only used once a context of the current language instance with
+     * {@link FastROptions#SharedContexts} shares the frames of its parent.
+     */
+    private static boolean isMultiContext() {
+        TruffleRLanguage language = TruffleRLanguage.getCurrentLanguage();
+        return language.isSharedContexts() && !language.isSingleContext();
+    }
+
     private static boolean isMultislot(FrameSlotInfoImpl info) {
         return info.possibleMultiSlot() || !info.noMultiSlot.isValid();
     }
@@ -1063,27 +1270,73 @@ public final class FrameSlotChangeMonitor {
      * Nullifies a set of slots in a {@link MultiSlotData} to avoid memory leaks. When providing
      * {@code null} as indices, all subslots except the first one are nullified.
      */
-    public static synchronized void cleanMultiSlots(Frame frame, int[] indices) {
+    public static void cleanMultiSlots(Frame frame, int[] indices) {
         CompilerAsserts.neverPartOfCompilation();
-        // make a copy avoid potential updates to the array iterated over
-        FrameSlot[] slots = frame.getFrameDescriptor().getSlots().toArray(new FrameSlot[0]);
-
-        for (int i = 0; i < slots.length; i++) {
-            Object value = frame.getValue(slots[i]);
-            if (value instanceof MultiSlotData) {
-                MultiSlotData msd = (MultiSlotData) value;
-                if (indices != null) {
-                    for (int j = 0; j < indices.length; j++) {
-                        assert indices[j] != 0;
-                        msd.set(indices[j], null);
+        writeLock().lock();
+        try {
+            // make a copy avoid potential updates to the array iterated over
+            FrameSlot[] slots = frame.getFrameDescriptor().getSlots().toArray(new FrameSlot[0]);
+
+            for (int i = 0; i < slots.length; i++) {
+                Object value = frame.getValue(slots[i]);
+                if (value instanceof MultiSlotData) {
+                    MultiSlotData msd = (MultiSlotData) value;
+                    if (indices != null) {
+                        for (int j = 0; j < indices.length; j++) {
+                            assert indices[j] != 0;
+                            msd.set(indices[j], null);
+                        }
+                    } else {
+                        // only safe value of primordial context
+                        Object initialValue = msd.get(0);
+                        msd.setAll(null);
+                        msd.set(0, initialValue);
                     }
-                } else {
-                    // only safe value of primordial context
-                    Object initialValue = msd.get(0);
-                    msd.setAll(null);
-                    msd.set(0, initialValue);
                 }
             }
+        } finally {
+            writeLock().unlock();
+        }
+    }
+
+    /**
+     * The invalidation counters of a frame descriptor, see {@link FrameDescriptorMetaData}.
+     */
+    public static final class InvalidationCounts {
+        public final String name;
+        public final long invalidatedLookups;
+        public final long causedLookupInvalidations;
+        public final long stableValueInvalidations;
+
+        private InvalidationCounts(FrameDescriptorMetaData metaData, boolean reset) {
+            this.name = metaData.name;
+            // the counters are updated concurrently, a reset must not lose any increment
+            this.invalidatedLookups = reset ? metaData.invalidatedLookups.getAndSet(0) : metaData.invalidatedLookups.get();
+            this.causedLookupInvalidations = reset ? metaData.causedLookupInvalidations.getAndSet(0) : metaData.causedLookupInvalidations.get();
+            this.stableValueInvalidations = reset ? metaData.stableValueInvalidations.getAndSet(0) : metaData.stableValueInvalidations.get();
+        }
+    }
+
+    /**
+     * Returns the invalidation counters of all the live frame descriptors that had any
+     * invalidations, the descriptors that caused the most lookup invalidations first. If
+     * {@code reset} is set, the reported counts are subtracted from the counters.
+     */
+    @TruffleBoundary
+    public static List<InvalidationCounts> getInvalidationCounts(boolean reset) {
+        FrameDescriptorMetaData[] all;
+        Map<FrameDescriptor, FrameDescriptorMetaData> registered = frameDescriptors();
+        synchronized (registered) {
+            all = registered.values().toArray(new FrameDescriptorMetaData[0]);
+        }
+        List<InvalidationCounts> result = new ArrayList<>();
+        for (FrameDescriptorMetaData metaData : all) {
+            InvalidationCounts counts = new InvalidationCounts(metaData, reset);
+            if (counts.invalidatedLookups != 0 || counts.causedLookupInvalidations != 0 || counts.stableValueInvalidations != 0) {
+                result.add(counts);
+            }
         }
+        result.sort((a, b) -> Long.compare(b.causedLookupInvalidations, a.causedLookupInvalidations));
+        return result;
     }
 }
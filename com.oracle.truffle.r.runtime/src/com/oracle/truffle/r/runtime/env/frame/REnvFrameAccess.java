@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,9 +22,17 @@
  */
 package com.oracle.truffle.r.runtime.env.frame;
 
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.r.runtime.RLocale;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
@@ -79,4 +87,47 @@ public abstract class REnvFrameAccess {
 
     public abstract MaterializedFrame getFrame();
 
+    /**
+     * Return the frame only to access its arguments, e.g., the enclosing frame. Unlike
+     * {@link #getFrame()}, this does not require the bindings to be stored in the frame.
+     */
+    public MaterializedFrame getArgumentsFrame() {
+        return getFrame();
+    }
+
+    /**
+     * Returns the frame to nodes that access the bindings through its slots and check
+     * {@link #isFrameBacked()} before every access. Unlike {@link #getFrame()}, this does not keep
+     * the bindings in the frame for good, so it may only be used while {@link #isFrameBacked()}.
+     */
+    public MaterializedFrame getBindingsFrame() {
+        return getFrame();
+    }
+
+    /**
+     * Returns {@code true} if the bindings are stored in the frame returned by
+     * {@link #getBindingsFrame()} and may be accessed through its slots.
+     */
+    public boolean isFrameBacked() {
+        return true;
+    }
+
+    /**
+     * Helper function for implementations of {@link #ls}, sorts the names according to the
+     * collation locale if requested.
+     */
+    @TruffleBoundary
+    protected static RStringVector createNamesVector(String[] names, boolean sorted) {
+        if (sorted) {
+            Locale locale = RContext.getInstance().stateRLocale.getLocale(RLocale.COLLATE);
+            Collator collator = locale == Locale.ROOT || locale == null ? null : RLocale.getOrderCollator(locale);
+            Arrays.sort(names, new Comparator<String>() {
+                @Override
+                public int compare(String o1, String o2) {
+                    return RLocale.compare(collator, o1, o2);
+                }
+            });
+        }
+        return RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR);
+    }
 }
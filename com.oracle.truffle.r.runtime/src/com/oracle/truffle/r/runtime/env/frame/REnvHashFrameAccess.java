@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.env.frame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
+
+/**
+ * Variant of {@link REnvFrameAccess} for environments created with {@code new.env(hash = TRUE)},
+ * which are often used as dictionaries with many keys. Storing each key in a frame slot makes the
+ * {@link FrameDescriptor} grow with every key and each new key goes through the
+ * {@link FrameSlotChangeMonitor}.
+ *
+ * The bindings are initially stored in the frame, unless {@code new.env} is given a {@code size}
+ * of at least {@link #THRESHOLD}. While they are in the frame, the environment reports itself as
+ * {@link #isFrameBacked() frame backed}, so that the cached frame slot writes of {@code assign}
+ * keep working through {@link #getBindingsFrame()}. Once there are more than {@link #THRESHOLD}
+ * bindings and the frame has not been handed out by {@link #getFrame()}, they are moved into an
+ * open-addressing hash map. The nodes that write through {@link #getBindingsFrame()} check
+ * {@link #isFrameBacked()} before every access, no other node can have cached anything about the
+ * frame at that point. As soon as the frame is requested, e.g., to evaluate code in the
+ * environment or to use it as the enclosing frame of a function, the bindings are moved back into
+ * the frame and stay there.
+ *
+ * Active bindings are only created through the frame, so they never end up in the hash map.
+ */
+public final class REnvHashFrameAccess extends REnvFrameAccess {
+
+    /**
+     * The number of bindings above which they are moved into the hash map, also the minimal
+     * {@code size} of {@code new.env} that starts with the hash map right away.
+     */
+    public static final int THRESHOLD = 512;
+
+    private final REnvTruffleFrameAccess frameAccess;
+
+    /**
+     * Set once the frame has been handed out, the bindings then stay in the frame.
+     */
+    private boolean frameExposed;
+
+    /**
+     * The keys and values of the hash map, {@code null} while the bindings are stored in the frame.
+     * The capacity is a power of two, the collisions are resolved by linear probing.
+     */
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Records which bindings are locked, regardless of where the bindings are stored.
+     */
+    private Set<String> lockedBindings;
+
+    public REnvHashFrameAccess(MaterializedFrame frame, int initialSize) {
+        this.frameAccess = new REnvTruffleFrameAccess(frame);
+        if (initialSize >= THRESHOLD) {
+            allocate(initialSize);
+        }
+    }
+
+    @Override
+    public MaterializedFrame getFrame() {
+        if (keys != null) {
+            moveToFrame();
+        }
+        frameExposed = true;
+        return frameAccess.getFrame();
+    }
+
+    @Override
+    public MaterializedFrame getArgumentsFrame() {
+        return frameAccess.getFrame();
+    }
+
+    @Override
+    public MaterializedFrame getBindingsFrame() {
+        assert keys == null;
+        return frameAccess.getFrame();
+    }
+
+    @Override
+    public boolean isFrameBacked() {
+        return keys == null;
+    }
+
+    @Override
+    public Object get(String key) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (keys != null) {
+            int index = find(key);
+            return index < 0 ? null : values[index];
+        }
+        return frameAccess.get(key);
+    }
+
+    @Override
+    public boolean isActiveBinding(String key) {
+        CompilerAsserts.neverPartOfCompilation();
+        return keys == null && frameAccess.isActiveBinding(key);
+    }
+
+    @Override
+    public void put(String key, Object value) throws PutException {
+        CompilerAsserts.neverPartOfCompilation();
+        assert key != null;
+        assert value != null;
+        if (lockedBindings != null && lockedBindings.contains(key)) {
+            throw new PutException(RError.Message.ENV_CHANGE_BINDING, key);
+        }
+        if (keys != null) {
+            insert(key, value);
+        } else {
+            frameAccess.put(key, value);
+            if (!frameExposed && frameAccess.getFrame().getFrameDescriptor().getSize() > THRESHOLD) {
+                moveToMap();
+            }
+        }
+    }
+
+    @Override
+    public void rm(String key) throws PutException {
+        CompilerAsserts.neverPartOfCompilation();
+        assert key != null;
+        if (lockedBindings != null) {
+            lockedBindings.remove(key);
+        }
+        if (keys != null) {
+            int index = find(key);
+            if (index < 0) {
+                throw new PutException(RError.Message.UNKNOWN_OBJECT, key);
+            }
+            removeAt(index);
+        } else {
+            frameAccess.rm(key);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public RStringVector ls(boolean allNames, Pattern pattern, boolean sorted) {
+        if (keys == null) {
+            return frameAccess.ls(allNames, pattern, sorted);
+        }
+        ArrayList<String> names = new ArrayList<>(size);
+        for (String key : keys) {
+            if (key != null && REnvironment.includeName(key, allNames, pattern)) {
+                names.add(key);
+            }
+        }
+        return createNamesVector(names.toArray(new String[names.size()]), sorted);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void lockBindings() {
+        if (keys != null) {
+            for (String key : keys) {
+                if (key != null) {
+                    lockBinding(key);
+                }
+            }
+        } else {
+            for (Object binding : frameAccess.getFrame().getFrameDescriptor().getIdentifiers()) {
+                if (binding instanceof String) {
+                    lockBinding((String) binding);
+                }
+            }
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void lockBinding(String key) {
+        if (lockedBindings == null) {
+            lockedBindings = new HashSet<>();
+        }
+        lockedBindings.add(key);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void unlockBinding(String key) {
+        if (lockedBindings != null) {
+            lockedBindings.remove(key);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean bindingIsLocked(String key) {
+        return lockedBindings != null && lockedBindings.contains(key);
+    }
+
+    /**
+     * Moves the bindings from the frame into the hash map, unless the frame contains active
+     * bindings, which need the frame.
+     */
+    private void moveToMap() {
+        MaterializedFrame frame = frameAccess.getFrame();
+        FrameDescriptor fd = frame.getFrameDescriptor();
+        if (!FrameSlotChangeMonitor.getContainsNoActiveBindingAssumption(fd).isValid()) {
+            // keep the bindings in the frame for good
+            frameExposed = true;
+            return;
+        }
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<Object> frameValues = new ArrayList<>();
+        REnvTruffleFrameAccess.getStringIdentifiersAndValues(frame, names, frameValues);
+        allocate(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            insert(names.get(i), frameValues.get(i));
+        }
+        for (FrameSlot slot : fd.getSlots()) {
+            if (slot.getIdentifier() instanceof String) {
+                if (fd.getFrameSlotKind(slot) != FrameSlotKind.Object) {
+                    fd.setFrameSlotKind(slot, FrameSlotKind.Object);
+                }
+                FrameSlotChangeMonitor.setObjectAndInvalidate(frame, slot, null, false, null);
+            }
+        }
+    }
+
+    private void moveToFrame() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = null;
+        values = null;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                try {
+                    frameAccess.put(oldKeys[i], oldValues[i]);
+                } catch (PutException e) {
+                    // the frame access does not know about the locked bindings
+                    throw RInternalError.shouldNotReachHere(e);
+                }
+            }
+        }
+    }
+
+    private void allocate(int expectedSize) {
+        // the size is only a hint, do not allocate more than a million entries up front
+        int capacity = Integer.highestOneBit(Math.min(Math.max(expectedSize, THRESHOLD), 1 << 20) * 2 - 1) << 1;
+        keys = new String[capacity];
+        values = new Object[capacity];
+        size = 0;
+    }
+
+    private int home(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private int find(String key) {
+        int mask = keys.length - 1;
+        for (int i = home(key);; i = (i + 1) & mask) {
+            String current = keys[i];
+            if (current == null) {
+                return -1;
+            } else if (current.equals(key)) {
+                return i;
+            }
+        }
+    }
+
+    private void insert(String key, Object value) {
+        int mask = keys.length - 1;
+        int i = home(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            String key = oldKeys[j];
+            if (key != null) {
+                int i = home(key);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at {@code index} and shifts the following entries of the probe sequence
+     * back, so that no tombstones are needed.
+     */
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int i = index;
+        while (true) {
+            i = (i + 1) & mask;
+            String key = keys[i];
+            if (key == null) {
+                break;
+            }
+            // the entry can fill the hole if the hole lies between its home and its position
+            if (((i - home(key)) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = key;
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+}
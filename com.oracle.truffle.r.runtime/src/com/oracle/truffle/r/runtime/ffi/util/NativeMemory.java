@@ -104,6 +104,16 @@ public abstract class NativeMemory {
         return result;
     }
 
+    /**
+     * Like {@link #allocate(ElementType, long, Object)}, but the memory is filled with zeros, which
+     * is what newly allocated Java arrays contain.
+     */
+    public static long allocateZeroed(ElementType type, long size, Object debugInfo) {
+        long result = allocate(type, size, debugInfo);
+        UNSAFE.setMemory(result, size * type.bytes, (byte) 0);
+        return result;
+    }
+
     public static void free(long address, Object debugInfo) {
         traceFree(address, debugInfo);
         UNSAFE.freeMemory(address);
@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.runtime.interop;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -76,7 +77,9 @@ import com.oracle.truffle.r.runtime.nodes.RBaseNode;
  * </p>
  *
  * <b>Note</b> currently are {@link RForeignVectorWrapper}-s used only in case of homogenous
- * 1-dimensional arrays resulting to a logical, double, integer or character vector.
+ * 1-dimensional arrays resulting to a logical, double, integer or character vector. The wrappers do
+ * not copy the foreign array, Java arrays of {@code double}, {@code int} and {@code boolean} are
+ * wrapped without inspecting their elements and copied in bulk once the vector is materialized.
  */
 @ImportStatic({RRuntime.class, RType.class})
 public abstract class ConvertForeignObjectNode extends RBaseNode {
@@ -366,10 +369,33 @@ public abstract class ConvertForeignObjectNode extends RBaseNode {
         return idx;
     }
 
+    /**
+     * The element type of non-empty Java arrays is known, so they need not be inspected element by
+     * element.
+     */
+    @TruffleBoundary
+    private static RAbstractVector wrapHostArray(TruffleObject truffleObject) {
+        Object hostArray = RRuntime.asHostPrimitiveArray(truffleObject);
+        if (hostArray == null || Array.getLength(hostArray) == 0) {
+            return null;
+        } else if (hostArray instanceof double[]) {
+            return RDoubleVector.createForeignWrapper(truffleObject);
+        } else if (hostArray instanceof int[]) {
+            return RIntVector.createForeignWrapper(truffleObject);
+        } else if (hostArray instanceof boolean[]) {
+            return RLogicalVector.createForeignWrapper(truffleObject);
+        }
+        return null;
+    }
+
     @Specialization(guards = {"isForeignArray(truffleObject, interop)", "!toList"}, limit = "getInteropLibraryCacheSize()")
     protected Object convertArray(TruffleObject truffleObject, boolean recursive, boolean dropDimensions, @SuppressWarnings("unused") boolean toList, boolean byteToRaw,
                     @Cached("create(byteToRaw)") InspectForeignArrayNode inspectTruffleObject,
                     @SuppressWarnings("unused") @CachedLibrary("truffleObject") InteropLibrary interop) {
+        RAbstractVector hostArrayWrapper = wrapHostArray(truffleObject);
+        if (hostArrayWrapper != null) {
+            return hostArrayWrapper;
+        }
         ArrayInfo arrayInfo = new ArrayInfo(byteToRaw);
         inspectTruffleObject.execute(truffleObject, recursive, arrayInfo, 0, true);
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -39,6 +39,19 @@ public class RandomFunctions {
         double execute(double a, double b, double c, RandomNumberProvider rand);
     }
 
+    /**
+     * Implemented by random functions that can generate a whole vector at once if all their
+     * parameters are scalars, using {@link RandomNumberGenerator#fillDoubles}.
+     */
+    public interface RandFunctionBulk {
+        /**
+         * Fills {@code result} with random values for the given parameters and returns
+         * {@code true}, or returns {@code false} without drawing any random number if the
+         * parameters are not valid, the values are then generated one by one.
+         */
+        boolean generateBulk(double[] result, double a, double b, double c, RandomNumberProvider rand);
+    }
+
     public abstract static class RandFunction3_DoubleWithWarnings extends RBaseNodeWithWarnings implements RandFunction3_DoubleBase {
 
     }
@@ -89,6 +102,10 @@ public class RandomFunctions {
             return generator.genrandDouble();
         }
 
+        public void unifRand(double[] target) {
+            generator.fillDoubles(target, 0, target.length);
+        }
+
         public double normRand() {
             return SNorm.normRand(generator, normKind);
         }
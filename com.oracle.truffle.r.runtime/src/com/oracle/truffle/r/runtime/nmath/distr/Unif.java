@@ -1,7 +1,7 @@
 /*
  * Copyright (C) 1998 Ross Ihaka
  * Copyright (c) 2000-2006, The R Core Team
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * This program is free software; you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -19,6 +19,8 @@
  */
 package com.oracle.truffle.r.runtime.nmath.distr;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -32,6 +34,7 @@ import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_1;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
 import com.oracle.truffle.r.runtime.nmath.RMathError;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunction2_Double;
+import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunctionBulk;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
 
 public final class Unif {
@@ -40,7 +43,7 @@ public final class Unif {
     }
 
     @GenerateUncached
-    public abstract static class Runif extends RandFunction2_Double {
+    public abstract static class Runif extends RandFunction2_Double implements RandFunctionBulk {
         @Specialization
         public double exec(double minIn, double maxIn, RandomNumberProvider rand,
                         @Cached() BranchProfile errorProfile,
@@ -59,6 +62,23 @@ public final class Unif {
             return min + rand.unifRand() * (max - min);
         }
 
+        @Override
+        public boolean generateBulk(double[] result, double min, double max, double unused, RandomNumberProvider rand) {
+            if (!RRuntime.isFinite(min) || !RRuntime.isFinite(max) || max < min) {
+                return false;
+            }
+            if (min == max) {
+                Arrays.fill(result, min);
+                return true;
+            }
+            rand.unifRand(result);
+            double range = max - min;
+            for (int i = 0; i < result.length; i++) {
+                result[i] = min + result[i] * range;
+            }
+            return true;
+        }
+
         public static Runif create() {
             return UnifFactory.RunifNodeGen.create();
         }
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 1995-2012, The R Core Team
  * Copyright (c) 2003, The R Foundation
- * Copyright (c) 2014, 2019, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates
  *
  * This program is free software; you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -20,6 +20,7 @@
 package com.oracle.truffle.r.runtime.rng;
 
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -44,14 +45,15 @@ import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
 import static com.oracle.truffle.r.runtime.rng.RRNG.SampleKind.REJECTION;
 import static com.oracle.truffle.r.runtime.rng.RRNG.SampleKind.ROUNDING;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LEcuyerCMRG;
 import com.oracle.truffle.r.runtime.rng.mm.MarsagliaMulticarry;
 import com.oracle.truffle.r.runtime.rng.mt.MersenneTwister;
 import com.oracle.truffle.r.runtime.rng.user.UserRNG;
 
 /**
  * Facade class to the R random number generators, (see src/main/RNG.c in GnuR). The individual
- * generators are implemented in their own class. Currently there are only two implemented, the
- * default, {@link MersenneTwister} and {@link MarsagliaMulticarry}.
+ * generators are implemented in their own class. Currently there are only three implemented, the
+ * default, {@link MersenneTwister}, {@link MarsagliaMulticarry} and {@link LEcuyerCMRG}.
  *
  * The fact that the R programmer can set {@code .Random.seed} explicitly, as opposed to the
  * recommended approach of calling {@code set.seed}, is something of a pain as it changes the
@@ -80,7 +82,7 @@ public class RRNG {
         KNUTH_TAOCP(),
         USER_UNIF(UserRNG::new),
         KNUTH_TAOCP2(),
-        LECUYER_CMRG();
+        LECUYER_CMRG(LEcuyerCMRG::new);
 
         @CompilationFinal(dimensions = 1) static final Kind[] VALUES = values();
 
@@ -147,6 +149,13 @@ public class RRNG {
          */
         private Object currentSeeds = null;
 
+        /**
+         * The state of the current generator from which the stream of the last child context was
+         * derived, and that stream, see {@link #nextChildStream()}.
+         */
+        private int[] childStreamBase;
+        private int[] lastChildStream;
+
         private ContextStateImpl() {
             this.currentNormKind = DEFAULT_NORM_KIND;
             this.currentSampleKind = REJECTION;
@@ -155,6 +164,19 @@ public class RRNG {
 
         @Override
         public RContext.ContextState initialize(RContext context) {
+            RContext parent = context.getParent();
+            int[] childStream = parent == null ? null : parent.stateRNG.nextChildStream();
+            if (childStream != null) {
+                // like the forked children in GNU R, a child context gets its own stream
+                RandomNumberGenerator rng = Kind.LECUYER_CMRG.create();
+                rng.setISeed(childStream);
+                this.currentNormKind = parent.stateRNG.currentNormKind;
+                this.currentSampleKind = parent.stateRNG.currentSampleKind;
+                this.currentGenerator = rng;
+                this.allGenerators[rng.getKind().ordinal()] = rng;
+                this.currentSeeds = childStream;
+                return this;
+            }
             int seed = timeToSeed();
             RandomNumberGenerator rng = DEFAULT_KIND.create();
             initGenerator(rng, seed);
@@ -221,6 +243,29 @@ public class RRNG {
             }
         }
 
+        /**
+         * Returns the seeds, in the format of {@code .Random.seed}, for a new child context if the
+         * current generator is L'Ecuyer-CMRG, or {@code null} otherwise. The first child gets the
+         * stream following the current state of the generator and every other child the stream
+         * following the one of the previous child, which is what {@code mc.advance.stream} in
+         * package parallel does for forked children.
+         */
+        private synchronized int[] nextChildStream() {
+            RandomNumberGenerator rng = currentGenerator;
+            if (rng == null || rng.getKind() != Kind.LECUYER_CMRG) {
+                return null;
+            }
+            int[] base = Arrays.copyOf(rng.getSeeds(), rng.getNSeed() + 1);
+            base[0] = Kind.LECUYER_CMRG.ordinal() + 100 * currentNormKind.ordinal() + 10000 * currentSampleKind.ordinal();
+            if (!Arrays.equals(base, childStreamBase)) {
+                childStreamBase = base;
+                lastChildStream = base;
+            }
+            lastChildStream = LEcuyerCMRG.nextStream(lastChildStream);
+            // the generator of the child updates its seeds in place
+            return lastChildStream.clone();
+        }
+
         public static ContextStateImpl newContextState() {
             return new ContextStateImpl();
         }
@@ -229,6 +274,8 @@ public class RRNG {
             assert REnvironment.globalEnv() != null;
             RFunction fun = context.lookupBuiltin(".fastr.set.seed");
             ActiveBinding dotRandomSeed = new ActiveBinding(RType.Any, fun, true);
+            // the seeds of child contexts may be set already
+            dotRandomSeed.setInitialized(currentSeeds != null);
             Frame frame = REnvironment.globalEnv().getFrame();
             FrameSlot slot = FrameSlotChangeMonitor.findOrAddFrameSlot(frame.getFrameDescriptor(), RRNG.RANDOM_SEED, FrameSlotKind.Object);
             FrameSlotChangeMonitor.setActiveBinding(frame, slot, dotRandomSeed, false, null);
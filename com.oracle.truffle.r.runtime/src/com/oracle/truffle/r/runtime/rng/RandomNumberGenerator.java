@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 1995-2012, The R Core Team
  * Copyright (c) 2003, The R Foundation
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates
  *
  * This program is free software; you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -37,6 +37,17 @@ public interface RandomNumberGenerator {
 
     double genrandDouble();
 
+    /**
+     * Stores the next {@code to - from} random numbers into {@code target[from..to)}, which is
+     * equivalent to as many calls of {@link #genrandDouble()}. Generators override this to produce
+     * whole vectors without going through {@link #genrandDouble()} for each element.
+     */
+    default void fillDoubles(double[] target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            target[i] = genrandDouble();
+        }
+    }
+
     Kind getKind();
 
     /**
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2020, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.runtime.rng.lecuyer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "L'Ecuyer-CMRG" RNG, the combined multiple-recursive generator MRG32k3a. Transcribed from GnuR
+ * RNG.c, the jumps to the next stream and substream from {@code src/library/parallel/rngstream.c}.
+ *
+ * The state consists of two triples of seeds, the first one in {@code [0, m1)}, the second one in
+ * {@code [0, m2)}, both of them stored as unsigned 32-bit values.
+ */
+public final class LEcuyerCMRG extends RNGInitAdapter {
+
+    private static final long M1 = 4294967087L;
+    private static final long M2 = 4294944443L;
+    private static final double NORMC = 2.328306549295727688e-10;
+    private static final long A12 = 1403580;
+    private static final long A13N = 810728;
+    private static final long A21 = 527612;
+    private static final long A23N = 1370589;
+
+    /*
+     * The transition matrices raised to the power of 2^76 (substreams) and 2^127 (streams).
+     */
+    private static final long[][] A1P76 = {
+                    {82758667L, 1871391091L, 4127413238L},
+                    {3672831523L, 69195019L, 1871391091L},
+                    {3672091415L, 3528743235L, 69195019L}
+    };
+    private static final long[][] A2P76 = {
+                    {1511326704L, 3759209742L, 1610795712L},
+                    {4292754251L, 1511326704L, 3889917532L},
+                    {3859662829L, 4292754251L, 3708466080L}
+    };
+    private static final long[][] A1P127 = {
+                    {2427906178L, 3580155704L, 949770784L},
+                    {226153695L, 1230515664L, 3580155704L},
+                    {1988835001L, 986791581L, 1230515664L}
+    };
+    private static final long[][] A2P127 = {
+                    {1464411153L, 277697599L, 1610723613L},
+                    {32183930L, 1464411153L, 1022607788L},
+                    {2824425944L, 32183930L, 2093834863L}
+    };
+
+    @Override
+    @TruffleBoundary
+    public void init(int seedParam) {
+        int seed = seedParam;
+        for (int i = 0; i < getNSeed(); i++) {
+            seed = (69069 * seed + 1);
+            while (Integer.toUnsignedLong(seed) >= M2) {
+                seed = (69069 * seed + 1);
+            }
+            setISeedItem(i, seed);
+        }
+        fixupSeeds(true);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        // first set: not all zero, in [0, m1), second set: not all zero, in [0, m2)
+        boolean notAllZero = false;
+        boolean allOK = true;
+        for (int i = 0; i < 3; i++) {
+            long tmp = Integer.toUnsignedLong(getISeedItem(i));
+            if (tmp != 0) {
+                notAllZero = true;
+            }
+            if (tmp >= M1) {
+                allOK = false;
+            }
+        }
+        if (!notAllZero || !allOK) {
+            init(RRNG.timeToSeed());
+        }
+        for (int i = 3; i < 6; i++) {
+            long tmp = Integer.toUnsignedLong(getISeedItem(i));
+            if (tmp != 0) {
+                notAllZero = true;
+            }
+            if (tmp >= M2) {
+                allOK = false;
+            }
+        }
+        if (!notAllZero || !allOK) {
+            init(RRNG.timeToSeed());
+        }
+    }
+
+    @Override
+    public double genrandDouble() {
+        long s0 = Integer.toUnsignedLong(getISeedItem(0));
+        long s1 = Integer.toUnsignedLong(getISeedItem(1));
+        long s2 = Integer.toUnsignedLong(getISeedItem(2));
+        long s3 = Integer.toUnsignedLong(getISeedItem(3));
+        long s4 = Integer.toUnsignedLong(getISeedItem(4));
+        long s5 = Integer.toUnsignedLong(getISeedItem(5));
+        long p1 = component1(s0, s1);
+        long p2 = component2(s3, s5);
+        setISeedItem(0, (int) s1);
+        setISeedItem(1, (int) s2);
+        setISeedItem(2, (int) p1);
+        setISeedItem(3, (int) s4);
+        setISeedItem(4, (int) s5);
+        setISeedItem(5, (int) p2);
+        return combine(p1, p2);
+    }
+
+    /**
+     * Keeps the state in local variables for the whole run instead of going through the seeds
+     * array for every number.
+     */
+    @Override
+    public void fillDoubles(double[] target, int from, int to) {
+        long s0 = Integer.toUnsignedLong(getISeedItem(0));
+        long s1 = Integer.toUnsignedLong(getISeedItem(1));
+        long s2 = Integer.toUnsignedLong(getISeedItem(2));
+        long s3 = Integer.toUnsignedLong(getISeedItem(3));
+        long s4 = Integer.toUnsignedLong(getISeedItem(4));
+        long s5 = Integer.toUnsignedLong(getISeedItem(5));
+        for (int i = from; i < to; i++) {
+            long p1 = component1(s0, s1);
+            long p2 = component2(s3, s5);
+            s0 = s1;
+            s1 = s2;
+            s2 = p1;
+            s3 = s4;
+            s4 = s5;
+            s5 = p2;
+            target[i] = combine(p1, p2);
+        }
+        setISeedItem(0, (int) s0);
+        setISeedItem(1, (int) s1);
+        setISeedItem(2, (int) s2);
+        setISeedItem(3, (int) s3);
+        setISeedItem(4, (int) s4);
+        setISeedItem(5, (int) s5);
+    }
+
+    private static long component1(long s0, long s1) {
+        long p1 = (A12 * s1 - A13N * s0) % M1;
+        return p1 < 0 ? p1 + M1 : p1;
+    }
+
+    private static long component2(long s3, long s5) {
+        long p2 = (A21 * s5 - A23N * s3) % M2;
+        return p2 < 0 ? p2 + M2 : p2;
+    }
+
+    private static double combine(long p1, long p2) {
+        return ((p1 > p2) ? (p1 - p2) : (p1 - p2 + M1)) * NORMC;
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.LECUYER_CMRG;
+    }
+
+    @Override
+    public int getNSeed() {
+        return 6;
+    }
+
+    /**
+     * Returns the seeds of the next stream, the argument and the result are in the format of
+     * {@code .Random.seed}, cf. {@code nextRNGStream} in package parallel.
+     */
+    public static int[] nextStream(int[] seed) {
+        return advance(seed, A1P127, A2P127);
+    }
+
+    /**
+     * Returns the seeds of the next substream, cf. {@code nextRNGSubStream} in package parallel.
+     */
+    public static int[] nextSubStream(int[] seed) {
+        return advance(seed, A1P76, A2P76);
+    }
+
+    private static int[] advance(int[] seed, long[][] a1, long[][] a2) {
+        int[] result = new int[7];
+        result[0] = seed[0];
+        for (int i = 0; i < 3; i++) {
+            long tmp = 0;
+            for (int j = 0; j < 3; j++) {
+                // the sum is below 2^64, so it is exact as an unsigned value
+                tmp = Long.remainderUnsigned(tmp + a1[i][j] * Integer.toUnsignedLong(seed[j + 1]), M1);
+            }
+            result[i + 1] = (int) tmp;
+        }
+        for (int i = 0; i < 3; i++) {
+            long tmp = 0;
+            for (int j = 0; j < 3; j++) {
+                tmp = Long.remainderUnsigned(tmp + a2[i][j] * Integer.toUnsignedLong(seed[j + 4]), M2);
+            }
+            result[i + 4] = (int) tmp;
+        }
+        return result;
+    }
+}
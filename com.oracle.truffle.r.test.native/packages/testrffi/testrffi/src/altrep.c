@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+// A simple ALTREP integer class representing the sequence 1:n, n is stored in data1.
+// The data are expanded into data2 only when the data pointer is requested.
+
+#include <R.h>
+#include <Rinternals.h>
+#include <R_ext/Rdynload.h>
+#include <R_ext/Altrep.h>
+#include "testrffi.h"
+
+static R_altrep_class_t seq_class;
+
+static R_xlen_t seq_Length(SEXP x) {
+    return (R_xlen_t) asInteger(R_altrep_data1(x));
+}
+
+static int seq_Elt(SEXP x, R_xlen_t i) {
+    return (int) (i + 1);
+}
+
+static void *seq_Dataptr(SEXP x, Rboolean writeable) {
+    SEXP expanded = R_altrep_data2(x);
+    if (expanded == R_NilValue) {
+        R_xlen_t n = seq_Length(x);
+        PROTECT(expanded = allocVector(INTSXP, n));
+        int *data = INTEGER(expanded);
+        for (R_xlen_t i = 0; i < n; i++) {
+            data[i] = (int) (i + 1);
+        }
+        R_set_altrep_data2(x, expanded);
+        UNPROTECT(1);
+    }
+    return INTEGER(expanded);
+}
+
+static const void *seq_Dataptr_or_null(SEXP x) {
+    SEXP expanded = R_altrep_data2(x);
+    return expanded == R_NilValue ? NULL : INTEGER(expanded);
+}
+
+void init_altrep_classes(DllInfo *dll) {
+    seq_class = R_make_altinteger_class("testrffi_seq", "testrffi", dll);
+    R_set_altrep_Length_method(seq_class, seq_Length);
+    R_set_altvec_Dataptr_method(seq_class, seq_Dataptr);
+    R_set_altvec_Dataptr_or_null_method(seq_class, seq_Dataptr_or_null);
+    R_set_altinteger_Elt_method(seq_class, seq_Elt);
+}
+
+SEXP test_altrep_seq(SEXP n) {
+    return R_new_altrep(seq_class, ScalarInteger(asInteger(n)), R_NilValue);
+}
+
+SEXP test_altrep_info(SEXP x) {
+    SEXP result = PROTECT(allocVector(INTSXP, 3));
+    INTEGER(result)[0] = ALTREP(x) ? 1 : 0;
+    INTEGER(result)[1] = ALTREP(x) ? R_altrep_inherits(x, seq_class) : 0;
+    INTEGER(result)[2] = ALTREP(x) ? INTEGER_ELT(x, XLENGTH(x) - 1) : NA_INTEGER;
+    UNPROTECT(1);
+    return result;
+}
@@ -54,6 +54,7 @@ static const R_CallMethodDef CallEntries[] = {
         CALLDEF(addDouble, 2),
         CALLDEF(populateIntVector, 1),
         CALLDEF(populateLogicalVector, 1),
+        CALLDEF(allocAndFillVector, 2),
         CALLDEF(createExternalPtr, 3),
         CALLDEF(getExternalPtrAddr, 1),
         CALLDEF(invoke_TYPEOF, 1),
@@ -124,8 +125,11 @@ static const R_CallMethodDef CallEntries[] = {
         {NULL, NULL, 0}
 };
 
+extern void init_altrep_classes(DllInfo *dll);
+
 void
 R_init_testrffi(DllInfo *dll)
 {
     R_registerRoutines(dll, CEntries, CallEntries, NULL, ExternalEntries);
+    init_altrep_classes(dll);
 }
@@ -91,6 +91,56 @@ SEXP populateLogicalVector(SEXP n) {
     return v;
 }
 
+SEXP allocAndFillVector(SEXP type, SEXP n) {
+    SEXP v;
+    int intN = INTEGER_VALUE(n);
+    PROTECT(v = allocVector(INTEGER_VALUE(type), intN));
+    int i;
+    switch (TYPEOF(v)) {
+    case INTSXP: {
+        int *data = INTEGER(v);
+        for (i = 0; i < intN; i++) {
+            data[i] = i;
+        }
+        break;
+    }
+    case REALSXP: {
+        double *data = REAL(v);
+        for (i = 0; i < intN; i++) {
+            data[i] = i / 2.0;
+        }
+        break;
+    }
+    case LGLSXP: {
+        int *data = LOGICAL(v);
+        for (i = 0; i < intN; i++) {
+            data[i] = i % 3 == 0 ? TRUE : i % 3 == 1 ? FALSE : NA_LOGICAL;
+        }
+        break;
+    }
+    case CPLXSXP: {
+        Rcomplex *data = COMPLEX(v);
+        for (i = 0; i < intN; i++) {
+            data[i].r = i;
+            data[i].i = -i;
+        }
+        break;
+    }
+    case RAWSXP: {
+        Rbyte *data = RAW(v);
+        for (i = 0; i < intN; i++) {
+            data[i] = (Rbyte) (i % 256);
+        }
+        break;
+    }
+    default:
+        UNPROTECT(1);
+        error("allocAndFillVector: unsupported type");
+    }
+    UNPROTECT(1);
+    return v;
+}
+
 SEXP createExternalPtr(SEXP addr, SEXP tag, SEXP prot) {
 	return R_MakeExternalPtr((void *) (long) INTEGER_VALUE(addr), tag, prot);
 }
@@ -31,6 +31,8 @@ extern SEXP populateIntVector(SEXP n);
 
 extern SEXP populateLogicalVector(SEXP n);
 
+extern SEXP allocAndFillVector(SEXP type, SEXP n);
+
 extern SEXP createExternalPtr(SEXP addr, SEXP tag, SEXP prot);
 
 extern SEXP getExternalPtrAddr(SEXP eptr);
@@ -168,3 +170,7 @@ extern SEXP testPRIMFUN(SEXP fun, SEXP args);
 extern SEXP testTrace();
 
 extern SEXP testdiv(SEXP n);
+
+extern SEXP test_altrep_seq(SEXP n);
+
+extern SEXP test_altrep_info(SEXP x);
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2014, Purdue University
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -67,4 +67,11 @@ public class TestBuiltin_anyNA extends TestBase {
     public void testSideEffect() {
         assertEval("{ a <- c(1, 2, 4); foo <- function() { a[[1]] <<- NA; FALSE; }; anyNA(a, foo()) }");
     }
+
+    @Test
+    public void testAnyNASorted() {
+        assertEval("{ x <- sort(c(3, 1, NaN, 2), method='shell'); anyNA(x) }");
+        assertEval("{ x <- sort(c(3, 1, 2), method='shell'); x[[2]] <- NaN; anyNA(x) }");
+        assertEval("{ x <- sort(c(3, NA, 1), na.last=TRUE, method='shell'); anyNA(x) }");
+    }
 }
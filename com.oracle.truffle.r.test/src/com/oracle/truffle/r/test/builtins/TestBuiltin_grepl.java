@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -94,4 +94,12 @@ public class TestBuiltin_grepl extends TestBase {
         // the dot matches the new line in a Perl regexp
         assertEval("{ .Internal(grepl('.+X', 'a\nXb', F, F, T, F, F, F)) }");
     }
+
+    @Test
+    public void testGreplRepeatedPattern() {
+        // the same pattern compiled with different flags must not share a compiled pattern
+        assertEval("{ x <- c('Abc', 'abc', 'ABC', 'a.c'); list(grepl('abc', x), grepl('abc', x, ignore.case=TRUE), grepl('abc', x), grepl('a.c', x, fixed=TRUE), grepl('a.c', x), grepl('a.c', x, perl=TRUE, ignore.case=TRUE)) }");
+        assertEval("{ x <- c('foo1', 'bar2', 'baz'); for (i in 1:3) print(grepl('[0-9]$', x)); for (i in 1:3) print(grepl('[0-9]$', x, perl=TRUE)) }");
+        assertEval("{ x <- c('a', 'b', 'c'); sapply(c('a', 'b', 'a', 'c', 'b'), function(p) which(grepl(p, x))) }");
+    }
 }
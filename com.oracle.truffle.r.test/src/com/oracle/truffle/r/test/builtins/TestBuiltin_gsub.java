@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -239,4 +239,11 @@ public class TestBuiltin_gsub extends TestBase {
         assertEval("gsub('b','\\\\1m','Abb')");
         assertEval("gsub('@CXX11@', '$(CXX11)', '    CPLUS=\"@CXX11@\"                           \\'', fixed=FALSE)");
     }
+
+    @Test
+    public void testGsubRepeatedPattern() {
+        // the same pattern compiled with different flags must not share a compiled pattern
+        assertEval("{ x <- c('a.b.c', 'AxBxC'); list(gsub('.', '-', x), gsub('.', '-', x, fixed=TRUE), gsub('.', '-', x), gsub('x', '+', x, ignore.case=TRUE), gsub('x', '+', x), gsub('x', '+', x, perl=TRUE, ignore.case=TRUE)) }");
+        assertEval("{ x <- c('ab12', 'cd345'); for (i in 1:3) print(gsub('([a-z]+)([0-9]+)', '\\\\2\\\\1', x)); for (i in 1:3) print(sub('([a-z]+)([0-9]+)', '\\\\2-\\\\1', x, perl=TRUE)) }");
+    }
 }
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -121,4 +121,15 @@ public class TestBuiltin_isunsorted extends TestBase {
         assertEval("{ is.unsorted(c(1+1i,2+1i,2+1i), strictly=TRUE) }");
         assertEval("{ is.unsorted(c(1,2,2), strictly=NA) }");
     }
+
+    @Test
+    public void testIsUnsortedSorted() {
+        assertEval("{ x <- sort(c(3, 1, 2), method='shell'); is.unsorted(x) }");
+        assertEval("{ x <- sort(c(3L, 1L, 2L, 2L), method='shell'); c(is.unsorted(x), is.unsorted(x, strictly=TRUE)) }");
+        assertEval("{ x <- sort(c(3, 1, 2), decreasing=TRUE, method='shell'); is.unsorted(x) }");
+        assertEval("{ x <- sort(c(3, 1, 2), method='shell'); x[[2]] <- 10; is.unsorted(x) }");
+        assertEval("{ x <- sort(c(3L, 1L, 2L), method='shell'); y <- x; y[[1]] <- 5L; c(is.unsorted(x), is.unsorted(y)) }");
+        assertEval("{ x <- 1:10; x[[3]] <- 100L; c(is.unsorted(x), match(100L, x), anyNA(x)) }");
+        assertEval("{ x <- seq(10, 1, by=-0.5); y <- x; y[[2]] <- NaN; c(is.unsorted(x), anyNA(y), match(9.5, x)) }");
+    }
 }
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2014, Purdue University
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -42,4 +42,26 @@ public class TestBuiltin_lazyLoadDBflush extends TestBase {
         // "argv <- list('/home/lzhao/hg/r-instrumented/library/stats4/R/stats4.rdb');
         // .Internal(lazyLoadDBflush(argv[[1]]))");
     }
+
+    private static final String MAKE_DB = "makeDB <- function(f, compress, ...) { e <- new.env(); list2env(list(...), e); tools:::makeLazyLoadDB(e, f, compress = compress) }; " +
+                    "loadDB <- function(f) { e <- new.env(); lazyLoad(f, e); as.list(e)[order(names(as.list(e)))] }; ";
+
+    @Test
+    public void testlazyLoadDBflushRewritten() {
+        // the database is read again after it was rewritten and flushed
+        for (String compress : new String[]{"FALSE", "TRUE", "2L", "3L"}) {
+            assertEval(MAKE_DB + "f <- tempfile(); makeDB(f, " + compress + ", x = 1:10, y = 'a'); r1 <- loadDB(f); " +
+                            "makeDB(f, " + compress + ", x = letters, y = rep(c(TRUE, NA), 1000)); .Internal(lazyLoadDBflush(paste0(f, '.rdb'))); r2 <- loadDB(f); " +
+                            "unlink(paste0(f, c('.rdb', '.rdx'))); list(r1, r2)");
+        }
+    }
+
+    @Test
+    public void testlazyLoadDBfetchRepeated() {
+        // entries served from the cache of decompressed entries
+        assertEval(MAKE_DB + "f <- tempfile(); makeDB(f, TRUE, x = 1:1000, y = list(a = 1, b = 'b'), z = quote(a + b)); " +
+                        "r <- lapply(1:3, function(i) loadDB(f)); unlink(paste0(f, c('.rdb', '.rdx'))); identical(r[[1]], r[[3]]) && identical(r[[2]], r[[3]])");
+        assertEval(MAKE_DB + "f <- tempfile(); makeDB(f, 3L, x = 1:1000); e <- new.env(); lazyLoad(f, e); " +
+                        ".Internal(lazyLoadDBflush(paste0(f, '.rdb'))); .Internal(lazyLoadDBflush(paste0(f, '.rdb'))); r <- e$x; unlink(paste0(f, c('.rdb', '.rdx'))); sum(r)");
+    }
 }
@@ -459,6 +459,17 @@ public class TestBuiltin_match extends TestBase {
         assertEval("match(1:3, numeric(0))");
     }
 
+    @Test
+    public void testMatchRepeatedLookup() {
+        // the shared table is searched repeatedly and then modified
+        assertEval("{ tbl <- c('a', 'b', NA, 'c', 'a'); tbl2 <- tbl; r <- sapply(c('c', 'a', 'z', NA, 'b'), function(v) v %in% tbl); tbl[2] <- 'z'; list(r, match(c('b', 'z'), tbl), match(c('b', 'z'), tbl2)) }");
+        assertEval("{ tbl <- c(5L, NA, 3L, 5L); tbl2 <- tbl; r <- sapply(c(5L, NA, 4L), function(v) match(v, tbl)); tbl[[1]] <- 4L; list(r, match(c(4L, 5L), tbl), match(c(4L, 5L), tbl2)) }");
+        assertEval("{ f <- function(tbl) { r <- integer(); for (v in c(1, 3, NA, 3)) r <- c(r, match(v, tbl)); tbl[[2]] <- 42; c(r, match(c(3, 42), tbl)) }; f(c(3, 3, NA, 1)) }");
+        assertEval("{ x <- c(2L, 1L, 2L, NA, NA); y <- x; list(duplicated(x), duplicated(x), anyDuplicated(x), anyDuplicated(x), x %in% 1:2) }");
+        assertEval("{ x <- c('b', 'a', 'b', NA); y <- x; list(duplicated(x), duplicated(x), anyDuplicated(x[-1]), anyDuplicated(x[-1])) }");
+        assertEval("{ y <- c(4L, 2L, 9L, 2L); z <- y; list(intersect(c(9L, 2L, 2L, 7L), y), intersect(c(9L, 2L, 2L, 7L), y), setdiff(1:3, y), setdiff(1:3, y)) }");
+    }
+
     private void testMatchStringSequence(String preffix, String suffix) {
         String x = String.format("c('%1$s-2%2$s', '%1$s-1%2$s', '%1$s0%2$s', '%1$s1%2$s', '%1$s10%2$s', '%1$s11%2$s')", preffix, suffix);
         String table = String.format("paste('%1$s', -1:10, '%2$s', sep='')", preffix, suffix);
@@ -472,4 +483,14 @@ public class TestBuiltin_match extends TestBase {
         table = String.format("paste('%1$s', seq(from=1, to=10, by=4), '%2$s', sep='')", preffix, suffix);
         assertEval("{ match(" + x + "," + table + ")}");
     }
+
+    @Test
+    public void testMatchSortedTable() {
+        assertEval("{ t <- sort(c(5, 1, 3, 3, 9, 0), method='shell'); match(c(3, 4, NA, NaN, -0, 9, 10), t) }");
+        assertEval("{ t <- sort(c(5L, 1L, 3L, 3L, 9L), decreasing=TRUE, method='shell'); match(c(3L, 4L, NA, 9L, 1L), t) }");
+        assertEval("{ t <- sort(c(5L, 1L, 3L), method='shell'); match(3L, t) }");
+        assertEval("{ t <- sort(c(5, 1, 3), decreasing=TRUE, method='shell'); c(match(1, t), match(2, t)) }");
+        assertEval("{ t <- sort(c(5L, 1L, 3L), method='shell'); t[[1]] <- 7L; match(c(7L, 1L), t) }");
+        assertEval("{ t <- sort(c(5L, 1L, 3L), method='shell'); match(c(3, 3.5, TRUE), t) }");
+    }
 }
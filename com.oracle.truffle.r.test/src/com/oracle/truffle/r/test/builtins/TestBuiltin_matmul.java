@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -53,4 +53,16 @@ public class TestBuiltin_matmul extends TestBase {
         assertEval("numeric() %*% matrix(0, nrow=1, ncol=0)");
         assertEval("numeric() %*% matrix(0, nrow=0, ncol=1)");
     }
+
+    @Test
+    public void testMatmulLarge() {
+        // larger than the block size, the result must equal the sums computed in the order of the
+        // inner dimension
+        String ref = "ref <- function(a, b) { r <- matrix(0, nrow(a), ncol(b)); for (k in seq_len(ncol(a))) r <- r + outer(a[, k], b[k, ]); r }; ";
+        assertEval("{ " + ref + "set.seed(1); a <- matrix(runif(300 * 130), 300); b <- matrix(runif(130 * 97), 130); identical(a %*% b, ref(a, b)) }");
+        assertEval("{ " + ref + "set.seed(2); a <- matrix(runif(70 * 200), 70); b <- matrix(runif(200 * 3), 200); identical(crossprod(t(a), b), ref(a, b)) }");
+        assertEval("{ " + ref + "set.seed(3); a <- matrix(runif(90 * 150), 90); identical(crossprod(a), ref(t(a), a)) }");
+        assertEval("{ " + ref + "set.seed(4); a <- matrix(runif(130 * 80), 130); b <- matrix(runif(110 * 80), 110); identical(tcrossprod(a, b), ref(a, t(b))) }");
+        assertEval("{ set.seed(5); a <- matrix(runif(100 * 100), 100); a[3, 7] <- NA; b <- matrix(runif(100 * 100), 100); b[5, 9] <- NaN; r <- a %*% b; c(sum(is.na(r)), sum(is.nan(r)), is.na(r[3, 1]), is.nan(r[1, 9])) }");
+    }
 }
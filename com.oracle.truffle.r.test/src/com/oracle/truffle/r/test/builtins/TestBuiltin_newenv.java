@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -37,4 +37,19 @@ public class TestBuiltin_newenv extends TestBase {
         assertEval(Output.ContainsReferences, "parent.env(new.env())");
         assertEval(Output.ContainsReferences, "e <- new.env(); e; parent.env(new.env(TRUE, e))");
     }
+
+    @Test
+    public void testLargeHashedEnv() {
+        String fill = "e <- new.env(hash=TRUE, size=2000L); for (i in 1:2000) assign(paste0('k', i), i, envir=e); ";
+        assertEval(fill + "length(ls(e)); e$k1; e[['k2000']]; get('k777', envir=e); exists('k2001', envir=e)");
+        assertEval(fill + "rm(list=paste0('k', 1:1000), envir=e); length(ls(e)); exists('k1000', envir=e); unlist(mget(c('k1001', 'k2000'), envir=e))");
+        assertEval(fill + "l <- as.list(e, sorted=TRUE); length(l); head(names(l)); ls(e, pattern='^k19[0-9]$')");
+        assertEval(fill + "e$k1 <- 'a'; evalq(k1 <- paste0(k1, k2), e); e$k1; local(k3 + k4, e)");
+        assertEval(fill + "f <- function() k5; environment(f) <- e; f(); assign('k5', 0, envir=e); f()");
+        assertEval(fill + "lockBinding('k1', e); tryCatch(assign('k1', 0, envir=e), error=function(err) 'locked'); lockEnvironment(e); tryCatch(assign('new', 0, envir=e), error=function(err) 'locked')");
+        // a default sized environment moves the bindings into the hash map once it grows
+        assertEval("e <- new.env(); for (i in 1:2000) assign(paste0('k', i), i, envir=e); length(ls(e)); e$k1; get('k777', envir=e); rm('k5', envir=e); exists('k5', envir=e)");
+        assertEval("e <- new.env(); f <- function(v) assign('k1', v, envir=e); for (i in 1:2000) { f(i); e[[paste0('k', i)]] <- i }; f(0); e$k1; length(ls(e)); evalq(k1 + k2000, e); f(5); e$k1");
+        assertEval("e <- new.env(hash=TRUE, size=10000L); for (i in 1:10) e[[paste0('k', i)]] <- i; sum(unlist(mget(ls(e), envir=e))); evalq(k1 + k10, e)");
+    }
 }
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -180,4 +180,12 @@ public class TestBuiltin_order extends TestBase {
         assertEval("order(NULL)");
         assertEval("order(c(NULL, c(1,2,0)))");
     }
+
+    @Test
+    public void testOrderLarge() {
+        // the multi-key order uses a different sort, ties must be resolved in the same way
+        assertEval("{ set.seed(7); x <- sample(c(-2.5, -0, 0, 1, Inf, -Inf, NaN, NA, runif(100)), 3e5, replace=TRUE); i <- seq_along(x); list(identical(order(x), order(x, i)), identical(order(x, decreasing=TRUE), order(x, -i, decreasing=TRUE)), identical(order(x, na.last=FALSE), order(x, i, na.last=FALSE)), identical(order(x, na.last=NA), order(x, i, na.last=NA))) }");
+        assertEval("{ set.seed(8); x <- sample(c(NA, -5:5, .Machine$integer.max), 3e5, replace=TRUE); i <- seq_along(x); list(identical(order(x), order(x, i)), identical(order(x, decreasing=TRUE), order(x, -i, decreasing=TRUE)), identical(order(x > 0), order(x > 0, i))) }");
+        assertEval("{ set.seed(9); x <- runif(1e5); identical(rank(x), as.numeric(order(order(x)))) }");
+    }
 }
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2014, Purdue University
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -64,4 +64,26 @@ public class TestBuiltin_radixsort extends TestBase {
         // at InternalNode$InternalCallWrapNode.prepareArgs(InternalNode.java:309)
         assertEval(Ignored.ImplementationError, "argv <- list(structure(integer(0), .Label = character(0), class = 'factor'), TRUE, FALSE); .Internal(radixsort(argv[[1]], argv[[2]], argv[[3]]))");
     }
+
+    @Test
+    public void testradixsortKeys() {
+        assertEval("{ x <- c(3L, NA, 1L, 2L, 1L, NA); list(order(x, method='radix'), order(x, method='radix', decreasing=TRUE), order(x, method='radix', na.last=FALSE), order(x, method='radix', na.last=NA)) }");
+        assertEval("{ x <- c(0.5, -0, NaN, -Inf, 0, NA, Inf, -2.5, 0.5); list(order(x, method='radix'), order(x, method='radix', decreasing=TRUE), order(x, method='radix', na.last=NA)) }");
+        assertEval("{ x <- c(TRUE, NA, FALSE, TRUE, FALSE); list(order(x, method='radix'), order(x, method='radix', decreasing=TRUE, na.last=FALSE)) }");
+        assertEval("{ x <- c('b', 'B', NA, 'a', 'ab', '', 'b'); list(order(x, method='radix'), order(x, method='radix', decreasing=TRUE), sort(x, method='radix')) }");
+        assertEval("{ x <- factor(c('lo', 'hi', 'mid', 'hi'), levels=c('lo', 'mid', 'hi')); order(x, method='radix') }");
+        assertEval("{ a <- c(2L, 1L, 2L, 1L, 2L); b <- c('x', 'y', 'y', 'x', 'x'); c <- c(1.5, 2, 0.5, 3, 1.5); list(order(a, b, c, method='radix'), order(a, b, c, method='radix', decreasing=c(TRUE, FALSE, TRUE))) }");
+        assertEval("{ df <- data.frame(g=c(2, 1, 2, 1, NA), h=c('a', 'b', 'a', 'a', 'b')); df[order(df$g, df$h, method='radix', na.last=NA), ] }");
+        assertEval("{ set.seed(42); x <- sample(c(1:1000, NA), 1e6, replace=TRUE); y <- runif(1e6); o <- order(x, -y, method='radix'); identical(o, order(x, -y)) }");
+        assertEval("order(1i, method='radix')");
+        assertEval("order(1:2, 1:3, method='radix')");
+    }
+
+    @Test
+    public void testradixsortGroups() {
+        assertEval("{ grouping(c(3L, 1L, 3L, NA, 1L, 2L)) }");
+        assertEval("{ grouping(c('b', 'a', 'b', NA), c(1, 2, 1, 1)) }");
+        assertEval("{ .Internal(radixsort(TRUE, c(FALSE, TRUE), TRUE, FALSE, c('b', 'a', 'b', 'c', 'a'), c(1L, 2L, 1L, 1L, 2L))) }");
+        assertEval("{ grouping(integer(0)) }");
+    }
 }
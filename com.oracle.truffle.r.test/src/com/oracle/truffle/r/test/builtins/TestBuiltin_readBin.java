@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -49,4 +49,23 @@ public class TestBuiltin_readBin extends TestBase {
 
         assertEval("readBin(as.raw(as.raw(c(1, 2, 3))), 'tralala', 5)");
     }
+
+    @Test
+    public void testReadBinRawVectorValues() {
+        assertEval("readBin(writeBin(c(1.5, NA, -3), raw()), 'double', 5)");
+        assertEval("readBin(writeBin(c(1.5, NA, -3), raw(), endian='big'), 'double', 2, endian='big')");
+        assertEval("readBin(writeBin(c(1L, NA, -3L), raw()), 'integer', 3)");
+        assertEval("readBin(as.raw(c(1, 255, 3)), 'integer', 3, size=1)");
+        assertEval("readBin(as.raw(c(1, 255, 3, 4)), 'integer', 2, size=2, signed=FALSE)");
+        assertEval("readBin(writeBin(c(TRUE, NA, FALSE), raw()), 'logical', 3)");
+        assertEval("readBin(writeBin(c(1+2i, NA), raw()), 'complex', 2)");
+    }
+
+    @Test
+    public void testReadBinLargeFile() {
+        assertEval("{ f <- tempfile(); x <- seq(0, 1, length.out=300001); writeBin(x, f); y <- readBin(f, 'double', 400000); unlink(f); c(length(y), identical(x, y)) }");
+        assertEval("{ f <- tempfile(); x <- c(1:200000, NA); writeBin(x, f, endian='swap'); y <- readBin(f, 'integer', 200001, endian='swap'); unlink(f); identical(x, y) }");
+        assertEval("{ f <- tempfile(); con <- file(f, 'wb'); writeBin(3L, con); writeBin(as.double(1:100000), con); close(con); con <- file(f, 'rb'); n <- readBin(con, 'integer'); y <- readBin(con, 'double', 100000); rest <- readBin(con, 'double', 1); close(con); unlink(f); c(n, sum(y), length(rest)) }");
+        assertEval("{ f <- tempfile(); x <- as.raw(rep(0:255, 1000)); writeBin(x, f); y <- readBin(f, raw(), 1e6); unlink(f); identical(x, y) }");
+    }
 }
@@ -139,4 +139,10 @@ public class TestBuiltin_regexpr extends TestBase {
         assertEval("regexpr(structure('.*: (?<message>X*)', class = 'regex'), list(), perl=T)");
         assertEval("regexpr(structure('^(?:ABC(?!_DEF))', class = 'regex'), list(), perl=T)");
     }
+
+    @Test
+    public void testRegexprRepeatedPattern() {
+        assertEval("{ x <- c('xABx', 'xabx'); list(regexpr('ab', x), regexpr('ab', x, ignore.case=TRUE), regexpr('ab', x, perl=TRUE), regexpr('ab', x, perl=TRUE, ignore.case=TRUE), regexpr('ab', x)) }");
+        assertEval("{ x <- c('a1b2', 'c3'); for (i in 1:3) print(gregexpr('[0-9]', x)); for (i in 1:3) print(regexec('([a-z])([0-9])', x)) }");
+    }
 }
@@ -85,6 +85,21 @@ public class TestBuiltin_scan extends TestBase {
                         "scan(con, nmax = 1, what = character(), quiet = TRUE))");
     }
 
+    @Test
+    public void testLargeInput() {
+        assertEval("{ x <- scan(textConnection(as.character(1:20000)), quiet=TRUE); c(length(x), sum(x), typeof(x)) }");
+        assertEval("{ x <- scan(textConnection(paste(1:20000, 0.5, sep=',')), what=list(0L, 0), sep=',', quiet=TRUE); c(length(x[[1]]), sum(x[[1]]), sum(x[[2]])) }");
+        assertEval("{ con <- textConnection(as.character(1:20000)); x <- scan(con, nmax=10000, quiet=TRUE); y <- scan(con, nmax=2, quiet=TRUE); close(con); c(length(x), y) }");
+        assertEval("{ df <- read.csv(text=paste(c('a,b,c', paste(1:10000, 'x', 1.25, sep=',')), collapse='\\n')); c(nrow(df), sum(df$a), sum(df$c)) }");
+    }
+
+    @Test
+    public void testFields() {
+        assertEval("{ con<-textConnection(c(\"1,2,\", \"3,,4\")); scan(con, what=list(0, 0, 0), sep=',') }");
+        assertEval("{ con<-textConnection(c(\"1,5;2\", \"3;4,25\")); scan(con, sep=';', dec=',') }");
+        assertEval("{ con<-textConnection(c(\"1 2 # comment\", \"# only a comment\", \"3\")); scan(con, comment.char='#') }");
+    }
+
     @Test
     public void testReadCsv() {
         String testData = "n1,n2\nv1,\"v5, v5\"\n";
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -160,4 +160,10 @@ public class TestBuiltin_strsplit extends TestBase {
 
         assertEval("strsplit('/some/path/to/somewhere' , '^(?=/)(?!//)|(?<!^)(?<!^/)/', perl = TRUE)");
     }
+
+    @Test
+    public void testStrsplitRepeatedPattern() {
+        assertEval("{ x <- c('a1b22c', 'd333e'); list(strsplit(x, '[0-9]+'), strsplit(x, '[0-9]+', perl=TRUE), strsplit(x, '[0-9]+'), strsplit(x, '[0-9]+', fixed=TRUE), strsplit(x, c('1', '3'), perl=TRUE)) }");
+        assertEval("{ for (i in 1:3) print(strsplit('a,b;c', '[,;]', perl=TRUE)) }");
+    }
 }
@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -208,4 +208,13 @@ public class TestBuiltin_unique extends TestBase {
         assertEval("unique(c(1+1i, NA, NA))");
 
     }
+
+    @Test
+    public void testUniqueSorted() {
+        assertEval("{ unique(sort(c(3, 1, 2, 3, 1, -0, 0), method='shell')) }");
+        assertEval("{ unique(sort(c(5L, 1L, 5L, 2L, 2L), decreasing=TRUE, method='shell')) }");
+        assertEval("{ unique(sort(c(5L, 1L, 5L, 2L, 2L), method='shell'), fromLast=TRUE) }");
+        assertEval("{ x <- sort(c(5L, 1L, 2L), method='shell'); x[[1]] <- 5L; unique(x) }");
+        assertEval("{ x <- unique(sort(c(4, 1, 1, 2), method='shell')); x[[1]] <- 7; is.unsorted(x) }");
+    }
 }
@@ -116,6 +116,18 @@ public class TestBuiltin_unserialize extends TestBase {
         assertEvalFastR(Ignored.Unimplemented, "s <- unserialize(serialize(1:2147483648, connection=NULL, version=3)); .fastr.inspect(s)", "cat('com.oracle.truffle.r.runtime.data.RIntSequence\n')");
     }
 
+    @Test
+    public void testunserializeLargeVectors() {
+        // larger than the read and write buffers
+        assertEval(template("x <- c(1:20000 * 1.5, NA, NaN, -Inf); y <- unserialize(serialize(x, NULL, version=%0)); identical(x, y); anyNA(y); y[20000:20003]", VERSIONS));
+        assertEval(template("x <- c(1:30000, NA); y <- unserialize(serialize(x, NULL, version=%0)); identical(x, y); anyNA(y); y[29999:30001]", VERSIONS));
+        assertEval(template("x <- rep(c(TRUE, FALSE, NA), 15000); y <- unserialize(serialize(x, NULL, version=%0)); identical(x, y); sum(is.na(y)); y[1:6]", VERSIONS));
+        assertEval("x <- 1:50000 / 7; con <- rawConnection(raw(0), 'wb'); serialize(x, con); r <- rawConnectionValue(con); close(con); identical(unserialize(r), x)");
+        // not backed by an array
+        assertEval(template("x <- seq(0.5, 10000, by=0.25); y <- unserialize(serialize(x, NULL, version=%0)); identical(x, y); y[39998:39999]", VERSIONS));
+        assertEval(template("x <- as.double(1:30000); z <- x * 2 - x / 4; y <- unserialize(serialize(z, NULL, version=%0)); identical(z, y); y[29999:30000]", VERSIONS));
+    }
+
     @Test
     public void testunserializeDeferredString() {
         assertEval("e <- unserialize(file('" + DEFERED_STRING_PATH + "', open='rb')); e$is; e$iv; e$rs; e$rv; e$isa; e$iva; e$rsa; e$rva");
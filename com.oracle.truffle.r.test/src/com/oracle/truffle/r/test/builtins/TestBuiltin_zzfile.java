@@ -40,4 +40,9 @@ public class TestBuiltin_zzfile extends TestBase {
                         "{ f <- tempfile(); c <- %0zfile(f); writeLines(as.character(1:50), c); close(c); c <- %0zfile(f, \"a\"); writeLines(as.character(51:70), c); close(c); readLines(f) }",
                         CTYPES));
     }
+
+    @Test
+    public void testMultiBlock() {
+        assertEval(TestBase.template("{ f <- tempfile(); x <- as.character(1:300000); save(x, file = f, compress = '%0'); rm(x); load(f); c(length(x), x[[299999]]) }", new String[]{"bzip2", "xz"}));
+    }
 }
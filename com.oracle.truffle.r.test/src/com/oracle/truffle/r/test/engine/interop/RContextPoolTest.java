@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.engine.interop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.r.launcher.RContextPool;
+import com.oracle.truffle.r.test.generate.FastRSession;
+
+public class RContextPoolTest {
+
+    @Test
+    public void testReset() throws InterruptedException {
+        try (RContextPool pool = new RContextPool(() -> FastRSession.getContextBuilder("R", "llvm"), 1, 1, 0, "stats")) {
+            Context context = pool.checkout();
+            String search = context.eval("R", "paste(search(), collapse = ' ')").asString();
+            context.eval("R", "x <- 1; .hidden <- 2; options(poolTestOption = 3); Sys.setenv(POOL_TEST_VAR = 'value'); attach(list(y = 4), name = 'poolTest'); RNGkind('Marsaglia-Multicarry'); set.seed(5)");
+            pool.checkin(context);
+
+            Context reused = pool.checkout();
+            assertSame(context, reused);
+            assertEquals(0, reused.eval("R", "length(ls(globalenv(), all.names = TRUE))").asInt());
+            assertTrue(reused.eval("R", "is.null(getOption('poolTestOption'))").asBoolean());
+            assertEquals("", reused.eval("R", "Sys.getenv('POOL_TEST_VAR')").asString());
+            assertEquals(search, reused.eval("R", "paste(search(), collapse = ' ')").asString());
+            assertTrue(reused.eval("R", "'package:stats' %in% search()").asBoolean());
+            assertFalse(reused.eval("R", "exists('.Random.seed', envir = globalenv())").asBoolean());
+            assertEquals("Mersenne-Twister", reused.eval("R", "RNGkind()[[1]]").asString());
+            pool.checkin(reused);
+
+            RContextPool.Metrics metrics = pool.getMetrics();
+            assertEquals(2, metrics.checkouts);
+            assertEquals(2, metrics.resets);
+            assertEquals(1, metrics.creations);
+            assertEquals(0, metrics.evictions);
+            assertEquals(1, metrics.idle);
+            assertEquals(0, metrics.checkedOut);
+        }
+    }
+
+    @Test
+    public void testEviction() throws InterruptedException {
+        try (RContextPool pool = new RContextPool(() -> FastRSession.getContextBuilder("R", "llvm"), 1, 0, 1)) {
+            Context context = pool.checkout();
+            context.eval("R", "x <- 1");
+            pool.checkin(context);
+
+            Context other = pool.checkout();
+            assertNotSame(context, other);
+            assertFalse(other.eval("R", "exists('x')").asBoolean());
+            pool.checkin(other);
+
+            RContextPool.Metrics metrics = pool.getMetrics();
+            assertEquals(2, metrics.creations);
+            assertEquals(2, metrics.evictions);
+            assertEquals(0, metrics.resets);
+        }
+    }
+
+    @Test
+    public void testWaiterAfterEviction() throws InterruptedException {
+        try (RContextPool pool = new RContextPool(() -> FastRSession.getContextBuilder("R", "llvm"), 1, 1, 1)) {
+            Context context = pool.checkout();
+            Context[] other = new Context[1];
+            Thread waiter = new Thread(() -> {
+                try {
+                    other[0] = pool.checkout(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // leaves other[0] null
+                }
+            });
+            waiter.start();
+            while (waiter.getState() != Thread.State.TIMED_WAITING) {
+                Thread.yield();
+            }
+            // the context is evicted, the waiter must create a new one
+            pool.checkin(context);
+            waiter.join();
+            assertNotNull(other[0]);
+            assertNotSame(context, other[0]);
+            pool.checkin(other[0]);
+        }
+    }
+}
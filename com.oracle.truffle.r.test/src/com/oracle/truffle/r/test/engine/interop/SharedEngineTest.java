@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.engine.interop;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.generate.FastRSession;
+
+public class SharedEngineTest {
+
+    @Test
+    public void testSharedSource() {
+        Source source = Source.create("R", "f <- function() x * 2; y <- c(1, 2); names(y) <- factor(c(x, x)); p <- new('SharedEngineTest', v = x); p@v <- f(); paste(f(), names(y)[[1]], p@v)");
+        try (Engine engine = Engine.create();
+                        Context first = FastRSession.getContextBuilder("R", "llvm").engine(engine).build();
+                        Context second = FastRSession.getContextBuilder("R", "llvm").engine(engine).build()) {
+            first.eval("R", "x <- 1; setClass('SharedEngineTest', representation(v = 'numeric'))");
+            second.eval("R", "x <- 2; setClass('SharedEngineTest', representation(v = 'numeric'))");
+            // the contexts share the parsed source, but each must see its own global environment
+            for (int i = 0; i < 3; i++) {
+                assertEquals("2 1 2", first.eval(source).asString());
+                assertEquals("4 2 4", second.eval(source).asString());
+            }
+        }
+    }
+}
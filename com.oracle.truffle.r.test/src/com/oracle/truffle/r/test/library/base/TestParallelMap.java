@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.base;
+
+import static com.oracle.truffle.r.runtime.context.FastROptions.MapParallelThreshold;
+import static com.oracle.truffle.r.runtime.context.FastROptions.MapThreads;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
+import com.oracle.truffle.r.test.TestBase;
+import com.oracle.truffle.r.test.generate.FastRContext;
+import com.oracle.truffle.r.test.generate.FastRSession;
+
+/**
+ * Checks that the results of arithmetic operations and mathematical functions on vectors that are
+ * processed by several threads are the same as when they are processed by one thread, whatever the
+ * number of available processors is.
+ */
+public class TestParallelMap extends TestBase {
+
+    private static final String[] EXPRESSIONS = {
+                    "{ x <- c(NA, seq(-1, 1, length.out=1e5)); y <- rev(x); r <- x * y + x / 3; paste(anyNA(r), sum(is.na(r)), sum(r, na.rm=TRUE)) }",
+                    "{ x <- seq(-1, 1, length.out=1e5); y <- x * 2; z <- y - x; paste(anyNA(z), sum(z)) }",
+                    "{ x <- seq(-1, 1, length.out=1e5 + 2); y <- c(1, NaN, 3) + x; paste(anyNA(y), sum(is.nan(y)), sum(y, na.rm=TRUE)) }",
+                    "{ x <- seq(0.5, 100, length.out=1e5); x[c(3, 7)] <- c(NA, NaN); paste(sum(sqrt(x), na.rm=TRUE), sum(is.na(exp(-x))), sum(log(x, 2), na.rm=TRUE)) }",
+                    "{ y <- seq(-1, 1, length.out=1e5); paste(sum(atan2(y, rev(y))), sum(is.nan(log(y, 10)))) }"
+    };
+
+    private static FastRContext context;
+
+    @BeforeClass
+    public static void setupClass() {
+        FastRSession session = FastRSession.create();
+        context = session.createContext(ContextKind.SHARE_NOTHING);
+    }
+
+    @AfterClass
+    public static void finishClass() {
+        context.close();
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        for (String expression : EXPRESSIONS) {
+            String sequential = evalWithThreads(1, expression);
+            assertEquals(expression, sequential, evalWithThreads(2, expression));
+            assertEquals(expression, sequential, evalWithThreads(5, expression));
+        }
+    }
+
+    private static String evalWithThreads(int threads, String expression) {
+        FastRSession.execInContext(context, () -> {
+            RContext ctx = RContext.getInstance();
+            ctx.setOption(MapThreads, threads);
+            ctx.setOption(MapParallelThreshold, 0);
+            return null;
+        });
+        return context.eval("R", expression).asString();
+    }
+}
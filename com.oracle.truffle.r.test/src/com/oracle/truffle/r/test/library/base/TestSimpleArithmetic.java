@@ -789,6 +789,26 @@ public class TestSimpleArithmetic extends TestBase {
         assertEval("{ xor(0:2, 2:7) }");
     }
 
+    @Test
+    public void testDeferredVectorArithmetic() {
+        assertEval("{ x <- as.double(1:200); y <- x * 2 + 1; x[1] <- 100; c(y[1:3], x[1]) }");
+        assertEval("{ x <- as.double(1:200); y <- (x - 1) / x * x; y[[5]] <- NA; sum(y, na.rm=TRUE) }");
+        assertEval("{ x <- as.double(1:200); x[c(2,4)] <- c(NA, NaN); y <- (x + 1) * 2; y[1:5] }");
+        assertEval("{ x <- as.double(1:200); y <- x / 2 - 1; dim(y) <- c(20, 10); y[3, 2] }");
+        assertEval("{ x <- as.double(1:200); f <- function(v) v * 3 + v; r <- f(x); x[] <- 0; sum(r) }");
+        assertEval("{ x <- as.double(1:200); y <- x; for (i in 1:40) y <- y * 1.5 - x; y[c(1, 200)] }");
+    }
+
+    @Test
+    public void testLargeVectorArithmetic() {
+        // long enough to be processed by several threads
+        assertEval("{ x <- c(NA, seq(-1, 1, length.out=2e6)); y <- rev(x); r <- x * y + x / 3; c(sum(is.na(r)), sum(r, na.rm=TRUE)) }");
+        assertEval("{ x <- seq(-1, 1, length.out=2e6); y <- 1:3 + x; c(length(y), y[c(1, 2e6)]) }");
+        assertEval("{ x <- seq(0.5, 100, length.out=2e6); x[c(3, 7)] <- c(NA, NaN); c(sum(sqrt(x), na.rm=TRUE), sum(is.na(exp(-x))), sum(log(x, 2), na.rm=TRUE)) }");
+        assertEval("{ x <- seq(-1, 1, length.out=2e6); r <- log(x, 10); sum(is.nan(r)) }");
+        assertEval("{ y <- seq(-1, 1, length.out=2e6); sum(atan2(y, rev(y))) }");
+    }
+
     @Test
     public void testArgSideEffect() {
         assertEval("{ a <- c(1, 2, 4); foo <- function() { a[[1]] <<- 42; 33; }; a + foo() }");
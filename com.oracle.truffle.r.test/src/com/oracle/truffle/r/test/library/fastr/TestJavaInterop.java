@@ -211,6 +211,15 @@ public class TestJavaInterop extends TestBase {
         assertEvalFastR("a <- .fastr.interop.asJavaArray(1L,,F); a;", getRValue(new int[]{1}));
     }
 
+    @Test
+    public void testToArrayRoundTrip() {
+        assertEvalFastR("x <- as.double(1:10000); a <- .fastr.interop.asJavaArray(x); identical(as.vector(a), x)", "TRUE");
+        assertEvalFastR("x <- c(1:10000, NA); a <- .fastr.interop.asJavaArray(x); identical(as.vector(a), x)", "TRUE");
+        assertEvalFastR("x <- as.raw(1:100); a <- .fastr.interop.asJavaArray(x); a$getClass()$getName();", "'[B'");
+        assertEvalFastR("x <- c(T, F, T); a <- .fastr.interop.asJavaArray(x); identical(as.vector(a), x)", "TRUE");
+        assertEvalFastR("a <- .fastr.interop.asJavaArray(c(1.5, 2.5)); v <- as.vector(a); v[1] <- 3; c(v, a[1])", "c(3, 2.5, 1.5)");
+    }
+
     @Test
     public void testArrayAsParameter() {
         assertEvalFastR(CREATE_TRUFFLE_OBJECT + "ja <- .fastr.interop.asJavaArray(c(1L, 2L, 3L), 'int'); to$isIntArray(ja)", "'" + (new int[1]).getClass().getName() + "'");
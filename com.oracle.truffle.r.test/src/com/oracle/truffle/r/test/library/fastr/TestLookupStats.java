@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestLookupStats extends TestBase {
+
+    private static final String WELL_FORMED = "wellFormed <- function(s) is.list(s) && all(vapply(s, function(x) identical(names(x), c('invalidatedLookups', 'causedLookupInvalidations', 'stableValueInvalidations')) && all(x >= 0), TRUE)); ";
+
+    private static final String STABLE_VALUE_INVALIDATIONS = "stableValueInvalidations <- function(s) sum(vapply(s, function(x) x[['stableValueInvalidations']], 0)); ";
+
+    @Test
+    public void testLookupStats() {
+        assertEvalFastR(WELL_FORMED + "wellFormed(.fastr.lookup.stats()); wellFormed(.fastr.lookup.stats(TRUE)); wellFormed(.fastr.lookup.stats(reset = FALSE))", "TRUE");
+        // redefining a function that was called through a stable binding invalidates its value
+        assertEvalFastR(STABLE_VALUE_INVALIDATIONS + "e <- new.env(); assign('g', function() 1, envir = e); f <- function() g(); environment(f) <- e; for (i in 1:10) f(); " +
+                        "invisible(.fastr.lookup.stats(TRUE)); assign('g', function() 2, envir = e); f(); stableValueInvalidations(.fastr.lookup.stats()) > 0", "TRUE");
+        // the counts are reported once after a reset
+        assertEvalFastR(STABLE_VALUE_INVALIDATIONS + "e <- new.env(); assign('g', function() 1, envir = e); f <- function() g(); environment(f) <- e; for (i in 1:10) f(); " +
+                        "assign('g', function() 2, envir = e); f(); invisible(.fastr.lookup.stats(TRUE)); stableValueInvalidations(.fastr.lookup.stats()) == 0", "TRUE");
+    }
+
+    @Test
+    public void testLookupStatsConcurrent() {
+        // the counters are updated by several contexts while they are read and reset
+        assertEvalFastR(WELL_FORMED + "cx <- .fastr.context.spawn(rep(\"e <- new.env(); f <- function() g(); environment(f) <- e; for (i in 1:500) { assign('g', function() i, envir = e); f() }\", 4L)); " +
+                        "ok <- TRUE; for (i in 1:20) ok <- ok && wellFormed(.fastr.lookup.stats(i %% 2 == 0)); .fastr.context.join(cx); ok && wellFormed(.fastr.lookup.stats(TRUE))", "TRUE");
+    }
+}
@@ -43,6 +43,15 @@ public class TestTypeConvert extends TestBase {
         assertEval("csv<-read.csv(stringsAsFactors=TRUE, text='col1,col2\\n,1\\n2,\\n,3\\n'); typeof(csv$col1); csv$col1; typeof(csv$col2); csv$col2; csv");
     }
 
+    @Test
+    public void testMixedElements() {
+        assertEval("type.convert(c('1', NA, '2.5', '3'))");
+        assertEval("type.convert(c('1', '99999999999', '3'))");
+        assertEval("type.convert(c('1', 'T'), as.is=TRUE)");
+        assertEval("type.convert(c('T', '1'), as.is=TRUE)");
+        assertEval("type.convert(c('', 'F', 'NA', 'TRUE'))");
+    }
+
     private static final String[] LIT_VALUES = new String[]{"0xFFF", "0xFFFFFFFFFFF", "123", "2147483648"};
 
     @Test
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -59,4 +59,14 @@ public class TestRRNG extends TestBase {
         assertEval(Ignored.ImplementationError, "{ set.seed(1); rm(list = ls(envir = .GlobalEnv, all.names = TRUE)); set.seed(2, sample.kind='Rejection'); sample(1:10, 3); .Random.seed }");
         // TODO test norm.kind as well
     }
+
+    @Test
+    public void testLEcuyerCMRG() {
+        assertEval("RNGkind(\"L'Ecuyer-CMRG\"); set.seed(42); .Random.seed");
+        assertEval("RNGkind(\"L'Ecuyer-CMRG\"); set.seed(42); runif(10)");
+        assertEval("RNGkind(\"L'Ecuyer-CMRG\"); set.seed(42); runif(5, 2, 3); runif(3, c(1, 2), 5); rnorm(3)");
+        assertEval("RNGkind(\"L'Ecuyer-CMRG\"); set.seed(1); s <- parallel::nextRNGStream(.Random.seed); s");
+        assertEval("RNGkind(\"L'Ecuyer-CMRG\"); set.seed(1); s <- parallel::nextRNGSubStream(.Random.seed); s");
+        assertEval("RNGkind(\"L'Ecuyer-CMRG\"); set.seed(1); .Random.seed <- parallel::nextRNGStream(.Random.seed); runif(3)");
+    }
 }
@@ -21,6 +21,7 @@
 # questions.
 #
 import glob
+import json
 import platform, subprocess, sys, shlex
 from os.path import join, sep
 from argparse import ArgumentParser
@@ -897,6 +898,71 @@ def build_binary_pkgs(args_in, **kwargs):
     mx.run(['ls', '-R', dest_dir])
     return 0
 
+def r_jmh(args):
+    '''
+    Runs the JMH benchmarks from com.oracle.truffle.r.benchmarks. The results are written as JSON and,
+    if a baseline (the JSON results of an earlier run) is given, compared to it. Any other arguments
+    are passed to JMH, e.g., a regular expression selecting the benchmarks or "-f 0" for a quick run.
+    '''
+    parser = ArgumentParser(prog='mx r-jmh')
+    parser.add_argument('--results', action='store', default='jmh-results.json', help='JSON file the results are written to')
+    parser.add_argument('--baseline', action='store', help='JSON results of an earlier run to compare with')
+    parser.add_argument('--threshold', action='store', type=float, default=10.0, help='slowdown in percent that is reported as a regression')
+    parser.add_argument('--fail-on-regression', action='store_true', help='exit with an error if there is a regression')
+    parser.add_argument('--J', dest='extraVmArgsList', action='append', help='extra Java VM arguments', metavar='@<args>')
+    ns, jmh_args = parser.parse_known_args(args)
+
+    setREnvironment()
+    jdk = get_default_jdk()
+    dists = ['FASTR', 'FASTR_BENCHMARKS']
+    if mx.suite("sulong", fatalIfMissing=False):
+        dists.append('SULONG')
+    vmArgs = mx.get_runtime_jvm_args(dists, jdk=jdk)
+    vmArgs += set_graal_options()
+    vmArgs += _sulong_options()
+    vmArgs += split_j_args(ns.extraVmArgsList)
+    vmArgs = _sanitize_vmArgs(jdk, vmArgs)
+    mx.run_java(vmArgs + ['org.openjdk.jmh.Main', '-rf', 'json', '-rff', ns.results] + jmh_args, jdk=jdk)
+
+    if ns.baseline:
+        regressions = _compare_jmh_results(ns.results, ns.baseline, ns.threshold)
+        if regressions and ns.fail_on_regression:
+            mx.abort('{} benchmark(s) slower than the baseline by more than {}%'.format(len(regressions), ns.threshold))
+
+def _compare_jmh_results(results_file, baseline_file, threshold):
+    '''
+    Prints the ratio of the scores in results_file and baseline_file for every benchmark
+    and returns the names of those that regressed by more than threshold percent.
+    '''
+    def load(path):
+        with open(path) as f:
+            entries = json.load(f)
+        scores = {}
+        for entry in entries:
+            params = entry.get('params', {})
+            key = entry['benchmark'] + ''.join(':{}={}'.format(k, params[k]) for k in sorted(params))
+            metric = entry['primaryMetric']
+            # all benchmark modes except throughput report time, i.e., lower is better
+            higher_is_better = entry['mode'] == 'thrpt'
+            scores[key] = (metric['score'], metric['scoreUnit'], higher_is_better)
+        return scores
+
+    results = load(results_file)
+    baseline = load(baseline_file)
+    regressions = []
+    for key in sorted(results):
+        score, unit, higher_is_better = results[key]
+        if key not in baseline:
+            print('{:<80} {:>12.3f} {:<8} (no baseline)'.format(key, score, unit))  # pylint: disable=superfluous-parens
+            continue
+        base_score = baseline[key][0]
+        slowdown = (base_score / score if higher_is_better else score / base_score) - 1 if base_score and score else 0
+        regressed = slowdown * 100 > threshold
+        if regressed:
+            regressions.append(key)
+        print('{:<80} {:>12.3f} {:<8} baseline {:>12.3f} {:+7.1f}%{}'.format(key, score, unit, base_score, slowdown * 100, ' REGRESSION' if regressed else ''))  # pylint: disable=superfluous-parens
+    return regressions
+
 def checkout_downstream_revision(args):
     mx.mx_downstream.checkout_downstream(args)
 
@@ -940,7 +1006,8 @@ _commands = {
     'rfficodegen' : [run_rfficodegen, '[]'],
     'gnur-packages-test': [gnur_packages_test, '[]'],
     'build-binary-pkgs': [build_binary_pkgs, '[]'],
-    'checkout-downstream-revision': [checkout_downstream_revision, '[]']
+    'checkout-downstream-revision': [checkout_downstream_revision, '[]'],
+    'r-jmh': [r_jmh, '[--results <file>] [--baseline <file>] [--threshold <percent>] [--fail-on-regression] [JMH options]'],
     }
 
 mx.update_commands(_fastr_suite, _commands)
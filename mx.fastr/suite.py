@@ -161,6 +161,22 @@ suite = {
       "spotbugsIgnoresGenerated" : True,
     },
 
+    "com.oracle.truffle.r.benchmarks" : {
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "sdk:GRAAL_SDK",
+        "mx:JMH_1_21",
+      ],
+      "annotationProcessors" : [
+        "mx:JMH_1_21",
+      ],
+      "checkstyle" : "com.oracle.truffle.r.runtime",
+      "javaCompliance" : "8+",
+      "workingSets" : "FastR,Test",
+      "spotbugsIgnoresGenerated" : True,
+      "testProject" : True,
+    },
+
     "com.oracle.truffle.r.test.native" : {
       "native" : True,
       "sourceDirs" : [],
@@ -472,6 +488,21 @@ suite = {
 
     },
 
+    "FASTR_BENCHMARKS" : {
+      "description" : "JMH benchmarks driven through the polyglot API, see mx r-jmh",
+      "dependencies" : [
+        "com.oracle.truffle.r.benchmarks",
+      ],
+      "exclude" : [
+        "mx:JMH_1_21",
+      ],
+      "distDependencies" : [
+        "sdk:GRAAL_SDK",
+      ],
+      "testDistribution" : True,
+      "maven" : False,
+    },
+
     "FASTR_UNIT_TESTS_NATIVE" : {
       "description" : "unit tests support (from test.native project)",
        "native" : True,